@@ -0,0 +1,214 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/** SQL inputs shared by the benchmarks.
+ *
+ * The corpus is the parser's golden test files, taken from the directory
+ * named by the <code>sqlparser.benchmark.corpus</code> system property,
+ * which defaults to where they are in the source tree relative to this
+ * module. Cases that need non-default features or that are expected to
+ * fail are skipped.
+ *
+ * The rest are generated and stress a single dimension.
+ */
+public final class BenchmarkInputs
+{
+    public static final String CORPUS_PROPERTY = "sqlparser.benchmark.corpus";
+    public static final String DEFAULT_CORPUS_DIR =
+        "../src/test/resources/com/akiban/sql/parser";
+
+    public static final String CORPUS = "corpus";
+    public static final String IN_LIST = "in-list";
+    public static final String OR_CHAIN = "or-chain";
+    public static final String VALUES = "values";
+    public static final String CREATE_TABLE = "create-table";
+    public static final String LONG_TOKENS = "long-tokens";
+    public static final String MANY_LINES = "many-lines";
+
+    public static final int IN_LIST_SIZE = 10000;
+    public static final int OR_CHAIN_SIZE = 500;
+    public static final int VALUES_ROWS = 5000;
+    public static final int CREATE_TABLE_COLUMNS = 200;
+    public static final int LARGE_STATEMENT_SIZE = 1 << 20;
+
+    private BenchmarkInputs() {
+    }
+
+    /** Get the statements for one of the named inputs above. */
+    public static List<String> statements(String name) throws IOException {
+        if (CORPUS.equals(name))
+            return corpus(new File(System.getProperty(CORPUS_PROPERTY,
+                                                      DEFAULT_CORPUS_DIR)));
+        else if (IN_LIST.equals(name))
+            return Collections.singletonList(inList(IN_LIST_SIZE));
+        else if (OR_CHAIN.equals(name))
+            return Collections.singletonList(orChain(OR_CHAIN_SIZE));
+        else if (VALUES.equals(name))
+            return Collections.singletonList(values(VALUES_ROWS));
+        else if (CREATE_TABLE.equals(name))
+            return Collections.singletonList(createTable(CREATE_TABLE_COLUMNS));
+        else if (LONG_TOKENS.equals(name))
+            return Collections.singletonList(longTokens(LARGE_STATEMENT_SIZE));
+        else if (MANY_LINES.equals(name))
+            return Collections.singletonList(manyLines(LARGE_STATEMENT_SIZE));
+        else
+            throw new IllegalArgumentException("Unknown input: " + name);
+    }
+
+    public static List<String> corpus(File dir) throws IOException {
+        File[] files = dir.listFiles(new FilenameFilter() {
+                public boolean accept(File dir, String name) {
+                    return name.endsWith(".sql");
+                }
+            });
+        if (files == null)
+            throw new IOException("Corpus directory not found: " + dir +
+                                  "; set -D" + CORPUS_PROPERTY);
+        Arrays.sort(files);
+        List<String> result = new ArrayList<String>(files.length);
+        for (File file : files) {
+            if (sibling(file, ".error").exists() ||
+                sibling(file, ".features").exists())
+                continue;
+            result.add(fileContents(file));
+        }
+        return result;
+    }
+
+    /** <code>SELECT ... WHERE x IN (0, 1, ...)</code> */
+    public static String inList(int size) {
+        StringBuilder str = new StringBuilder("SELECT a, b FROM t WHERE x IN (");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) str.append(", ");
+            str.append(i);
+        }
+        str.append(")");
+        return str.toString();
+    }
+
+    /** <code>SELECT ... WHERE (x = 0 AND y = 'v0') OR ...</code> */
+    public static String orChain(int size) {
+        StringBuilder str = new StringBuilder("SELECT a, b FROM t WHERE ");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) str.append(" OR ");
+            str.append("(x = ").append(i).append(" AND y = 'v").append(i).append("')");
+        }
+        return str.toString();
+    }
+
+    /** <code>INSERT INTO ... VALUES (...), (...), ...</code> */
+    public static String values(int rows) {
+        StringBuilder str = new StringBuilder("INSERT INTO t(a, b, c) VALUES");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) str.append(",");
+            str.append(" (").append(i).append(", 'name").append(i)
+               .append("', ").append(i).append(".5)");
+        }
+        return str.toString();
+    }
+
+    /** <code>CREATE TABLE</code> with many columns of assorted types. */
+    public static String createTable(int columns) {
+        String[] types = {
+            "INT NOT NULL", "VARCHAR(64)", "DECIMAL(10,2)", "TIMESTAMP",
+            "BIGINT DEFAULT 0", "CHAR(8) NOT NULL DEFAULT 'x'", "DOUBLE", "DATE"
+        };
+        StringBuilder str = new StringBuilder("CREATE TABLE t(");
+        for (int i = 0; i < columns; i++) {
+            if (i > 0) str.append(", ");
+            str.append("c").append(i).append(" ").append(types[i % types.length]);
+        }
+        str.append(", PRIMARY KEY(c0))");
+        return str.toString();
+    }
+
+    /** A single line <code>SELECT</code> of about <code>size</code>
+     * characters with long identifiers and string literals.
+     */
+    public static String longTokens(int size) {
+        StringBuilder str = new StringBuilder("SELECT ");
+        char[] filler = new char[100];
+        Arrays.fill(filler, 'x');
+        for (int i = 0; str.length() < size; i++) {
+            if (i > 0) str.append(", ");
+            str.append("column_").append(filler).append(i)
+               .append(" || '").append(filler).append("''").append(filler).append("'");
+        }
+        str.append(" FROM t");
+        return str.toString();
+    }
+
+    /** A <code>SELECT</code> of about <code>size</code> characters with
+     * a short tab-indented line and comment per item.
+     */
+    public static String manyLines(int size) {
+        StringBuilder str = new StringBuilder("SELECT 0");
+        for (int i = 1; str.length() < size; i++) {
+            str.append(",\t-- item ").append(i)
+               .append("\n\tc").append(i).append(" + ").append(i);
+        }
+        str.append("\r\nFROM t");
+        return str.toString();
+    }
+
+    /** Join statements into a single script. */
+    public static String script(List<String> statements) {
+        StringBuilder str = new StringBuilder();
+        for (String statement : statements) {
+            statement = statement.trim();
+            if (statement.endsWith(";"))
+                statement = statement.substring(0, statement.length() - 1);
+            str.append(statement).append(";\n");
+        }
+        return str.toString();
+    }
+
+    private static File sibling(File sqlFile, String suffix) {
+        return new File(sqlFile.getParentFile(),
+                        sqlFile.getName().replace(".sql", suffix));
+    }
+
+    private static String fileContents(File file) throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+        try {
+            StringBuilder str = new StringBuilder();
+            char[] buf = new char[1024];
+            while (true) {
+                int nc = reader.read(buf);
+                if (nc < 0) break;
+                str.append(buf, 0, nc);
+            }
+            return str.toString();
+        }
+        finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.benchmark;
+
+import com.akiban.sql.compiler.BooleanNormalizer;
+import com.akiban.sql.compiler.TypeComputer;
+import com.akiban.sql.parser.NodeFactory;
+import com.akiban.sql.parser.SQLParser;
+import com.akiban.sql.parser.StatementNode;
+import com.akiban.sql.unparser.NodeToString;
+
+import com.akiban.sql.StandardException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of each way of normalizing <code>NOT IN</code> across list
+ * sizes, for choosing {@link BooleanNormalizer#setNotInAndLimit}.
+ *
+ * The list is under an <code>OR</code>, so that it is not just pulled
+ * up into the top-level conditions. The downstream stage is type
+ * computation and unparsing of the result, which walk all of it.
+ *
+ * <code>EXPANDED</code> has no limit, so the list always becomes a
+ * chain of <code>&lt;&gt;</code> conditions. <code>NEGATED</code> is a
+ * limit of zero: the <code>IN</code> is just marked negated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotInBenchmark
+{
+    @Param({ "10", "100", "1000", "10000" })
+    public int size;
+
+    @Param({ "EXPANDED", "NEGATED" })
+    public String shape;
+
+    private SQLParser parser;
+    private NodeFactory nodeFactory;
+    private BooleanNormalizer booleanNormalizer;
+    private TypeComputer typeComputer;
+    private NodeToString unparser;
+    private StatementNode tree;
+
+    @Setup
+    public void setup() throws Exception {
+        parser = new SQLParser();
+        nodeFactory = parser.getNodeFactory();
+        booleanNormalizer = new BooleanNormalizer(parser);
+        if ("NEGATED".equals(shape))
+            booleanNormalizer.setNotInAndLimit(0);
+        else
+            booleanNormalizer.setNotInAndLimit(Integer.MAX_VALUE);
+        typeComputer = new TypeComputer();
+        unparser = new NodeToString();
+        StringBuilder str = new StringBuilder("SELECT a FROM t WHERE x NOT IN (");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) str.append(", ");
+            str.append(i);
+        }
+        str.append(") OR y = 1");
+        tree = parser.parseStatement(str.toString());
+    }
+
+    private StatementNode normalized() throws StandardException {
+        StatementNode copy = (StatementNode)nodeFactory.copyNode(tree, parser);
+        return booleanNormalizer.normalize(copy);
+    }
+
+    @Benchmark
+    public StatementNode normalize() throws StandardException {
+        return normalized();
+    }
+
+    @Benchmark
+    public String normalizeAndDownstream() throws StandardException {
+        StatementNode stmt = normalized();
+        typeComputer.compute(stmt);
+        return unparser.toString(stmt);
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.benchmark;
+
+import com.akiban.sql.parser.SQLParser;
+import com.akiban.sql.parser.StatementNode;
+import com.akiban.sql.unparser.NodeToString;
+import com.akiban.sql.unparser.QueryFingerprinter;
+
+import com.akiban.sql.StandardException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Throughput of fingerprinting already parsed statements, one operation
+ * being a pass over all the statements of the input, against unparsing
+ * them.
+ *
+ * Run with <code>-prof gc</code> to get allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryFingerprinterBenchmark
+{
+    @Param({
+        BenchmarkInputs.CORPUS, BenchmarkInputs.IN_LIST, BenchmarkInputs.OR_CHAIN,
+        BenchmarkInputs.VALUES
+    })
+    public String input;
+
+    private StatementNode[] trees;
+    private NodeToString unparser;
+    private QueryFingerprinter fingerprinter, textFingerprinter;
+
+    @Setup
+    public void setup() throws Exception {
+        SQLParser parser = new SQLParser();
+        unparser = new NodeToString();
+        fingerprinter = new QueryFingerprinter(parser);
+        textFingerprinter = new QueryFingerprinter(parser, true);
+        List<StatementNode> stmts = new ArrayList<StatementNode>();
+        for (String sql : BenchmarkInputs.statements(input)) {
+            try {
+                stmts.add(parser.parseStatement(sql));
+            }
+            catch (StandardException ex) {
+                continue;
+            }
+        }
+        if (stmts.isEmpty())
+            throw new IllegalStateException("No usable statements in " + input);
+        trees = stmts.toArray(new StatementNode[stmts.size()]);
+    }
+
+    @Benchmark
+    public void unparse(Blackhole bh) throws StandardException {
+        for (StatementNode stmt : trees) {
+            bh.consume(unparser.toString(stmt));
+        }
+    }
+
+    @Benchmark
+    public void fingerprint(Blackhole bh) throws StandardException {
+        for (StatementNode stmt : trees) {
+            bh.consume(fingerprinter.fingerprint(stmt));
+            bh.consume(fingerprinter.getHigh());
+        }
+    }
+
+    @Benchmark
+    public void fingerprintWithText(Blackhole bh) throws StandardException {
+        for (StatementNode stmt : trees) {
+            bh.consume(textFingerprinter.fingerprint(stmt));
+            bh.consume(textFingerprinter.getText());
+        }
+    }
+}
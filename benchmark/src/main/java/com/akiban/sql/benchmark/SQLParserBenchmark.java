@@ -0,0 +1,227 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.benchmark;
+
+import com.akiban.sql.compiler.BooleanNormalizer;
+import com.akiban.sql.compiler.TypeComputer;
+import com.akiban.sql.parser.AggregateNode;
+import com.akiban.sql.parser.CastNode;
+import com.akiban.sql.parser.ConditionalNode;
+import com.akiban.sql.parser.CurrentDatetimeOperatorNode;
+import com.akiban.sql.parser.FromSubquery;
+import com.akiban.sql.parser.GroupByList;
+import com.akiban.sql.parser.HasNodeVisitor;
+import com.akiban.sql.parser.JavaValueNode;
+import com.akiban.sql.parser.JoinNode;
+import com.akiban.sql.parser.NodeFactory;
+import com.akiban.sql.parser.OrderByList;
+import com.akiban.sql.parser.ParameterNode;
+import com.akiban.sql.parser.SQLBatchParser;
+import com.akiban.sql.parser.SQLClassifier;
+import com.akiban.sql.parser.SQLParser;
+import com.akiban.sql.parser.SQLParserConfig;
+import com.akiban.sql.parser.SQLParserPool;
+import com.akiban.sql.parser.StatementNode;
+import com.akiban.sql.parser.SubqueryNode;
+import com.akiban.sql.parser.WindowFunctionNode;
+import com.akiban.sql.unparser.NodeToString;
+
+import com.akiban.sql.StandardException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/** Throughput of each stage, one operation being a pass over all the
+ * statements of the input.
+ *
+ * The normalize and computeTypes stages change the tree, so they work on
+ * a fresh copy each time; subtract copyNode to get their own cost.
+ * Corpus statements that one of the stages rejects are left out of all
+ * of them, so that the stages can be compared.
+ *
+ * The hasNode stage is the sort of searches an analysis of each
+ * statement makes, a dozen of them.
+ *
+ * Run with <code>-prof gc</code> to get allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLParserBenchmark
+{
+    @Param({
+        BenchmarkInputs.CORPUS, BenchmarkInputs.IN_LIST, BenchmarkInputs.OR_CHAIN,
+        BenchmarkInputs.VALUES, BenchmarkInputs.CREATE_TABLE
+    })
+    public String input;
+
+    private SQLParser parser;
+    private SQLClassifier classifier;
+    private NodeFactory nodeFactory;
+    private BooleanNormalizer booleanNormalizer;
+    private TypeComputer typeComputer;
+    private NodeToString unparser;
+    private String[] statements;
+    private StatementNode[] trees;
+    private String script;
+    private ExecutorService executor;
+    private SQLBatchParser batchParser;
+
+    @Setup
+    public void setup() throws Exception {
+        parser = new SQLParser();
+        classifier = new SQLClassifier(parser);
+        nodeFactory = parser.getNodeFactory();
+        booleanNormalizer = new BooleanNormalizer(parser);
+        typeComputer = new TypeComputer();
+        unparser = new NodeToString();
+        List<String> sqls = new ArrayList<String>();
+        List<StatementNode> stmts = new ArrayList<StatementNode>();
+        for (String sql : BenchmarkInputs.statements(input)) {
+            StatementNode stmt;
+            try {
+                stmt = parser.parseStatement(sql);
+                booleanNormalizer.normalize(copy(stmt));
+                typeComputer.compute(copy(stmt));
+                unparser.toString(stmt);
+            }
+            catch (StandardException ex) {
+                continue;
+            }
+            sqls.add(sql);
+            stmts.add(stmt);
+        }
+        if (sqls.isEmpty())
+            throw new IllegalStateException("No usable statements in " + input);
+        statements = sqls.toArray(new String[sqls.size()]);
+        trees = stmts.toArray(new StatementNode[stmts.size()]);
+        script = BenchmarkInputs.script(sqls);
+        int nthreads = Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(nthreads);
+        batchParser = new SQLBatchParser(new SQLParserPool(new SQLParserConfig(parser)),
+                                         executor, nthreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private static final Class<?>[] SOUGHT_NODES = {
+        SubqueryNode.class, AggregateNode.class, ParameterNode.class,
+        WindowFunctionNode.class, JavaValueNode.class, CurrentDatetimeOperatorNode.class,
+        CastNode.class, FromSubquery.class, JoinNode.class,
+        OrderByList.class, GroupByList.class, ConditionalNode.class
+    };
+
+    private StatementNode copy(StatementNode stmt) throws StandardException {
+        return (StatementNode)nodeFactory.copyNode(stmt, parser);
+    }
+
+    @Benchmark
+    public void parseStatement(Blackhole bh) throws StandardException {
+        for (String sql : statements) {
+            bh.consume(parser.parseStatement(sql));
+        }
+    }
+
+    @Benchmark
+    public void validate() throws StandardException {
+        for (String sql : statements) {
+            parser.validate(sql);
+        }
+    }
+
+    @Benchmark
+    public void classify(Blackhole bh) throws StandardException {
+        for (String sql : statements) {
+            bh.consume(classifier.classify(sql));
+        }
+    }
+
+    @Benchmark
+    public List<StatementNode> parseStatements() throws StandardException {
+        return parser.parseStatements(script);
+    }
+
+    @Benchmark
+    public List<StatementNode> parseStatementsBatch() throws StandardException {
+        return batchParser.parseStatements(script);
+    }
+
+    @Benchmark
+    public void copyNode(Blackhole bh) throws StandardException {
+        for (StatementNode stmt : trees) {
+            bh.consume(copy(stmt));
+        }
+    }
+
+    @Benchmark
+    public void normalize(Blackhole bh) throws StandardException {
+        for (StatementNode stmt : trees) {
+            bh.consume(booleanNormalizer.normalize(copy(stmt)));
+        }
+    }
+
+    @Benchmark
+    public void computeTypes(Blackhole bh) throws StandardException {
+        for (StatementNode stmt : trees) {
+            StatementNode copy = copy(stmt);
+            typeComputer.compute(copy);
+            bh.consume(copy);
+        }
+    }
+
+    @Benchmark
+    public void unparse(Blackhole bh) throws StandardException {
+        for (StatementNode stmt : trees) {
+            bh.consume(unparser.toString(stmt));
+        }
+    }
+
+    @Benchmark
+    public void hasNode(Blackhole bh) throws StandardException {
+        for (StatementNode stmt : trees) {
+            for (Class<?> nodeClass : SOUGHT_NODES) {
+                HasNodeVisitor visitor = new HasNodeVisitor(nodeClass);
+                stmt.accept(visitor);
+                bh.consume(visitor.hasNode());
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.benchmark;
+
+import com.akiban.sql.compiler.TypeComputer;
+import com.akiban.sql.parser.NodeFactory;
+import com.akiban.sql.parser.SQLParser;
+import com.akiban.sql.parser.StatementNode;
+
+import com.akiban.sql.StandardException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of type computation for wide lists, which should grow linearly
+ * with their length.
+ *
+ * <code>COALESCE</code> is all integers; <code>COALESCE_MIXED</code>
+ * alternates integers and decimals of one type, so every integer gets a
+ * cast; and
+ * <code>IN_PARAMETERS</code> is a list of parameters, each of which
+ * takes the type of the left side.
+ *
+ * Type computation changes the tree, so each operation works on a fresh
+ * copy; subtract copyNode to get its own cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeComputerBenchmark
+{
+    @Param({ "10", "100", "1000", "10000", "20000" })
+    public int size;
+
+    @Param({ "COALESCE", "COALESCE_MIXED", "IN_PARAMETERS" })
+    public String list;
+
+    private SQLParser parser;
+    private NodeFactory nodeFactory;
+    private TypeComputer typeComputer;
+    private StatementNode tree;
+
+    @Setup
+    public void setup() throws Exception {
+        parser = new SQLParser();
+        nodeFactory = parser.getNodeFactory();
+        typeComputer = new TypeComputer();
+        StringBuilder str = new StringBuilder();
+        if ("IN_PARAMETERS".equals(list))
+            str.append("SELECT a FROM t WHERE 1 IN (");
+        else
+            str.append("SELECT COALESCE(NULL, ");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) str.append(", ");
+            if ("IN_PARAMETERS".equals(list))
+                str.append("?");
+            else if ("COALESCE_MIXED".equals(list) && ((i & 1) != 0))
+                str.append(i % 10).append(".5");
+            else
+                str.append(i);
+        }
+        if ("IN_PARAMETERS".equals(list))
+            str.append(")");
+        else
+            str.append(") FROM t");
+        tree = parser.parseStatement(str.toString());
+    }
+
+    private StatementNode copy() throws StandardException {
+        return (StatementNode)nodeFactory.copyNode(tree, parser);
+    }
+
+    @Benchmark
+    public StatementNode copyNode() throws StandardException {
+        return copy();
+    }
+
+    @Benchmark
+    public StatementNode computeTypes() throws StandardException {
+        StatementNode stmt = copy();
+        typeComputer.compute(stmt);
+        return stmt;
+    }
+}
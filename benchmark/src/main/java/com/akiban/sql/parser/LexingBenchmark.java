@@ -0,0 +1,97 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.benchmark.BenchmarkInputs;
+
+import com.akiban.sql.StandardException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Throughput of the lexer alone on single statements of about 1MB, one
+ * operation being a pass over all the tokens of the statement, both
+ * through the token manager as the parser uses it and through
+ * {@link SQLTokenizer}, and of parsing the same statement for comparison.
+ *
+ * This is in the parser's package to get at its token manager.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexingBenchmark
+{
+    @Param({
+        BenchmarkInputs.LONG_TOKENS, BenchmarkInputs.MANY_LINES
+    })
+    public String input;
+
+    private SQLParser parser;
+    private String statement;
+    private StringCharStream charStream;
+    private SQLGrammarTokenManager tokenManager;
+    private SQLTokenizer tokenizer;
+    private SQLTokenBuffer tokenBuffer;
+
+    @Setup
+    public void setup() throws Exception {
+        parser = new SQLParser();
+        statement = BenchmarkInputs.statements(input).get(0);
+        charStream = new StringCharStream(statement);
+        tokenManager = new SQLGrammarTokenManager(null, charStream);
+        SQLGrammar grammar = new SQLGrammar(tokenManager);
+        grammar.setParserContext(parser);
+        tokenManager.parser = grammar;
+        tokenizer = new SQLTokenizer(parser);
+        tokenBuffer = new SQLTokenBuffer();
+    }
+
+    @Benchmark
+    public int tokenize() {
+        charStream.ReInit(statement);
+        tokenManager.ReInit(charStream);
+        int ntokens = 0;
+        while (tokenManager.getNextToken().kind != SQLGrammarConstants.EOF)
+            ntokens++;
+        return ntokens;
+    }
+
+    @Benchmark
+    public int tokenizeIntoBuffer() throws StandardException {
+        return tokenizer.tokenize(statement, tokenBuffer);
+    }
+
+    @Benchmark
+    public StatementNode parseStatement() throws StandardException {
+        return parser.parseStatement(statement);
+    }
+}
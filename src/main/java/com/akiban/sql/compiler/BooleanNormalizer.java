@@ -46,6 +46,10 @@ import com.akiban.sql.StandardException;
 import com.akiban.sql.types.DataTypeDescriptor;
 import com.akiban.sql.types.TypeId;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
 /** Perform normalization such as CNF on boolean expressions. */
 public class BooleanNormalizer implements Visitor
 {
@@ -53,11 +57,59 @@ public class BooleanNormalizer implements Visitor
 
     SQLParserContext parserContext;
     NodeFactory nodeFactory;
+    int notInAndLimit = NOT_IN_AND_LIMIT;
+    int cnfTermLimit;
+    int expressionsDistributed, cnfTermsProduced, cnfTermLimitExceeded;
+
     public BooleanNormalizer(SQLParserContext parserContext) {
         this.parserContext = parserContext;
         this.nodeFactory = parserContext.getNodeFactory();
     }
 
+    public int getNotInAndLimit() {
+        return notInAndLimit;
+    }
+
+    /** Set the longest <code>NOT IN</code> list that is expanded into
+     * <code>&lt;&gt;</code> conditions; longer ones are just negated.
+     */
+    public void setNotInAndLimit(int notInAndLimit) {
+        this.notInAndLimit = notInAndLimit;
+    }
+
+    public int getCNFTermLimit() {
+        return cnfTermLimit;
+    }
+
+    /** Set the most terms that distributing ORs over ANDs may produce
+     * for one expression, with zero, the default, meaning not to
+     * distribute. Beyond the limit, the expression's ANDs and ORs are
+     * kept as they were.
+     * @see ConjunctiveNormalForm
+     */
+    public void setCNFTermLimit(int cnfTermLimit) {
+        this.cnfTermLimit = cnfTermLimit;
+    }
+
+    /** The number of expressions that were distributed. */
+    public int getExpressionsDistributed() {
+        return expressionsDistributed;
+    }
+
+    /** The number of terms in all the distributed expressions. */
+    public int getCNFTermsProduced() {
+        return cnfTermsProduced;
+    }
+
+    /** The number of expressions not distributed because of the limit. */
+    public int getCNFTermLimitExceeded() {
+        return cnfTermLimitExceeded;
+    }
+
+    public void resetStatistics() {
+        expressionsDistributed = cnfTermsProduced = cnfTermLimitExceeded = 0;
+    }
+
     /** Normalize conditions anywhere in this statement. */
     public StatementNode normalize(StatementNode stmt) throws StandardException {
         return (StatementNode)stmt.accept(this);
@@ -83,21 +135,101 @@ public class BooleanNormalizer implements Visitor
     public ValueNode normalizeExpression(ValueNode boolClause) throws StandardException {
         /* For each expression tree:
          *  o Eliminate NOTs (eliminateNots())
-         *  o Ensure that there is an AndNode on top of every
+         *  o If there is a term limit, distribute ORs over ANDs,
+         *      which does the rest (distributeToCNF())
+         *  o Otherwise ensure that there is an AndNode on top of every
          *      top level expression. (putAndsOnTop())
          *  o Finish the job (changeToCNF())
          */
         if (boolClause != null) {
             boolClause = eliminateNots(boolClause, false);
             assert verifyEliminateNots(boolClause);
-            boolClause = putAndsOnTop(boolClause);
-            assert verifyPutAndsOnTop(boolClause);
-            boolClause = changeToCNF(boolClause, true);
+            ValueNode distributed = null;
+            if (cnfTermLimit > 0)
+                distributed = distributeToCNF(boolClause);
+            if (distributed != null) {
+                boolClause = distributed;
+            }
+            else {
+                boolClause = putAndsOnTop(boolClause);
+                assert verifyPutAndsOnTop(boolClause);
+                boolClause = changeToCNF(boolClause, true);
+            }
             assert verifyChangeToCNF(boolClause, true);
         }
         return boolClause;
     }
 
+    /**
+     * Put an expression without NOTs above its comparisons into
+     * conjunctive normal form, distributing ORs over ANDs, and dropping
+     * repeated terms and clauses.
+     *
+     * @return the new expression in the same form as
+     * {@link #changeToCNF}, or <code>null</code> if that would have more
+     * than the term limit.
+     */
+    protected ValueNode distributeToCNF(ValueNode node) throws StandardException {
+        if ((node.getNodeType() != NodeTypes.AND_NODE) &&
+            (node.getNodeType() != NodeTypes.OR_NODE))
+            return null;        // Nothing to distribute or repeat.
+        ConjunctiveNormalForm cnf = new ConjunctiveNormalForm(cnfTermLimit);
+        List<BitSet> clauses = cnf.clauses(node);
+        if (clauses == null) {
+            cnfTermLimitExceeded++;
+            return null;
+        }
+        expressionsDistributed++;
+        cnfTermsProduced += ConjunctiveNormalForm.termCount(clauses);
+        // Built from the end, each term's first use being the original.
+        BitSet used = new BitSet();
+        ValueNode result = booleanConstant(Boolean.TRUE);
+        for (int i = clauses.size() - 1; i >= 0; i--) {
+            BitSet clause = clauses.get(i);
+            ValueNode disjunction = null;
+            if (clause.cardinality() > 1)
+                disjunction = booleanConstant(Boolean.FALSE);
+            int[] numbers = new int[clause.cardinality()];
+            for (int j = 0, n = clause.nextSetBit(0); n >= 0; n = clause.nextSetBit(n + 1))
+                numbers[j++] = n;
+            for (int k = numbers.length - 1; k >= 0; k--) {
+                int j = numbers[k];
+                ValueNode term = cnf.getTerm(j);
+                if (used.get(j))
+                    term = (ValueNode)nodeFactory.copyNode(term, parserContext);
+                else
+                    used.set(j);
+                if (disjunction == null)
+                    disjunction = term;
+                else
+                    disjunction = logicalOperator(NodeTypes.OR_NODE, term, disjunction);
+            }
+            result = logicalOperator(NodeTypes.AND_NODE, disjunction, result);
+        }
+        if (clauses.isEmpty())
+            result = putAndsOnTop(result);
+        return result;
+    }
+
+    protected BooleanConstantNode booleanConstant(Boolean value) throws StandardException {
+        return (BooleanConstantNode)nodeFactory.getNode(NodeTypes.BOOLEAN_CONSTANT_NODE,
+                                                        value,
+                                                        parserContext);
+    }
+
+    protected ValueNode logicalOperator(int nodeType, ValueNode left, ValueNode right)
+            throws StandardException {
+        ValueNode node = (ValueNode)nodeFactory.getNode(nodeType, left, right,
+                                                        parserContext);
+        DataTypeDescriptor leftType = left.getType();
+        DataTypeDescriptor rightType = right.getType();
+        if ((leftType != null) && (rightType != null))
+            node.setType(new DataTypeDescriptor(TypeId.BOOLEAN_ID,
+                                                leftType.isNullable() ||
+                                                rightType.isNullable()));
+        return node;
+    }
+
     /**
      * Eliminate NotNodes in the current query block.    We traverse the tree, 
      * inverting ANDs and ORs and eliminating NOTs as we go.    We stop at 
@@ -124,28 +256,7 @@ public class BooleanNormalizer implements Visitor
             }
         case NodeTypes.AND_NODE:
         case NodeTypes.OR_NODE:
-            {
-                BinaryLogicalOperatorNode bnode = (BinaryLogicalOperatorNode)node;
-                ValueNode leftOperand = bnode.getLeftOperand();
-                ValueNode rightOperand = bnode.getRightOperand();
-                leftOperand = eliminateNots(leftOperand, underNotNode);
-                rightOperand = eliminateNots(rightOperand, underNotNode);
-                if (underNotNode) {
-                    /* Convert AND to OR and vice versa. */
-                    BinaryLogicalOperatorNode cnode = (BinaryLogicalOperatorNode)
-                        nodeFactory.getNode((node.getNodeType() == NodeTypes.AND_NODE) ?
-                                            NodeTypes.OR_NODE : NodeTypes.AND_NODE,
-                                            leftOperand, rightOperand,
-                                            parserContext);
-                    cnode.setType(bnode.getType());
-                    return cnode;
-                }
-                else {
-                    bnode.setLeftOperand(leftOperand);
-                    bnode.setRightOperand(rightOperand);
-                }
-            }
-            break;
+            return eliminateNotsInLogical((BinaryLogicalOperatorNode)node, underNotNode);
         case NodeTypes.CONDITIONAL_NODE:
             {
                 ConditionalNode conditionalNode = (ConditionalNode)node;
@@ -401,6 +512,59 @@ public class BooleanNormalizer implements Visitor
         return node;
     }
 
+    /**
+     * Eliminate NotNodes below a tree of ANDs and ORs, which is taken as
+     * a whole, with an explicit stack, so that a long chain of them does
+     * not recurse.
+     */
+    protected ValueNode eliminateNotsInLogical(BinaryLogicalOperatorNode node,
+                                               boolean underNotNode)
+            throws StandardException {
+        // Pending nodes, with those marked having had their operands done.
+        List<ValueNode> pending = new ArrayList<ValueNode>();
+        BitSet operandsDone = new BitSet();
+        List<ValueNode> results = new ArrayList<ValueNode>();
+        pending.add(node);
+        while (!pending.isEmpty()) {
+            int index = pending.size() - 1;
+            ValueNode next = pending.remove(index);
+            if (operandsDone.get(index)) {
+                operandsDone.clear(index);
+                BinaryLogicalOperatorNode bnode = (BinaryLogicalOperatorNode)next;
+                int nresults = results.size();
+                ValueNode leftOperand = results.get(nresults - 2);
+                ValueNode rightOperand = results.remove(nresults - 1);
+                if (underNotNode) {
+                    /* Convert AND to OR and vice versa. */
+                    BinaryLogicalOperatorNode cnode = (BinaryLogicalOperatorNode)
+                        nodeFactory.getNode((bnode.getNodeType() == NodeTypes.AND_NODE) ?
+                                            NodeTypes.OR_NODE : NodeTypes.AND_NODE,
+                                            leftOperand, rightOperand,
+                                            parserContext);
+                    cnode.setType(bnode.getType());
+                    results.set(nresults - 2, cnode);
+                }
+                else {
+                    bnode.setLeftOperand(leftOperand);
+                    bnode.setRightOperand(rightOperand);
+                    results.set(nresults - 2, bnode);
+                }
+            }
+            else if ((next.getNodeType() == NodeTypes.AND_NODE) ||
+                     (next.getNodeType() == NodeTypes.OR_NODE)) {
+                BinaryLogicalOperatorNode bnode = (BinaryLogicalOperatorNode)next;
+                pending.add(bnode);
+                operandsDone.set(index);
+                pending.add(bnode.getRightOperand());
+                pending.add(bnode.getLeftOperand());
+            }
+            else {
+                results.add(eliminateNots(next, underNotNode));
+            }
+        }
+        return results.get(0);
+    }
+
     protected ValueNode getNotEqual(ValueNode left, ValueNode right) throws StandardException
     {
         if (left instanceof RowConstructorNode)
@@ -448,7 +612,7 @@ public class BooleanNormalizer implements Visitor
     protected ValueNode inWithNestedTuples(InListOperatorNode node) throws StandardException
     {
         RowConstructorNode rightList = node.getRightOperandList();
-        if (rightList.getNodeList().size() > NOT_IN_AND_LIMIT) {
+        if (rightList.getNodeList().size() > notInAndLimit) {
             node.setNegated(true);
             return node;
         }
@@ -516,15 +680,21 @@ public class BooleanNormalizer implements Visitor
      * @return Boolean which reflects validity of the tree.
      */
     protected boolean verifyEliminateNots(ValueNode node) {
-        switch (node.getNodeType()) {
-        case NodeTypes.NOT_NODE:
-            return false;
-        case NodeTypes.AND_NODE:
-        case NodeTypes.OR_NODE:
-            {
-                BinaryLogicalOperatorNode bnode = (BinaryLogicalOperatorNode)node;
-                return verifyEliminateNots(bnode.getLeftOperand()) &&
-                       verifyEliminateNots(bnode.getRightOperand());
+        List<ValueNode> pending = new ArrayList<ValueNode>();
+        pending.add(node);
+        while (!pending.isEmpty()) {
+            node = pending.remove(pending.size() - 1);
+            switch (node.getNodeType()) {
+            case NodeTypes.NOT_NODE:
+                return false;
+            case NodeTypes.AND_NODE:
+            case NodeTypes.OR_NODE:
+                {
+                    BinaryLogicalOperatorNode bnode = (BinaryLogicalOperatorNode)node;
+                    pending.add(bnode.getRightOperand());
+                    pending.add(bnode.getLeftOperand());
+                }
+                break;
             }
         }
         return true;
@@ -545,9 +715,12 @@ public class BooleanNormalizer implements Visitor
         switch (node.getNodeType()) {
         case NodeTypes.AND_NODE:
             {
+                // Down the chain of ANDs on the right, without recursing.
                 AndNode andNode = (AndNode)node;
+                while (andNode.getRightOperand() instanceof AndNode)
+                    andNode = (AndNode)andNode.getRightOperand();
                 andNode.setRightOperand(putAndsOnTop(andNode.getRightOperand()));
-                return andNode;
+                return (AndNode)node;
             }
         default:
             {
@@ -620,8 +793,8 @@ public class BooleanNormalizer implements Visitor
             throws StandardException {
         switch (node.getNodeType()) {
         case NodeTypes.AND_NODE:
-            {
-                AndNode andNode = (AndNode)node;
+            // Each AND along the chain on the right in turn, rather than recursively.
+            for (AndNode andNode = (AndNode)node; andNode != null; ) {
                 ValueNode leftOperand = andNode.getLeftOperand();
                 ValueNode rightOperand = andNode.getRightOperand();
 
@@ -681,10 +854,16 @@ public class BooleanNormalizer implements Visitor
                 
                 /* We then twiddle the tree to match the above diagram */
                 leftOperand = changeToCNF(leftOperand, underTopAndNode);
-                rightOperand = changeToCNF(rightOperand, underTopAndNode);
-                
                 andNode.setLeftOperand(leftOperand);
-                andNode.setRightOperand(rightOperand);
+                if (rightOperand instanceof AndNode) {
+                    andNode.setRightOperand(rightOperand);
+                    andNode = (AndNode)rightOperand;
+                }
+                else {
+                    rightOperand = changeToCNF(rightOperand, underTopAndNode);
+                    andNode.setRightOperand(rightOperand);
+                    andNode = null;
+                }
             }
             break;
         case NodeTypes.OR_NODE:
@@ -754,25 +933,36 @@ public class BooleanNormalizer implements Visitor
                  *  changeToCNF(right2).
                  */
 
-                while (leftOperand instanceof OrNode) {
-                    OrNode oldLeft = (OrNode)leftOperand;
-                    ValueNode oldRight = rightOperand;
-                    ValueNode newLeft = oldLeft.getLeftOperand();
-                    OrNode newRight = oldLeft;
+                /* Each OR along the chain on the right in turn, rather than
+                 * recursively. That chain is already terminated.
+                 */
+                while (true) {
+                    while (leftOperand instanceof OrNode) {
+                        OrNode oldLeft = (OrNode)leftOperand;
+                        ValueNode oldRight = rightOperand;
+                        ValueNode newLeft = oldLeft.getLeftOperand();
+                        OrNode newRight = oldLeft;
 
-                    /* We then twiddle the tree to match the above diagram */
-                    leftOperand = newLeft;
-                    rightOperand = newRight;
-                    newRight.setLeftOperand(oldLeft.getRightOperand());
-                    newRight.setRightOperand(oldRight);
-                }
+                        /* We then twiddle the tree to match the above diagram */
+                        leftOperand = newLeft;
+                        rightOperand = newRight;
+                        newRight.setLeftOperand(oldLeft.getRightOperand());
+                        newRight.setRightOperand(oldRight);
+                    }
 
-                /* Finally, we continue to normalize the left and right subtrees. */
-                leftOperand = changeToCNF(leftOperand, false);
-                rightOperand = changeToCNF(rightOperand, false);
-                
-                orNode.setLeftOperand(leftOperand);
-                orNode.setRightOperand(rightOperand);
+                    /* Finally, we continue to normalize the left and right subtrees. */
+                    leftOperand = changeToCNF(leftOperand, false);
+                    orNode.setLeftOperand(leftOperand);
+                    if (!(rightOperand instanceof OrNode)) {
+                        rightOperand = changeToCNF(rightOperand, false);
+                        orNode.setRightOperand(rightOperand);
+                        break;
+                    }
+                    orNode.setRightOperand(rightOperand);
+                    orNode = (OrNode)rightOperand;
+                    leftOperand = orNode.getLeftOperand();
+                    rightOperand = orNode.getRightOperand();
+                }
             }
             break;
 
@@ -795,41 +985,34 @@ public class BooleanNormalizer implements Visitor
      * @return Boolean which reflects validity of the tree.
      */
     protected boolean verifyChangeToCNF(ValueNode node, boolean top) {
-        if (node instanceof AndNode) {
-            AndNode andNode = (AndNode)node;
-            ValueNode leftOperand = andNode.getLeftOperand();
-            ValueNode rightOperand = andNode.getRightOperand();
-            boolean isValid = ((rightOperand instanceof AndNode) ||
-                               rightOperand.isBooleanTrue());
-            if (rightOperand instanceof AndNode) {
-                isValid = verifyChangeToCNF(rightOperand, false);
-            }
-            if (leftOperand instanceof AndNode) {
-                isValid = false;
-            }
-            else {
-                isValid = isValid && verifyChangeToCNF(leftOperand, false);
-            }
-            return isValid;
-        }
-        if (top) 
-            return false;
-        if (node instanceof OrNode) {
-            OrNode orNode = (OrNode)node;
-            ValueNode leftOperand = orNode.getLeftOperand();
-            ValueNode rightOperand = orNode.getRightOperand();
-            boolean isValid = ((rightOperand instanceof OrNode) ||
-                               rightOperand.isBooleanFalse());
-            if (rightOperand instanceof OrNode) {
-                isValid = verifyChangeToCNF(rightOperand, false);
+        List<ValueNode> pending = new ArrayList<ValueNode>();
+        pending.add(node);
+        while (!pending.isEmpty()) {
+            node = pending.remove(pending.size() - 1);
+            if (node instanceof AndNode) {
+                AndNode andNode = (AndNode)node;
+                ValueNode leftOperand = andNode.getLeftOperand();
+                ValueNode rightOperand = andNode.getRightOperand();
+                if (rightOperand instanceof AndNode)
+                    pending.add(rightOperand);
+                else if (!rightOperand.isBooleanTrue())
+                    return false;
+                if (leftOperand instanceof AndNode)
+                    return false;
+                pending.add(leftOperand);
             }
-            if (leftOperand instanceof OrNode) {
-                isValid = false;
+            else if (top) {
+                return false;
             }
-            else {
-                isValid = verifyChangeToCNF(leftOperand, false);
+            else if (node instanceof OrNode) {
+                // Like the original, only the left side is checked below
+                // an OrNode.
+                ValueNode leftOperand = ((OrNode)node).getLeftOperand();
+                if (leftOperand instanceof OrNode)
+                    return false;
+                pending.add(leftOperand);
             }
-            return isValid;
+            top = false;
         }
         return true;
     }
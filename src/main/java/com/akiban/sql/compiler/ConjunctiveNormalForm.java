@@ -0,0 +1,166 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.compiler;
+
+import com.akiban.sql.parser.*;
+
+import com.akiban.sql.StandardException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Conjunctive normal form of a tree of ANDs and ORs, worked out on flat
+ * lists rather than on the tree. Each distinct term below the ANDs and
+ * ORs gets a number, with equivalent terms getting the same one, and
+ * each clause is the set of the numbers of its terms. A repeated term
+ * or clause therefore only appears once.
+ *
+ * Distributing an OR over ANDs multiplies the clauses, so the number
+ * of terms that any one OR produces is limited, and nothing is returned
+ * beyond that. ANDs only gather clauses together, which costs nothing
+ * more than the terms themselves, so they are not limited.
+ */
+class ConjunctiveNormalForm
+{
+    private final int termLimit;
+    private final ValueNodeMap<Integer> termNumbers = new ValueNodeMap<Integer>();
+    private final List<ValueNode> terms = new ArrayList<ValueNode>();
+    private final BitSet falseTerms = new BitSet();
+
+    public ConjunctiveNormalForm(int termLimit) {
+        this.termLimit = termLimit;
+    }
+
+    /** The term with the given number. */
+    public ValueNode getTerm(int number) {
+        return terms.get(number);
+    }
+
+    /**
+     * Get the clauses of <code>node</code>, none meaning
+     * <code>TRUE</code>, or <code>null</code> if there would be more
+     * terms than the limit.
+     */
+    public List<BitSet> clauses(ValueNode node) throws StandardException {
+        // Like eliminateNotsInLogical, without recursing.
+        List<ValueNode> pending = new ArrayList<ValueNode>();
+        BitSet operandsDone = new BitSet();
+        List<Clauses> results = new ArrayList<Clauses>();
+        pending.add(node);
+        while (!pending.isEmpty()) {
+            int index = pending.size() - 1;
+            ValueNode next = pending.remove(index);
+            if (operandsDone.get(index)) {
+                operandsDone.clear(index);
+                int nresults = results.size();
+                Clauses left = results.get(nresults - 2);
+                Clauses right = results.remove(nresults - 1);
+                Clauses combined;
+                if (next.getNodeType() == NodeTypes.AND_NODE)
+                    combined = and(left, right);
+                else
+                    combined = or(left, right);
+                if (combined == null)
+                    return null;
+                results.set(nresults - 2, combined);
+            }
+            else if ((next.getNodeType() == NodeTypes.AND_NODE) ||
+                     (next.getNodeType() == NodeTypes.OR_NODE)) {
+                BinaryLogicalOperatorNode bnode = (BinaryLogicalOperatorNode)next;
+                pending.add(bnode);
+                operandsDone.set(index);
+                pending.add(bnode.getRightOperand());
+                pending.add(bnode.getLeftOperand());
+            }
+            else {
+                Clauses clauses = new Clauses();
+                if (!next.isBooleanTrue()) {
+                    BitSet clause = new BitSet();
+                    clause.set(termNumber(next));
+                    clauses.add(clause);
+                }
+                results.add(clauses);
+            }
+        }
+        return new ArrayList<BitSet>(results.get(0).clauses);
+    }
+
+    /** The number of terms in all of <code>clauses</code>. */
+    public static int termCount(Iterable<BitSet> clauses) {
+        int count = 0;
+        for (BitSet clause : clauses)
+            count += clause.cardinality();
+        return count;
+    }
+
+    protected int termNumber(ValueNode term) throws StandardException {
+        Integer number = termNumbers.get(term);
+        if (number == null) {
+            number = terms.size();
+            terms.add(term);
+            termNumbers.put(term, number);
+            if (term.isBooleanFalse())
+                falseTerms.set(number);
+        }
+        return number;
+    }
+
+    protected Clauses and(Clauses left, Clauses right) {
+        for (BitSet clause : right.clauses)
+            left.add(clause);
+        return left;
+    }
+
+    protected Clauses or(Clauses left, Clauses right) {
+        if (left.clauses.isEmpty() || right.clauses.isEmpty())
+            // Either side TRUE.
+            return new Clauses();
+        // Bound before making anything.
+        long bound = (long)left.terms * right.clauses.size() +
+                     (long)right.terms * left.clauses.size();
+        if (bound > termLimit)
+            return null;
+        Clauses result = new Clauses();
+        for (BitSet leftClause : left.clauses) {
+            for (BitSet rightClause : right.clauses) {
+                BitSet clause = (BitSet)leftClause.clone();
+                clause.or(rightClause);
+                if ((clause.cardinality() > 1) && clause.intersects(falseTerms))
+                    // x OR FALSE is just x.
+                    clause.andNot(falseTerms);
+                result.add(clause);
+            }
+        }
+        return result;
+    }
+
+    /** Distinct clauses, in order, with the number of terms in them all. */
+    static class Clauses {
+        final Set<BitSet> clauses = new LinkedHashSet<BitSet>();
+        int terms;
+
+        void add(BitSet clause) {
+            if (clauses.add(clause))
+                terms += clause.cardinality();
+        }
+    }
+}
@@ -0,0 +1,696 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.compiler;
+
+import com.akiban.sql.parser.*;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.types.DataTypeDescriptor;
+import com.akiban.sql.types.TypeId;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/** Evaluate constant expressions and simplify conditions.
+ *
+ * Arithmetic, comparisons, casts, <code>CASE</code> and
+ * <code>COALESCE</code> whose operands are constants are replaced by
+ * their value. Only exact numbers are computed, and only when the
+ * result fits the type that {@link TypeComputer}, which should have been
+ * run first, gave the expression; otherwise it is left for execution.
+ * Strings are only compared for being the same, since collation and
+ * padding are not known here.
+ *
+ * <code>AND</code> and <code>OR</code> with constant operands are
+ * simplified. The <code>TRUE</code> and <code>FALSE</code> that
+ * {@link BooleanNormalizer} puts on the right to end a chain are kept.
+ *
+ * In a whole <code>WHERE</code>, <code>HAVING</code>, <code>ON</code> or
+ * <code>WHEN</code> condition, where unknown is the same as false,
+ * comparisons of a column with numbers are merged down to the
+ * strictest, and to <code>FALSE</code> if they cannot all be true. A
+ * <code>WHERE</code> or <code>HAVING</code> that is always true is
+ * removed.
+ */
+public class ConstantFolder implements Visitor
+{
+    SQLParserContext parserContext;
+    NodeFactory nodeFactory;
+    int simplifications;
+
+    public ConstantFolder(SQLParserContext parserContext) {
+        this.parserContext = parserContext;
+        this.nodeFactory = parserContext.getNodeFactory();
+    }
+
+    /** The number of expressions replaced by something simpler. */
+    public int getSimplifications() {
+        return simplifications;
+    }
+
+    public void resetStatistics() {
+        simplifications = 0;
+    }
+
+    /** Fold constants anywhere in this statement. */
+    public StatementNode fold(StatementNode stmt) throws StandardException {
+        return (StatementNode)stmt.accept(this);
+    }
+
+    /** Fold constants in a single expression. */
+    public ValueNode foldExpression(ValueNode expr) throws StandardException {
+        return (ValueNode)expr.accept(this);
+    }
+
+    protected ValueNode valueNode(ValueNode node) throws StandardException {
+        ValueNode result;
+        switch (node.getNodeType()) {
+        case NodeTypes.BINARY_PLUS_OPERATOR_NODE:
+        case NodeTypes.BINARY_MINUS_OPERATOR_NODE:
+        case NodeTypes.BINARY_TIMES_OPERATOR_NODE:
+        case NodeTypes.BINARY_DIVIDE_OPERATOR_NODE:
+        case NodeTypes.BINARY_DIV_OPERATOR_NODE:
+            result = binaryArithmeticOperatorNode((BinaryArithmeticOperatorNode)node);
+            break;
+        case NodeTypes.BINARY_EQUALS_OPERATOR_NODE:
+        case NodeTypes.BINARY_NOT_EQUALS_OPERATOR_NODE:
+        case NodeTypes.BINARY_GREATER_THAN_OPERATOR_NODE:
+        case NodeTypes.BINARY_GREATER_EQUALS_OPERATOR_NODE:
+        case NodeTypes.BINARY_LESS_THAN_OPERATOR_NODE:
+        case NodeTypes.BINARY_LESS_EQUALS_OPERATOR_NODE:
+            result = binaryComparisonOperatorNode((BinaryComparisonOperatorNode)node);
+            break;
+        case NodeTypes.CAST_NODE:
+            result = castNode((CastNode)node);
+            break;
+        case NodeTypes.CONDITIONAL_NODE:
+            result = conditionalNode((ConditionalNode)node);
+            break;
+        case NodeTypes.COALESCE_FUNCTION_NODE:
+            result = coalesceFunctionNode((CoalesceFunctionNode)node);
+            break;
+        case NodeTypes.AND_NODE:
+            result = andNode((AndNode)node);
+            break;
+        case NodeTypes.OR_NODE:
+            result = orNode((OrNode)node);
+            break;
+        case NodeTypes.NOT_NODE:
+            result = notNode((NotNode)node);
+            break;
+        default:
+            result = node;
+            break;
+        }
+        if (result != node)
+            simplifications++;
+        return result;
+    }
+
+    protected ValueNode binaryArithmeticOperatorNode(BinaryArithmeticOperatorNode node)
+            throws StandardException {
+        DataTypeDescriptor type = node.getType();
+        if (type == null)
+            return node;
+        ValueNode leftOperand = node.getLeftOperand();
+        ValueNode rightOperand = node.getRightOperand();
+        BigDecimal left = exactValue(leftOperand);
+        BigDecimal right = exactValue(rightOperand);
+        if ((left != null) && (right != null)) {
+            BigDecimal value;
+            switch (node.getNodeType()) {
+            case NodeTypes.BINARY_PLUS_OPERATOR_NODE:
+                value = left.add(right);
+                break;
+            case NodeTypes.BINARY_MINUS_OPERATOR_NODE:
+                value = left.subtract(right);
+                break;
+            case NodeTypes.BINARY_TIMES_OPERATOR_NODE:
+                value = left.multiply(right);
+                break;
+            default:
+                // Only integer division, which truncates; a decimal
+                // quotient's scale is up to the implementation.
+                if ((right.signum() == 0) ||
+                    !type.getTypeId().isIntegerTypeId())
+                    return node;
+                value = left.divide(right, 0, RoundingMode.DOWN);
+                break;
+            }
+            ValueNode result = numericConstant(value, type);
+            return (result != null) ? result : node;
+        }
+        // Identities, so long as the other operand already has the result type.
+        switch (node.getNodeType()) {
+        case NodeTypes.BINARY_PLUS_OPERATOR_NODE:
+            if (isValue(right, 0) && type.equals(leftOperand.getType()))
+                return leftOperand;
+            if (isValue(left, 0) && type.equals(rightOperand.getType()))
+                return rightOperand;
+            break;
+        case NodeTypes.BINARY_MINUS_OPERATOR_NODE:
+            if (isValue(right, 0) && type.equals(leftOperand.getType()))
+                return leftOperand;
+            break;
+        case NodeTypes.BINARY_TIMES_OPERATOR_NODE:
+            if (isValue(right, 1) && type.equals(leftOperand.getType()))
+                return leftOperand;
+            if (isValue(left, 1) && type.equals(rightOperand.getType()))
+                return rightOperand;
+            break;
+        case NodeTypes.BINARY_DIVIDE_OPERATOR_NODE:
+        case NodeTypes.BINARY_DIV_OPERATOR_NODE:
+            if (isValue(right, 1) && type.equals(leftOperand.getType()))
+                return leftOperand;
+            break;
+        }
+        return node;
+    }
+
+    protected ValueNode binaryComparisonOperatorNode(BinaryComparisonOperatorNode node)
+            throws StandardException {
+        ValueNode leftOperand = node.getLeftOperand();
+        ValueNode rightOperand = node.getRightOperand();
+        int cmp;
+        BigDecimal left = exactValue(leftOperand);
+        BigDecimal right = exactValue(rightOperand);
+        if ((left != null) && (right != null)) {
+            cmp = left.compareTo(right);
+        }
+        else if ((leftOperand instanceof CharConstantNode) &&
+                 (rightOperand instanceof CharConstantNode)) {
+            Object lvalue = ((CharConstantNode)leftOperand).getValue();
+            Object rvalue = ((CharConstantNode)rightOperand).getValue();
+            // Anything but the very same string depends on collation.
+            if ((lvalue == null) || !lvalue.equals(rvalue))
+                return node;
+            cmp = 0;
+        }
+        else
+            return node;
+        boolean value;
+        switch (node.getNodeType()) {
+        case NodeTypes.BINARY_EQUALS_OPERATOR_NODE:
+            value = (cmp == 0);
+            break;
+        case NodeTypes.BINARY_NOT_EQUALS_OPERATOR_NODE:
+            value = (cmp != 0);
+            break;
+        case NodeTypes.BINARY_GREATER_THAN_OPERATOR_NODE:
+            value = (cmp > 0);
+            break;
+        case NodeTypes.BINARY_GREATER_EQUALS_OPERATOR_NODE:
+            value = (cmp >= 0);
+            break;
+        case NodeTypes.BINARY_LESS_THAN_OPERATOR_NODE:
+            value = (cmp < 0);
+            break;
+        case NodeTypes.BINARY_LESS_EQUALS_OPERATOR_NODE:
+            value = (cmp <= 0);
+            break;
+        default:
+            return node;
+        }
+        return booleanConstant(value);
+    }
+
+    protected ValueNode castNode(CastNode node) throws StandardException {
+        DataTypeDescriptor type = node.getType();
+        if (type == null)
+            return node;
+        TypeId typeId = type.getTypeId();
+        ValueNode operand = node.getCastOperand();
+        BigDecimal number = exactValue(operand);
+        String string = null;
+        if (operand instanceof CharConstantNode)
+            string = (String)((CharConstantNode)operand).getValue();
+        if ((number == null) && (string == null))
+            return node;
+        ValueNode result = null;
+        if (typeId.isNumericTypeId()) {
+            if (number == null) {
+                try {
+                    number = new BigDecimal(string.trim());
+                }
+                catch (NumberFormatException ex) {
+                    return node;
+                }
+            }
+            result = numericConstant(number, type);
+        }
+        else if (typeId.isStringTypeId() && !typeId.isLongConcatableTypeId()) {
+            if (string == null) {
+                Object value = ((ConstantNode)operand).getValue();
+                if (value instanceof BigDecimal)
+                    string = ((BigDecimal)value).toPlainString();
+                else
+                    string = value.toString();
+            }
+            int length = string.length();
+            int width = type.getMaximumWidth();
+            // Longer is truncated; shorter than fixed length padded.
+            if ((length == width) ||
+                ((length < width) && !typeId.isFixedStringTypeId())) {
+                result = (ValueNode)nodeFactory.getNode(NodeTypes.CHAR_CONSTANT_NODE,
+                                                        string,
+                                                        parserContext);
+                result.setType(type);
+            }
+        }
+        return (result != null) ? result : node;
+    }
+
+    protected ValueNode conditionalNode(ConditionalNode node) throws StandardException {
+        ValueNode test = mergeRanges(node.getTestCondition());
+        node.setTestCondition(test);
+        if (test.isBooleanTrue())
+            return node.getThenNode();
+        if (test.isBooleanFalse())
+            return node.getElseNode();
+        return node;
+    }
+
+    protected ValueNode coalesceFunctionNode(CoalesceFunctionNode node)
+            throws StandardException {
+        ValueNodeList args = node.getArgumentsList();
+        List<ValueNode> remaining = new ArrayList<ValueNode>(args.size());
+        flattenCoalesce(args, remaining);
+        if (remaining.isEmpty())
+            // All NULL: so is the result.
+            return args.get(0);
+        if (remaining.size() == 1)
+            return remaining.get(0);
+        boolean changed = (remaining.size() != args.size());
+        for (int i = 0; !changed && (i < remaining.size()); i++) {
+            changed = (remaining.get(i) != args.get(i));
+        }
+        if (changed) {
+            args.clear();
+            for (ValueNode arg : remaining) {
+                args.add(arg);
+            }
+        }
+        return node;
+    }
+
+    /** Collect the arguments that might be the result, splicing in those
+     * of a nested <code>COALESCE</code>, up to the first one that is
+     * never null. Return whether there was such a one.
+     */
+    protected boolean flattenCoalesce(ValueNodeList args, List<ValueNode> into) {
+        for (ValueNode arg : args) {
+            if (isNullConstant(arg))
+                continue;
+            if (arg instanceof CoalesceFunctionNode) {
+                if (flattenCoalesce(((CoalesceFunctionNode)arg).getArgumentsList(), into))
+                    return true;
+                continue;
+            }
+            into.add(arg);
+            if (arg instanceof ConstantNode)
+                return true;
+        }
+        return false;
+    }
+
+    protected ValueNode andNode(AndNode node) throws StandardException {
+        ValueNode leftOperand = node.getLeftOperand();
+        ValueNode rightOperand = node.getRightOperand();
+        if (leftOperand.isBooleanFalse() || rightOperand.isBooleanFalse())
+            return booleanConstant(false);
+        if (leftOperand.isBooleanTrue())
+            return rightOperand;
+        return node;
+    }
+
+    protected ValueNode orNode(OrNode node) throws StandardException {
+        ValueNode leftOperand = node.getLeftOperand();
+        ValueNode rightOperand = node.getRightOperand();
+        if (leftOperand.isBooleanTrue() || rightOperand.isBooleanTrue())
+            return booleanConstant(true);
+        if (leftOperand.isBooleanFalse())
+            return rightOperand;
+        return node;
+    }
+
+    protected ValueNode notNode(NotNode node) throws StandardException {
+        ValueNode operand = node.getOperand();
+        if (operand.isBooleanTrue())
+            return booleanConstant(false);
+        if (operand.isBooleanFalse())
+            return booleanConstant(true);
+        return node;
+    }
+
+    protected void selectNode(SelectNode node) throws StandardException {
+        ValueNode whereClause = node.getWhereClause();
+        if (whereClause != null) {
+            whereClause = mergeRanges(whereClause);
+            node.setWhereClause(whereClause.isBooleanTrue() ? null : whereClause);
+        }
+        ValueNode havingClause = node.getHavingClause();
+        if (havingClause != null) {
+            havingClause = mergeRanges(havingClause);
+            node.setHavingClause(havingClause.isBooleanTrue() ? null : havingClause);
+        }
+    }
+
+    protected void joinNode(JoinNode node) throws StandardException {
+        ValueNode joinClause = node.getJoinClause();
+        if (joinClause != null)
+            node.setJoinClause(mergeRanges(joinClause));
+    }
+
+    /** The bounds on one column from the conditions so far. */
+    static class Range {
+        BigDecimal lower, upper, equal;
+        boolean lowerInclusive, upperInclusive;
+        ValueNode lowerNode, upperNode, equalNode;
+    }
+
+    /** Merge comparisons of the same column with numbers among the
+     * <code>AND</code>ed conditions of a whole condition.
+     */
+    protected ValueNode mergeRanges(ValueNode condition) throws StandardException {
+        if (!(condition instanceof AndNode))
+            return condition;
+        List<ValueNode> conjuncts = new ArrayList<ValueNode>();
+        List<ValueNode> pending = new ArrayList<ValueNode>();
+        pending.add(condition);
+        while (!pending.isEmpty()) {
+            ValueNode node = pending.remove(pending.size() - 1);
+            if (node instanceof AndNode) {
+                pending.add(((AndNode)node).getRightOperand());
+                pending.add(((AndNode)node).getLeftOperand());
+            }
+            else
+                conjuncts.add(node);
+        }
+        boolean terminated = conjuncts.get(conjuncts.size() - 1).isBooleanTrue();
+        ValueNodeMap<Range> ranges = new ValueNodeMap<Range>();
+        Set<ValueNode> dropped = 
+            Collections.newSetFromMap(new IdentityHashMap<ValueNode,Boolean>());
+        for (ValueNode conjunct : conjuncts) {
+            if (conjunct.isBooleanTrue()) {
+                dropped.add(conjunct);
+                continue;
+            }
+            if (!(conjunct instanceof BinaryComparisonOperatorNode))
+                continue;
+            BinaryComparisonOperatorNode comparison = (BinaryComparisonOperatorNode)conjunct;
+            ValueNode column = comparison.getLeftOperand();
+            BigDecimal value = exactValue(comparison.getRightOperand());
+            int nodeType = comparison.getNodeType();
+            if (!(column instanceof ColumnReference) || (value == null)) {
+                column = comparison.getRightOperand();
+                value = exactValue(comparison.getLeftOperand());
+                if (!(column instanceof ColumnReference) || (value == null))
+                    continue;
+                nodeType = reverseComparison(nodeType);
+            }
+            Range range = ranges.get(column);
+            if (range == null) {
+                range = new Range();
+                ranges.put(column, range);
+            }
+            switch (nodeType) {
+            case NodeTypes.BINARY_EQUALS_OPERATOR_NODE:
+                if (range.equal == null) {
+                    range.equal = value;
+                    range.equalNode = conjunct;
+                }
+                else if (range.equal.compareTo(value) == 0)
+                    dropped.add(conjunct);
+                else
+                    return booleanConstant(false);
+                break;
+            case NodeTypes.BINARY_GREATER_THAN_OPERATOR_NODE:
+            case NodeTypes.BINARY_GREATER_EQUALS_OPERATOR_NODE:
+                {
+                    boolean inclusive = (nodeType == NodeTypes.BINARY_GREATER_EQUALS_OPERATOR_NODE);
+                    int cmp = (range.lower == null) ? 1 : value.compareTo(range.lower);
+                    if ((cmp > 0) || ((cmp == 0) && range.lowerInclusive && !inclusive)) {
+                        if (range.lowerNode != null)
+                            dropped.add(range.lowerNode);
+                        range.lower = value;
+                        range.lowerInclusive = inclusive;
+                        range.lowerNode = conjunct;
+                    }
+                    else
+                        dropped.add(conjunct);
+                }
+                break;
+            case NodeTypes.BINARY_LESS_THAN_OPERATOR_NODE:
+            case NodeTypes.BINARY_LESS_EQUALS_OPERATOR_NODE:
+                {
+                    boolean inclusive = (nodeType == NodeTypes.BINARY_LESS_EQUALS_OPERATOR_NODE);
+                    int cmp = (range.upper == null) ? -1 : value.compareTo(range.upper);
+                    if ((cmp < 0) || ((cmp == 0) && range.upperInclusive && !inclusive)) {
+                        if (range.upperNode != null)
+                            dropped.add(range.upperNode);
+                        range.upper = value;
+                        range.upperInclusive = inclusive;
+                        range.upperNode = conjunct;
+                    }
+                    else
+                        dropped.add(conjunct);
+                }
+                break;
+            }
+        }
+        for (ValueNode column : ranges.keys()) {
+            Range range = ranges.get(column);
+            if (range.equal != null) {
+                if (!aboveLower(range, range.equal, true) ||
+                    !belowUpper(range, range.equal, true))
+                    return booleanConstant(false);
+                // Equality implies the rest.
+                if (range.lowerNode != null)
+                    dropped.add(range.lowerNode);
+                if (range.upperNode != null)
+                    dropped.add(range.upperNode);
+            }
+            else if (range.upper != null) {
+                if (!aboveLower(range, range.upper, range.upperInclusive))
+                    return booleanConstant(false);
+            }
+        }
+        if (dropped.isEmpty())
+            return condition;
+        simplifications++;
+        List<ValueNode> kept = new ArrayList<ValueNode>(conjuncts.size() - dropped.size());
+        for (ValueNode conjunct : conjuncts) {
+            if (!dropped.contains(conjunct))
+                kept.add(conjunct);
+        }
+        ValueNode result;
+        int i = kept.size() - 1;
+        if (terminated || (i < 0))
+            result = booleanConstant(true);
+        else
+            result = kept.get(i--);
+        while (i >= 0) {
+            result = logicalOperator(NodeTypes.AND_NODE, kept.get(i--), result);
+        }
+        return result;
+    }
+
+    /** Whether <code>value</code> (if <code>inclusive</code>) or
+     * something just below it is within the lower bound.
+     */
+    protected static boolean aboveLower(Range range, BigDecimal value, boolean inclusive) {
+        if (range.lower == null)
+            return true;
+        int cmp = value.compareTo(range.lower);
+        return (cmp > 0) || ((cmp == 0) && inclusive && range.lowerInclusive);
+    }
+
+    protected static boolean belowUpper(Range range, BigDecimal value, boolean inclusive) {
+        if (range.upper == null)
+            return true;
+        int cmp = value.compareTo(range.upper);
+        return (cmp < 0) || ((cmp == 0) && inclusive && range.upperInclusive);
+    }
+
+    protected static int reverseComparison(int nodeType) {
+        switch (nodeType) {
+        case NodeTypes.BINARY_GREATER_THAN_OPERATOR_NODE:
+            return NodeTypes.BINARY_LESS_THAN_OPERATOR_NODE;
+        case NodeTypes.BINARY_GREATER_EQUALS_OPERATOR_NODE:
+            return NodeTypes.BINARY_LESS_EQUALS_OPERATOR_NODE;
+        case NodeTypes.BINARY_LESS_THAN_OPERATOR_NODE:
+            return NodeTypes.BINARY_GREATER_THAN_OPERATOR_NODE;
+        case NodeTypes.BINARY_LESS_EQUALS_OPERATOR_NODE:
+            return NodeTypes.BINARY_GREATER_EQUALS_OPERATOR_NODE;
+        default:
+            return nodeType;
+        }
+    }
+
+    /** The value of an exact numeric constant, or <code>null</code>. */
+    protected static BigDecimal exactValue(ValueNode node) {
+        if (!(node instanceof NumericConstantNode))
+            return null;
+        Object value = ((NumericConstantNode)node).getValue();
+        if ((value instanceof Integer) || (value instanceof Long) ||
+            (value instanceof Short) || (value instanceof Byte))
+            return BigDecimal.valueOf(((Number)value).longValue());
+        if (value instanceof BigDecimal)
+            return (BigDecimal)value;
+        return null;
+    }
+
+    protected static boolean isValue(BigDecimal value, int n) {
+        return (value != null) && (value.compareTo(BigDecimal.valueOf(n)) == 0);
+    }
+
+    protected static boolean isNullConstant(ValueNode node) {
+        return ((node instanceof ConstantNode) &&
+                (((ConstantNode)node).getValue() == null));
+    }
+
+    /** A constant of the given exact numeric type, or <code>null</code>
+     * if the value does not fit it without rounding.
+     */
+    protected ValueNode numericConstant(BigDecimal value, DataTypeDescriptor type)
+            throws StandardException {
+        TypeId typeId = type.getTypeId();
+        int nodeType;
+        Object arg;
+        if (typeId.isUnsigned())
+            return null;
+        if (typeId.isIntegerTypeId()) {
+            long min, max;
+            if (typeId == TypeId.TINYINT_ID) {
+                nodeType = NodeTypes.TINYINT_CONSTANT_NODE;
+                min = Byte.MIN_VALUE;
+                max = Byte.MAX_VALUE;
+            }
+            else if (typeId == TypeId.SMALLINT_ID) {
+                nodeType = NodeTypes.SMALLINT_CONSTANT_NODE;
+                min = Short.MIN_VALUE;
+                max = Short.MAX_VALUE;
+            }
+            else if (typeId == TypeId.MEDIUMINT_ID) {
+                nodeType = NodeTypes.INT_CONSTANT_NODE;
+                min = -(1 << 23);
+                max = (1 << 23) - 1;
+            }
+            else if (typeId == TypeId.INTEGER_ID) {
+                nodeType = NodeTypes.INT_CONSTANT_NODE;
+                min = Integer.MIN_VALUE;
+                max = Integer.MAX_VALUE;
+            }
+            else if (typeId == TypeId.BIGINT_ID) {
+                nodeType = NodeTypes.LONGINT_CONSTANT_NODE;
+                min = Long.MIN_VALUE;
+                max = Long.MAX_VALUE;
+            }
+            else
+                return null;
+            if ((value.signum() != 0) && (value.stripTrailingZeros().scale() > 0))
+                return null;
+            if ((value.compareTo(BigDecimal.valueOf(min)) < 0) ||
+                (value.compareTo(BigDecimal.valueOf(max)) > 0))
+                return null;
+            long lvalue = value.longValue();
+            switch (nodeType) {
+            case NodeTypes.TINYINT_CONSTANT_NODE:
+                arg = Byte.valueOf((byte)lvalue);
+                break;
+            case NodeTypes.SMALLINT_CONSTANT_NODE:
+                arg = Short.valueOf((short)lvalue);
+                break;
+            case NodeTypes.INT_CONSTANT_NODE:
+                arg = Integer.valueOf((int)lvalue);
+                break;
+            default:
+                arg = Long.valueOf(lvalue);
+                break;
+            }
+        }
+        else if (typeId.isDecimalTypeId()) {
+            try {
+                value = value.setScale(type.getScale());
+            }
+            catch (ArithmeticException ex) {
+                return null;
+            }
+            if (value.precision() - value.scale() > type.getPrecision() - type.getScale())
+                return null;
+            nodeType = NodeTypes.DECIMAL_CONSTANT_NODE;
+            arg = value.toPlainString();
+        }
+        else
+            return null;
+        ValueNode result = (ValueNode)nodeFactory.getNode(nodeType, arg, parserContext);
+        result.setType(type);
+        return result;
+    }
+
+    protected BooleanConstantNode booleanConstant(boolean value) throws StandardException {
+        return (BooleanConstantNode)nodeFactory.getNode(NodeTypes.BOOLEAN_CONSTANT_NODE,
+                                                        Boolean.valueOf(value),
+                                                        parserContext);
+    }
+
+    protected ValueNode logicalOperator(int nodeType, ValueNode left, ValueNode right)
+            throws StandardException {
+        ValueNode node = (ValueNode)nodeFactory.getNode(nodeType, left, right,
+                                                        parserContext);
+        DataTypeDescriptor leftType = left.getType();
+        DataTypeDescriptor rightType = right.getType();
+        if ((leftType != null) && (rightType != null))
+            node.setType(new DataTypeDescriptor(TypeId.BOOLEAN_ID,
+                                                leftType.isNullable() ||
+                                                rightType.isNullable()));
+        return node;
+    }
+
+    /* Visitor interface. */
+
+    public Visitable visit(Visitable node) throws StandardException {
+        if (node instanceof ValueNode)
+            return valueNode((ValueNode)node);
+        switch (((QueryTreeNode)node).getNodeType()) {
+        case NodeTypes.SELECT_NODE:
+            selectNode((SelectNode)node);
+            break;
+        case NodeTypes.JOIN_NODE:
+        case NodeTypes.HALF_OUTER_JOIN_NODE:
+            joinNode((JoinNode)node);
+            break;
+        }
+        return node;
+    }
+
+    public boolean skipChildren(Visitable node) throws StandardException {
+        return false;
+    }
+    public boolean visitChildrenFirst(Visitable node) {
+        return true;
+    }
+    public boolean stopTraversal() {
+        return false;
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.compiler;
+
+import com.akiban.sql.parser.*;
+import com.akiban.sql.unparser.NodeToString;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.types.DataTypeDescriptor;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Replace literals in a DML statement with parameters, so that
+ * statements which differ only in their literals normalize to the same
+ * tree and the same SQL text.
+ *
+ * Numeric, character and bit string literals are replaced. Literals
+ * that affect the shape of the query are left alone: <code>NULL</code>
+ * and boolean values, <code>ORDER BY</code>, <code>OFFSET</code> and
+ * <code>FETCH FIRST</code>, and the select list, <code>GROUP BY</code>
+ * and <code>HAVING</code> of a grouped query, where expressions must
+ * match one another. Other statements are returned unchanged.
+ *
+ * The new parameters are numbered after any parameters already in the
+ * statement. Literals of different types (<code>5</code> and
+ * <code>'5'</code>) give the same normalized SQL; callers whose plans
+ * depend on the type should compare {@link NormalizedStatement#getLiteralTypes}
+ * as well.
+ */
+public class LiteralNormalizer implements Visitor
+{
+    SQLParserContext parserContext;
+    NodeFactory nodeFactory;
+    NodeToString unparser;
+
+    private int nextParameterNumber;
+    private List<ParameterNode> literalParameters;
+    private List<Object> literalValues;
+    private List<DataTypeDescriptor> literalTypes;
+    private Map<QueryTreeNode,QueryTreeNode> keep;
+    private Map<ConstantNode,ParameterNode> replaced;
+
+    public LiteralNormalizer(SQLParserContext parserContext) {
+        this.parserContext = parserContext;
+        this.nodeFactory = parserContext.getNodeFactory();
+        this.unparser = new NodeToString();
+    }
+
+    /** Parse the given SQL and normalize its literals. The parser's
+     * parameter list is extended with the new parameters.
+     */
+    public static NormalizedStatement parseStatement(SQLParser parser, String sql)
+            throws StandardException {
+        StatementNode stmt = parser.parseStatement(sql);
+        return new LiteralNormalizer(parser).normalize(stmt, parser.getParameterList());
+    }
+
+    /** Normalize literals in this statement.
+     * @param parameterList the existing parameters of the statement, to
+     * which any new ones are added. May be <code>null</code>.
+     */
+    public NormalizedStatement normalize(StatementNode stmt,
+                                         List<ParameterNode> parameterList)
+            throws StandardException {
+        nextParameterNumber = 0;
+        if (parameterList != null) {
+            for (ParameterNode parameter : parameterList) {
+                if (nextParameterNumber <= parameter.getParameterNumber())
+                    nextParameterNumber = parameter.getParameterNumber() + 1;
+            }
+        }
+        literalParameters = new ArrayList<ParameterNode>();
+        literalValues = new ArrayList<Object>();
+        literalTypes = new ArrayList<DataTypeDescriptor>();
+        keep = new IdentityHashMap<QueryTreeNode,QueryTreeNode>();
+        replaced = new IdentityHashMap<ConstantNode,ParameterNode>();
+        if (stmt instanceof DMLStatementNode)
+            stmt = (StatementNode)stmt.accept(this);
+        if (parameterList != null)
+            parameterList.addAll(literalParameters);
+        NormalizedStatement result =
+            new NormalizedStatement(stmt, unparser.toString(stmt),
+                                    literalParameters, literalValues, literalTypes);
+        literalParameters = null;
+        literalValues = null;
+        literalTypes = null;
+        keep = null;
+        replaced = null;
+        return result;
+    }
+
+    /** Is this a literal that should be replaced? */
+    protected boolean isNormalizedLiteral(ValueNode node) {
+        if (!((node instanceof NumericConstantNode) ||
+              (node instanceof CharConstantNode) ||
+              (node instanceof BitConstantNode)))
+            return false;
+        return (((ConstantNode)node).getValue() != null);
+    }
+
+    /** Replace a literal with a new parameter. A literal that is
+     * reachable more than once, such as the first row of a
+     * <code>VALUES</code>, gets the same parameter each time.
+     */
+    protected ParameterNode literalParameter(ConstantNode node)
+            throws StandardException {
+        ParameterNode parameter = replaced.get(node);
+        if (parameter != null)
+            return parameter;
+        parameter = (ParameterNode)
+            nodeFactory.getNode(NodeTypes.PARAMETER_NODE,
+                                nextParameterNumber++,
+                                null,
+                                parserContext);
+        parameter.setBeginOffset(node.getBeginOffset());
+        parameter.setEndOffset(node.getEndOffset());
+        literalParameters.add(parameter);
+        literalValues.add(node.getValue());
+        literalTypes.add(node.getType());
+        replaced.put(node, parameter);
+        return parameter;
+    }
+
+    protected void keep(QueryTreeNode node) {
+        if (node != null)
+            keep.put(node, node);
+    }
+
+    /** Visitor interface.
+     * Parents are visited before their children, so that they can mark
+     * any parts that must not be changed.
+     */
+    public Visitable visit(Visitable node) throws StandardException {
+        if (keep.containsKey(node))
+            return node;
+        switch (((QueryTreeNode)node).getNodeType()) {
+        case NodeTypes.CURSOR_NODE:
+            {
+                CursorNode cursorNode = (CursorNode)node;
+                keep(cursorNode.getOrderByList());
+                keep(cursorNode.getOffsetClause());
+                keep(cursorNode.getFetchFirstClause());
+            }
+            break;
+        case NodeTypes.SELECT_NODE:
+            {
+                SelectNode selectNode = (SelectNode)node;
+                if (selectNode.getGroupByList() != null) {
+                    keep(selectNode.getResultColumns());
+                    keep(selectNode.getGroupByList());
+                    keep(selectNode.getHavingClause());
+                }
+            }
+            break;
+        case NodeTypes.ROWS_RESULT_SET_NODE:
+            // These result columns are derived from the first row.
+            keep(((ResultSetNode)node).getResultColumns());
+            break;
+        case NodeTypes.FROM_SUBQUERY:
+            {
+                FromSubquery fromSubquery = (FromSubquery)node;
+                keep(fromSubquery.getOffset());
+                keep(fromSubquery.getFetchFirst());
+            }
+            break;
+        case NodeTypes.SUBQUERY_NODE:
+            {
+                SubqueryNode subqueryNode = (SubqueryNode)node;
+                keep(subqueryNode.getOffset());
+                keep(subqueryNode.getFetchFirst());
+            }
+            break;
+        case NodeTypes.INSERT_NODE:
+            {
+                InsertNode insertNode = (InsertNode)node;
+                keep(insertNode.getOffset());
+                keep(insertNode.getFetchFirst());
+            }
+            break;
+        default:
+            if ((node instanceof ValueNode) && isNormalizedLiteral((ValueNode)node))
+                return literalParameter((ConstantNode)node);
+            break;
+        }
+        return node;
+    }
+
+    public boolean visitChildrenFirst(Visitable node) {
+        return false;
+    }
+    public boolean stopTraversal() {
+        return false;
+    }
+    public boolean skipChildren(Visitable node) throws StandardException {
+        return ((node instanceof OrderByList) ||
+                (node instanceof GroupByList) ||
+                keep.containsKey(node));
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.compiler;
+
+import com.akiban.sql.parser.ParameterNode;
+import com.akiban.sql.parser.StatementNode;
+
+import com.akiban.sql.types.DataTypeDescriptor;
+
+import java.util.Collections;
+import java.util.List;
+
+/** The result of replacing literals in a statement with parameters.
+ * @see LiteralNormalizer
+ */
+public class NormalizedStatement
+{
+    private StatementNode statement;
+    private String normalizedSQL;
+    private List<ParameterNode> literalParameters;
+    private List<Object> literalValues;
+    private List<DataTypeDescriptor> literalTypes;
+
+    public NormalizedStatement(StatementNode statement, String normalizedSQL,
+                               List<ParameterNode> literalParameters,
+                               List<Object> literalValues,
+                               List<DataTypeDescriptor> literalTypes) {
+        this.statement = statement;
+        this.normalizedSQL = normalizedSQL;
+        this.literalParameters = Collections.unmodifiableList(literalParameters);
+        this.literalValues = Collections.unmodifiableList(literalValues);
+        this.literalTypes = Collections.unmodifiableList(literalTypes);
+    }
+
+    /** The statement with its literals replaced. */
+    public StatementNode getStatement() {
+        return statement;
+    }
+
+    /** The canonical SQL for the normalized statement, which is the
+     * same for every statement that differs only in its literals.
+     * Suitable as a cache key.
+     */
+    public String getNormalizedSQL() {
+        return normalizedSQL;
+    }
+
+    /** The parameters that took the place of literals, in order. */
+    public List<ParameterNode> getLiteralParameters() {
+        return literalParameters;
+    }
+
+    /** The values of the replaced literals, in parameter order. */
+    public List<Object> getLiteralValues() {
+        return literalValues;
+    }
+
+    /** The types of the replaced literals, in parameter order. */
+    public List<DataTypeDescriptor> getLiteralTypes() {
+        return literalTypes;
+    }
+
+    public int getLiteralCount() {
+        return literalValues.size();
+    }
+
+    public String toString() {
+        return normalizedSQL + " " + literalValues;
+    }
+}
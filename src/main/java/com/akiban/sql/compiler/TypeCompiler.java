@@ -226,164 +226,81 @@ public abstract class TypeCompiler
     }
 
     // These are all the TypeCompilers that are stateless, so we can
-    // use a single instance of each. Initialize all to null, and fault
-    // them in.
-    private static TypeCompiler bitTypeCompiler;
-    private static TypeCompiler booleanTypeCompiler;
-    private static TypeCompiler charTypeCompiler;
-    private static TypeCompiler decimalTypeCompiler;
-    private static TypeCompiler doubleTypeCompiler;
-    private static TypeCompiler intTypeCompiler;
-    private static TypeCompiler longintTypeCompiler;
-    private static TypeCompiler longvarbitTypeCompiler;
-    private static TypeCompiler longvarcharTypeCompiler;
-    private static TypeCompiler realTypeCompiler;
-    private static TypeCompiler smallintTypeCompiler;
-    private static TypeCompiler tinyintTypeCompiler;
-    private static TypeCompiler dateTypeCompiler;
-    private static TypeCompiler timeTypeCompiler;
-    private static TypeCompiler timestampTypeCompiler;
-    private static TypeCompiler varbitTypeCompiler;
-    private static TypeCompiler varcharTypeCompiler;
-    private static TypeCompiler refTypeCompiler;
-    private static TypeCompiler blobTypeCompiler;
-    private static TypeCompiler clobTypeCompiler;
-    private static TypeCompiler xmlTypeCompiler;
-    private static TypeCompiler intervalMonthTypeCompiler, intervalSecondTypeCompiler;
+    // use a single instance of each. They are all made up front, indexed
+    // by format id, so that looking one up is safe from any thread
+    // without locking. Unsigned types have their own, so that each
+    // compiler's type id is always the same one.
+    private static final TypeCompiler[] typeCompilers, unsignedTypeCompilers;
+    static {
+        TypeCompiler[] compilers = new TypeCompiler[TypeId.FormatIds.MEDIUMINT_ID + 1];
+        compilers[TypeId.FormatIds.BIT_TYPE_ID] = new BitTypeCompiler(TypeId.BIT_ID);
+        compilers[TypeId.FormatIds.BOOLEAN_TYPE_ID] = new BooleanTypeCompiler(TypeId.BOOLEAN_ID);
+        compilers[TypeId.FormatIds.CHAR_TYPE_ID] = new CharTypeCompiler(TypeId.CHAR_ID);
+        compilers[TypeId.FormatIds.DATE_TYPE_ID] = new DateTypeCompiler(TypeId.DATE_ID);
+        // NUMERIC shares DECIMAL's, which is what decimal arithmetic checks for.
+        compilers[TypeId.FormatIds.DECIMAL_TYPE_ID] = new NumericTypeCompiler(TypeId.DECIMAL_ID);
+        compilers[TypeId.FormatIds.NUMERIC_TYPE_ID] = compilers[TypeId.FormatIds.DECIMAL_TYPE_ID];
+        compilers[TypeId.FormatIds.DOUBLE_TYPE_ID] = new NumericTypeCompiler(TypeId.DOUBLE_ID);
+        compilers[TypeId.FormatIds.INT_TYPE_ID] = new NumericTypeCompiler(TypeId.INTEGER_ID);
+        compilers[TypeId.FormatIds.LONGINT_TYPE_ID] = new NumericTypeCompiler(TypeId.BIGINT_ID);
+        compilers[TypeId.FormatIds.LONGVARBIT_TYPE_ID] = new BitTypeCompiler(TypeId.LONGVARBIT_ID);
+        compilers[TypeId.FormatIds.LONGVARCHAR_TYPE_ID] = new CharTypeCompiler(TypeId.LONGVARCHAR_ID);
+        compilers[TypeId.FormatIds.REAL_TYPE_ID] = new NumericTypeCompiler(TypeId.REAL_ID);
+        compilers[TypeId.FormatIds.REF_TYPE_ID] = new RefTypeCompiler(TypeId.REF_ID);
+        compilers[TypeId.FormatIds.SMALLINT_TYPE_ID] = new NumericTypeCompiler(TypeId.SMALLINT_ID);
+        compilers[TypeId.FormatIds.TIME_TYPE_ID] = new TimeTypeCompiler(TypeId.TIME_ID);
+        compilers[TypeId.FormatIds.TIMESTAMP_TYPE_ID] = new TimestampTypeCompiler(TypeId.TIMESTAMP_ID);
+        compilers[TypeId.FormatIds.TINYINT_TYPE_ID] = new NumericTypeCompiler(TypeId.TINYINT_ID);
+        compilers[TypeId.FormatIds.VARBIT_TYPE_ID] = new BitTypeCompiler(TypeId.VARBIT_ID);
+        compilers[TypeId.FormatIds.BLOB_TYPE_ID] = new LOBTypeCompiler(TypeId.BLOB_ID);
+        compilers[TypeId.FormatIds.VARCHAR_TYPE_ID] = new CharTypeCompiler(TypeId.VARCHAR_ID);
+        compilers[TypeId.FormatIds.CLOB_TYPE_ID] = new CLOBTypeCompiler(TypeId.CLOB_ID);
+        compilers[TypeId.FormatIds.XML_TYPE_ID] = new XMLTypeCompiler(TypeId.XML_ID);
+        compilers[TypeId.FormatIds.INTERVAL_YEAR_MONTH_ID] = 
+            new IntervalTypeCompiler(TypeId.INTERVAL_YEAR_MONTH_ID);
+        compilers[TypeId.FormatIds.INTERVAL_DAY_SECOND_ID] = 
+            new IntervalTypeCompiler(TypeId.INTERVAL_DAY_SECOND_ID);
+        typeCompilers = compilers;
+
+        compilers = new TypeCompiler[TypeId.FormatIds.MEDIUMINT_ID + 1];
+        compilers[TypeId.FormatIds.DECIMAL_TYPE_ID] = new NumericTypeCompiler(TypeId.DECIMAL_UNSIGNED_ID);
+        compilers[TypeId.FormatIds.NUMERIC_TYPE_ID] = compilers[TypeId.FormatIds.DECIMAL_TYPE_ID];
+        compilers[TypeId.FormatIds.DOUBLE_TYPE_ID] = new NumericTypeCompiler(TypeId.DOUBLE_UNSIGNED_ID);
+        compilers[TypeId.FormatIds.INT_TYPE_ID] = new NumericTypeCompiler(TypeId.INTEGER_UNSIGNED_ID);
+        compilers[TypeId.FormatIds.LONGINT_TYPE_ID] = new NumericTypeCompiler(TypeId.BIGINT_UNSIGNED_ID);
+        compilers[TypeId.FormatIds.REAL_TYPE_ID] = new NumericTypeCompiler(TypeId.REAL_UNSIGNED_ID);
+        compilers[TypeId.FormatIds.SMALLINT_TYPE_ID] = new NumericTypeCompiler(TypeId.SMALLINT_UNSIGNED_ID);
+        compilers[TypeId.FormatIds.TINYINT_TYPE_ID] = new NumericTypeCompiler(TypeId.TINYINT_UNSIGNED_ID);
+        unsignedTypeCompilers = compilers;
+    }
 
     /**
      * Get the TypeCompiler that corresponds to the given TypeId.
+     * User-defined types get a new one each time; to handle those
+     * differently, override {@link TypeComputer#getTypeCompiler(TypeId)}.
      */
     public static TypeCompiler getTypeCompiler(TypeId typeId) {
-        switch (typeId.getJDBCTypeId()) {
-        case Types.BINARY:
-            if (bitTypeCompiler == null)
-                bitTypeCompiler = new BitTypeCompiler(typeId);
-            return bitTypeCompiler;
-
-        case Types.BIT:
-        case Types.BOOLEAN:
-            if (booleanTypeCompiler == null)
-                booleanTypeCompiler = new BooleanTypeCompiler(typeId);
-            return booleanTypeCompiler;
-
-        case Types.CHAR:
-            if (charTypeCompiler == null)
-                charTypeCompiler = new CharTypeCompiler(typeId);
-            return charTypeCompiler;
-
-        case Types.NUMERIC:
-        case Types.DECIMAL:
-            if (decimalTypeCompiler == null)
-                decimalTypeCompiler = new NumericTypeCompiler(typeId);
-            return decimalTypeCompiler;
-
-        case Types.DOUBLE:
-            if (doubleTypeCompiler == null)
-                doubleTypeCompiler = new NumericTypeCompiler(typeId);
-            return doubleTypeCompiler;
-
-        case Types.INTEGER:
-            if (intTypeCompiler == null)
-                intTypeCompiler = new NumericTypeCompiler(typeId);
-            return intTypeCompiler;
-
-        case Types.BIGINT:
-            if (longintTypeCompiler == null)
-                longintTypeCompiler = new NumericTypeCompiler(typeId);
-            return longintTypeCompiler;
-
-        case Types.BLOB:
-            if (blobTypeCompiler == null)
-                blobTypeCompiler = new LOBTypeCompiler(typeId);
-            return blobTypeCompiler;
-
-        case Types.LONGVARBINARY:
-            if (longvarbitTypeCompiler == null)
-                longvarbitTypeCompiler = new BitTypeCompiler(typeId);
-            return longvarbitTypeCompiler;
-
-        case Types.CLOB:
-            if (clobTypeCompiler == null)
-                clobTypeCompiler = new CLOBTypeCompiler(typeId);
-            return clobTypeCompiler;
-
-        case Types.LONGVARCHAR:
-            if (longvarcharTypeCompiler == null)
-                longvarcharTypeCompiler = new CharTypeCompiler(typeId);
-            return longvarcharTypeCompiler;
-
-        case Types.REAL:
-            if (realTypeCompiler == null)
-                realTypeCompiler = new NumericTypeCompiler(typeId);
-            return realTypeCompiler;
-
-        case Types.SMALLINT:
-            if (smallintTypeCompiler == null)
-                smallintTypeCompiler = new NumericTypeCompiler(typeId);
-            return smallintTypeCompiler;
-
-        case Types.TINYINT:
-            if (tinyintTypeCompiler == null)
-                tinyintTypeCompiler = new NumericTypeCompiler(typeId);
-            return tinyintTypeCompiler;
-
-        case Types.DATE:
-            if (dateTypeCompiler == null)
-                dateTypeCompiler = new DateTypeCompiler(typeId);
-            return dateTypeCompiler;
-
-        case Types.TIME:
-            if (timeTypeCompiler == null)
-                timeTypeCompiler = new TimeTypeCompiler(typeId);
-            return timeTypeCompiler;
-
-        case Types.TIMESTAMP:
-            if (timestampTypeCompiler == null)
-                timestampTypeCompiler = new TimestampTypeCompiler(typeId);
-            return timestampTypeCompiler;
-
-        case Types.VARBINARY:
-            if (varbitTypeCompiler == null)
-                varbitTypeCompiler = new BitTypeCompiler(typeId);
-            return varbitTypeCompiler;
-
-        case Types.VARCHAR:
-            if (varcharTypeCompiler == null)
-                varcharTypeCompiler = new CharTypeCompiler(typeId);
-            return varcharTypeCompiler;
+        TypeCompiler[] compilers = (typeId.isUnsigned()) ? 
+            unsignedTypeCompilers : typeCompilers;
+        int formatId = typeId.getTypeFormatId();
+        if ((formatId >= 0) && (formatId < compilers.length)) {
+            TypeCompiler typeCompiler = compilers[formatId];
+            if (typeCompiler != null)
+                return typeCompiler;
+        }
+        return getOtherTypeCompiler(typeId);
+    }
 
+    /**
+     * Get the TypeCompiler for a type that does not have a shared one.
+     */
+    private static TypeCompiler getOtherTypeCompiler(TypeId typeId) {
+        switch (typeId.getJDBCTypeId()) {
         case Types.JAVA_OBJECT:
         case Types.OTHER:
-            if (typeId.isRefTypeId()) {
-                if (refTypeCompiler == null)
-                    refTypeCompiler = new RefTypeCompiler(typeId);
-                return refTypeCompiler;
-            }
-            else if (typeId.isIntervalTypeId()) {
-                switch (typeId.getTypeFormatId()) {
-                case TypeId.FormatIds.INTERVAL_YEAR_MONTH_ID:
-                    if (intervalMonthTypeCompiler == null)
-                        intervalMonthTypeCompiler = new IntervalTypeCompiler(typeId);
-                    return intervalMonthTypeCompiler;
-                case TypeId.FormatIds.INTERVAL_DAY_SECOND_ID:                        
-                    if (intervalSecondTypeCompiler == null)
-                        intervalSecondTypeCompiler = new IntervalTypeCompiler(typeId);
-                    return intervalSecondTypeCompiler;
-                default:
-                    return null;
-                }
-            }
-            else {
-                // Cannot re-use instances of user-defined type compilers,
-                // because they contain the class name
-                return new UserDefinedTypeCompiler(typeId);
-            }
-
-        case Types.SQLXML:
-            if (xmlTypeCompiler == null)
-                xmlTypeCompiler = new XMLTypeCompiler(typeId);
-            return xmlTypeCompiler;
+            // Cannot re-use instances of user-defined type compilers,
+            // because they contain the class name
+            return new UserDefinedTypeCompiler(typeId);
 
         default:
             assert false : "Unexpected JDBC type id " + typeId.getJDBCTypeId();
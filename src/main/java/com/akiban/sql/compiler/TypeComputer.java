@@ -25,6 +25,9 @@ import com.akiban.sql.types.CharacterTypeAttributes;
 import com.akiban.sql.types.DataTypeDescriptor;
 import com.akiban.sql.types.TypeId;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 /** Calculate types from schema information. */
 public class TypeComputer implements Visitor
@@ -410,11 +413,17 @@ public class TypeComputer implements Visitor
                 return null;
 
             boolean nullableResult = leftType.isNullable();
-
-            for (ValueNode rightOperand : node.getRightOperandList().getNodeList()) {
+            DataTypeDescriptor parameterType = leftType.getNullabilityType(true);
+
+            ValueNodeList rightOperands = node.getRightOperandList().getNodeList();
+            CompactConstantList constants = rightOperands.getCompactConstants();
+            for (int i = 0; i < rightOperands.size(); i++) {
+                if ((constants != null) && !constants.isMaterialized(i))
+                    continue;   // A literal, never null.
+                ValueNode rightOperand = rightOperands.get(i);
                 DataTypeDescriptor rightType;
                 if (isParameterOrUntypedNull(rightOperand)) {
-                    rightType = leftType.getNullabilityType(true);
+                    rightType = parameterType;
                     rightOperand.setType(rightType);
                 }
                 else {
@@ -553,26 +562,91 @@ public class TypeComputer implements Visitor
         return operand;
     }
 
+    /** How many types that leave the dominant type as it is are
+     * remembered for checking without a lookup. */
+    static final int UNCHANGING_TYPES = 4;
+
+    /** A step in computing the dominant type of a list. */
+    static final class DominantTypeStep {
+        private final DataTypeDescriptor result, type;
+
+        public DominantTypeStep(DataTypeDescriptor result, DataTypeDescriptor type) {
+            this.result = result;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof DominantTypeStep))
+                return false;
+            DominantTypeStep step = (DominantTypeStep)other;
+            return result.equals(step.result) && type.equals(step.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return result.hashCode() * 31 + type.hashCode();
+        }
+    }
+
     protected DataTypeDescriptor dominantType(ValueNodeList nodeList) 
             throws StandardException {
+        // Long lists have few different types, so the same steps come
+        // up again and again. And once a type no longer changes the
+        // result, more of it need not even be looked up. But types
+        // that are equal can still differ in how their collation was
+        // derived, or, being user-defined, in ways equals does not see,
+        // so those are always worked out in full.
         DataTypeDescriptor result = null;
+        DataTypeDescriptor[] unchanging = new DataTypeDescriptor[UNCHANGING_TYPES];
+        int nunchanging = 0;
+        Map<DominantTypeStep,DataTypeDescriptor> steps = null;
+        nodes:
         for (ValueNode node : nodeList) {
-            if (node.getType() == null) continue;
-            if (result == null)
-                result = node.getType();
-            else
-                result = result.getDominantType(node.getType());
+            DataTypeDescriptor type = node.getType();
+            if (type == null) continue;
+            if (result == null) {
+                result = type;
+                continue;
+            }
+            if (!isStepMemoizable(result) || !isStepMemoizable(type)) {
+                result = result.getDominantType(type);
+                nunchanging = 0;
+                continue;
+            }
+            for (int i = 0; i < nunchanging; i++) {
+                if ((type == unchanging[i]) || type.equals(unchanging[i]))
+                    continue nodes;
+            }
+            DominantTypeStep step = new DominantTypeStep(result, type);
+            if (steps == null)
+                steps = new HashMap<DominantTypeStep,DataTypeDescriptor>();
+            DataTypeDescriptor dominant = steps.get(step);
+            if (dominant == null) {
+                dominant = result.getDominantType(type);
+                steps.put(step, dominant);
+            }
+            if (dominant.equals(result)) {
+                if (nunchanging < UNCHANGING_TYPES)
+                    unchanging[nunchanging++] = type;
+            }
+            else {
+                nunchanging = 0;
+            }
+            result = dominant;
         }
         if (result != null) {
+            DataTypeDescriptor nullableResult = result.getNullabilityType(true);
+            DataTypeDescriptor notNullResult = result.getNullabilityType(false);
             for (int i = 0; i < nodeList.size(); i++) {
                 ValueNode node = nodeList.get(i);
                 if (isParameterOrUntypedNull(node))
-                    node.setType(result.getNullabilityType(true));
+                    node.setType(nullableResult);
                 else if (addDominantCast(result, node.getType())) {
                     node = (ValueNode)node.getNodeFactory()
                         .getNode(NodeTypes.CAST_NODE, 
                                  node,
-                                 result.getNullabilityType(node.getType().isNullable()),
+                                 node.getType().isNullable() ? nullableResult : notNullResult,
                                  node.getParserContext());
                     nodeList.set(i, node);
                 }
@@ -581,6 +655,13 @@ public class TypeComputer implements Visitor
         return result;
     }
 
+    /** Whether <code>equals</code> says all there is to say about
+     * <code>type</code>'s part in a dominant type step. */
+    protected static boolean isStepMemoizable(DataTypeDescriptor type) {
+        return ((type.getCharacterAttributes() == null) &&
+                !type.getTypeId().isUserDefinedTypeId());
+    }
+
     protected boolean addDominantCast(DataTypeDescriptor toType,
                                       DataTypeDescriptor fromType) {
         if (fromType == null) return false;
@@ -156,4 +156,8 @@ public class BaseColumnNode extends ValueNode
         } 
         return false;
     }
+
+    protected int computeEquivalenceHash() {
+        return hashCombine(getNodeType(), columnName.hashCode());
+    }
 }
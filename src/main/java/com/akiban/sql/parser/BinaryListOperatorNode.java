@@ -130,6 +130,7 @@ public abstract class BinaryListOperatorNode extends ValueNode
      */
     public void setLeftOperand(ValueNode newLeftOperand) {
         leftOperand = newLeftOperand;
+        childrenChanged();
     }
 
     /**
@@ -149,6 +150,7 @@ public abstract class BinaryListOperatorNode extends ValueNode
      */
     public void setRightOperandList(ValueNodeList newRightOperandList) {
         rightOperandList = newRightOperandList;
+        childrenChanged();
     }
 
     /**
@@ -208,4 +210,10 @@ public abstract class BinaryListOperatorNode extends ValueNode
 
         return true;
     }
+
+    protected int computeEquivalenceHash() throws StandardException {
+        int hash = hashCombine(getNodeType(), operator.hashCode());
+        hash = hashCombine(hash, leftOperand.equivalenceHash());
+        return hashCombine(hash, rightOperandList.equivalenceHash());
+    }
 }
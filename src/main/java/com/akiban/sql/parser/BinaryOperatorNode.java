@@ -43,6 +43,10 @@ package com.akiban.sql.parser;
 import com.akiban.sql.StandardException;
 import com.akiban.sql.types.ValueClassName;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
 /**
  * A BinaryOperatorNode represents a built-in binary operator as defined by
  * the ANSI/ISO SQL standard.    This covers operators like +, -, *, /, =, <, etc.
@@ -70,6 +74,8 @@ public class BinaryOperatorNode extends ValueNode
     protected String rightInterfaceType;
     protected String resultInterfaceType;
 
+    private boolean operandsCopied; // See copyOperands.
+
     /**
      * Initializer for a BinaryOperatorNode
      *
@@ -109,15 +115,66 @@ public class BinaryOperatorNode extends ValueNode
         BinaryOperatorNode other = (BinaryOperatorNode)node;
         this.operator = other.operator;
         this.methodName = other.methodName;
-        this.leftOperand = (ValueNode)
-            getNodeFactory().copyNode(other.leftOperand, getParserContext());
-        this.rightOperand = (ValueNode)
-            getNodeFactory().copyNode(other.rightOperand, getParserContext());
+        if (operandsCopied)
+            operandsCopied = false;
+        else
+            copyOperands(other);
         this.leftInterfaceType = other.leftInterfaceType;
         this.rightInterfaceType = other.rightInterfaceType;
         this.resultInterfaceType = other.resultInterfaceType;
     }
 
+    /**
+     * Copy the operands of <code>other</code>. Any that are themselves
+     * operators, such as in a long <code>a OR b OR c ...</code>, are
+     * copied from the bottom up with an explicit stack rather than
+     * recursively.
+     */
+    private void copyOperands(BinaryOperatorNode other) throws StandardException {
+        NodeFactory nodeFactory = getNodeFactory();
+        if (!(other.leftOperand instanceof BinaryOperatorNode) &&
+            !(other.rightOperand instanceof BinaryOperatorNode)) {
+            this.leftOperand = (ValueNode)
+                nodeFactory.copyNode(other.leftOperand, getParserContext());
+            this.rightOperand = (ValueNode)
+                nodeFactory.copyNode(other.rightOperand, getParserContext());
+            return;
+        }
+        // Pending nodes, with those marked having had their operands copied.
+        List<ValueNode> pending = new ArrayList<ValueNode>();
+        BitSet operandsDone = new BitSet();
+        List<ValueNode> copies = new ArrayList<ValueNode>();
+        pending.add(other.rightOperand);
+        pending.add(other.leftOperand);
+        while (!pending.isEmpty()) {
+            int index = pending.size() - 1;
+            ValueNode node = pending.remove(index);
+            if (operandsDone.get(index)) {
+                operandsDone.clear(index);
+                int ncopies = copies.size();
+                BinaryOperatorNode into = (BinaryOperatorNode)
+                    nodeFactory.getNode(node.getNodeType(), getParserContext());
+                into.leftOperand = copies.get(ncopies - 2);
+                into.rightOperand = copies.remove(ncopies - 1);
+                into.operandsCopied = true;
+                into.copyFrom(node);
+                copies.set(ncopies - 2, into);
+            }
+            else if (node instanceof BinaryOperatorNode) {
+                BinaryOperatorNode bnode = (BinaryOperatorNode)node;
+                pending.add(bnode);
+                operandsDone.set(index);
+                pending.add(bnode.rightOperand);
+                pending.add(bnode.leftOperand);
+            }
+            else {
+                copies.add((ValueNode)nodeFactory.copyNode(node, getParserContext()));
+            }
+        }
+        this.leftOperand = copies.get(0);
+        this.rightOperand = copies.get(1);
+    }
+
     /**
      * Convert this object to a String.  See comments in QueryTreeNode.java
      * for how this should be done for tree printing.
@@ -138,6 +195,7 @@ public class BinaryOperatorNode extends ValueNode
      */
     void setOperator(String operator) {
         this.operator = operator;
+        valueChanged();
     }
 
     public String getOperator() {
@@ -151,6 +209,7 @@ public class BinaryOperatorNode extends ValueNode
      */
     void setMethodName(String methodName) {
         this.methodName = methodName;
+        valueChanged();
     }
 
     public String getMethodName() {
@@ -195,6 +254,7 @@ public class BinaryOperatorNode extends ValueNode
      */
     public void setLeftOperand(ValueNode newLeftOperand) {
         leftOperand = newLeftOperand;
+        childrenChanged();
     }
 
     /**
@@ -213,6 +273,7 @@ public class BinaryOperatorNode extends ValueNode
      */
     public void setRightOperand(ValueNode newRightOperand) {
         rightOperand = newRightOperand;
+        childrenChanged();
     }
 
     /**
@@ -266,4 +327,10 @@ public class BinaryOperatorNode extends ValueNode
             rightOperand.isEquivalent(other.rightOperand);
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        int hash = hashCombine(getNodeType(), methodName.hashCode());
+        hash = hashCombine(hash, leftOperand.equivalenceHash());
+        return hashCombine(hash, rightOperand.equivalenceHash());
+    }
+
 }
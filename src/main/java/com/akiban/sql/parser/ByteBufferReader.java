@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A {@link Reader} that decodes directly from a {@link ByteBuffer},
+ * such as a <code>MappedByteBuffer</code>, as characters are asked for.
+ * The buffer's own position is not changed.
+ */
+class ByteBufferReader extends Reader
+{
+    private ByteBuffer bytes;
+    private CharsetDecoder decoder;
+    private CharBuffer pending;  // When caller's buffer too small for a pair.
+    private boolean flushed;
+
+    public ByteBufferReader(ByteBuffer bytes, Charset charset) {
+        this.bytes = bytes.duplicate();
+        this.decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        int nc = 0;
+        if ((pending != null) && pending.hasRemaining()) {
+            while ((nc < len) && pending.hasRemaining())
+                cbuf[off + nc++] = pending.get();
+            return nc;
+        }
+        if (flushed)
+            return -1;
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        decode(out);
+        nc = out.position() - off;
+        if ((nc == 0) && !flushed) {
+            // A supplementary character does not fit.
+            if (pending == null)
+                pending = CharBuffer.allocate(2);
+            pending.clear();
+            decode(pending);
+            pending.flip();
+            return read(cbuf, off, len);
+        }
+        return (nc == 0) ? -1 : nc;
+    }
+
+    private void decode(CharBuffer out) throws IOException {
+        CoderResult result = decoder.decode(bytes, out, true);
+        if (result.isUnderflow()) {
+            result = decoder.flush(out);
+            if (result.isUnderflow())
+                flushed = true;
+        }
+        if (result.isError())
+            result.throwException();
+    }
+
+    @Override
+    public void close() {
+        bytes = null;
+    }
+}
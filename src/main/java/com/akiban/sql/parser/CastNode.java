@@ -204,4 +204,9 @@ public class CastNode extends ValueNode
         }
         return false;
     }
+
+    protected int computeEquivalenceHash() throws StandardException {
+        // Not the type, which is set as types are computed.
+        return hashCombine(getNodeType(), castOperand.equivalenceHash());
+    }
 }
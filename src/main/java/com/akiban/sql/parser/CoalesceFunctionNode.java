@@ -125,6 +125,10 @@ public class CoalesceFunctionNode extends ValueNode
         return true;
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        return hashCombine(getNodeType(), argumentsList.equivalenceHash());
+    }
+
     /**
      * Accept the visitor for all visitable children of this node.
      *
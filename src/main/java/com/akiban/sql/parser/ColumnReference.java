@@ -215,4 +215,8 @@ public class ColumnReference extends ValueNode
             return tableName.equals(other.tableName);
     }
 
+    protected int computeEquivalenceHash() {
+        return hashCombine(getNodeType(), columnName.hashCode());
+    }
+
 }
@@ -0,0 +1,335 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The elements of a long list of literals of one kind, such as that of
+ * an <code>IN</code> with thousands of keys, kept as an array of values
+ * rather than as a node for each.
+ *
+ * This backs a {@link ValueNodeList}, so it can still be used as a list
+ * of nodes. A node is only made for an element when it is asked for,
+ * and then kept, so that it stays the same node. Visitors are shown a
+ * temporary node for each element not made yet, which is only kept if
+ * they replace it or change its type or value. Anything that adds or removes elements turns it
+ * back into an ordinary list of nodes.
+ *
+ * {@link com.akiban.sql.unparser.NodeToString} and
+ * {@link com.akiban.sql.compiler.TypeComputer} work on the values
+ * directly.
+ */
+public final class CompactConstantList extends AbstractList<ValueNode>
+    implements RandomAccess
+{
+    /** Lists shorter than this are left as nodes. */
+    public static final int MIN_SIZE = 16;
+
+    public static enum Kind {
+        /** Exact numeric literals, which are <code>INTEGER</code> or
+         * <code>BIGINT</code> depending on their value. */
+        LONG,
+        /** Character string literals. */
+        STRING
+    }
+
+    private final Kind kind;
+    private final long[] longs;
+    private final String[] strings;
+    private final int size;
+    private final SQLParserContext parserContext;
+    private QueryTreeNode owner; // The node whose list this is, if known.
+    private ValueNode[] nodes;  // Those made so far.
+    private List<ValueNode> expanded; // Once changed in size.
+
+    private CompactConstantList(Kind kind, long[] longs, String[] strings, int size,
+                                SQLParserContext parserContext) {
+        this.kind = kind;
+        this.longs = longs;
+        this.strings = strings;
+        this.size = size;
+        this.parserContext = parserContext;
+    }
+
+    /** Exact numeric literals, the first <code>size</code> of <code>values</code>. */
+    public static CompactConstantList ofLongs(long[] values, int size,
+                                              SQLParserContext parserContext) {
+        return new CompactConstantList(Kind.LONG, values, null, size, parserContext);
+    }
+
+    /** String literals, the first <code>size</code> of <code>values</code>. */
+    public static CompactConstantList ofStrings(String[] values, int size,
+                                                SQLParserContext parserContext) {
+        return new CompactConstantList(Kind.STRING, null, values, size, parserContext);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /** Are the elements still kept as values? */
+    public boolean isCompact() {
+        return (expanded == null);
+    }
+
+    /** Has a node been made (or put) for this element? */
+    public boolean isMaterialized(int index) {
+        if (expanded != null) return true;
+        checkIndex(index);
+        return ((nodes != null) && (nodes[index] != null));
+    }
+
+    public long getLong(int index) {
+        checkIndex(index);
+        return longs[index];
+    }
+
+    public String getString(int index) {
+        checkIndex(index);
+        return strings[index];
+    }
+
+    @Override
+    public int size() {
+        if (expanded != null) return expanded.size();
+        return size;
+    }
+
+    @Override
+    public ValueNode get(int index) {
+        if (expanded != null) return expanded.get(index);
+        checkIndex(index);
+        if (nodes == null)
+            nodes = new ValueNode[size];
+        ValueNode node = nodes[index];
+        if (node == null) {
+            try {
+                node = newNode(index);
+            }
+            catch (StandardException ex) {
+                throw new IllegalStateException(ex);
+            }
+            nodes[index] = node;
+        }
+        return node;
+    }
+
+    @Override
+    public ValueNode set(int index, ValueNode node) {
+        treeChanged();
+        if (expanded != null) return expanded.set(index, node);
+        ValueNode old = get(index);
+        nodes[index] = node;
+        return old;
+    }
+
+    @Override
+    public void add(int index, ValueNode node) {
+        expand();
+        expanded.add(index, node);
+        modCount++;
+        treeChanged();
+    }
+
+    @Override
+    public ValueNode remove(int index) {
+        expand();
+        modCount++;
+        treeChanged();
+        return expanded.remove(index);
+    }
+
+    private void treeChanged() {
+        if (owner != null)
+            owner.childrenChanged();
+        else
+            parserContext.getNodeFactory().treeChanged();
+    }
+
+    /** Set the node whose list this is, to be told of changes. */
+    void setOwner(QueryTreeNode owner) {
+        this.owner = owner;
+    }
+
+    /** Visit each element, keeping only nodes that the visitor replaces
+     * or changes.
+     */
+    void acceptChildren(Visitor v) throws StandardException {
+        if ((expanded == null) && (v instanceof TreeTraversal.Summarizer)) {
+            // Without making nodes for all the elements.
+            TreeTraversal.Summarizer summarizer = (TreeTraversal.Summarizer)v;
+            if (summarizer.isCombining())
+                summarizer.addNodeTypes(nodeTypes());
+            if (nodes != null) {
+                for (ValueNode node : nodes) {
+                    if (node != null)
+                        summarizer.child(node);
+                }
+            }
+            return;
+        }
+        for (int index = 0; index < size(); index++) {
+            if (expanded != null) {
+                expanded.set(index, (ValueNode)expanded.get(index).accept(v));
+                continue;
+            }
+            if ((nodes != null) && (nodes[index] != null)) {
+                nodes[index] = (ValueNode)nodes[index].accept(v);
+                continue;
+            }
+            ValueNode node = newNode(index);
+            Object type = node.getType();
+            Object value = ((ConstantNode)node).getValue();
+            ValueNode result;
+            if (v instanceof TreeTraversal.ChildVisitor)
+                result = (ValueNode)
+                    ((TreeTraversal.ChildVisitor)v).temporaryChild(node, temporaryNodes);
+            else
+                result = (ValueNode)node.accept(v);
+            if ((result != node) ||
+                (node.getType() != type) || (((ConstantNode)node).getValue() != value)) {
+                if (nodes == null)
+                    nodes = new ValueNode[size];
+                nodes[index] = result;
+            }
+        }
+    }
+
+    /** Notes the type and value of a temporary node, which is kept if a
+     * visitor changes either in place.
+     */
+    private final TreeTraversal.TemporaryChildren temporaryNodes =
+        new TreeTraversal.TemporaryChildren() {
+            public Object saveState(QueryTreeNode child) {
+                ConstantNode node = (ConstantNode)child;
+                return new Object[] { node.getType(), node.getValue() };
+            }
+
+            public boolean changedInPlace(QueryTreeNode child, Object saved) {
+                Object[] state = (Object[])saved;
+                ConstantNode node = (ConstantNode)child;
+                return ((state[0] != node.getType()) || (state[1] != node.getValue()));
+            }
+        };
+
+    /** {@link ValueNode#equivalenceHash} of the node that would be made
+     * for an element.
+     */
+    int equivalenceHash(int index) {
+        switch (kind) {
+        case LONG:
+            // What the Integer or Long value's hashCode would be.
+            long value = longs[index];
+            if ((value >= Integer.MIN_VALUE) && (value <= Integer.MAX_VALUE))
+                return ValueNode.hashCombine(NodeTypes.INT_CONSTANT_NODE, (int)value);
+            else
+                return ValueNode.hashCombine(NodeTypes.LONGINT_CONSTANT_NODE,
+                                             (int)(value ^ (value >>> 32)));
+        case STRING:
+            return ConstantNode.equivalenceHash(NodeTypes.CHAR_CONSTANT_NODE,
+                                                strings[index]);
+        default:
+            throw new IllegalStateException("Unknown kind " + kind);
+        }
+    }
+
+    /** The types of the nodes that would be made for the elements. Those
+     * already made are summarized like any other child.
+     */
+    private long nodeTypes() {
+        long mask;
+        if (kind == Kind.LONG)
+            mask = NodeTypeMask.of(NodeTypes.INT_CONSTANT_NODE,
+                                   NodeTypes.LONGINT_CONSTANT_NODE);
+        else
+            mask = NodeTypeMask.bit(NodeTypes.CHAR_CONSTANT_NODE);
+        return mask;
+    }
+
+    /** Make a copy for another tree, sharing the values and copying
+     * any nodes already made.
+     */
+    CompactConstantList copy(QueryTreeNode into) throws StandardException {
+        CompactConstantList copy = new CompactConstantList(kind, longs, strings, size,
+                                                           into.getParserContext());
+        copy.owner = into;
+        if (nodes != null) {
+            copy.nodes = new ValueNode[size];
+            for (int index = 0; index < size; index++) {
+                if (nodes[index] != null)
+                    copy.nodes[index] = (ValueNode)
+                        into.getNodeFactory().copyNode(nodes[index], into.getParserContext());
+            }
+        }
+        return copy;
+    }
+
+    private ValueNode newNode(int index) throws StandardException {
+        switch (kind) {
+        case LONG:
+            return newConstantNode(longs[index], parserContext);
+        case STRING:
+            return newConstantNode(strings[index], parserContext);
+        default:
+            throw new IllegalStateException("Unknown kind " + kind);
+        }
+    }
+
+    /** The node the grammar's <code>getNumericNode</code> makes for an
+     * exact numeric literal.
+     */
+    static ValueNode newConstantNode(long value, SQLParserContext parserContext)
+            throws StandardException {
+        NodeFactory nodeFactory = parserContext.getNodeFactory();
+        if ((value >= Integer.MIN_VALUE) && (value <= Integer.MAX_VALUE))
+            return (ValueNode)nodeFactory.getNode(NodeTypes.INT_CONSTANT_NODE,
+                                                  Integer.valueOf((int)value),
+                                                  parserContext);
+        else
+            return (ValueNode)nodeFactory.getNode(NodeTypes.LONGINT_CONSTANT_NODE,
+                                                  Long.valueOf(value),
+                                                  parserContext);
+    }
+
+    /** The node <code>stringLiteral</code> makes. */
+    static ValueNode newConstantNode(String value, SQLParserContext parserContext)
+            throws StandardException {
+        return (ValueNode)parserContext.getNodeFactory()
+            .getNode(NodeTypes.CHAR_CONSTANT_NODE, value, parserContext);
+    }
+
+    private void expand() {
+        if (expanded != null) return;
+        List<ValueNode> list = new ArrayList<ValueNode>(size + 1);
+        for (int index = 0; index < size; index++)
+            list.add(get(index));
+        expanded = list;
+        nodes = null;
+    }
+
+    private void checkIndex(int index) {
+        if ((index < 0) || (index >= size))
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+}
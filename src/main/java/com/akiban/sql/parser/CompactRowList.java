@@ -0,0 +1,430 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The rows of a multi-row <code>VALUES</code> of plain literals, such as
+ * that of a bulk <code>INSERT</code>, kept a column at a time as arrays
+ * of values rather than as nodes for each cell.
+ *
+ * Each column holds either exact numerics that fit in a
+ * <code>long</code> or strings, either of which can also be
+ * <code>NULL</code>. An executor can read the values directly with
+ * {@link #getKind}, {@link #isNull}, {@link #getLong} and
+ * {@link #getString}, for those rows that are not yet
+ * {@link #isMaterialized}.
+ *
+ * This backs a {@link RowsResultSetNode}, so it can still be used as a
+ * list of rows. As with {@link CompactConstantList}, a row's nodes are
+ * only made when it is asked for, and then kept. Visitors are shown a
+ * temporary row, which is only kept if they change which nodes are in
+ * it, the names or types of its columns, or the types or values of
+ * its values. Giving each column the type of its value, as computing
+ * types does, is instead noted for the column, and done for rows when
+ * they are made. Adding or removing rows turns it back into an
+ * ordinary list.
+ */
+public final class CompactRowList extends AbstractList<RowResultSetNode>
+    implements RandomAccess
+{
+    /** Shorter <code>VALUES</code> are left as nodes. */
+    public static final int MIN_ROWS = 16;
+
+    private final CompactConstantList.Kind[] kinds;
+    private final long[][] longs;
+    private final String[][] strings;
+    private final BitSet[] nulls;
+    private final int size;
+    private final SQLParserContext parserContext;
+    private QueryTreeNode owner; // The node whose list this is, if known.
+    private RowResultSetNode[] rows;  // Those made so far.
+    private List<RowResultSetNode> expanded; // Once changed in size.
+    // For each column, how many rows from the start are made with the
+    // type of their value, once a visitor has set it.
+    private int[] typedRows;
+    private int temporaryIndex; // Of the row being visited.
+
+    /**
+     * @param kinds the kind of each column, <code>null</code> when it
+     * only has <code>NULL</code>s.
+     * @param longs the values of each <code>LONG</code> column.
+     * @param strings the values of each <code>STRING</code> column.
+     * @param nulls the rows with <code>NULL</code> in each column, if any.
+     * @param size the number of rows.
+     */
+    CompactRowList(CompactConstantList.Kind[] kinds,
+                   long[][] longs, String[][] strings, BitSet[] nulls, int size,
+                   SQLParserContext parserContext) {
+        this.kinds = kinds;
+        this.longs = longs;
+        this.strings = strings;
+        this.nulls = nulls;
+        this.size = size;
+        this.parserContext = parserContext;
+    }
+
+    public int getColumnCount() {
+        return kinds.length;
+    }
+
+    /** The kind of values in a column, or <code>null</code> if all of
+     * them are <code>NULL</code>.
+     */
+    public CompactConstantList.Kind getKind(int column) {
+        return kinds[column];
+    }
+
+    /** Are the rows still kept as values? */
+    public boolean isCompact() {
+        return (expanded == null);
+    }
+
+    /** Has a node been made (or put) for this row? */
+    public boolean isMaterialized(int index) {
+        if (expanded != null) return true;
+        checkIndex(index);
+        return ((rows != null) && (rows[index] != null));
+    }
+
+    public boolean isNull(int index, int column) {
+        checkIndex(index);
+        return ((nulls[column] != null) && nulls[column].get(index));
+    }
+
+    public long getLong(int index, int column) {
+        checkIndex(index);
+        return longs[column][index];
+    }
+
+    public String getString(int index, int column) {
+        checkIndex(index);
+        return strings[column][index];
+    }
+
+    @Override
+    public int size() {
+        if (expanded != null) return expanded.size();
+        return size;
+    }
+
+    @Override
+    public RowResultSetNode get(int index) {
+        if (expanded != null) return expanded.get(index);
+        checkIndex(index);
+        if (rows == null)
+            rows = new RowResultSetNode[size];
+        RowResultSetNode row = rows[index];
+        if (row == null) {
+            try {
+                row = newRow(index, null);
+            }
+            catch (StandardException ex) {
+                throw new IllegalStateException(ex);
+            }
+            rows[index] = row;
+        }
+        return row;
+    }
+
+    @Override
+    public RowResultSetNode set(int index, RowResultSetNode row) {
+        treeChanged();
+        if (expanded != null) return expanded.set(index, row);
+        RowResultSetNode old = get(index);
+        rows[index] = row;
+        return old;
+    }
+
+    @Override
+    public void add(int index, RowResultSetNode row) {
+        expand();
+        expanded.add(index, row);
+        modCount++;
+        treeChanged();
+    }
+
+    @Override
+    public RowResultSetNode remove(int index) {
+        expand();
+        modCount++;
+        treeChanged();
+        return expanded.remove(index);
+    }
+
+    private void treeChanged() {
+        if (owner != null)
+            owner.childrenChanged();
+        else
+            parserContext.getNodeFactory().treeChanged();
+    }
+
+    /** Set the node whose list this is, to be told of changes. */
+    void setOwner(QueryTreeNode owner) {
+        this.owner = owner;
+    }
+
+    /** The row made for an index, or a new one that is not kept. */
+    RowResultSetNode peek(int index) throws StandardException {
+        if ((rows != null) && (rows[index] != null))
+            return rows[index];
+        return newRow(index, null);
+    }
+
+    /** Visit each row, keeping only those in which the visitor replaces
+     * or changes something.
+     */
+    void acceptChildren(Visitor v) throws StandardException {
+        if ((expanded == null) && (v instanceof TreeTraversal.Summarizer)) {
+            // Without making the rows.
+            TreeTraversal.Summarizer summarizer = (TreeTraversal.Summarizer)v;
+            if (summarizer.isCombining())
+                summarizer.addNodeTypes(nodeTypes());
+            if (rows != null) {
+                for (RowResultSetNode row : rows) {
+                    if (row != null)
+                        summarizer.child(row);
+                }
+            }
+            return;
+        }
+        ValueNode[] cells = null;
+        for (int index = 0; index < size(); index++) {
+            if (expanded != null) {
+                expanded.set(index, (RowResultSetNode)expanded.get(index).accept(v));
+                continue;
+            }
+            if ((rows != null) && (rows[index] != null)) {
+                rows[index] = (RowResultSetNode)rows[index].accept(v);
+                continue;
+            }
+            if (cells == null)
+                cells = new ValueNode[kinds.length];
+            RowResultSetNode row = newRow(index, cells);
+            ResultColumnList columns = row.getResultColumns();
+            RowResultSetNode result;
+            if (v instanceof TreeTraversal.ChildVisitor) {
+                temporaryIndex = index;
+                result = (RowResultSetNode)
+                    ((TreeTraversal.ChildVisitor)v).temporaryChild(row, temporaryRows);
+            }
+            else
+                result = (RowResultSetNode)row.accept(v);
+            if ((result != row) || (row.getResultColumns() != columns) ||
+                !sameCells(columns, cells)) {
+                if (rows == null)
+                    rows = new RowResultSetNode[size];
+                rows[index] = result;
+            }
+        }
+    }
+
+    /** The types of the nodes that would be made for the rows. Those
+     * already made are summarized like any other child.
+     */
+    private long nodeTypes() {
+        long mask = NodeTypeMask.of(NodeTypes.ROW_RESULT_SET_NODE,
+                                    NodeTypes.RESULT_COLUMN_LIST,
+                                    NodeTypes.RESULT_COLUMN);
+        for (int column = 0; column < kinds.length; column++) {
+            if (kinds[column] == CompactConstantList.Kind.LONG)
+                mask |= NodeTypeMask.of(NodeTypes.INT_CONSTANT_NODE,
+                                        NodeTypes.LONGINT_CONSTANT_NODE);
+            else if (kinds[column] == CompactConstantList.Kind.STRING)
+                mask |= NodeTypeMask.bit(NodeTypes.CHAR_CONSTANT_NODE);
+            if ((nulls[column] != null) && !nulls[column].isEmpty())
+                mask |= NodeTypeMask.bit(NodeTypes.UNTYPED_NULL_CONSTANT_NODE);
+        }
+        return mask;
+    }
+
+    /** Make a copy for another tree, sharing the values and copying
+     * any rows already made.
+     */
+    CompactRowList copy(QueryTreeNode into) throws StandardException {
+        CompactRowList copy = new CompactRowList(kinds, longs, strings, nulls, size,
+                                                 into.getParserContext());
+        copy.owner = into;
+        if (typedRows != null)
+            copy.typedRows = typedRows.clone();
+        if (rows != null) {
+            copy.rows = new RowResultSetNode[size];
+            for (int index = 0; index < size; index++) {
+                if (rows[index] != null)
+                    copy.rows[index] = (RowResultSetNode)
+                        into.getNodeFactory().copyNode(rows[index], into.getParserContext());
+            }
+        }
+        return copy;
+    }
+
+    /** Make the nodes that the grammar would have for a row.
+     * @param cells if not <code>null</code>, gets the value of each column.
+     */
+    private RowResultSetNode newRow(int index, ValueNode[] cells)
+            throws StandardException {
+        NodeFactory nodeFactory = parserContext.getNodeFactory();
+        ResultColumnList columns = (ResultColumnList)
+            nodeFactory.getNode(NodeTypes.RESULT_COLUMN_LIST, parserContext);
+        for (int column = 0; column < kinds.length; column++) {
+            ValueNode value;
+            if (isNull(index, column))
+                value = (ValueNode)nodeFactory.getNode(NodeTypes.UNTYPED_NULL_CONSTANT_NODE,
+                                                       parserContext);
+            else if (kinds[column] == CompactConstantList.Kind.LONG)
+                value = CompactConstantList.newConstantNode(longs[column][index],
+                                                            parserContext);
+            else
+                value = CompactConstantList.newConstantNode(strings[column][index],
+                                                            parserContext);
+            if (cells != null)
+                cells[column] = value;
+            ResultColumn resultColumn = (ResultColumn)
+                nodeFactory.getNode(NodeTypes.RESULT_COLUMN, null, value, parserContext);
+            if ((typedRows != null) && (index < typedRows[column]))
+                resultColumn.setType(value.getType());
+            columns.addResultColumn(resultColumn);
+        }
+        return (RowResultSetNode)nodeFactory.getNode(NodeTypes.ROW_RESULT_SET_NODE,
+                                                     columns,
+                                                     null,
+                                                     parserContext);
+    }
+
+    /** Notes the columns of a temporary row and what a visitor might set
+     * on them, including the values, so that a row changed in place is
+     * kept. A column given
+     * the type of its value is noted for the column instead, provided
+     * the rows before it in that column were too.
+     */
+    private final TreeTraversal.TemporaryChildren temporaryRows =
+        new TreeTraversal.TemporaryChildren() {
+            public Object saveState(QueryTreeNode child) {
+                ResultColumnList columns = ((RowResultSetNode)child).getResultColumns();
+                Object[] state = new Object[2 + columns.size() * 6];
+                state[0] = columns;
+                state[1] = temporaryIndex;
+                for (int column = 0; column < columns.size(); column++) {
+                    ResultColumn resultColumn = columns.get(column);
+                    int i = 2 + column * 6;
+                    state[i] = resultColumn;
+                    state[i + 1] = resultColumn.getName();
+                    state[i + 2] = resultColumn.getType();
+                    ValueNode expression = resultColumn.getExpression();
+                    state[i + 3] = expression;
+                    if (expression != null) {
+                        state[i + 4] = expression.getType();
+                        if (expression instanceof ConstantNode)
+                            state[i + 5] = ((ConstantNode)expression).getValue();
+                    }
+                }
+                return state;
+            }
+
+            public boolean changedInPlace(QueryTreeNode child, Object saved) {
+                Object[] state = (Object[])saved;
+                int index = (Integer)state[1];
+                ResultColumnList columns = ((RowResultSetNode)child).getResultColumns();
+                if ((columns != state[0]) || (state.length != 2 + columns.size() * 6)) {
+                    typedThrough(index, null);
+                    return true;
+                }
+                boolean changed = false;
+                boolean[] typed = new boolean[columns.size()];
+                for (int column = 0; column < columns.size(); column++) {
+                    ResultColumn resultColumn = columns.get(column);
+                    ValueNode expression = resultColumn.getExpression();
+                    int i = 2 + column * 6;
+                    if ((state[i] != resultColumn) ||
+                        (state[i + 1] != resultColumn.getName()) ||
+                        (state[i + 3] != expression) ||
+                        ((expression != null) &&
+                         ((state[i + 4] != expression.getType()) ||
+                          ((expression instanceof ConstantNode) &&
+                           (state[i + 5] != ((ConstantNode)expression).getValue()))))) {
+                        changed = true;
+                        continue;
+                    }
+                    boolean typeOfValue = (expression != null) &&
+                        (resultColumn.getType() == expression.getType()) &&
+                        isNextTyped(index, column);
+                    if (typeOfValue)
+                        typed[column] = true;
+                    else if (state[i + 2] != resultColumn.getType())
+                        changed = true;
+                }
+                typedThrough(index, changed ? null : typed);
+                return changed;
+            }
+        };
+
+    /** Is the row at <code>index</code> the next one to be typed in
+     * <code>column</code>, with only those already made in between?
+     */
+    private boolean isNextTyped(int index, int column) {
+        int next = (typedRows == null) ? 0 : typedRows[column];
+        while ((next < index) && (rows != null) && (rows[next] != null))
+            next++;
+        return (next == index);
+    }
+
+    /** Note that the row at <code>index</code> is typed in the given
+     * columns, or in all of them when it is being kept.
+     */
+    private void typedThrough(int index, boolean[] typed) {
+        for (int column = 0; column < kinds.length; column++) {
+            if (((typed == null) || typed[column]) && isNextTyped(index, column)) {
+                if (typedRows == null)
+                    typedRows = new int[kinds.length];
+                typedRows[column] = index + 1;
+            }
+        }
+    }
+
+    /** Does a row made by {@link #newRow} still have just those values? */
+    private static boolean sameCells(ResultColumnList columns, ValueNode[] cells) {
+        if (columns.size() != cells.length)
+            return false;
+        for (int column = 0; column < cells.length; column++) {
+            if (columns.get(column).getExpression() != cells[column])
+                return false;
+        }
+        return true;
+    }
+
+    private void expand() {
+        if (expanded != null) return;
+        List<RowResultSetNode> list = new ArrayList<RowResultSetNode>(size + 1);
+        for (int index = 0; index < size; index++)
+            list.add(get(index));
+        expanded = list;
+        rows = null;
+    }
+
+    private void checkIndex(int index) {
+        if ((index < 0) || (index >= size))
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+}
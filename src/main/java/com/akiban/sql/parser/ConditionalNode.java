@@ -91,6 +91,7 @@ public class ConditionalNode extends ValueNode
 
     public void setTestCondition(ValueNode testCondition) {
         this.testCondition = testCondition;
+        childrenChanged();
     }
 
     public ValueNodeList getThenElseList() {
@@ -179,4 +180,9 @@ public class ConditionalNode extends ValueNode
         return false;
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        int hash = hashCombine(getNodeType(), testCondition.equivalenceHash());
+        return hashCombine(hash, thenElseList.equivalenceHash());
+    }
+
 }
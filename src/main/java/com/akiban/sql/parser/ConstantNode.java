@@ -104,6 +104,7 @@ public abstract class ConstantNode extends ValueNode
      */
     public void setValue(Object value) {
         this.value = value;
+        valueChanged();
     }
 
     /**
@@ -145,4 +146,15 @@ public abstract class ConstantNode extends ValueNode
         }
         return false;
     }
+
+    protected int computeEquivalenceHash() {
+        return equivalenceHash(getNodeType(), getValue());
+    }
+
+    /** The hash of a constant node of the given type and value, even
+     * one that has not been made.
+     */
+    static int equivalenceHash(int nodeType, Object value) {
+        return hashCombine(nodeType, (value == null) ? 0 : value.hashCode());
+    }
 }
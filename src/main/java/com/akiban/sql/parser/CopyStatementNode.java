@@ -140,6 +140,7 @@ public class CopyStatementNode extends StatementNode
         super.copyFrom(node);
         
         CopyStatementNode other = (CopyStatementNode)node;
+        this.mode = other.mode;
         this.tableName = (TableName)getNodeFactory().copyNode(other.tableName,
                                                                 getParserContext());
         this.subquery = (SubqueryNode)getNodeFactory().copyNode(other.subquery,
@@ -153,6 +154,8 @@ public class CopyStatementNode extends StatementNode
         this.quote = other.quote;
         this.escape = other.escape;
         this.encoding = other.encoding;
+        this.header = other.header;
+        this.commitFrequency = other.commitFrequency;
     }
 
     /**
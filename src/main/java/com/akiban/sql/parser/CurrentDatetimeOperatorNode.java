@@ -100,4 +100,8 @@ public class CurrentDatetimeOperatorNode extends ValueNode
         }
         return false;
     }
+
+    protected int computeEquivalenceHash() {
+        return hashCombine(getNodeType(), field.hashCode());
+    }
 }
@@ -104,6 +104,7 @@ public abstract class DMLModStatementNode extends DMLStatementNode
             this.targetVTI = (FromVTI)targetName;
             targetVTI.setTarget();
         }
+        childrenChanged();
     }
 
     /**
@@ -126,6 +127,7 @@ public abstract class DMLModStatementNode extends DMLStatementNode
 
     public void setReturningList(ResultColumnList returningColumnList) {
         this.returningColumnList = returningColumnList;
+        childrenChanged();
     }
 
     /**
@@ -77,6 +77,7 @@ public class DropSequenceNode extends DDLStatementNode
         DropSequenceNode other = (DropSequenceNode)node;
         this.dropItem = (TableName)getNodeFactory().copyNode(other.dropItem,
                                                              getParserContext());
+        this.existenceCheck = other.existenceCheck;
     }
 
     public String statementToString() {
@@ -123,4 +123,9 @@ public class ExplicitCollateNode extends ValueNode
         return false;
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        int hash = hashCombine(getNodeType(), collation.hashCode());
+        return hashCombine(hash, equivalenceHash(operand));
+    }
+
 }
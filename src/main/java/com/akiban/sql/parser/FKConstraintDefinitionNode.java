@@ -106,6 +106,7 @@ public class FKConstraintDefinitionNode extends ConstraintDefinitionNode
                                                                   getParserContext());
         this.refActionDeleteRule = other.refActionDeleteRule;
         this.refActionUpdateRule = other.refActionUpdateRule;
+        this.grouping = other.grouping;
     }
 
     public TableName getRefTableName() { 
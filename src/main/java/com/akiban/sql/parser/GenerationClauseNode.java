@@ -81,6 +81,10 @@ public class GenerationClauseNode extends ValueNode
         GenerationClauseNode that = (GenerationClauseNode)other;
         return this.generationExpression.isEquivalent(that.generationExpression);
     }
+
+    protected int computeEquivalenceHash() throws StandardException {
+        return generationExpression.equivalenceHash();
+    }
         
     public String toString() {
         return
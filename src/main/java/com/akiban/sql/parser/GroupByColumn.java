@@ -101,7 +101,7 @@ public class GroupByColumn extends OrderedColumn
 
     public void setColumnExpression(ValueNode cexpr) {
         this.columnExpression = cexpr;
-
+        childrenChanged();
     }
 
     /**
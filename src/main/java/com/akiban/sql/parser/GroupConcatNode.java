@@ -77,6 +77,10 @@ public class GroupConcatNode extends AggregateNode
              && this.orderCols.equals(other.orderCols);
     }
 
+    protected int computeEquivalenceHash() {
+        return hashCombine(getNodeType(), sep.hashCode());
+    }
+
     @Override
     public String toString()
     {
@@ -49,13 +49,18 @@ import com.akiban.sql.StandardException;
  * Can find any type of node -- the class or class name
  * of the target node is passed in as a constructor
  * parameter.
+ * <p>
+ * If asked, subtrees that are known to have no node of that class are
+ * passed over; see {@link NodeTypesVisitor}. A subclass that looks for
+ * something else as well should not ask.
  *
  */
-public class HasNodeVisitor implements Visitor
+public class HasNodeVisitor implements NodeTypesVisitor
 {
     protected boolean hasNode;
     private Class nodeClass;
     private Class skipOverClass;
+    private boolean passOver;
     /**
      * Construct a visitor
      *
@@ -79,6 +84,19 @@ public class HasNodeVisitor implements Visitor
         this.skipOverClass = skipOverClass;
     }
 
+    /**
+     * Construct a visitor
+     *
+     * @param nodeClass the class of the node that 
+     * we are looking for.
+     * @param passOver pass over subtrees known to have
+     * no node of that class.
+     */
+    public HasNodeVisitor(Class nodeClass, boolean passOver) {
+        this.nodeClass = nodeClass;
+        this.passOver = passOver;
+    }
+
     ////////////////////////////////////////////////
     //
     // VISITOR INTERFACE
@@ -125,6 +143,16 @@ public class HasNodeVisitor implements Visitor
         return false;
     }
 
+    /**
+     * Only look where there might be a node of the target class, if
+     * constructed to pass over the rest.
+     *
+     * @return the node types of the target class, or all of them
+     */
+    public long getNodeTypes() {
+        return (passOver) ? NodeTypeMask.of(nodeClass) : NodeTypeMask.ALL;
+    }
+
     ////////////////////////////////////////////////
     //
     // CLASS INTERFACE
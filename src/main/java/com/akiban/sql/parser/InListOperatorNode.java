@@ -138,6 +138,7 @@ public final class InListOperatorNode extends ValueNode
     public void setLeftOperand(RowConstructorNode newLeftOperand)
     {
         leftOperand = newLeftOperand;
+        childrenChanged();
     }
 
     /**
@@ -159,6 +160,7 @@ public final class InListOperatorNode extends ValueNode
     public void setRightOperandList(RowConstructorNode newRightOperandList)
     {
         rightOperandList = newRightOperandList;
+        childrenChanged();
     }
 
     /**
@@ -223,6 +225,11 @@ public final class InListOperatorNode extends ValueNode
         return true;
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        int hash = hashCombine(getNodeType(), leftOperand.equivalenceHash());
+        return hashCombine(hash, rightOperandList.equivalenceHash());
+    }
+
     public boolean isNegated() {
         return negated;
     }
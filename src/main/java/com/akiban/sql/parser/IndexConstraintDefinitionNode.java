@@ -87,7 +87,8 @@ public class IndexConstraintDefinitionNode extends ConstraintDefinitionNode impl
         
         IndexConstraintDefinitionNode other = (IndexConstraintDefinitionNode) node;
         this.indexName = other.indexName;
-        this.indexColumnList = other.indexColumnList;
+        this.indexColumnList = (IndexColumnList)
+            getNodeFactory().copyNode(other.indexColumnList, getParserContext());
         this.joinType = other.joinType;
         this.location = other.location;
     }
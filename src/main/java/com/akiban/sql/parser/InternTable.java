@@ -0,0 +1,144 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.types.DataTypeDescriptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares one instance of each equal immutable value met while parsing:
+ * identifiers, string literals, small numbers and data types. Wide
+ * generated statements repeat the same names and types many times, so
+ * this cuts the retained size of trees that are kept around.
+ *
+ * Nodes themselves are never shared, since they are not immutable and
+ * carry their own positions. So a <code>TableName</code> is not
+ * shared, only the strings in it.
+ *
+ * A table is used by a {@link SQLParser} that has
+ * {@link SQLParser#setInterning} on, and lasts for one call to parse.
+ * It also counts what it saves, as an estimate for a 64-bit JVM with
+ * compressed references.
+ */
+public class InternTable
+{
+    private Map<Object,Object> values = new HashMap<Object,Object>();
+    private int requests, hits;
+    private long bytesSaved;
+
+    /** Get the string equal to <code>s</code> met first. */
+    public String intern(String s) {
+        if (s == null) return null;
+        String result = (String)lookup(s);
+        if (result != s)
+            bytesSaved += stringSize(s);
+        return result;
+    }
+
+    /** Get the number equal to <code>n</code> met first. */
+    public Integer intern(Integer n) {
+        Integer result = (Integer)lookup(n);
+        if (result != n)
+            bytesSaved += 16;
+        return result;
+    }
+
+    /** Get the number equal to <code>n</code> met first. */
+    public Long intern(Long n) {
+        Long result = (Long)lookup(n);
+        if (result != n)
+            bytesSaved += 24;
+        return result;
+    }
+
+    /** Get the type the same as <code>type</code> met first. Types
+     * with character attributes or that are not built in are not
+     * shared, since their <code>equals</code> leaves things out.
+     */
+    public DataTypeDescriptor intern(DataTypeDescriptor type) {
+        if ((type == null) ||
+            (type.getCharacterAttributes() != null) ||
+            type.getTypeId().isUserDefinedTypeId() ||
+            type.isRowMultiSet())
+            return type;
+        DataTypeDescriptor result = (DataTypeDescriptor)lookup(type);
+        if (result != type) {
+            if (result.getTypeId() != type.getTypeId()) {
+                // Same name but not the same type.
+                hits--;
+                return type;
+            }
+            bytesSaved += 40;
+        }
+        return result;
+    }
+
+    private Object lookup(Object value) {
+        requests++;
+        Object result = values.get(value);
+        if (result == null) {
+            values.put(value, value);
+            return value;
+        }
+        if (result != value)
+            hits++;
+        return result;
+    }
+
+    /** The number of values looked up. */
+    public int getRequests() {
+        return requests;
+    }
+
+    /** The number of values for which an equal one was already known,
+     * each of which is a duplicate that no longer needs to be kept.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /** The number of distinct values. */
+    public int size() {
+        return values.size();
+    }
+
+    /** An estimate of the memory no longer used by duplicates. */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /** Forget all values and counts. */
+    public void clear() {
+        if (!values.isEmpty())
+            values = new HashMap<Object,Object>();
+        requests = hits = 0;
+        bytesSaved = 0;
+    }
+
+    /** A <code>String</code> and its <code>char[]</code>. */
+    static long stringSize(String s) {
+        return 24 + ((16 + 2L * s.length() + 7) & ~7L);
+    }
+
+    public String toString() {
+        return "InternTable(size=" + size() + ", requests=" + requests +
+            ", hits=" + hits + ", bytesSaved=" + bytesSaved + ")";
+    }
+}
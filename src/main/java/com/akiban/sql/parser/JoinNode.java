@@ -150,6 +150,7 @@ public class JoinNode extends TableOperatorNode
     }
     public void setJoinClause(ValueNode joinClause) {
         this.joinClause = joinClause;
+        childrenChanged();
     }
 
     public ResultColumnList getUsingClause() {
@@ -157,6 +158,7 @@ public class JoinNode extends TableOperatorNode
     }
     public void setUsingClause(ResultColumnList usingClause) {
         this.usingClause = usingClause;
+        childrenChanged();
     }
 
     /**
@@ -43,6 +43,8 @@ package com.akiban.sql.parser;
 import com.akiban.sql.StandardException;
 import com.akiban.sql.types.AliasInfo;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
     This is an interface for NodeFactories.
     <p>
@@ -51,6 +53,26 @@ import com.akiban.sql.types.AliasInfo;
 
 public abstract class NodeFactory
 {
+    // Changed when a tree from this factory changes in a way that
+    // cannot be followed up from the node that changed, such as below
+    // a node in more than one tree, putting all the summaries of node
+    // types out of date. Atomic because a tree may still be in use
+    // after its parser has gone back to a pool and on to another thread.
+    private final AtomicInteger treeVersion = new AtomicInteger(1);
+
+    /** Note that some tree of nodes made by this factory has changed
+     * somewhere that cannot be told more exactly. */
+    void treeChanged() {
+        treeVersion.incrementAndGet();
+    }
+
+    /** The version of its trees that node type summaries are good for.
+     * Never zero, except on wrapping around.
+     */
+    int getTreeVersion() {
+        return treeVersion.get();
+    }
+
     /**
      * Get a node that takes no initializer arguments.
      *
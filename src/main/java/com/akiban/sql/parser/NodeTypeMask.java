@@ -0,0 +1,97 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sets of node types from {@link NodeTypes} as a single <code>long</code>,
+ * like a one-hash Bloom filter: types can share a bit, so a mask may
+ * claim types that are not there, but never miss one that is.
+ *
+ * @see QueryTreeNode#getSubtreeNodeTypes
+ * @see NodeTypesVisitor
+ */
+public final class NodeTypeMask
+{
+    /** Every node type. */
+    public static final long ALL = -1L;
+
+    // Types beyond the standard ones, such as from a custom node
+    // factory, all share the top bit.
+    private static final long EXTENSION_BIT = 1L << 63;
+
+    private static final Map<Class<?>,Long> classMasks = new HashMap<Class<?>,Long>();
+
+    private NodeTypeMask() {
+    }
+
+    /** The bit for a single node type. */
+    public static long bit(int nodeType) {
+        if ((nodeType < 0) || (nodeType > NodeTypes.FINAL_VALUE))
+            return EXTENSION_BIT;
+        return 1L << (nodeType % 63);
+    }
+
+    /** The mask for the given node types. */
+    public static long of(int... nodeTypes) {
+        long mask = 0;
+        for (int nodeType : nodeTypes)
+            mask |= bit(nodeType);
+        return mask;
+    }
+
+    /** The mask for all the node types whose nodes are instances of
+     * <code>nodeClass</code>, going by the standard node factory.
+     * Any extension node type might be, so they are always included.
+     * A class that no standard type makes, such as one only a custom
+     * node factory knows about, gets {@link #ALL}.
+     */
+    public static long of(Class<?> nodeClass) {
+        synchronized (classMasks) {
+            Long mask = classMasks.get(nodeClass);
+            if (mask == null) {
+                mask = computeMask(nodeClass);
+                classMasks.put(nodeClass, mask);
+            }
+            return mask;
+        }
+    }
+
+    private static long computeMask(Class<?> nodeClass) {
+        NodeFactoryImpl nodeFactory = new NodeFactoryImpl();
+        long mask = 0;
+        for (int nodeType = 0; nodeType <= NodeTypes.FINAL_VALUE; nodeType++) {
+            QueryTreeNode node;
+            try {
+                node = nodeFactory.newNode(nodeType);
+            }
+            catch (StandardException ex) {
+                continue;       // Not a type that is made.
+            }
+            if (nodeClass.isInstance(node))
+                mask |= bit(nodeType);
+        }
+        if (mask == 0)
+            return ALL;
+        return mask | EXTENSION_BIT;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+/**
+ * A {@link Visitor} that only cares about nodes of certain types, so
+ * that whole subtrees with none of them can be passed over.
+ *
+ * A subtree is skipped, without even its top node being visited, when
+ * its {@link QueryTreeNode#getSubtreeNodeTypes} is known and has none of
+ * {@link #getNodeTypes}. Since masks can share bits, and the ancestors of
+ * the nodes sought are visited on the way down, the visitor will still
+ * be shown other nodes and needs to check them as usual.
+ */
+public interface NodeTypesVisitor extends Visitor
+{
+    /**
+     * The types of nodes this visitor is looking for.
+     *
+     * @return a mask from {@link NodeTypeMask}.
+     */
+    public long getNodeTypes();
+}
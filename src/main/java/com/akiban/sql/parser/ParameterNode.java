@@ -102,6 +102,7 @@ public class ParameterNode extends ValueNode
      */
     public void setReturnOutputParam(ValueNode valueNode) {
         returnOutputParameter = valueNode;
+        childrenChanged();
     }
 
     /**
@@ -0,0 +1,288 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe cache of parsed statements in front of
+ * {@link SQLParser#parseStatement}.
+ *
+ * Entries are keyed by the SQL text and the parser's settings: its
+ * enabled features, identifier case, length limits and node factory
+ * class. They are evicted in least-recently-used order
+ * once either the entry count or the total weight (the length of the
+ * cached SQL text) exceeds its limit.
+ *
+ * The cached tree is never handed out. Each caller gets a private copy
+ * made by {@link NodeFactory#copyNode} with its own parser as context, so
+ * that later passes that modify the tree in place do not affect other
+ * callers. The parser's parameter list is set up to refer to the copy's
+ * parameters, just as though it had parsed the statement itself.
+ */
+public class ParsedStatementCache
+{
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_MAX_WEIGHT = 16 * 1024 * 1024;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<Key,Entry> entries;
+    private long weight;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public ParsedStatementCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxEntries the maximum number of statements kept.
+     * @param maxWeight the maximum total number of characters of SQL text
+     * kept, which is roughly proportional to the size of the trees.
+     */
+    public ParsedStatementCache(int maxEntries, long maxWeight) {
+        if ((maxEntries <= 0) || (maxWeight <= 0))
+            throw new IllegalArgumentException("Cache limits must be positive");
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.entries = new LinkedHashMap<Key,Entry>(16, 0.75f, true);
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Parse the given SQL, reusing an earlier parse with the same
+     * settings if there is one.
+     * @return a copy of the parsed statement that belongs to the caller.
+     */
+    public StatementNode parseStatement(SQLParser parser, String sqlText)
+            throws StandardException {
+        Key key = new Key(sqlText, parser);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            hitCount.incrementAndGet();
+            return entry.copyFor(parser, sqlText);
+        }
+        missCount.incrementAndGet();
+        // Parse outside the lock; errors are not cached.
+        StatementNode statement = parser.parseStatement(sqlText);
+        entry = new Entry(statement, parser.getParameterList());
+        put(key, entry);
+        return entry.copyFor(parser, sqlText);
+    }
+
+    /** Remove all entries. Counters are not reset. */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /** The number of statements currently cached. */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** The total weight of the statements currently cached. */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public String toString() {
+        return "ParsedStatementCache(size=" + size() +
+            ", weight=" + getWeight() +
+            ", hits=" + getHitCount() +
+            ", misses=" + getMissCount() +
+            ", evictions=" + getEvictionCount() + ")";
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        long entryWeight = key.weight();
+        if (entryWeight > maxWeight)
+            return;             // Would just evict everything else.
+        Entry old = entries.put(key, entry);
+        if (old != null)
+            weight -= entryWeight;
+        weight += entryWeight;
+        Iterator<Map.Entry<Key,Entry>> iter = entries.entrySet().iterator();
+        while (((entries.size() > maxEntries) || (weight > maxWeight)) &&
+               iter.hasNext()) {
+            Key eldest = iter.next().getKey();
+            if (eldest.equals(key)) continue;
+            iter.remove();
+            weight -= eldest.weight();
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    /** Everything about a parse request that can affect the result. */
+    static final class Key {
+        private final String sqlText;
+        private final Set<SQLParserFeature> features;
+        private final SQLParserContext.IdentifierCase identifierCase;
+        private final int maxIdentifierLength, maxStringLiteralLength;
+        private final boolean interning;
+        private final Class<? extends NodeFactory> nodeFactoryClass;
+        private final int hashCode;
+
+        Key(String sqlText, SQLParser parser) {
+            this.sqlText = sqlText;
+            Set<SQLParserFeature> parserFeatures = parser.getFeatures();
+            if (parserFeatures.isEmpty())
+                this.features = EnumSet.noneOf(SQLParserFeature.class);
+            else
+                this.features = EnumSet.copyOf(parserFeatures);
+            this.identifierCase = parser.getIdentifierCase();
+            this.maxIdentifierLength = parser.getMaxIdentifierLength();
+            this.maxStringLiteralLength = parser.getMaxStringLiteralLength();
+            this.interning = parser.isInterning();
+            this.nodeFactoryClass = parser.getNodeFactory().getClass();
+            this.hashCode = (((((sqlText.hashCode() * 31 +
+                                 features.hashCode()) * 31 +
+                                identifierCase.ordinal()) * 31 +
+                               maxIdentifierLength) * 31 +
+                              maxStringLiteralLength) * 31 +
+                             (interning ? 1 : 0)) * 31 +
+                nodeFactoryClass.hashCode();
+        }
+
+        long weight() {
+            return sqlText.length();
+        }
+
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key)obj;
+            return ((hashCode == other.hashCode) &&
+                    sqlText.equals(other.sqlText) &&
+                    (identifierCase == other.identifierCase) &&
+                    (maxIdentifierLength == other.maxIdentifierLength) &&
+                    (maxStringLiteralLength == other.maxStringLiteralLength) &&
+                    (interning == other.interning) &&
+                    (nodeFactoryClass == other.nodeFactoryClass) &&
+                    features.equals(other.features));
+        }
+
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /** A cached statement, which is only ever read after construction. */
+    static final class Entry {
+        private final StatementNode statement;
+        private final ParameterNode[] parameters;
+
+        Entry(StatementNode statement, List<ParameterNode> parameterList) {
+            this.statement = statement;
+            this.parameters = parameterList.toArray(new ParameterNode[parameterList.size()]);
+        }
+
+        StatementNode copyFor(SQLParser parser, String sqlText)
+                throws StandardException {
+            StatementNode copy = (StatementNode)
+                parser.getNodeFactory().copyNode(statement, parser);
+            List<ParameterNode> parameterList =
+                new ArrayList<ParameterNode>(parameters.length);
+            if (parameters.length > 0) {
+                // The copy has the same shape, so its parameters turn up in
+                // the same traversal order as the original's.
+                List<ParameterNode> from = ParameterCollector.collect(statement);
+                List<ParameterNode> to = ParameterCollector.collect(copy);
+                Map<ParameterNode,ParameterNode> map =
+                    new IdentityHashMap<ParameterNode,ParameterNode>();
+                for (int i = 0; i < from.size(); i++) {
+                    if (!map.containsKey(from.get(i)))
+                        map.put(from.get(i), to.get(i));
+                }
+                for (ParameterNode parameter : parameters) {
+                    ParameterNode copied = map.get(parameter);
+                    if (copied == null)
+                        copied = (ParameterNode)
+                            parser.getNodeFactory().copyNode(parameter, parser);
+                    parameterList.add(copied);
+                }
+            }
+            parser.reinitFromCopy(sqlText, parameterList);
+            return copy;
+        }
+    }
+
+    static final class ParameterCollector implements Visitor {
+        private final List<ParameterNode> parameters = new ArrayList<ParameterNode>();
+
+        static List<ParameterNode> collect(QueryTreeNode node)
+                throws StandardException {
+            ParameterCollector collector = new ParameterCollector();
+            node.accept(collector);
+            return collector.parameters;
+        }
+
+        public Visitable visit(Visitable node) {
+            if (node instanceof ParameterNode)
+                parameters.add((ParameterNode)node);
+            return node;
+        }
+
+        public boolean visitChildrenFirst(Visitable node) {
+            return false;
+        }
+
+        public boolean stopTraversal() {
+            return false;
+        }
+
+        public boolean skipChildren(Visitable node) {
+            return false;
+        }
+    }
+}
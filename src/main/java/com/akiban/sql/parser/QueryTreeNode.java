@@ -70,6 +70,10 @@ public abstract class QueryTreeNode implements Visitable
     private int nodeType;
     private SQLParserContext pc;
     private Object userData;
+    private long subtreeNodeTypes;
+    private int subtreeNodeTypesVersion; // Of the node factory's trees, or zero.
+    private QueryTreeNode summarizedIn; // Whose summary includes this one's.
+    private boolean summarizedInMany;
 
     /**
      * Set the parser context for this node.
@@ -424,6 +428,8 @@ public abstract class QueryTreeNode implements Visitable
      * @param nodeType The node type.
      */
     public void setNodeType(int nodeType) {
+        if ((this.nodeType != 0) && (this.nodeType != nodeType))
+            childrenChanged();
         this.nodeType = nodeType;
     }
 
@@ -448,26 +454,18 @@ public abstract class QueryTreeNode implements Visitable
      * Accept a visitor, and call {@code v.visit()} on child nodes as
      * necessary. Sub-classes should not override this method, but instead
      * override the {@link #acceptChildren(Visitor)} method.
+     *
+     * The tree is walked with an explicit stack (see {@link TreeTraversal}),
+     * so it can be arbitrarily deep.
      * 
      * @param v the visitor
      *
      * @exception StandardException on error
      */
     public final Visitable accept(Visitor v) throws StandardException {
-        final boolean childrenFirst = v.visitChildrenFirst(this);
-        final boolean skipChildren = v.skipChildren(this);
-
-        if (childrenFirst && !skipChildren && !v.stopTraversal()) {
-            acceptChildren(v);
-        }
-
-        final Visitable ret = v.stopTraversal() ? this : v.visit(this);
-
-        if (!childrenFirst && !skipChildren && !v.stopTraversal()) {
-            acceptChildren(v);
-        }
-
-        return ret;
+        if (v instanceof TreeTraversal.ChildVisitor)
+            return ((TreeTraversal.ChildVisitor)v).child(this);
+        return TreeTraversal.accept(this, v);
     }
 
     /**
@@ -484,6 +482,81 @@ public abstract class QueryTreeNode implements Visitable
         // no children
     }
 
+    /**
+     * Get a summary of the types of all the nodes in this subtree,
+     * including this one, as a {@link NodeTypeMask}. It is worked out
+     * when first needed and kept, here and below, until something below
+     * changes.
+     *
+     * @exception StandardException on error
+     */
+    public long getSubtreeNodeTypes() throws StandardException {
+        if (hasCurrentNodeTypes())
+            return subtreeNodeTypes;
+        return TreeTraversal.summarize(this);
+    }
+
+    /** Is the summary of node types known and up to date? */
+    final boolean hasCurrentNodeTypes() {
+        return ((subtreeNodeTypesVersion != 0) &&
+                (subtreeNodeTypesVersion == treeVersion()));
+    }
+
+    /** Is the summary of node types known to have none of <code>mask</code>? */
+    final boolean lacksNodeTypes(long mask) {
+        return (((subtreeNodeTypes & mask) == 0) && hasCurrentNodeTypes());
+    }
+
+    final long getSubtreeNodeTypesSoFar() {
+        return subtreeNodeTypes;
+    }
+
+    final void setSubtreeNodeTypes(long subtreeNodeTypes) {
+        this.subtreeNodeTypes = subtreeNodeTypes;
+        this.subtreeNodeTypesVersion = treeVersion();
+    }
+
+    /** Note that <code>parent</code>'s summary of node types includes
+     * this one's, so that it is put out of date along with this one's.
+     */
+    final void setSummarizedIn(QueryTreeNode parent) {
+        if ((summarizedIn != null) && (summarizedIn != parent) &&
+            summarizedIn.hasCurrentNodeTypes())
+            // In more than one tree, with no one chain to follow.
+            summarizedInMany = true;
+        summarizedIn = parent;
+    }
+
+    /** The version of the node factory's trees, or zero if not known. */
+    final int treeVersion() {
+        if (pc == null) return 0;
+        return pc.getNodeFactory().getTreeVersion();
+    }
+
+    /**
+     * Note that what is below this node has changed, so that its summary
+     * of node types, and those of the nodes above whose summaries
+     * include it, are out of date. Methods that change children once a
+     * node is made, such as setters, must call this.
+     */
+    protected void childrenChanged() {
+        QueryTreeNode node = this;
+        // Those above a summary that is already out of date are too.
+        while ((node != null) && node.hasCurrentNodeTypes()) {
+            if (node.summarizedInMany) {
+                pc.getNodeFactory().treeChanged();
+                break;
+            }
+            node.forgetSummaries();
+            node = node.summarizedIn;
+        }
+    }
+
+    /** Put what is kept about this subtree out of date. */
+    void forgetSummaries() {
+        subtreeNodeTypesVersion = 0;
+    }
+
     /**
      * Return the type of statement, something from
      * StatementType.
@@ -67,6 +67,13 @@ public abstract class QueryTreeNodeList<N extends QueryTreeNode>
         return list;
     }
 
+    /** Replace the underlying list, such as with a {@link CompactConstantList}. */
+    protected void setList(List<N> list)
+    {
+        this.list = list;
+        childrenChanged();
+    }
+
     public final boolean isEmpty() {
         return list.isEmpty();
     }
@@ -77,14 +84,17 @@ public abstract class QueryTreeNodeList<N extends QueryTreeNode>
 
     public void add(N n) {
         list.add(n);
+        childrenChanged();
     }
 
     public final N remove(int index) {
+        childrenChanged();
         return list.remove(index);
     }
 
     public final void remove(N n) {
         list.remove(n);
+        childrenChanged();
     }
 
     public final int indexOf(N n) {
@@ -93,22 +103,40 @@ public abstract class QueryTreeNodeList<N extends QueryTreeNode>
 
     public final void set(int index, N n) {
         list.set(index, n);
+        childrenChanged();
     }
 
     public final void add(int index, N n) {
         list.add(index, n);
+        childrenChanged();
     }
 
     public final void addAll(QueryTreeNodeList<N> other) {
         list.addAll(other.list);
+        childrenChanged();
     }
 
     public final void clear() {
         list.clear();
+        childrenChanged();
     }
 
     public final Iterator<N> iterator() {
-        return list.iterator();
+        final Iterator<N> iterator = list.iterator();
+        return new Iterator<N>() {
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                public N next() {
+                    return iterator.next();
+                }
+
+                public void remove() {
+                    iterator.remove();
+                    childrenChanged();
+                }
+            };
     }
 
     public final void destructiveAddAll(QueryTreeNodeList<N> other) {
@@ -123,6 +151,12 @@ public abstract class QueryTreeNodeList<N extends QueryTreeNode>
         super.copyFrom(node);
 
         QueryTreeNodeList<N> other = (QueryTreeNodeList<N>)node;
+        if ((other.list instanceof CompactConstantList) &&
+            ((CompactConstantList)other.list).isCompact()) {
+            // Share the values rather than making nodes for them all.
+            list = (List<N>)((CompactConstantList)other.list).copy(this);
+            return;
+        }
         for (N n : other.list)
             list.add((N)getNodeFactory().copyNode(n, getParserContext()));
     }
@@ -150,9 +184,13 @@ public abstract class QueryTreeNodeList<N extends QueryTreeNode>
     void acceptChildren(Visitor v) throws StandardException {
         super.acceptChildren(v);
 
+        if (list instanceof CompactConstantList) {
+            ((CompactConstantList)list).acceptChildren(v);
+            return;
+        }
         int size = size();
         for (int index = 0; index < size; index++) {
-            set(index, (N)get(index).accept(v));
+            list.set(index, (N)list.get(index).accept(v));
         }
     }
 }
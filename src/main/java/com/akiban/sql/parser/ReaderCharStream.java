@@ -0,0 +1,270 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * {@link CharStream} that reads incrementally from a {@link Reader}.
+ *
+ * Only the characters from the mark onward are kept, along with any
+ * of the current token, so memory is proportional to the longest
+ * statement rather than to the whole input. Offsets, lines and columns
+ * are all absolute within the input. Since tokens and nodes only have
+ * <code>int</code> offsets, input longer than
+ * {@link SQLScriptParser#MAX_LENGTH} is an error, which is reported
+ * like one from the reader.
+ *
+ * As in {@link StringCharStream}, reading and backing up only move an
+ * offset. Lines and columns are worked out when asked for, by scanning
+ * forward from the last position asked for, or else from the character
+ * before the current token, which is always kept.
+ */
+public class ReaderCharStream implements CharStream
+{
+    private static final IOException EOF = new EOFException();
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private Reader reader;
+    private char[] buffer;
+    private long bufferStart, bufferEnd; // Offsets of buffer[0] and after last read.
+    private boolean atEOF;
+    private IOException ioException;
+    private long markOffset;
+    private long beginIndex, currentIndex; // 0-based, exclusive end.
+    long maxOffset = SQLScriptParser.MAX_LENGTH - 1; // Of any character read; lower for tests.
+    private int beginLine, beginColumn; // 1-based.
+    // The line and column of the character at positionIndex, and of
+    // the one before the current token.
+    private long positionIndex, anchorIndex;
+    private int positionLine, positionColumn, anchorLine, anchorColumn;
+
+    public ReaderCharStream(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ReaderCharStream(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[Math.max(bufferSize, 16)];
+        beginLine = beginColumn = positionLine = positionColumn = anchorLine = anchorColumn = 1;
+    }
+
+    /** Allow characters before <code>offset</code> to be discarded. */
+    public void setMark(int offset) {
+        markOffset = offset;
+    }
+
+    /** Get the text between two offsets, both of which must be at or
+     * after the mark.
+     * @param endOffset inclusive end.
+     */
+    public String getText(int beginOffset, int endOffset) {
+        assert (beginOffset >= bufferStart) && (endOffset < bufferEnd) :
+            "Text before mark";
+        return new String(buffer, (int)(beginOffset - bufferStart), endOffset - beginOffset + 1);
+    }
+
+    /** The error, if any, from the underlying reader. Since the token
+     * manager takes any exception from the stream as the end of the
+     * input, this needs to be checked once that is reached.
+     */
+    public IOException getIOException() {
+        return ioException;
+    }
+
+    /** Make the character at <code>index</code> available if possible. */
+    private boolean available(long index) {
+        while (index >= bufferEnd) {
+            if (atEOF || !fill())
+                return false;
+        }
+        if (index > maxOffset) {
+            if (ioException == null)
+                ioException = new IOException("Input longer than " + (maxOffset + 1) +
+                                              " characters, whose offsets do not fit in a token");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean fill() {
+        int used = (int)(bufferEnd - bufferStart);
+        if (used == buffer.length) {
+            long keep = Math.min(markOffset, beginIndex - 1);
+            int discard = (int)(keep - bufferStart);
+            if (discard > 0) {
+                System.arraycopy(buffer, discard, buffer, 0, used - discard);
+                bufferStart = keep;
+                used -= discard;
+            }
+            if (used > buffer.length / 2) {
+                char[] newBuffer = new char[buffer.length * 2];
+                System.arraycopy(buffer, 0, newBuffer, 0, used);
+                buffer = newBuffer;
+            }
+        }
+        int nc;
+        try {
+            nc = reader.read(buffer, used, buffer.length - used);
+        }
+        catch (IOException ex) {
+            ioException = ex;
+            nc = -1;
+        }
+        if (nc < 0) {
+            atEOF = true;
+            return false;
+        }
+        bufferEnd += nc;
+        return true;
+    }
+
+    @Override
+    public char BeginToken() throws java.io.IOException {
+        if (currentIndex > 0) {
+            position(currentIndex - 1);
+            anchorIndex = positionIndex;
+            anchorLine = positionLine;
+            anchorColumn = positionColumn;
+        }
+        position(currentIndex);
+        beginIndex = currentIndex;
+        beginLine = positionLine;
+        beginColumn = positionColumn;
+        return readChar();
+    }
+
+    @Override
+    public char readChar() throws java.io.IOException {
+        if (!available(currentIndex))
+            throw EOF;
+
+        return buffer[(int)(currentIndex++ - bufferStart)];
+    }
+
+    @Override
+    public void backup(int amount) {
+        currentIndex -= amount;
+        assert (currentIndex >= beginIndex);
+    }
+
+    /** Set the line and column to those of the character at <code>index</code>. */
+    private void position(long index) {
+        if (index < positionIndex) {
+            assert (index >= anchorIndex) : "Position before token";
+            positionIndex = anchorIndex;
+            positionLine = anchorLine;
+            positionColumn = anchorColumn;
+        }
+        while (positionIndex < index) {
+            char ch = buffer[(int)(positionIndex++ - bufferStart)];
+            switch (ch) {
+            case '\r':
+                if (available(positionIndex) &&
+                    (buffer[(int)(positionIndex - bufferStart)] == '\n')) {
+                    positionColumn++;
+                    break;
+                }
+                /* else falls through (bare CR) */
+            case '\n':
+                positionLine++;
+                positionColumn = 1;
+                break;
+            case '\t':
+                positionColumn += (8 - (positionColumn & 7)) + 1;
+                break;
+            default:
+                positionColumn++;
+                break;
+            }
+        }
+    }
+
+    @Override
+    public int getBeginOffset() {
+        return (int)beginIndex;    // No character is read past maxOffset.
+    }
+    @Override
+    public int getEndOffset() {
+        return (int)(currentIndex - 1);   // Want inclusive.
+    }
+
+    @Override
+    public int getBeginLine() {
+        return beginLine;
+    }
+    @Override
+    public int getBeginColumn() {
+        return beginColumn;
+    }
+
+    // End represents the position of the last character returned, and
+    // in particular if a newline was returned, it at the end of the
+    // previous line. A tab ends at the last column it takes up.
+
+    @Override
+    public int getEndLine() {
+        if (currentIndex == 0) return 1;
+        position(currentIndex - 1);
+        return positionLine;
+    }
+    @Override
+    public int getEndColumn() {
+        if (currentIndex == 0) return 1;
+        position(currentIndex - 1);
+        int column = positionColumn;
+        if (buffer[(int)(currentIndex - 1 - bufferStart)] == '\t')
+            column += (8 - (column & 7));
+        return column;
+    }
+
+    @Override
+    public int getLine() {
+        return getEndLine();
+    }
+    @Override
+    public int getColumn() {
+        return getEndColumn();
+    }
+
+    @Override
+    public String GetImage() {
+        return new String(buffer, (int)(beginIndex - bufferStart), (int)(currentIndex - beginIndex));
+    }
+
+    @Override
+    public char[] GetSuffix(int len) {
+        char[] result = new char[len];
+        System.arraycopy(buffer, (int)(currentIndex - len - bufferStart), result, 0, len);
+        return result;
+    }
+
+    @Override
+    public void Done() {
+        buffer = null;
+    }
+
+    /** Close the underlying reader. */
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
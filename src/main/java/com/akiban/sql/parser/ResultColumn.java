@@ -261,6 +261,7 @@ public class ResultColumn extends ValueNode
 
     public void setExpression(ValueNode expression) {
         this.expression = expression;
+        childrenChanged();
     }
 
     /**
@@ -393,7 +394,7 @@ public class ResultColumn extends ValueNode
         super.acceptChildren(v);
 
         if (expression != null) {
-            setExpression((ValueNode)expression.accept(v));
+            expression = (ValueNode)expression.accept(v);
         }
         if (reference != null) {
             reference = (ColumnReference)reference.accept(v);
@@ -418,5 +419,9 @@ public class ResultColumn extends ValueNode
         }
         return false;
     }
+
+    protected int computeEquivalenceHash() throws StandardException {
+        return hashCombine(getNodeType(), equivalenceHash(expression));
+    }
         
 }
@@ -92,6 +92,7 @@ public abstract class ResultSetNode extends QueryTreeNode
      */
     public void setResultColumns(ResultColumnList newRCL) {
         resultColumns = newRCL;
+        childrenChanged();
     }
 
     /**
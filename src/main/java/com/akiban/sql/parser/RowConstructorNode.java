@@ -45,6 +45,11 @@ public class RowConstructorNode extends ValueNode
         return list.isEquivalent(other.list) && depth == other.depth;
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        int hash = hashCombine(getNodeType(), depth);
+        return hashCombine(hash, list.equivalenceHash());
+    }
+
     @Override
     public void copyFrom(QueryTreeNode o) throws StandardException
     {
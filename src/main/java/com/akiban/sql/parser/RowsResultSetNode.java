@@ -34,10 +34,18 @@ public class RowsResultSetNode extends FromTable
     /**
      * Initializer for a RowsResultSetNode.
      *
-     * @param firstRow The initial row.
+     * @param firstRow The initial row, or a {@link CompactRowList} of all of them.
      */
     public void init(Object firstRow) throws StandardException {
         super.init(null, tableProperties);
+        if (firstRow instanceof CompactRowList) {
+            CompactRowList compactRows = (CompactRowList)firstRow;
+            compactRows.setOwner(this);
+            rows = compactRows;
+            // A row that is not kept, so its columns can be used directly.
+            resultColumns = compactRows.peek(0).getResultColumns();
+            return;
+        }
         RowResultSetNode row = (RowResultSetNode)firstRow;
         rows = new ArrayList<RowResultSetNode>();
         rows.add(row);
@@ -49,8 +57,19 @@ public class RowsResultSetNode extends FromTable
         return rows;
     }
 
+    /**
+     * Get the rows as columns of values, if they are still kept that way.
+     * @return the rows or <code>null</code> if they are ordinary nodes.
+     */
+    public CompactRowList getCompactRows() {
+        if ((rows instanceof CompactRowList) && ((CompactRowList)rows).isCompact())
+            return (CompactRowList)rows;
+        return null;
+    }
+
     public void addRow(RowResultSetNode row) {
         rows.add(row);
+        childrenChanged();
     }
 
     public String statementToString() {
@@ -64,6 +83,11 @@ public class RowsResultSetNode extends FromTable
         super.copyFrom(node);
 
         RowsResultSetNode other = (RowsResultSetNode)node;
+        CompactRowList compactRows = other.getCompactRows();
+        if (compactRows != null) {
+            rows = compactRows.copy(this);
+            return;
+        }
         rows = new ArrayList<RowResultSetNode>(other.rows.size());
         for (RowResultSetNode row : other.rows)
             rows.add((RowResultSetNode)getNodeFactory().copyNode(row, getParserContext()));
@@ -95,6 +119,11 @@ public class RowsResultSetNode extends FromTable
     void acceptChildren(Visitor v) throws StandardException {
         super.acceptChildren(v);
 
+        CompactRowList compactRows = getCompactRows();
+        if (compactRows != null) {
+            compactRows.acceptChildren(v);
+            return;
+        }
         int size = rows.size();
         for (int index = 0; index < size; index++) {
             rows.set(index, (RowResultSetNode)rows.get(index).accept(v));
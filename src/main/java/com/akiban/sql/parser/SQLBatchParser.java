@@ -0,0 +1,292 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parse a script of statements delimited by semicolons in parallel.
+ *
+ * The script is first split into statements with just the token
+ * manager, which knows about quotes, comments and <code>$$</code>
+ * bodies, so the split is the same as {@link SQLParser#parseStatements}
+ * would make. Runs of neighbouring statements are then parsed as
+ * separate tasks, each with a parser from a {@link SQLParserPool}.
+ * Each statement gets a parser of its own, never pooled, as the
+ * context of its tree, since the pooled parser goes on to parse the
+ * rest of the run and is then handed to someone else.
+ *
+ * The result is in the same order, with the same offsets, as from
+ * {@link SQLParser#parseStatements}. If any statement has an error,
+ * the error from the first such is thrown, also with its position
+ * within the whole script.
+ */
+public class SQLBatchParser
+{
+    /** Statements per task to aim for, so that tasks are worth their
+     * overhead but still balance out between threads.
+     */
+    public static final int STATEMENTS_PER_TASK = 64;
+
+    private final SQLParserPool pool;
+    private final Executor executor;
+    private final int parallelism;
+
+    /** Parse with a thread for each processor, started for each script. */
+    public SQLBatchParser(SQLParserPool pool) {
+        this(pool, null, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Parse using <code>executor</code>, which is expected to run about
+     * <code>parallelism</code> tasks at once.
+     */
+    public SQLBatchParser(SQLParserPool pool, Executor executor, int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive");
+        this.pool = pool;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /** The offsets of a statement within a script. */
+    public static class StatementRange {
+        private final int beginOffset, endOffset;
+
+        public StatementRange(int beginOffset, int endOffset) {
+            this.beginOffset = beginOffset;
+            this.endOffset = endOffset;
+        }
+
+        /** The beginning of the statement's first token. */
+        public int getBeginOffset() {
+            return beginOffset;
+        }
+
+        /** The inclusive end of the statement's last token. */
+        public int getEndOffset() {
+            return endOffset;
+        }
+
+        public String toString() {
+            return "[" + beginOffset + "," + endOffset + "]";
+        }
+    }
+
+    /** Find the statements in <code>script</code>, without parsing them. */
+    public List<StatementRange> split(CharSequence script) throws StandardException {
+        SQLParser parser = pool.acquire();
+        try {
+            return split(script, new SQLTokenizer(parser));
+        }
+        finally {
+            pool.release(parser);
+        }
+    }
+
+    static List<StatementRange> split(CharSequence script, SQLTokenizer tokenizer)
+            throws StandardException {
+        List<StatementRange> result = new ArrayList<StatementRange>();
+        int beginOffset = -1, endOffset = -1;
+        tokenizer.reset(script);
+        while (true) {
+            boolean more = tokenizer.next();
+            if (!more || (tokenizer.getKind() == SQLGrammarConstants.SEMICOLON)) {
+                if (beginOffset >= 0)
+                    result.add(new StatementRange(beginOffset, endOffset));
+                if (!more) break;
+                beginOffset = -1;
+            }
+            else {
+                if (beginOffset < 0)
+                    beginOffset = tokenizer.getBeginOffset();
+                endOffset = tokenizer.getEndOffset();
+            }
+        }
+        return result;
+    }
+
+    /** Parse all the statements in <code>script</code>, which must not
+     * change until done.
+     */
+    public List<StatementNode> parseStatements(CharSequence script)
+            throws StandardException {
+        List<StatementRange> ranges = split(script);
+        int nranges = ranges.size();
+        if (nranges == 0)
+            return new ArrayList<StatementNode>();
+        int ntasks = Math.min((nranges + STATEMENTS_PER_TASK - 1) / STATEMENTS_PER_TASK,
+                              parallelism * 4);
+        if (ntasks <= 1) {
+            // Not worth handing off.
+            StatementNode[] result = new StatementNode[nranges];
+            new ParseTask(script, ranges, 0, nranges, result, null, 0).call();
+            return asList(result);
+        }
+        ExecutorService ownExecutor = null;
+        Executor runOn = executor;
+        if (runOn == null)
+            runOn = ownExecutor = Executors.newFixedThreadPool(Math.min(parallelism, ntasks),
+                                                               DAEMON_THREADS);
+        try {
+            StatementNode[] result = new StatementNode[nranges];
+            AtomicInteger firstFailed = new AtomicInteger(ntasks);
+            List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(ntasks);
+            // Tasks of equal length in characters.
+            int scriptBegin = ranges.get(0).getBeginOffset();
+            int scriptLength = ranges.get(nranges - 1).getEndOffset() + 1 - scriptBegin;
+            int from = 0;
+            for (int i = 0; i < ntasks; i++) {
+                int to;
+                if (i == ntasks - 1)
+                    to = nranges;
+                else {
+                    long target = scriptBegin + (long)scriptLength * (i + 1) / ntasks;
+                    to = from + 1;
+                    while ((to < nranges) && (ranges.get(to).getBeginOffset() < target))
+                        to++;
+                }
+                FutureTask<Void> task =
+                    new FutureTask<Void>(new ParseTask(script, ranges, from, to,
+                                                       result, firstFailed, i));
+                tasks.add(task);
+                runOn.execute(task);
+                from = to;
+                if (from >= nranges) break;
+            }
+            for (FutureTask<Void> task : tasks) {
+                try {
+                    task.get();
+                }
+                catch (ExecutionException ex) {
+                    // Earlier tasks have all succeeded, so this is the first error.
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof StandardException)
+                        throw (StandardException)cause;
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException)cause;
+                    if (cause instanceof Error)
+                        throw (Error)cause;
+                    throw new StandardException(cause);
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    firstFailed.set(-1);
+                    throw new StandardException(ex);
+                }
+            }
+            return asList(result);
+        }
+        finally {
+            if (ownExecutor != null)
+                ownExecutor.shutdown();
+        }
+    }
+
+    private static List<StatementNode> asList(StatementNode[] result) {
+        List<StatementNode> list = new ArrayList<StatementNode>(result.length);
+        Collections.addAll(list, result);
+        return list;
+    }
+
+    /** Parse a run of statements with one pooled parser. */
+    class ParseTask implements Callable<Void> {
+        private final CharSequence script;
+        private final List<StatementRange> ranges;
+        private final int from, to;
+        private final StatementNode[] result;
+        private final AtomicInteger firstFailed;
+        private final int taskNumber;
+
+        ParseTask(CharSequence script, List<StatementRange> ranges, int from, int to,
+                  StatementNode[] result, AtomicInteger firstFailed, int taskNumber) {
+            this.script = script;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+            this.result = result;
+            this.firstFailed = firstFailed;
+            this.taskNumber = taskNumber;
+        }
+
+        public Void call() throws StandardException {
+            SQLParser parser = pool.acquire();
+            try {
+                for (int i = from; i < to; i++) {
+                    if ((firstFailed != null) && (firstFailed.get() < taskNumber))
+                        // An earlier error will be thrown instead.
+                        return null;
+                    StatementRange range = ranges.get(i);
+                    StatementNode statement;
+                    try {
+                        statement = parser.parseStatement(script,
+                                                          range.getBeginOffset(),
+                                                          range.getEndOffset() + 1,
+                                                          pool.getConfig().newParser());
+                    }
+                    catch (StandardException ex) {
+                        noteFailed();
+                        throw ex;
+                    }
+                    catch (RuntimeException ex) {
+                        noteFailed();
+                        throw ex;
+                    }
+                    statement.setBeginOffset(range.getBeginOffset());
+                    statement.setEndOffset(range.getEndOffset());
+                    result[i] = statement;
+                }
+                return null;
+            }
+            finally {
+                pool.release(parser);
+            }
+        }
+
+        private void noteFailed() {
+            if (firstFailed == null) return;
+            while (true) {
+                int failed = firstFailed.get();
+                if ((failed <= taskNumber) ||
+                    firstFailed.compareAndSet(failed, taskNumber))
+                    break;
+            }
+        }
+    }
+
+    private static final ThreadFactory DAEMON_THREADS = new ThreadFactory() {
+            private final ThreadFactory factory = Executors.defaultThreadFactory();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = factory.newThread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+}
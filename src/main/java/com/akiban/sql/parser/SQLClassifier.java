@@ -0,0 +1,456 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import static com.akiban.sql.parser.SQLGrammarConstants.*;
+
+import com.akiban.sql.StandardException;
+
+import java.util.Locale;
+
+/**
+ * Classify a statement from its leading tokens, without parsing it, so
+ * that it can be routed cheaply before (or instead of) being parsed in
+ * full with {@link SQLParser}.
+ *
+ * Only the lexer is run and no tree nodes are made. So a statement that
+ * the parser would reject may still be classified; and the first table
+ * is only what the text names first, which may be a view or the name of
+ * a common table expression.
+ *
+ * Like {@link SQLParser}, a classifier can be reused, but not from more
+ * than one thread at a time.
+ */
+public class SQLClassifier
+{
+    /** Broad kind of statement, as needed for routing. */
+    public static enum Category {
+        READ,                   // SELECT, VALUES, EXPLAIN, COPY ... TO
+        WRITE,                  // INSERT, UPDATE, DELETE, TRUNCATE, COPY ... FROM
+        DDL,                    // CREATE, DROP, ALTER, RENAME, GRANT, REVOKE
+        TRANSACTION,            // BEGIN, COMMIT, ROLLBACK, SET TRANSACTION, LOCK
+        SESSION,                // Other SET
+        CURSOR,                 // DECLARE, FETCH, CLOSE, PREPARE, EXECUTE, DEALLOCATE
+        CALL,                   // CALL, which may do anything
+        UNKNOWN
+    }
+
+    /** The result of classifying a statement. */
+    public static class Classification {
+        private Category category = Category.UNKNOWN;
+        private int statementType = StatementType.UNKNOWN;
+        private boolean explain;
+        private String schemaName, tableName;
+
+        public Category getCategory() {
+            return category;
+        }
+
+        /** One of {@link StatementType#INSERT}, {@link StatementType#UPDATE}
+         * or {@link StatementType#DELETE} for those statements, else
+         * {@link StatementType#UNKNOWN}.
+         */
+        public int getStatementType() {
+            return statementType;
+        }
+
+        /** Is this an <code>EXPLAIN</code> of the statement classified? */
+        public boolean isExplain() {
+            return explain;
+        }
+
+        /** The schema of the first table, if given. */
+        public String getSchemaName() {
+            return schemaName;
+        }
+
+        /** The first table named, or <code>null</code> if none. */
+        public String getTableName() {
+            return tableName;
+        }
+
+        public String toString() {
+            StringBuilder str = new StringBuilder(category.name());
+            if (explain)
+                str.append(" (EXPLAIN)");
+            if (tableName != null) {
+                str.append(" ");
+                if (schemaName != null)
+                    str.append(schemaName).append(".");
+                str.append(tableName);
+            }
+            return str.toString();
+        }
+    }
+
+    private SQLParser parserContext;
+    private StringCharStream charStream;
+    private SQLGrammarTokenManager tokenManager;
+    private Token pushedBack;
+
+    /** Make a new classifier using the features and identifier case
+     * of the given parser.
+     */
+    public SQLClassifier(SQLParser parserContext) {
+        this.parserContext = parserContext;
+    }
+
+    public Classification classify(CharSequence sqlText) throws StandardException {
+        reinit(sqlText);
+        Classification result = new Classification();
+        try {
+            Token token = nextToken();
+            while (token.kind == LEFT_PAREN)
+                token = nextToken();
+            if (token.kind == EXPLAIN) {
+                result.explain = true;
+                token = nextToken();
+                if ((token.kind == BRIEF) || (token.kind == VERBOSE))
+                    token = nextToken();
+            }
+            if (token.kind == WITH) {
+                // Common table expressions come first and may name a table.
+                token = scanQuery(result, true);
+            }
+            classifyStatement(token, result);
+        }
+        catch (TokenMgrError ex) {
+            if (ex.errorCode == TokenMgrError.LEXICAL_ERROR)
+                throw new SQLParserException(ex.getMessage(), ex,
+                                             SQLParser.lineColumnErrorPosition(ex.errorLine,
+                                                                               ex.errorColumn,
+                                                                               sqlText));
+            else
+                throw new StandardException(ex);
+        }
+        if (result.explain)
+            result.category = Category.READ;
+        return result;
+    }
+
+    protected void reinit(CharSequence sqlText) {
+        if (charStream == null) {
+            // The token manager only needs the grammar for its
+            // features, but making one reads a token, so start empty.
+            charStream = new StringCharStream("");
+            tokenManager = new SQLGrammarTokenManager(null, charStream);
+            SQLGrammar parser = new SQLGrammar(tokenManager);
+            parser.setParserContext(parserContext);
+            tokenManager.parser = parser;
+        }
+        charStream.ReInit(sqlText);
+        tokenManager.ReInit(charStream);
+        pushedBack = null;
+    }
+
+    protected void classifyStatement(Token token, Classification result) {
+        switch (token.kind) {
+        case SELECT:
+        case VALUES:
+            result.category = Category.READ;
+            scanQuery(result, false);
+            break;
+        case INSERT:
+            result.category = Category.WRITE;
+            result.statementType = StatementType.INSERT;
+            if (nextToken().kind == INTO)
+                tableName(result);
+            break;
+        case UPDATE:
+            result.category = Category.WRITE;
+            result.statementType = StatementType.UPDATE;
+            tableName(result);
+            break;
+        case DELETE:
+            result.category = Category.WRITE;
+            result.statementType = StatementType.DELETE;
+            if (nextToken().kind == FROM)
+                fromTableName(result);
+            break;
+        case TRUNCATE:
+            result.category = Category.WRITE;
+            if (nextToken().kind == TABLE)
+                tableName(result);
+            break;
+        case COPY:
+            classifyCopy(result);
+            break;
+        case CREATE:
+        case DROP:
+        case ALTER:
+        case RENAME:
+            result.category = Category.DDL;
+            ddlTableName(token.kind, result);
+            break;
+        case GRANT:
+        case REVOKE:
+            result.category = Category.DDL;
+            break;
+        case LOCK:
+            result.category = Category.TRANSACTION;
+            if (nextToken().kind == TABLE)
+                tableName(result);
+            break;
+        case BEGIN:
+        case COMMIT:
+        case ROLLBACK:
+            result.category = Category.TRANSACTION;
+            break;
+        case SET:
+            token = nextToken();
+            if (token.kind == CURRENT)
+                token = nextToken();
+            if ((token.kind == TRANSACTION) || (token.kind == ISOLATION))
+                result.category = Category.TRANSACTION;
+            else
+                result.category = Category.SESSION;
+            break;
+        case DECLARE:
+        case FETCH:
+        case CLOSE:
+        case PREPARE:
+        case EXECUTE:
+        case DEALLOCATE:
+            result.category = Category.CURSOR;
+            break;
+        case CALL:
+            result.category = Category.CALL;
+            break;
+        }
+    }
+
+    /** <code>COPY</code> is a read when copying out and a write when
+     * copying in.
+     */
+    protected void classifyCopy(Classification result) {
+        Token token = nextToken();
+        if (token.kind == LEFT_PAREN) {
+            result.category = Category.READ;
+            scanQuery(result, false);
+            return;
+        }
+        pushedBack = token;
+        tableName(result);
+        int depth = 0;
+        while (true) {
+            token = nextToken();
+            switch (token.kind) {
+            case LEFT_PAREN:
+                depth++;
+                break;
+            case RIGHT_PAREN:
+                depth--;
+                break;
+            case TO:
+                if (depth == 0) {
+                    result.category = Category.READ;
+                    return;
+                }
+                break;
+            case FROM:
+                if (depth == 0) {
+                    result.category = Category.WRITE;
+                    return;
+                }
+                break;
+            case EOF:
+            case SEMICOLON:
+                return;
+            }
+        }
+    }
+
+    /** The table that a DDL statement is about, if it is about one. */
+    protected void ddlTableName(int verb, Classification result) {
+        Token token = nextToken();
+        if ((verb == CREATE) && (token.kind == UNIQUE))
+            token = nextToken();
+        switch (token.kind) {
+        case TABLE:
+        case VIEW:
+            token = nextToken();
+            if (token.kind == IF) {
+                // IF [NOT] EXISTS
+                token = nextToken();
+                if (token.kind == NOT)
+                    token = nextToken();
+            }
+            else
+                pushedBack = token;
+            tableName(result);
+            break;
+        case INDEX:
+            if (verb == CREATE) {
+                // Index name, then ON table.
+                while (true) {
+                    token = nextToken();
+                    if (token.kind == ON) {
+                        tableName(result);
+                        break;
+                    }
+                    if ((token.kind == EOF) || (token.kind == SEMICOLON) ||
+                        (token.kind == LEFT_PAREN))
+                        break;
+                }
+            }
+            break;
+        }
+    }
+
+    /** Look through a query for the first <code>FROM</code> table.
+     * @param untilMain stop at the statement after <code>WITH</code>
+     * and return its first token.
+     */
+    protected Token scanQuery(Classification result, boolean untilMain) {
+        // Whether each level of parentheses, up to 64, holds a query,
+        // where FROM introduces tables rather than, say, EXTRACT's
+        // operand.
+        long queryLevels = 1;
+        int depth = 0;
+        while (true) {
+            Token token = nextToken();
+            switch (token.kind) {
+            case EOF:
+            case SEMICOLON:
+                return token;
+            case LEFT_PAREN:
+                depth++;
+                if (depth < 64) {
+                    Token next = nextToken();
+                    if ((next.kind == SELECT) || (next.kind == VALUES) ||
+                        (next.kind == LEFT_PAREN))
+                        queryLevels |= (1L << depth);
+                    else
+                        queryLevels &= ~(1L << depth);
+                    pushedBack = next;
+                }
+                break;
+            case RIGHT_PAREN:
+                if (depth > 0)
+                    depth--;
+                break;
+            case FROM:
+                if ((result.tableName == null) &&
+                    (depth < 64) && ((queryLevels & (1L << depth)) != 0)) {
+                    if (fromTableName(result) && !untilMain)
+                        return token;
+                }
+                break;
+            case SELECT:
+            case VALUES:
+            case INSERT:
+            case UPDATE:
+            case DELETE:
+                if (untilMain && (depth == 0))
+                    return token;
+                break;
+            }
+        }
+    }
+
+    /** The table after <code>FROM</code>, unless it is something else
+     * like a table function.
+     */
+    protected boolean fromTableName(Classification result) {
+        Token token = nextToken();
+        pushedBack = token;
+        if ((token.kind == TABLE) || (token.kind == NEW))
+            return false;
+        String schemaName = result.schemaName, tableName = result.tableName;
+        if (!tableName(result))
+            return false;
+        token = nextToken();
+        pushedBack = token;
+        if (token.kind == LEFT_PAREN) {
+            result.schemaName = schemaName;
+            result.tableName = tableName;
+            return false;
+        }
+        return true;
+    }
+
+    /** Take a possibly qualified name as the table name. */
+    protected boolean tableName(Classification result) {
+        Token token = nextToken();
+        if (!isIdentifier(token)) {
+            pushedBack = token;
+            return false;
+        }
+        String name = identifier(token);
+        token = nextToken();
+        if (token.kind == PERIOD) {
+            token = nextToken();
+            if (isIdentifier(token)) {
+                result.schemaName = name;
+                result.tableName = identifier(token);
+                return true;
+            }
+        }
+        pushedBack = token;
+        result.schemaName = null;
+        result.tableName = name;
+        return true;
+    }
+
+    protected Token nextToken() {
+        Token token = pushedBack;
+        if (token != null)
+            pushedBack = null;
+        else
+            token = tokenManager.getNextToken();
+        return token;
+    }
+
+    /** Could this token be an identifier? Reserved keywords are
+     * allowed, since whether this is a statement the parser accepts
+     * does not matter.
+     */
+    protected static boolean isIdentifier(Token token) {
+        switch (token.kind) {
+        case IDENTIFIER:
+        case DOUBLEQUOTED_IDENTIFIER:
+        case BACKQUOTED_IDENTIFIER:
+            return true;
+        case EOF:
+            return false;
+        default:
+            return Character.isLetter(token.image.charAt(0));
+        }
+    }
+
+    protected String identifier(Token token) {
+        switch (token.kind) {
+        case DOUBLEQUOTED_IDENTIFIER:
+            return SQLGrammar.trimAndCompressQuotes(token.image,
+                                                    SQLGrammar.DOUBLEQUOTES, false);
+        case BACKQUOTED_IDENTIFIER:
+            return SQLGrammar.trimAndCompressQuotes(token.image,
+                                                    SQLGrammar.BACKQUOTES, false);
+        }
+        switch (parserContext.getIdentifierCase()) {
+        case UPPER:
+            return token.image.toUpperCase(Locale.ENGLISH);
+        case LOWER:
+            return token.image.toLowerCase(Locale.ENGLISH);
+        case PRESERVE:
+        default:
+            return token.image;
+        }
+    }
+
+}
@@ -36,7 +36,7 @@ import java.util.Map;
 import java.util.Set;
 
 public class SQLParser implements SQLParserContext {
-    private String sqlText;
+    private CharSequence sqlText;
     private List<ParameterNode> parameterList;
     private boolean returnParameterFlag;
     private Map printedObjectsMap;
@@ -45,6 +45,7 @@ public class SQLParser implements SQLParserContext {
     private StringCharStream charStream = null;
     private SQLGrammarTokenManager tokenManager = null;
     private SQLGrammar parser = null;
+    private StatementValidator validator = null;
 
     private int maxStringLiteralLength = 65535;
     /* Identifiers (Constraint, Cursor, Function/Procedure, Index,
@@ -67,7 +68,13 @@ public class SQLParser implements SQLParserContext {
                    SQLParserFeature.UNSIGNED,
                    SQLParserFeature.INFIX_MOD);
 
+    private IdentifierCase identifierCase = IdentifierCase.LOWER;
+
+    private boolean interning;
+    private InternTable internTable;
+
     NodeFactory nodeFactory;
+    private NodeFactory configNodeFactory; // Made from the config, if any.
 
     /** Make a new parser.
      * Parser can be reused.
@@ -76,9 +83,16 @@ public class SQLParser implements SQLParserContext {
         nodeFactory = new NodeFactoryImpl();
     }
 
+    /** Make a new parser with the given settings, which can still be
+     * changed afterwards for this parser alone.
+     */
+    public SQLParser(SQLParserConfig config) {
+        configure(config);
+    }
+
     /** Return the SQL string this parser just parsed. */
     public String getSQLText() {
-        return sqlText;
+        return (sqlText == null) ? null : sqlText.toString();
     }
 
     /** Return the parameters to the parsed statement. */
@@ -100,6 +114,15 @@ public class SQLParser implements SQLParserContext {
 
     /** Normal external parser entry. */
     public StatementNode parseStatement(String sqlText) throws StandardException {
+        return parseStatement((CharSequence)sqlText);
+    }
+
+    /** Parse from any character sequence, such as a
+     * <code>StringBuilder</code> or a <code>CharBuffer</code>, without
+     * first copying it into a string. The sequence must not change
+     * while it is being parsed.
+     */
+    public StatementNode parseStatement(CharSequence sqlText) throws StandardException {
         reinit(sqlText);
         try {
             return parser.parseStatement(sqlText, parameterList);
@@ -123,8 +146,72 @@ public class SQLParser implements SQLParserContext {
         }
     }
 
+    /** Parse the single statement from <code>beginOffset</code> up to
+     * <code>endOffset</code> (exclusive) of a larger script, such as one
+     * found by {@link SQLBatchParser}. Offsets, lines and columns, both
+     * in the tree and in errors, are those within the whole script.
+     *
+     * <code>owner</code> rather than this parser becomes the context of
+     * the tree, holding its text and parameters, so that this parser can
+     * go on to parse others, or go back to a pool, while the tree is in use.
+     */
+    StatementNode parseStatement(CharSequence sqlText, int beginOffset, int endOffset,
+                                 SQLParser owner)
+            throws StandardException {
+        reinit(sqlText, beginOffset, endOffset);
+        owner.reinitFromCopy(sqlText, new ArrayList<ParameterNode>());
+        parser.setParserContext(owner);
+        try {
+            return parser.parseStatement(sqlText, owner.parameterList);
+        }
+        catch (ParseException ex) {
+            throw new SQLParserException(standardizeEol(ex.getMessage()),
+                                         ex,
+                                         tokenErrorPosition(ex.currentToken, sqlText));
+        }
+        catch (TokenMgrError ex) {
+            // Throw away the cached parser.
+            parser = null;
+            if (ex.errorCode == TokenMgrError.LEXICAL_ERROR)
+                throw new SQLParserException(ex.getMessage(),
+                                             ex,
+                                             lineColumnErrorPosition(ex.errorLine,
+                                                                     ex.errorColumn,
+                                                                     sqlText));
+            else
+                throw new StandardException(ex);
+        }
+        finally {
+            if (parser != null)
+                parser.setParserContext(this);
+        }
+    }
+
+    /** Check that <code>sqlText</code> is a single valid statement,
+     * throwing the same syntax error that {@link #parseStatement}
+     * would, but with a shorter message, since working out what else
+     * might have been expected is most of the cost of a syntax error.
+     *
+     * The statement's tree is still made as it is parsed, since the
+     * grammar's checks depend on it, but it is not kept, and this
+     * parser's last statement and parameters are left as they were.
+     */
+    public void validate(CharSequence sqlText) throws StandardException {
+        if (validator == null)
+            validator = new StatementValidator(this);
+        validator.validate(sqlText);
+    }
+
     /** Parse multiple statements delimited by semicolons. */
     public List<StatementNode> parseStatements(String sqlText) throws StandardException {
+        return parseStatements((CharSequence)sqlText);
+    }
+
+    /** Parse multiple statements from any character sequence.
+     * @see #parseStatement(CharSequence)
+     * @see SQLScriptParser
+     */
+    public List<StatementNode> parseStatements(CharSequence sqlText) throws StandardException {
         reinit(sqlText);
         try {
             return parser.parseStatements(sqlText);
@@ -148,10 +235,50 @@ public class SQLParser implements SQLParserContext {
         }
     }
 
+    /** Install the state for a statement that was not parsed by the
+     * grammar, such as a copy handed out by {@link ParsedStatementCache}.
+     */
+    void reinitFromCopy(CharSequence sqlText, List<ParameterNode> parameterList) {
+        this.sqlText = sqlText;
+        this.parameterList = parameterList;
+        returnParameterFlag = false;
+        printedObjectsMap = null;
+        generatedColumnNameIndex = 1;
+    }
+
+    /** Put back the given settings, undoing any changes made through
+     * this parser's setters.
+     */
+    void configure(SQLParserConfig config) {
+        features.clear();
+        features.addAll(config.getFeatures());
+        identifierCase = config.getIdentifierCase();
+        maxIdentifierLength = config.getMaxIdentifierLength();
+        maxStringLiteralLength = config.getMaxStringLiteralLength();
+        setInterning(config.isInterning());
+        messageLocale = null;
+        if (configNodeFactory == null)
+            configNodeFactory = config.getNodeFactoryProvider().newNodeFactory();
+        nodeFactory = configNodeFactory;
+    }
+
+    /** Forget the last statement, so that an idle parser holds on to
+     * as little as possible.
+     */
+    void clearStatement() {
+        sqlText = null;
+        parameterList = null;
+        printedObjectsMap = null;
+        if (internTable != null)
+            internTable.clear();
+        if (charStream != null)
+            charStream.ReInit("");
+    }
+
     /** Undo ParseException.initialise()'s eol handling. 
      * Want something platform independent.
      */
-    private static String standardizeEol(String msg) {
+    static String standardizeEol(String msg) {
         String eol = System.getProperty("line.separator", "\n");
         if (eol.equals("\n"))
             return msg;
@@ -160,18 +287,20 @@ public class SQLParser implements SQLParserContext {
     }
 
     /** Translate position of token into linear position. */
-    private static int tokenErrorPosition(Token token, String sql) {
+    static int tokenErrorPosition(Token token, CharSequence sql) {
         if (token == null) return 0;
         return lineColumnErrorPosition(token.next.beginLine, token.next.beginColumn, sql);
     }
 
     /** Translate line position into linear position. */
-    private static int lineColumnErrorPosition(int line, int column, String sql) {
+    static int lineColumnErrorPosition(int line, int column, CharSequence sql) {
         if (line <= 0) return 0;
         int position = 0;
+        int length = sql.length();
         while (line-- > 1) {
-            position = sql.indexOf('\n', position);
-            if (position < 0)
+            while ((position < length) && (sql.charAt(position) != '\n'))
+                position++;
+            if (position >= length)
                 return 0;
             position++;
         }
@@ -179,7 +308,7 @@ public class SQLParser implements SQLParserContext {
         return position;
     }
 
-    protected void reinit(String sqlText) throws StandardException {
+    protected void reinit(CharSequence sqlText) throws StandardException {
         this.sqlText = sqlText;
         if (charStream == null) {
             charStream = new StringCharStream(sqlText);
@@ -187,6 +316,20 @@ public class SQLParser implements SQLParserContext {
         else {
             charStream.ReInit(sqlText);
         }
+        reinitParser();
+    }
+
+    protected void reinit(CharSequence sqlText, int beginOffset, int endOffset)
+            throws StandardException {
+        this.sqlText = sqlText;
+        if (charStream == null) {
+            charStream = new StringCharStream(sqlText);
+        }
+        charStream.ReInit(sqlText, beginOffset, endOffset);
+        reinitParser();
+    }
+
+    private void reinitParser() {
         if (tokenManager == null) {
             tokenManager = new SQLGrammarTokenManager(null, charStream);
         } 
@@ -201,6 +344,7 @@ public class SQLParser implements SQLParserContext {
             parser.ReInit(tokenManager);
         }
         tokenManager.parser = parser;
+        parser.setInternTable(newInternTable());
         parameterList = new ArrayList<ParameterNode>();
         returnParameterFlag = false;
         printedObjectsMap = null;
@@ -287,7 +431,45 @@ public class SQLParser implements SQLParserContext {
     }
 
     public IdentifierCase getIdentifierCase() {
-        return IdentifierCase.LOWER;
+        return identifierCase;
+    }
+
+    /** Set how unquoted identifiers are standardized. */
+    public void setIdentifierCase(IdentifierCase identifierCase) {
+        this.identifierCase = identifierCase;
+    }
+
+    public boolean isInterning() {
+        return interning;
+    }
+
+    /** Set whether equal identifiers, literals and types in each
+     * statement share one instance, for trees that will be kept.
+     * @see InternTable
+     */
+    public void setInterning(boolean interning) {
+        this.interning = interning;
+        if (!interning)
+            internTable = null;
+    }
+
+    /** Get what interning saved in the last parse, or <code>null</code>
+     * if not interning. For {@link #parseStatements}, this covers all
+     * the statements.
+     */
+    public InternTable getInternTable() {
+        return internTable;
+    }
+
+    /** Get an empty intern table for a new parse, if interning. */
+    InternTable newInternTable() {
+        if (!interning)
+            return null;
+        if (internTable == null)
+            internTable = new InternTable();
+        else
+            internTable.clear();
+        return internTable;
     }
 
 }
@@ -0,0 +1,154 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The settings of a {@link SQLParser}, fixed at construction so that
+ * one configuration can be shared between threads, such as by a
+ * {@link SQLParserPool}.
+ */
+public final class SQLParserConfig
+{
+    /** Makes the node factory for each parser, since parsers are
+     * not shared.
+     */
+    public interface NodeFactoryProvider {
+        public NodeFactory newNodeFactory();
+    }
+
+    public static final NodeFactoryProvider DEFAULT_NODE_FACTORY_PROVIDER =
+        new NodeFactoryProvider() {
+            public NodeFactory newNodeFactory() {
+                return new NodeFactoryImpl();
+            }
+        };
+
+    private final Set<SQLParserFeature> features;
+    private final SQLParserContext.IdentifierCase identifierCase;
+    private final int maxIdentifierLength;
+    private final int maxStringLiteralLength;
+    private final boolean interning;
+    private final NodeFactoryProvider nodeFactoryProvider;
+
+    /** The same settings as a new {@link SQLParser}. */
+    public SQLParserConfig() {
+        this(new SQLParser());
+    }
+
+    /** The current settings of the given parser. Its node factory
+     * class must have a public no-argument constructor.
+     */
+    public SQLParserConfig(SQLParser parser) {
+        this(parser.getFeatures(), parser.getIdentifierCase(),
+             parser.getMaxIdentifierLength(), parser.getMaxStringLiteralLength(),
+             parser.isInterning(),
+             nodeFactoryProvider(parser.getNodeFactory().getClass()));
+    }
+
+    public SQLParserConfig(Set<SQLParserFeature> features,
+                           SQLParserContext.IdentifierCase identifierCase,
+                           int maxIdentifierLength,
+                           int maxStringLiteralLength,
+                           NodeFactoryProvider nodeFactoryProvider) {
+        this(features, identifierCase, maxIdentifierLength, maxStringLiteralLength,
+             false, nodeFactoryProvider);
+    }
+
+    public SQLParserConfig(Set<SQLParserFeature> features,
+                           SQLParserContext.IdentifierCase identifierCase,
+                           int maxIdentifierLength,
+                           int maxStringLiteralLength,
+                           boolean interning,
+                           NodeFactoryProvider nodeFactoryProvider) {
+        if ((maxIdentifierLength <= 0) || (maxStringLiteralLength <= 0))
+            throw new IllegalArgumentException("Length limits must be positive");
+        if (features.isEmpty())
+            features = EnumSet.noneOf(SQLParserFeature.class);
+        else
+            features = EnumSet.copyOf(features);
+        this.features = Collections.unmodifiableSet(features);
+        this.identifierCase = identifierCase;
+        this.maxIdentifierLength = maxIdentifierLength;
+        this.maxStringLiteralLength = maxStringLiteralLength;
+        this.interning = interning;
+        this.nodeFactoryProvider = nodeFactoryProvider;
+    }
+
+    public Set<SQLParserFeature> getFeatures() {
+        return features;
+    }
+
+    public boolean hasFeature(SQLParserFeature feature) {
+        return features.contains(feature);
+    }
+
+    public SQLParserContext.IdentifierCase getIdentifierCase() {
+        return identifierCase;
+    }
+
+    public int getMaxIdentifierLength() {
+        return maxIdentifierLength;
+    }
+
+    public int getMaxStringLiteralLength() {
+        return maxStringLiteralLength;
+    }
+
+    public boolean isInterning() {
+        return interning;
+    }
+
+    public NodeFactoryProvider getNodeFactoryProvider() {
+        return nodeFactoryProvider;
+    }
+
+    /** Make a new parser with these settings. */
+    public SQLParser newParser() {
+        return new SQLParser(this);
+    }
+
+    public String toString() {
+        return "SQLParserConfig(features=" + features +
+            ", identifierCase=" + identifierCase +
+            ", maxIdentifierLength=" + maxIdentifierLength +
+            ", maxStringLiteralLength=" + maxStringLiteralLength +
+            ", interning=" + interning + ")";
+    }
+
+    static NodeFactoryProvider nodeFactoryProvider(final Class<? extends NodeFactory> clazz) {
+        if (clazz == NodeFactoryImpl.class)
+            return DEFAULT_NODE_FACTORY_PROVIDER;
+        return new NodeFactoryProvider() {
+                public NodeFactory newNodeFactory() {
+                    try {
+                        return clazz.newInstance();
+                    }
+                    catch (InstantiationException ex) {
+                        throw new IllegalArgumentException(ex);
+                    }
+                    catch (IllegalAccessException ex) {
+                        throw new IllegalArgumentException(ex);
+                    }
+                }
+            };
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe pool of {@link SQLParser}s sharing one
+ * {@link SQLParserConfig}, so that the grammar and token manager each
+ * parser keeps for reuse are recycled between threads, rather than
+ * each thread making and warming up its own.
+ *
+ * Nothing is tied to a thread and no locks are held, so this also
+ * suits short-lived threads for which a <code>ThreadLocal</code> parser
+ * would be made and thrown away every time.
+ *
+ * The nodes of a parsed tree refer to the parser that made them as
+ * their context, so a parser should only be released once the caller
+ * is done with its tree and parameter list.
+ */
+public class SQLParserPool
+{
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    private final SQLParserConfig config;
+    private final int maxIdle;
+    private final ConcurrentLinkedQueue<SQLParser> idle =
+        new ConcurrentLinkedQueue<SQLParser>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger inUseCount = new AtomicInteger();
+
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong createCount = new AtomicLong();
+    private final AtomicLong discardCount = new AtomicLong();
+    private final AtomicInteger peakInUseCount = new AtomicInteger();
+
+    public SQLParserPool(SQLParserConfig config) {
+        this(config, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * @param maxIdle the most parsers kept for reuse; any more released
+     * at once are left for the garbage collector.
+     */
+    public SQLParserPool(SQLParserConfig config, int maxIdle) {
+        if (maxIdle < 0)
+            throw new IllegalArgumentException("Idle limit must not be negative");
+        this.config = config;
+        this.maxIdle = maxIdle;
+    }
+
+    public SQLParserConfig getConfig() {
+        return config;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    /** Get a parser for the exclusive use of the caller until it is
+     * given back with {@link #release}. A new one is made if all those
+     * in the pool are in use.
+     */
+    public SQLParser acquire() {
+        acquireCount.incrementAndGet();
+        SQLParser parser = idle.poll();
+        if (parser != null) {
+            idleCount.decrementAndGet();
+        }
+        else {
+            createCount.incrementAndGet();
+            parser = config.newParser();
+        }
+        int inUse = inUseCount.incrementAndGet();
+        while (true) {
+            int peak = peakInUseCount.get();
+            if ((inUse <= peak) || peakInUseCount.compareAndSet(peak, inUse))
+                break;
+        }
+        return parser;
+    }
+
+    /** Give back a parser from {@link #acquire}. Any settings changed
+     * on it, including its node factory, are put back to the pool's.
+     */
+    public void release(SQLParser parser) {
+        inUseCount.decrementAndGet();
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            discardCount.incrementAndGet();
+            return;
+        }
+        parser.configure(config);
+        parser.clearStatement();
+        idle.offer(parser);
+    }
+
+    /** Check the syntax of a statement with a pooled parser.
+     * @see SQLParser#validate
+     */
+    public void validate(CharSequence sqlText) throws StandardException {
+        SQLParser parser = acquire();
+        try {
+            parser.validate(sqlText);
+        }
+        finally {
+            release(parser);
+        }
+    }
+
+    /** Remove all idle parsers. Counters are not reset. */
+    public void clear() {
+        while (idle.poll() != null)
+            idleCount.decrementAndGet();
+    }
+
+    /** The number of parsers waiting to be reused. */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    /** The number of parsers acquired and not yet released. */
+    public int getInUseCount() {
+        return inUseCount.get();
+    }
+
+    /** The most parsers that have been in use at once. */
+    public int getPeakInUseCount() {
+        return peakInUseCount.get();
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.get();
+    }
+
+    /** The number of parsers made because none was idle, which
+     * is how often callers had to compete for one.
+     */
+    public long getCreateCount() {
+        return createCount.get();
+    }
+
+    /** The number of parsers released when the pool was already full. */
+    public long getDiscardCount() {
+        return discardCount.get();
+    }
+
+    public String toString() {
+        return "SQLParserPool(idle=" + getIdleCount() +
+            ", inUse=" + getInUseCount() +
+            ", peakInUse=" + getPeakInUseCount() +
+            ", acquires=" + getAcquireCount() +
+            ", creates=" + getCreateCount() +
+            ", discards=" + getDiscardCount() + ")";
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Parse a script of statements delimited by semicolons one at a time
+ * from a stream, rather than all at once from a string like
+ * {@link SQLParser#parseStatements}. Only the statement being parsed is
+ * kept in memory, so scripts can be much larger than the heap.
+ *
+ * Settings such as features and the node factory come from the given
+ * {@link SQLParser}. The begin and end offsets of each statement and of
+ * the nodes in it are absolute within the whole script. Since they are
+ * <code>int</code>s, a script can be at most {@link #MAX_LENGTH}
+ * characters long. That can only be known as it is decoded, so reading
+ * past it is an <code>IOException</code> from {@link #nextStatement},
+ * before any statement that goes past it is returned.
+ *
+ * After an error, the position in the script is not known, so parsing
+ * cannot continue.
+ */
+public class SQLScriptParser implements Iterable<StatementNode>, Closeable
+{
+    /** The most characters a script can have: offsets up to
+     * <code>Integer.MAX_VALUE</code>.
+     */
+    public static final long MAX_LENGTH = Integer.MAX_VALUE + 1L;
+
+    private SQLParser parserContext;
+    private ReaderCharStream charStream;
+    private SQLGrammarTokenManager tokenManager;
+    private SQLGrammar parser;
+    private List<ParameterNode> parameterList;
+    private boolean started, finished;
+
+    public SQLScriptParser(SQLParser parserContext, Reader reader) {
+        this(parserContext, new ReaderCharStream(reader));
+    }
+
+    public SQLScriptParser(SQLParser parserContext,
+                           ReadableByteChannel channel, Charset charset) {
+        this(parserContext, Channels.newReader(channel, charset.newDecoder(), -1));
+    }
+
+    public SQLScriptParser(SQLParser parserContext, File file, Charset charset)
+            throws IOException {
+        this(parserContext, new InputStreamReader(new FileInputStream(file), charset));
+    }
+
+    /** Decode directly from <code>bytes</code>, such as a script file
+     * mapped with {@link java.nio.channels.FileChannel#map}, without
+     * first reading it into a string.
+     */
+    public SQLScriptParser(SQLParser parserContext, ByteBuffer bytes, Charset charset) {
+        this(parserContext, new ByteBufferReader(bytes, charset));
+    }
+
+    protected SQLScriptParser(SQLParser parserContext, ReaderCharStream charStream) {
+        this.parserContext = parserContext;
+        this.charStream = charStream;
+    }
+
+    /** Parse the next statement.
+     * @return the statement or <code>null</code> at the end of the script.
+     */
+    public StatementNode nextStatement() throws StandardException, IOException {
+        if (finished)
+            return null;
+        if (parser == null) {
+            tokenManager = new SQLGrammarTokenManager(null, charStream);
+            parser = new SQLGrammar(tokenManager);
+            parser.setParserContext(parserContext);
+            tokenManager.parser = parser;
+        }
+        if (started)
+            // Anything before the end of the last statement can go.
+            charStream.setMark(parser.getToken(0).endOffset + 1);
+        started = true;
+        parameterList = new ArrayList<ParameterNode>();
+        parser.setInternTable(parserContext.newInternTable());
+        StatementNode statement;
+        try {
+            statement = parser.parseNextStatement(charStream, parameterList);
+        }
+        catch (ParseException ex) {
+            finished = true;
+            checkIOException();
+            throw new SQLParserException(SQLParser.standardizeEol(ex.getMessage()),
+                                         ex,
+                                         tokenErrorPosition(ex.currentToken));
+        }
+        catch (TokenMgrError ex) {
+            finished = true;
+            checkIOException();
+            if (ex.errorCode == TokenMgrError.LEXICAL_ERROR)
+                throw new SQLParserException(ex.getMessage(), ex,
+                                             charStream.getEndOffset() + 1);
+            else
+                throw new StandardException(ex);
+        }
+        catch (StandardException ex) {
+            finished = true;
+            throw ex;
+        }
+        checkIOException();
+        if (statement == null)
+            finished = true;
+        return statement;
+    }
+
+    /** Return the parameters to the last statement parsed. */
+    public List<ParameterNode> getParameterList() {
+        return parameterList;
+    }
+
+    public void close() throws IOException {
+        finished = true;
+        charStream.close();
+        charStream.Done();
+    }
+
+    /** Iterate over the remaining statements. Errors while parsing are
+     * thrown as {@link ScriptParseException}.
+     */
+    public Iterator<StatementNode> iterator() {
+        return new Iterator<StatementNode>() {
+            private StatementNode next;
+
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = nextStatement();
+                    }
+                    catch (StandardException ex) {
+                        throw new ScriptParseException(ex);
+                    }
+                    catch (IOException ex) {
+                        throw new ScriptParseException(ex);
+                    }
+                }
+                return (next != null);
+            }
+
+            public StatementNode next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                StatementNode result = next;
+                next = null;
+                return result;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /** An error from {@link #iterator}, whose cause is the
+     * {@link StandardException} or {@link IOException}.
+     */
+    public static class ScriptParseException extends RuntimeException {
+        public ScriptParseException(Throwable cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    private void checkIOException() throws IOException {
+        IOException ex = charStream.getIOException();
+        if (ex != null) {
+            finished = true;
+            throw ex;
+        }
+    }
+
+    /** Translate position of token into linear position, which like
+     * {@link SQLParser}'s is one-based.
+     */
+    private static int tokenErrorPosition(Token token) {
+        if ((token == null) || (token.next == null)) return 0;
+        return token.next.beginOffset + 1;
+    }
+
+}
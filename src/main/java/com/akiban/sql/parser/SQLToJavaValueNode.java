@@ -107,6 +107,7 @@ public class SQLToJavaValueNode extends JavaValueNode
 
     public void setSQLValueNode(ValueNode value) {
         this.value = value;
+        childrenChanged();
     }
 
     /** @see ValueNode#getConstantValueAsObject 
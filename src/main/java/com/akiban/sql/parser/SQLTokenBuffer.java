@@ -0,0 +1,112 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+package com.akiban.sql.parser;
+
+/**
+ * Tokens from {@link SQLTokenizer}, kept in parallel arrays that are
+ * reused from one statement to the next.
+ */
+public class SQLTokenBuffer
+{
+    private CharSequence sqlText;
+    private int[] kinds, beginOffsets, endOffsets;
+    private int size;
+
+    public SQLTokenBuffer() {
+        this(64);
+    }
+
+    public SQLTokenBuffer(int capacity) {
+        capacity = Math.max(capacity, 1);
+        kinds = new int[capacity];
+        beginOffsets = new int[capacity];
+        endOffsets = new int[capacity];
+    }
+
+    /** Empty the buffer for tokens from <code>sqlText</code>. */
+    public void reset(CharSequence sqlText) {
+        this.sqlText = sqlText;
+        size = 0;
+    }
+
+    public void add(int kind, int beginOffset, int endOffset) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = grow(kinds, capacity);
+            beginOffsets = grow(beginOffsets, capacity);
+            endOffsets = grow(endOffsets, capacity);
+        }
+        kinds[size] = kind;
+        beginOffsets[size] = beginOffset;
+        endOffsets[size] = endOffset;
+        size++;
+    }
+
+    private int[] grow(int[] array, int capacity) {
+        int[] result = new int[capacity];
+        System.arraycopy(array, 0, result, 0, size);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CharSequence getSQLText() {
+        return sqlText;
+    }
+
+    public int getKind(int index) {
+        checkIndex(index);
+        return kinds[index];
+    }
+
+    public int getBeginOffset(int index) {
+        checkIndex(index);
+        return beginOffsets[index];
+    }
+
+    /** The inclusive end of the token at <code>index</code>. */
+    public int getEndOffset(int index) {
+        checkIndex(index);
+        return endOffsets[index];
+    }
+
+    public String getImage(int index) {
+        checkIndex(index);
+        return sqlText.subSequence(beginOffsets[index], endOffsets[index] + 1).toString();
+    }
+
+    /** The underlying arrays, valid up to {@link #size}, for callers
+     * that want to avoid even the accessor calls.
+     */
+    public int[] getKinds() {
+        return kinds;
+    }
+    public int[] getBeginOffsets() {
+        return beginOffsets;
+    }
+    public int[] getEndOffsets() {
+        return endOffsets;
+    }
+
+    private void checkIndex(int index) {
+        if ((index < 0) || (index >= size))
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+}
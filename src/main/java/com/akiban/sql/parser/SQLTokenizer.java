@@ -0,0 +1,226 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+/**
+ * Split SQL into tokens without parsing it, for things like
+ * fingerprinting, highlighting, or redacting literals.
+ *
+ * Tokens are reported as a kind and inclusive begin and end offsets into
+ * the text; the image is only made into a string if asked for. There
+ * are three ways to get them, none of which allocates per token: step
+ * through with {@link #reset} and {@link #next}; have them passed to a
+ * {@link TokenHandler}; or fill a reusable {@link SQLTokenBuffer}.
+ *
+ * Comments and white space are skipped. The features of the given
+ * {@link SQLParser} apply, for instance to whether double quotes are
+ * identifiers or strings.
+ *
+ * Like {@link SQLParser}, a tokenizer can be reused, but not from more
+ * than one thread at a time.
+ */
+public class SQLTokenizer
+{
+    /** Receive tokens from {@link SQLTokenizer#tokenize(CharSequence,TokenHandler)}. */
+    public static interface TokenHandler {
+        /** Handle one token.
+         * @param endOffset inclusive end.
+         * @return <code>false</code> to stop.
+         */
+        public boolean token(int kind, int beginOffset, int endOffset);
+    }
+
+    /** Kind of the end of input token, after all the others. */
+    public static final int EOF = SQLGrammarConstants.EOF;
+
+    private static final boolean[] KEYWORDS;
+    static {
+        String[] images = SQLGrammarConstants.tokenImage;
+        KEYWORDS = new boolean[images.length];
+        for (int i = 0; i < images.length; i++) {
+            // Those with a fixed alphabetic image.
+            String image = images[i];
+            KEYWORDS[i] = ((image.length() > 2) &&
+                           (image.charAt(0) == '"') &&
+                           Character.isLetter(image.charAt(1)));
+        }
+    }
+
+    private SQLParser parserContext;
+    private CharSequence sqlText;
+    private StringCharStream charStream;
+    private ReusingTokenManager tokenManager;
+    private int kind = EOF, beginOffset, endOffset;
+
+    public SQLTokenizer(SQLParser parserContext) {
+        this.parserContext = parserContext;
+    }
+
+    /** Start tokenizing <code>sqlText</code>, which must not change
+     * until done.
+     */
+    public void reset(CharSequence sqlText) {
+        this.sqlText = sqlText;
+        if (charStream == null) {
+            // The token manager only needs the grammar for its
+            // features, but making one reads a token, so start empty.
+            charStream = new StringCharStream("");
+            tokenManager = new ReusingTokenManager(charStream);
+            SQLGrammar parser = new SQLGrammar(tokenManager);
+            parser.setParserContext(parserContext);
+            tokenManager.parser = parser;
+        }
+        charStream.ReInit(sqlText);
+        tokenManager.ReInit(charStream);
+        kind = EOF;
+        beginOffset = endOffset = 0;
+    }
+
+    /** Advance to the next token.
+     * @return <code>false</code> at the end of the input.
+     */
+    public boolean next() throws StandardException {
+        Token token;
+        try {
+            token = tokenManager.getNextToken();
+        }
+        catch (TokenMgrError ex) {
+            kind = EOF;
+            if (ex.errorCode == TokenMgrError.LEXICAL_ERROR)
+                throw new SQLParserException(ex.getMessage(), ex,
+                                             SQLParser.lineColumnErrorPosition(ex.errorLine,
+                                                                               ex.errorColumn,
+                                                                               sqlText));
+            else
+                throw new StandardException(ex);
+        }
+        kind = token.kind;
+        beginOffset = token.beginOffset;
+        endOffset = token.endOffset;
+        return (kind != EOF);
+    }
+
+    /** The kind of the current token, as in {@link #getKindName}. */
+    public int getKind() {
+        return kind;
+    }
+
+    public int getBeginOffset() {
+        return beginOffset;
+    }
+
+    /** The inclusive end of the current token. */
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    /** The text of the current token. */
+    public String getImage() {
+        if (kind == EOF) return "";
+        return sqlText.subSequence(beginOffset, endOffset + 1).toString();
+    }
+
+    /** Pass each token in <code>sqlText</code> to <code>handler</code>. */
+    public void tokenize(CharSequence sqlText, TokenHandler handler) 
+            throws StandardException {
+        reset(sqlText);
+        while (next()) {
+            if (!handler.token(kind, beginOffset, endOffset))
+                break;
+        }
+    }
+
+    /** Replace the contents of <code>buffer</code> with the tokens in
+     * <code>sqlText</code>.
+     * @return the number of tokens.
+     */
+    public int tokenize(CharSequence sqlText, SQLTokenBuffer buffer) 
+            throws StandardException {
+        buffer.reset(sqlText);
+        reset(sqlText);
+        while (next()) {
+            buffer.add(kind, beginOffset, endOffset);
+        }
+        return buffer.size();
+    }
+
+    /** A description of a kind of token, such as <code>"select"</code>
+     * or <code>&lt;IDENTIFIER&gt;</code>.
+     */
+    public static String getKindName(int kind) {
+        return SQLGrammarConstants.tokenImage[kind];
+    }
+
+    /** Is this kind of token a keyword, reserved or not? */
+    public static boolean isKeyword(int kind) {
+        return KEYWORDS[kind];
+    }
+
+    /** Is this kind of token a plain or delimited identifier? */
+    public static boolean isIdentifier(int kind) {
+        switch (kind) {
+        case SQLGrammarConstants.IDENTIFIER:
+        case SQLGrammarConstants.DOUBLEQUOTED_IDENTIFIER:
+        case SQLGrammarConstants.BACKQUOTED_IDENTIFIER:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /** Is this kind of token a numeric or string literal? */
+    public static boolean isLiteral(int kind) {
+        switch (kind) {
+        case SQLGrammarConstants.EXACT_NUMERIC:
+        case SQLGrammarConstants.UINT:
+        case SQLGrammarConstants.APPROXIMATE_NUMERIC:
+        case SQLGrammarConstants.SINGLEQUOTED_STRING:
+        case SQLGrammarConstants.DOUBLEQUOTED_STRING:
+        case SQLGrammarConstants.DOUBLEDOLLAR_STRING:
+        case SQLGrammarConstants.HEX_STRING:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /** Is this kind of token a <code>?</code> or <code>$<i>n</i></code> parameter? */
+    public static boolean isParameter(int kind) {
+        return ((kind == SQLGrammarConstants.QUESTION_MARK) ||
+                (kind == SQLGrammarConstants.DOLLAR_N));
+    }
+
+    /** A token manager that fills in the same token each time, without
+     * its image or line and column.
+     */
+    static class ReusingTokenManager extends SQLGrammarTokenManager {
+        private final Token token = new Token();
+
+        public ReusingTokenManager(CharStream stream) {
+            super(null, stream);
+        }
+
+        @Override
+        protected Token jjFillToken() {
+            token.kind = jjmatchedKind;
+            return token;
+        }
+    }
+
+}
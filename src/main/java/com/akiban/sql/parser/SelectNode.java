@@ -229,6 +229,7 @@ public class SelectNode extends ResultSetNode
 
     public void setWhereClause(ValueNode whereClause) {
         this.whereClause = whereClause;
+        childrenChanged();
     }
 
     public GroupByList getGroupByList() {
@@ -241,6 +242,7 @@ public class SelectNode extends ResultSetNode
 
     public void setHavingClause(ValueNode havingClause) {
         this.havingClause = havingClause;
+        childrenChanged();
     }
 
     /**
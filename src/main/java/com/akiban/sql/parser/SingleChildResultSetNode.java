@@ -94,6 +94,7 @@ abstract class SingleChildResultSetNode extends FromTable
      */
     void setChildResult(ResultSetNode childResult) {
         this.childResult = childResult;
+        childrenChanged();
     }
 
     /**
@@ -97,4 +97,8 @@ public class SpecialFunctionNode extends ValueNode
         return false;
     }
 
+    protected int computeEquivalenceHash() {
+        return hashCombine(getNodeType(), sqlName.hashCode());
+    }
+
 }
@@ -0,0 +1,129 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The context for {@link SQLParser#validate}, with its own grammar,
+ * token stream and parameters, so that the parser's last statement is
+ * left alone.
+ *
+ * The tree is made with the parser's node factory, as it would be when
+ * parsing, since the grammar checks some things, such as duplicate
+ * table names or parameters in a view, against it.
+ */
+class StatementValidator implements SQLParserContext
+{
+    private final SQLParser parser;
+    private StringCharStream charStream;
+    private SQLGrammarTokenManager tokenManager;
+    private ValidatingGrammar grammar;
+    private List<ParameterNode> parameterList = new ArrayList<ParameterNode>();
+    private Map printedObjectsMap;
+
+    public StatementValidator(SQLParser parser) {
+        this.parser = parser;
+    }
+
+    /** @see SQLParser#validate */
+    public void validate(CharSequence sqlText) throws StandardException {
+        try {
+            parse(sqlText);
+        }
+        catch (ParseException ex) {
+            throw new SQLParserException(ex.getMessage(),
+                                         ex,
+                                         SQLParser.tokenErrorPosition(ex.currentToken, sqlText));
+        }
+        catch (TokenMgrError ex) {
+            // Throw away the cached grammar.
+            grammar = null;
+            if (ex.errorCode == TokenMgrError.LEXICAL_ERROR)
+                throw new SQLParserException(ex.getMessage(),
+                                             ex,
+                                             SQLParser.lineColumnErrorPosition(ex.errorLine,
+                                                                               ex.errorColumn,
+                                                                               sqlText));
+            else
+                throw new StandardException(ex);
+        }
+        finally {
+            parameterList.clear();
+            printedObjectsMap = null;
+        }
+    }
+
+    protected void parse(CharSequence sqlText)
+            throws ParseException, StandardException {
+        if (grammar == null) {
+            // Making the grammar reads a token, which needs the
+            // features, so start empty.
+            charStream = new StringCharStream("");
+            tokenManager = new SQLGrammarTokenManager(null, charStream);
+            grammar = new ValidatingGrammar(tokenManager);
+            tokenManager.parser = grammar;
+        }
+        grammar.setParserContext(this);
+        parameterList.clear();
+        printedObjectsMap = null;
+        // Resets and then reads the first token.
+        charStream.ReInit(sqlText);
+        tokenManager.ReInit(charStream);
+        grammar.ReInit(tokenManager);
+        grammar.parseStatement(sqlText, parameterList);
+    }
+
+    /* SQLParserContext */
+
+    public void checkStringLiteralLengthLimit(String image) throws StandardException {
+        parser.checkStringLiteralLengthLimit(image);
+    }
+
+    public void checkIdentifierLengthLimit(String identifier) throws StandardException {
+        parser.checkIdentifierLengthLimit(identifier);
+    }
+
+    public void setReturnParameterFlag() {
+    }
+
+    public void setMessageLocale(String locale) {
+    }
+
+    public NodeFactory getNodeFactory() {
+        return parser.getNodeFactory();
+    }
+
+    public Map getPrintedObjectsMap() {
+        if (printedObjectsMap == null)
+            printedObjectsMap = new HashMap();
+        return printedObjectsMap;
+    }
+
+    public boolean hasFeature(SQLParserFeature feature) {
+        return parser.hasFeature(feature);
+    }
+
+    public IdentifierCase getIdentifierCase() {
+        return parser.getIdentifierCase();
+    }
+}
@@ -21,86 +21,133 @@ import java.io.EOFException;
 import java.io.IOException;
 
 /**
- * {@link CharStream} that simply reads from a string.
+ * {@link CharStream} that simply reads from a string, or from any other
+ * {@link CharSequence}, such as a <code>StringBuilder</code> or a
+ * <code>CharBuffer</code>, without copying it.
+ *
+ * Reading and backing up only move an offset. Lines and columns are
+ * worked out when asked for, by scanning forward from the last position
+ * asked for, which the token manager does in order, or else from the
+ * start of the line, which is found from an index of line starts built
+ * along the way.
  */
 public class StringCharStream implements CharStream
 {
     private static final IOException EOF = new EOFException();
 
-    private String string;
+    private CharSequence string;
+    private int length, endIndex; // Whole string and end of what is read.
     private int beginIndex, currentIndex; // 0-based, exclusive end.
-    private int currentLine, currentColumn; // 1-based.
-    // End represents the position of the last character returned, and
-    // in particular if a newline was returned, it at the end of the
-    // previous line.
-    private int beginLine, beginColumn, endLine, endColumn;
+    // The line and column (1-based) of the character at positionIndex.
+    private int positionIndex, positionLine, positionColumn;
+    // The offsets at which each line starts, as far as positionIndex has been.
+    private int[] lineStarts = new int[16];
+    private int nlines;
     
-    public StringCharStream(String string) {
+    public StringCharStream(CharSequence string) {
         init(string);
     }
 
-    public void ReInit(String string) {
+    public void ReInit(CharSequence string) {
         init(string);
     }
 
-    private void init(String string) {
+    /** Read only the characters from <code>beginIndex</code> up to
+     * <code>endIndex</code> (exclusive), with offsets, lines and columns
+     * still those within the whole string. Lines already found are kept
+     * if it is the same string as before, so reading successive parts
+     * of a string scans it only once.
+     */
+    void ReInit(CharSequence string, int beginIndex, int endIndex) {
+        if (string != this.string)
+            init(string);
+        this.endIndex = endIndex;
+        this.beginIndex = this.currentIndex = beginIndex;
+    }
+
+    private void init(CharSequence string) {
         this.string = string;
+        length = endIndex = string.length();
         beginIndex = currentIndex = 0;
-        currentLine = currentColumn = beginLine = beginColumn = endLine = endColumn = 1;
+        positionIndex = 0;
+        positionLine = positionColumn = 1;
+        lineStarts[0] = 0;
+        nlines = 1;
     }
     
     @Override
     public char BeginToken() throws java.io.IOException {
         beginIndex = currentIndex;
-        beginLine = currentLine;
-        beginColumn = currentColumn;
         return readChar();
     }
 
     @Override
     public char readChar() throws java.io.IOException {
-        if (currentIndex >= string.length())
+        if (currentIndex >= endIndex)
             throw EOF;
 
-        return advance();
+        return string.charAt(currentIndex++);
     }
 
     @Override
     public void backup(int amount) {
-        int target = currentIndex - amount;
-        assert (target >= beginIndex);
-        currentIndex = beginIndex;
-        currentLine = beginLine;
-        currentColumn = beginColumn;
-        while (currentIndex < target)
-            advance();          // Adjusting line / column.
-    }
-
-    private char advance() {
-        endLine = currentLine;
-        endColumn = currentColumn;
-        char ch = string.charAt(currentIndex++);
-        switch (ch) {
-        case '\r':
-            if ((currentIndex < string.length()) &&
-                (string.charAt(currentIndex) == '\n')) {
-                currentColumn++;
+        currentIndex -= amount;
+        assert (currentIndex >= beginIndex);
+    }
+
+    /** Set the line and column to those of the character at <code>index</code>. */
+    private void position(int index) {
+        if (index < positionIndex) {
+            int line = lineIndex(index);
+            positionIndex = lineStarts[line];
+            positionLine = line + 1;
+            positionColumn = 1;
+        }
+        while (positionIndex < index) {
+            char ch = string.charAt(positionIndex++);
+            switch (ch) {
+            case '\r':
+                if ((positionIndex < length) &&
+                    (string.charAt(positionIndex) == '\n')) {
+                    positionColumn++;
+                    break;
+                }
+                /* else falls through (bare CR) */
+            case '\n':
+                positionLine++;
+                positionColumn = 1;
+                if (positionLine > nlines) {
+                    if (nlines == lineStarts.length) {
+                        int[] newLineStarts = new int[nlines * 2];
+                        System.arraycopy(lineStarts, 0, newLineStarts, 0, nlines);
+                        lineStarts = newLineStarts;
+                    }
+                    lineStarts[nlines++] = positionIndex;
+                }
+                break;
+            case '\t':
+                positionColumn += (8 - (positionColumn & 7)) + 1;
+                break;
+            default:
+                positionColumn++;
                 break;
             }
-            /* else falls through (bare CR) */
-        case '\n':
-            currentLine++;
-            currentColumn = 1;
-            break;
-        case '\t':
-            endColumn += (8 - (endColumn & 7));
-            currentColumn = endColumn + 1;
-            break;
-        default:
-            currentColumn++;
-            break;
         }
-        return ch;
+    }
+
+    /** The 0-based line containing <code>index</code>, which has been
+     * indexed already.
+     */
+    private int lineIndex(int index) {
+        int lo = 0, hi = nlines - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (lineStarts[mid] <= index)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return lo;
     }
 
     @Override
@@ -114,20 +161,33 @@ public class StringCharStream implements CharStream
 
     @Override
     public int getBeginLine() {
-        return beginLine;
+        position(beginIndex);
+        return positionLine;
     }
     @Override
     public int getBeginColumn() {
-        return beginColumn;
+        position(beginIndex);
+        return positionColumn;
     }
 
+    // End represents the position of the last character returned, and
+    // in particular if a newline was returned, it at the end of the
+    // previous line. A tab ends at the last column it takes up.
+
     @Override
     public int getEndLine() {
-        return endLine;
+        if (currentIndex == 0) return 1;
+        position(currentIndex - 1);
+        return positionLine;
     }
     @Override
     public int getEndColumn() {
-        return endColumn;
+        if (currentIndex == 0) return 1;
+        position(currentIndex - 1);
+        int column = positionColumn;
+        if (string.charAt(currentIndex - 1) == '\t')
+            column += (8 - (column & 7));
+        return column;
     }
 
     @Override
@@ -141,13 +201,15 @@ public class StringCharStream implements CharStream
 
     @Override
     public String GetImage() {
-        return string.substring(beginIndex, currentIndex);
+        return string.subSequence(beginIndex, currentIndex).toString();
     }
 
     @Override
     public char[] GetSuffix(int len) {
         char[] result = new char[len];
-        string.getChars(currentIndex - len, currentIndex, result, 0);
+        int start = currentIndex - len;
+        for (int i = 0; i < len; i++)
+            result[i] = string.charAt(start + i);
         return result;
     }
 
@@ -249,6 +249,7 @@ public class SubqueryNode extends ValueNode
 
     public void setResultSet(ResultSetNode resultSet) {
         this.resultSet = resultSet;
+        childrenChanged();
     }
 
     /**
@@ -143,10 +143,12 @@ abstract class TableOperatorNode extends FromTable
 
     public void setLeftResultSet(ResultSetNode leftResultSet) {
         this.leftResultSet =    leftResultSet;
+        childrenChanged();
     }
 
     public void setRightResultSet(ResultSetNode rightResultSet) {
         this.rightResultSet =    rightResultSet;
+        childrenChanged();
     }
 
     public ResultSetNode getLeftmostResultSet() {
@@ -165,6 +167,7 @@ abstract class TableOperatorNode extends FromTable
         else {
             this.leftResultSet = newLeftResultSet;
         }
+        childrenChanged();
     }
 
     /**
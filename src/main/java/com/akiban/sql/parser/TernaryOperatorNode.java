@@ -223,6 +223,7 @@ public class TernaryOperatorNode extends ValueNode
 
     public void setReceiver(ValueNode receiver) {
         this.receiver = receiver;
+        childrenChanged();
     }
 
     /**
@@ -232,6 +233,7 @@ public class TernaryOperatorNode extends ValueNode
      */
     public void setLeftOperand(ValueNode newLeftOperand) {
         leftOperand = newLeftOperand;
+        childrenChanged();
     }
 
     /**
@@ -250,6 +252,7 @@ public class TernaryOperatorNode extends ValueNode
      */
     public void setRightOperand(ValueNode newRightOperand) {
         rightOperand = newRightOperand;
+        childrenChanged();
     }
 
     /**
@@ -303,4 +306,11 @@ public class TernaryOperatorNode extends ValueNode
         return false;
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        int hash = hashCombine(getNodeType(), methodName.hashCode());
+        hash = hashCombine(hash, receiver.equivalenceHash());
+        hash = hashCombine(hash, leftOperand.equivalenceHash());
+        return hashCombine(hash, equivalenceHash(rightOperand));
+    }
+
 }
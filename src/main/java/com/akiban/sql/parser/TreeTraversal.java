@@ -0,0 +1,312 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Take a {@link Visitor} over a tree with an explicit stack, so that
+ * how deep the tree is, such as for a long chain of <code>OR</code>s,
+ * is not limited by the Java stack.
+ *
+ * The visitor sees the same calls in the same order as recursive
+ * {@link QueryTreeNode#accept} would make them, except that nothing
+ * more is asked once it says to stop.
+ *
+ * The children of a node are found by having its
+ * {@link QueryTreeNode#acceptChildren} show them to a visitor that
+ * does not descend into them. If any of them are replaced, or have
+ * anything below them replaced, a second such pass puts the results
+ * back. A child that was made for the occasion, such as a row of a
+ * {@link CompactRowList}, is also put back if it was changed in place.
+ *
+ * For a {@link NodeTypesVisitor}, children whose summary of node types
+ * is up to date and has none of those sought are passed over. Should the
+ * visitor change anything, the summaries above it go out of date and
+ * those parts are visited in full.
+ */
+final class TreeTraversal
+{
+    /** Handed each child by {@link QueryTreeNode#accept} instead of
+     * visiting it.
+     */
+    static abstract class ChildVisitor implements Visitor {
+        abstract Visitable child(QueryTreeNode node);
+
+        /** Handed a child that <code>owner</code> made for the
+         * occasion and will not keep unless told to.
+         */
+        Visitable temporaryChild(QueryTreeNode node, TemporaryChildren owner) {
+            return child(node);
+        }
+
+        public Visitable visit(Visitable node) {
+            return node;
+        }
+        public boolean visitChildrenFirst(Visitable node) {
+            return false;
+        }
+        public boolean stopTraversal() {
+            return false;
+        }
+        public boolean skipChildren(Visitable node) {
+            return true;
+        }
+    }
+
+    /** Makes children for the occasion, and can tell whether a visitor
+     * changed them in ways that would otherwise be lost with them.
+     */
+    interface TemporaryChildren {
+        /** Note what might be changed in <code>child</code>. */
+        Object saveState(QueryTreeNode child);
+
+        /** Has <code>child</code> changed since {@link #saveState}? */
+        boolean changedInPlace(QueryTreeNode child, Object state);
+    }
+
+    static final class Frame {
+        QueryTreeNode node;
+        boolean childrenFirst;
+        Visitable result;
+        int childrenStart, childrenEnd, next;
+        boolean changed;
+    }
+
+    private final Visitor visitor;
+    private final long nodeTypes;
+    private Frame[] frames = new Frame[16];
+    private int depth;
+    // The children of all the nodes on the stack, each with what it
+    // became and whether that or anything below it changed.
+    private QueryTreeNode[] children = new QueryTreeNode[64];
+    private Visitable[] results = new Visitable[64];
+    private boolean[] changed = new boolean[64];
+    private TemporaryChildren[] owners = new TemporaryChildren[64];
+    private Object[] states = new Object[64];
+    private int nchildren;
+    private int replaceIndex;
+
+    private final ChildVisitor collector = new ChildVisitor() {
+            Visitable child(QueryTreeNode node) {
+                if (nchildren == children.length)
+                    growChildren();
+                children[nchildren] = node;
+                results[nchildren] = node;
+                changed[nchildren] = false;
+                owners[nchildren] = null;
+                states[nchildren] = null;
+                nchildren++;
+                return node;
+            }
+
+            Visitable temporaryChild(QueryTreeNode node, TemporaryChildren owner) {
+                child(node);
+                owners[nchildren - 1] = owner;
+                states[nchildren - 1] = owner.saveState(node);
+                return node;
+            }
+        };
+
+    private final ChildVisitor replacer = new ChildVisitor() {
+            Visitable child(QueryTreeNode node) {
+                int index = replaceIndex++;
+                // A child that was made for the occasion, such as an
+                // element of a compact list, will not be the same
+                // object the second time, and should only be replaced
+                // if it changed.
+                return changed[index] ? results[index] : node;
+            }
+        };
+
+    private TreeTraversal(Visitor visitor, long nodeTypes) {
+        this.visitor = visitor;
+        this.nodeTypes = nodeTypes;
+    }
+
+    static Visitable accept(QueryTreeNode root, Visitor visitor)
+            throws StandardException {
+        long nodeTypes = NodeTypeMask.ALL;
+        if (visitor instanceof NodeTypesVisitor) {
+            nodeTypes = ((NodeTypesVisitor)visitor).getNodeTypes();
+            if ((nodeTypes != NodeTypeMask.ALL) &&
+                ((root.getSubtreeNodeTypes() & nodeTypes) == 0))
+                return root;
+        }
+        return new TreeTraversal(visitor, nodeTypes).run(root);
+    }
+
+    /** Work out the summary of node types for <code>root</code>. */
+    static long summarize(QueryTreeNode root) throws StandardException {
+        return new Summarizer().run(root);
+    }
+
+    private Visitable run(QueryTreeNode root) throws StandardException {
+        enter(root);
+        while (true) {
+            Frame frame = frames[depth - 1];
+            if ((frame.next < frame.childrenEnd) && !visitor.stopTraversal()) {
+                QueryTreeNode child = children[frame.next];
+                if ((nodeTypes != NodeTypeMask.ALL) && child.lacksNodeTypes(nodeTypes)) {
+                    owners[frame.next] = null;
+                    states[frame.next] = null;
+                    frame.next++;
+                }
+                else
+                    enter(child);
+                continue;
+            }
+            Visitable result = leave(frame);
+            QueryTreeNode node = frame.node;
+            boolean frameChanged = (frame.changed || (result != node));
+            nchildren = frame.childrenStart;
+            frame.node = null;
+            frame.result = null;
+            depth--;
+            if (depth == 0)
+                return result;
+            Frame parent = frames[depth - 1];
+            int index = parent.next++;
+            if (!frameChanged && (owners[index] != null))
+                frameChanged = owners[index].changedInPlace(node, states[index]);
+            owners[index] = null;
+            states[index] = null;
+            if (frameChanged) {
+                results[index] = result;
+                changed[index] = true;
+                parent.changed = true;
+            }
+        }
+    }
+
+    private void enter(QueryTreeNode node) throws StandardException {
+        if (depth == frames.length) {
+            Frame[] newFrames = new Frame[depth * 2];
+            System.arraycopy(frames, 0, newFrames, 0, depth);
+            frames = newFrames;
+        }
+        Frame frame = frames[depth];
+        if (frame == null)
+            frame = frames[depth] = new Frame();
+        depth++;
+        frame.node = node;
+        frame.changed = false;
+        frame.childrenFirst = visitor.visitChildrenFirst(node);
+        boolean skipChildren = visitor.skipChildren(node);
+        if (!frame.childrenFirst)
+            frame.result = visitor.stopTraversal() ? node : visitor.visit(node);
+        frame.childrenStart = frame.next = nchildren;
+        if (!skipChildren && !visitor.stopTraversal())
+            node.acceptChildren(collector);
+        frame.childrenEnd = nchildren;
+    }
+
+    private Visitable leave(Frame frame) throws StandardException {
+        if (frame.changed) {
+            replaceIndex = frame.childrenStart;
+            frame.node.acceptChildren(replacer);
+            frame.node.childrenChanged();
+        }
+        if (frame.childrenFirst)
+            frame.result = visitor.stopTraversal() ? frame.node : visitor.visit(frame.node);
+        return frame.result;
+    }
+
+    private void growChildren() {
+        int size = children.length * 2;
+        QueryTreeNode[] newChildren = new QueryTreeNode[size];
+        System.arraycopy(children, 0, newChildren, 0, nchildren);
+        children = newChildren;
+        Visitable[] newResults = new Visitable[size];
+        System.arraycopy(results, 0, newResults, 0, nchildren);
+        results = newResults;
+        boolean[] newChanged = new boolean[size];
+        System.arraycopy(changed, 0, newChanged, 0, nchildren);
+        changed = newChanged;
+        TemporaryChildren[] newOwners = new TemporaryChildren[size];
+        System.arraycopy(owners, 0, newOwners, 0, nchildren);
+        owners = newOwners;
+        Object[] newStates = new Object[size];
+        System.arraycopy(states, 0, newStates, 0, nchildren);
+        states = newStates;
+    }
+
+    /** Works out the summary of node types for a node and anything below
+     * it whose summary is not up to date, bottom-up. The children of each
+     * node are gone through twice: first to find those that need working
+     * out, and then, once they have been, to combine them.
+     */
+    static final class Summarizer extends ChildVisitor {
+        private List<QueryTreeNode> pending = new ArrayList<QueryTreeNode>();
+        private BitSet childrenPending = new BitSet();
+        private boolean combining;
+        private QueryTreeNode combiningNode;
+        private long nodeTypes;
+
+        long run(QueryTreeNode root) throws StandardException {
+            pending.add(root);
+            while (!pending.isEmpty()) {
+                int top = pending.size() - 1;
+                QueryTreeNode node = pending.get(top);
+                if (!childrenPending.get(top)) {
+                    childrenPending.set(top);
+                    combining = false;
+                    node.acceptChildren(this);
+                }
+                else {
+                    pending.remove(top);
+                    childrenPending.clear(top);
+                    combining = true;
+                    combiningNode = node;
+                    nodeTypes = NodeTypeMask.bit(node.getNodeType());
+                    node.acceptChildren(this);
+                    node.setSubtreeNodeTypes(nodeTypes);
+                }
+            }
+            combiningNode = null;
+            return root.getSubtreeNodeTypesSoFar();
+        }
+
+        Visitable child(QueryTreeNode node) {
+            if (combining) {
+                nodeTypes |= node.getSubtreeNodeTypesSoFar();
+                node.setSummarizedIn(combiningNode);
+            }
+            else if (!node.hasCurrentNodeTypes())
+                pending.add(node);
+            return node;
+        }
+
+        /** Is it time for {@link #addNodeTypes}? */
+        boolean isCombining() {
+            return combining;
+        }
+
+        /** Add the types of children that are not handed over one by
+         * one, such as the elements of a compact list that have no
+         * nodes yet.
+         */
+        void addNodeTypes(long nodeTypes) {
+            this.nodeTypes |= nodeTypes;
+        }
+    }
+}
@@ -113,6 +113,7 @@ public class UnaryOperatorNode extends ValueNode
      */
     void setOperator(String operator) {
         this.operator = operator;
+        valueChanged();
     }
 
     /**
@@ -131,6 +132,7 @@ public class UnaryOperatorNode extends ValueNode
      */
     void setMethodName(String methodName) {
         this.methodName = methodName;
+        valueChanged();
     }
 
     public String getMethodName() {
@@ -177,6 +179,7 @@ public class UnaryOperatorNode extends ValueNode
 
     public void setOperand(ValueNode operand) {
         this.operand = operand;
+        childrenChanged();
     }
 
     /**
@@ -210,4 +213,9 @@ public class UnaryOperatorNode extends ValueNode
         return false;
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        int hash = hashCombine(getNodeType(), operator.hashCode());
+        return hashCombine(hash, equivalenceHash(operand));
+    }
+
 }
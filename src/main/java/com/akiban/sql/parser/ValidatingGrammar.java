@@ -0,0 +1,49 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+package com.akiban.sql.parser;
+
+/**
+ * The grammar as run by {@link SQLParser#validate}, which only wants to
+ * know whether there is an error and where.
+ * @see StatementValidator
+ */
+class ValidatingGrammar extends SQLGrammar
+{
+    public ValidatingGrammar(SQLGrammarTokenManager tokenManager) {
+        super(tokenManager);
+        validateOnly = true;
+    }
+
+    /** Just say where the error is. The generated version also works out
+     * every token that might have been expected, which means rescanning
+     * all the lookaheads tried.
+     */
+    @Override
+    public ParseException generateParseException() {
+        Token errorToken = token.next;
+        StringBuilder str = new StringBuilder("Encountered ");
+        if (errorToken.kind == EOF)
+            str.append(tokenImage[EOF]);
+        else
+            str.append('"').append(ParseException.add_escapes(errorToken.image)).append('"');
+        str.append(" at line ").append(errorToken.beginLine)
+           .append(", column ").append(errorToken.beginColumn).append(".");
+        ParseException ex = new ParseException(str.toString());
+        ex.currentToken = token;
+        return ex;
+    }
+}
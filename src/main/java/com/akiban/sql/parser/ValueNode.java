@@ -57,6 +57,9 @@ public abstract class ValueNode extends QueryTreeNode
      */
     private DataTypeDescriptor type;
 
+    private int equivalenceHash;
+    private int equivalenceHashVersion; // Like the subtree node types'.
+
     /*
     ** Constructor for untyped ValueNodes, for example, untyped NULLs
     ** and parameter nodes.
@@ -390,4 +393,90 @@ public abstract class ValueNode extends QueryTreeNode
         return false;
     }
 
+    /**
+     * Get a hash code that agrees with {@link #isEquivalent}: equivalent
+     * nodes have the same one. It is worked out bottom-up for this node
+     * and anything below it, and then kept, like the summary of node
+     * types, until something below changes.
+     *
+     * @see ValueNodeMap
+     * @throws StandardException
+     */
+    public final int equivalenceHash() throws StandardException {
+        int version = treeVersion();
+        if ((equivalenceHashVersion == version) && (version != 0))
+            return equivalenceHash;
+        if (version == 0)
+            // Cannot be kept, so just recurse.
+            return computeEquivalenceHash();
+        // Changes below are followed up along the same way as for the
+        // summaries, which are therefore needed too.
+        getSubtreeNodeTypes();
+        // Those below first, so that each only needs to look one
+        // level down, however deep the tree.
+        accept(new Visitor() {
+                public Visitable visit(Visitable node) throws StandardException {
+                    if (node instanceof ValueNode)
+                        ((ValueNode)node).equivalenceHashFromBelow();
+                    return node;
+                }
+                public boolean visitChildrenFirst(Visitable node) {
+                    return true;
+                }
+                public boolean stopTraversal() {
+                    return false;
+                }
+                public boolean skipChildren(Visitable node) {
+                    // Never equivalent, so what is inside does not matter.
+                    return (node instanceof SubqueryNode);
+                }
+            });
+        return equivalenceHash;
+    }
+
+    @Override
+    void forgetSummaries() {
+        super.forgetSummaries();
+        equivalenceHashVersion = 0;
+    }
+
+    private void equivalenceHashFromBelow() throws StandardException {
+        int version = treeVersion();
+        if ((equivalenceHashVersion != version) || (version == 0)) {
+            equivalenceHash = computeEquivalenceHash();
+            equivalenceHashVersion = version;
+        }
+    }
+
+    /**
+     * Work out {@link #equivalenceHash} for this node, from the same
+     * things that {@link #isEquivalent} compares, or a subset of them. A
+     * subclass that overrides <code>isEquivalent</code> to compare
+     * something more than the node type should override this too,
+     * using {@link #equivalenceHash} of any nodes it has.
+     *
+     * @throws StandardException
+     */
+    protected int computeEquivalenceHash() throws StandardException {
+        return getNodeType();
+    }
+
+    /** Combine hash codes for {@link #computeEquivalenceHash}. */
+    protected static int hashCombine(int hash, int more) {
+        return hash * 31 + more;
+    }
+
+    /** The hash of a node that may be <code>null</code>. */
+    protected static int equivalenceHash(ValueNode node) throws StandardException {
+        return (node == null) ? 0 : node.equivalenceHash();
+    }
+
+    /**
+     * Note that something that {@link #isEquivalent} compares other than
+     * children, such as an operator, has changed.
+     */
+    protected void valueChanged() {
+        childrenChanged();
+    }
+
 }
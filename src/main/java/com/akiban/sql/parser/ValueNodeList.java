@@ -42,6 +42,8 @@ package com.akiban.sql.parser;
 
 import com.akiban.sql.StandardException;
 
+import java.util.List;
+
 /**
  * A ValueNodeList represents a list of ValueNodes within a specific predicate 
  * (eg, IN list, NOT IN list or BETWEEN) in a DML statement.    
@@ -63,6 +65,25 @@ public class ValueNodeList extends QueryTreeNodeList<ValueNode>
         add(valueNode);
     }
 
+    /**
+     * Get the values of a long list of literals, if they are still held
+     * compactly rather than as nodes.
+     *
+     * @return the values or <code>null</code>.
+     */
+    public CompactConstantList getCompactConstants() {
+        List<ValueNode> list = getList();
+        if ((list instanceof CompactConstantList) &&
+            ((CompactConstantList)list).isCompact())
+            return (CompactConstantList)list;
+        return null;
+    }
+
+    void setCompactConstants(CompactConstantList constants) {
+        constants.setOwner(this);
+        setList(constants);
+    }
+
     /**
      * Check if all the elements in this list are equivalent to the elements
      * in another list. The two lists must have the same size, and the
@@ -91,15 +112,39 @@ public class ValueNodeList extends QueryTreeNodeList<ValueNode>
         return true;
     }
 
+    /**
+     * A hash code that agrees with {@link #isEquivalent}, from those of
+     * the elements in order.
+     *
+     * @see ValueNode#equivalenceHash
+     * @throws StandardException thrown on error
+     */
+    int equivalenceHash() throws StandardException {
+        CompactConstantList constants = getCompactConstants();
+        int hash = size();
+        for (int i = 0; i < size(); i++) {
+            int elementHash;
+            if ((constants != null) && !constants.isMaterialized(i))
+                elementHash = constants.equivalenceHash(i);
+            else
+                elementHash = get(i).equivalenceHash();
+            hash = ValueNode.hashCombine(hash, elementHash);
+        }
+        return hash;
+    }
+
     /**
      * Return whether or not this expression tree represents a constant expression.
      *
      * @return Whether or not this expression tree represents a constant expression.
      */
     public boolean isConstantExpression() {
+        CompactConstantList constants = getCompactConstants();
         int size = size();
 
         for (int index = 0; index < size; index++) {
+            if ((constants != null) && !constants.isMaterialized(index))
+                continue;       // Still a literal.
             boolean retcode;
             retcode = get(index).isConstantExpression();
             if (!retcode) {
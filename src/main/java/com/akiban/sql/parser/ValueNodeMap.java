@@ -0,0 +1,179 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hash map keyed by {@link ValueNode}s, in which keys that are
+ * equivalent, as by <code>isEquivalent</code>, are the same key, using
+ * {@link ValueNode#equivalenceHash}. Finding all the repeated
+ * expressions among <code>n</code> is then linear rather than
+ * <code>n<sup>2</sup></code> comparisons.
+ *
+ * Keys must not be changed while they are in the map. Nodes that are
+ * never equivalent to anything, not even themselves, such as parameters
+ * and subqueries, can be put but not found.
+ */
+public class ValueNodeMap<V>
+{
+    static final class Entry<V> {
+        final ValueNode key;
+        final int hash;
+        V value;
+        Entry<V> next;
+
+        Entry(ValueNode key, int hash, V value, Entry<V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private Entry<V>[] table;
+    private int size;
+
+    public ValueNodeMap() {
+        this(16);
+    }
+
+    public ValueNodeMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < expectedSize)
+            capacity *= 2;
+        table = newTable(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    public V get(ValueNode key) throws StandardException {
+        Entry<V> entry = find(key);
+        return (entry == null) ? null : entry.value;
+    }
+
+    public boolean containsKey(ValueNode key) throws StandardException {
+        return (find(key) != null);
+    }
+
+    /** Get the key in the map that is equivalent to <code>key</code>. */
+    public ValueNode getKey(ValueNode key) throws StandardException {
+        Entry<V> entry = find(key);
+        return (entry == null) ? null : entry.key;
+    }
+
+    /**
+     * Associate <code>value</code> with <code>key</code>, or with the
+     * equivalent key already in the map, which is kept.
+     *
+     * @return the previous value or <code>null</code>.
+     */
+    public V put(ValueNode key, V value) throws StandardException {
+        int hash = hash(key);
+        int index = hash & (table.length - 1);
+        for (Entry<V> entry = table[index]; entry != null; entry = entry.next) {
+            if ((entry.hash == hash) && key.isEquivalent(entry.key)) {
+                V old = entry.value;
+                entry.value = value;
+                return old;
+            }
+        }
+        table[index] = new Entry<V>(key, hash, value, table[index]);
+        if (++size > table.length * 3 / 4)
+            resize();
+        return null;
+    }
+
+    /** @return the value for the equivalent key or <code>null</code>. */
+    public V remove(ValueNode key) throws StandardException {
+        int hash = hash(key);
+        int index = hash & (table.length - 1);
+        Entry<V> prev = null;
+        for (Entry<V> entry = table[index]; entry != null; entry = entry.next) {
+            if ((entry.hash == hash) && key.isEquivalent(entry.key)) {
+                if (prev == null)
+                    table[index] = entry.next;
+                else
+                    prev.next = entry.next;
+                size--;
+                return entry.value;
+            }
+            prev = entry;
+        }
+        return null;
+    }
+
+    public void clear() {
+        table = newTable(16);
+        size = 0;
+    }
+
+    /** The keys, in no particular order. */
+    public List<ValueNode> keys() {
+        List<ValueNode> keys = new ArrayList<ValueNode>(size);
+        for (Entry<V> entry : table) {
+            for (; entry != null; entry = entry.next)
+                keys.add(entry.key);
+        }
+        return keys;
+    }
+
+    private Entry<V> find(ValueNode key) throws StandardException {
+        int hash = hash(key);
+        for (Entry<V> entry = table[hash & (table.length - 1)];
+             entry != null; entry = entry.next) {
+            if ((entry.hash == hash) && key.isEquivalent(entry.key))
+                return entry;
+        }
+        return null;
+    }
+
+    private static int hash(ValueNode key) throws StandardException {
+        int hash = key.equivalenceHash();
+        // Spread the high bits, since the table index uses the low ones.
+        return hash ^ (hash >>> 16);
+    }
+
+    private void resize() {
+        Entry<V>[] oldTable = table;
+        table = newTable(oldTable.length * 2);
+        for (Entry<V> entry : oldTable) {
+            while (entry != null) {
+                Entry<V> next = entry.next;
+                int index = entry.hash & (table.length - 1);
+                entry.next = table[index];
+                table[index] = entry;
+                entry = next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V>[] newTable(int capacity) {
+        return (Entry<V>[])new Entry[capacity];
+    }
+}
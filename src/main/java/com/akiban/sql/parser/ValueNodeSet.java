@@ -0,0 +1,80 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import java.util.List;
+
+/**
+ * A set of {@link ValueNode}s in which equivalent ones, as by
+ * <code>isEquivalent</code>, are the same member.
+ *
+ * @see ValueNodeMap
+ */
+public class ValueNodeSet
+{
+    private final ValueNodeMap<ValueNode> map;
+
+    public ValueNodeSet() {
+        map = new ValueNodeMap<ValueNode>();
+    }
+
+    public ValueNodeSet(int expectedSize) {
+        map = new ValueNodeMap<ValueNode>(expectedSize);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /** @return whether the node was added, rather than there being an
+     * equivalent one already.
+     */
+    public boolean add(ValueNode node) throws StandardException {
+        if (map.containsKey(node))
+            return false;
+        map.put(node, node);
+        return true;
+    }
+
+    public boolean contains(ValueNode node) throws StandardException {
+        return map.containsKey(node);
+    }
+
+    /** Get the member equivalent to <code>node</code>, if any. */
+    public ValueNode find(ValueNode node) throws StandardException {
+        return map.getKey(node);
+    }
+
+    public boolean remove(ValueNode node) throws StandardException {
+        return (map.remove(node) != null);
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public List<ValueNode> members() {
+        return map.keys();
+    }
+}
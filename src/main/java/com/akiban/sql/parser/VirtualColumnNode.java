@@ -184,4 +184,8 @@ public class VirtualColumnNode extends ValueNode
         return false;
     }
 
+    protected int computeEquivalenceHash() throws StandardException {
+        return hashCombine(getNodeType(), sourceColumn.equivalenceHash());
+    }
+
 }
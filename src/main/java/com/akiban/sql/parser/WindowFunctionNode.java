@@ -92,6 +92,7 @@ public abstract class WindowFunctionNode extends UnaryOperatorNode
      */
     public void setWindow(WindowDefinitionNode wdn) {
         this.window = wdn;
+        childrenChanged();
     }
 
     /**
@@ -106,6 +106,12 @@ public final class CharacterTypeAttributes
                  collation.equals(other.collation)));
     }
 
+    @Override
+    public int hashCode() {
+        return (((characterSet == null) ? 0 : characterSet.hashCode()) * 31 +
+                ((collation == null) ? 0 : collation.hashCode()));
+    }
+
     @Override
     public String toString() {
         if ((characterSet == null) && (collation == null)) return "none";
@@ -706,6 +706,16 @@ public final class DataTypeDescriptor
             return true;
     }
 
+    public int hashCode() {
+        int hash = getTypeName().hashCode();
+        hash = hash * 31 + precision;
+        hash = hash * 31 + scale;
+        hash = hash * 31 + maximumWidth;
+        if (characterAttributes != null)
+            hash = hash * 31 + characterAttributes.hashCode();
+        return hash * 2 + (isNullable ? 1 : 0);
+    }
+
     /**
      * Check if this type is comparable with the passed type.
      * 
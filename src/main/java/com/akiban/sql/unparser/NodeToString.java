@@ -21,143 +21,466 @@ import com.akiban.sql.parser.*;
 
 import com.akiban.sql.StandardException;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/** Turn a tree back into SQL.
+ *
+ * All of the text goes into a single buffer, each node's method
+ * appending its own and calling {@link #toString(QueryTreeNode,StringBuilder)}
+ * for its children, so the cost is linear in the length of the result.
+ * A subclass can change how any kind of node is rendered by overriding
+ * its method. Text that has been appended may already have been passed
+ * on, so a method should not go back and look at or change it.
+ * A subclass that still overrides one of the methods that used to
+ * return the text as a String, and so would never be called, cannot be
+ * made.
+ */
 public class NodeToString
 {
+    /** Binary operators nested deeper than this, such as in a long
+     * chain of <code>OR</code>s, are printed from the bottom up rather
+     * than recursively.
+     */
+    private static final int BINARY_OPERATOR_DEPTH_LIMIT = 100;
+
+    /** How much text is buffered before passing it on to an {@link Appendable}. */
+    private static final int FLUSH_SIZE = 8192;
+
+    /** A binary operator printed ahead of its parent: text and other
+     * printed operands in order.
+     */
+    static class PrintedOperand {
+        List<Object> pieces;
+        boolean hasSpace;
+    }
+
+    private int binaryOperatorDepth;
+    private Map<QueryTreeNode,PrintedOperand> printedOperands;
+    private StringBuilder piecesBuffer; // Operand being printed.
+    private List<Object> pieces;
+    private StringBuilder flushBuffer;  // Passed on to flushTo.
+    private StringBuilder streamBuffer; // Reused for the next flushBuffer.
+    private Appendable flushTo;
+    private int retained;               // Text still to be looked at.
+
     public NodeToString() {
+        checkStringMethods(getClass());
+    }
+
+    private static final Map<Class<?>,Boolean> checkedClasses =
+        new WeakHashMap<Class<?>,Boolean>();
+
+    /** Until the per-node methods appended to a StringBuilder, each
+     * returned its node's text. A subclass that still overrides one of
+     * those would have it silently ignored, so refuse it instead.
+     */
+    private static void checkStringMethods(Class<?> clazz) {
+        if (clazz == NodeToString.class) return;
+        synchronized (checkedClasses) {
+            if (checkedClasses.containsKey(clazz)) return;
+        }
+        for (Class<?> c = clazz; c != NodeToString.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                Class<?>[] params = method.getParameterTypes();
+                if ((method.getReturnType() != String.class) ||
+                    (params.length != 1) ||
+                    !QueryTreeNode.class.isAssignableFrom(params[0]))
+                    continue;
+                try {
+                    NodeToString.class.getDeclaredMethod(method.getName(),
+                                                         params[0]);
+                    continue;   // Still there, like toString(QueryTreeNode).
+                }
+                catch (NoSuchMethodException ex) {
+                }
+                try {
+                    NodeToString.class.getDeclaredMethod(method.getName(),
+                                                         params[0], StringBuilder.class);
+                }
+                catch (NoSuchMethodException ex) {
+                    continue;
+                }
+                throw new IllegalStateException(c.getName() + "." + method.getName() +
+                                                " returns a String, but is now " +
+                                                method.getName() + "(" +
+                                                params[0].getSimpleName() +
+                                                ", StringBuilder)");
+            }
+        }
+        synchronized (checkedClasses) {
+            checkedClasses.put(clazz, Boolean.TRUE);
+        }
     }
 
     public String toString(QueryTreeNode node) throws StandardException {
+        StringBuilder str = new StringBuilder();
+        toString(node, str);
+        return str.toString();
+    }
+
+    /** Write the text of <code>node</code> to <code>out</code>, such as
+     * a {@link java.io.Writer}, a piece at a time as it is produced.
+     */
+    public void toString(QueryTreeNode node, Appendable out) throws StandardException {
+        if (out instanceof StringBuilder) {
+            toString(node, (StringBuilder)out);
+            return;
+        }
+        StringBuilder str = streamBuffer;
+        if (str == null)
+            str = new StringBuilder();
+        else
+            streamBuffer = null;
+        flushBuffer = str;
+        flushTo = out;
+        try {
+            toString(node, str);
+            flush(str, true);
+        }
+        finally {
+            flushBuffer = null;
+            flushTo = null;
+            // Keep for next time, unless something made it very big.
+            if (str.capacity() <= FLUSH_SIZE * 4) {
+                str.setLength(0);
+                streamBuffer = str;
+            }
+        }
+    }
+
+    /** Append the text of <code>node</code> to <code>str</code>. */
+    public void toString(QueryTreeNode node, StringBuilder str) throws StandardException {
+        if ((printedOperands != null) && printedOperands.containsKey(node)) {
+            appendPrinted(node, str);
+            return;
+        }
+        if (!(node instanceof BinaryOperatorNode))
+            nodeToString(node, str);
+        else {
+            if (binaryOperatorDepth >= BINARY_OPERATOR_DEPTH_LIMIT)
+                printOperands((BinaryOperatorNode)node);
+            binaryOperatorDepth++;
+            try {
+                nodeToString(node, str);
+            }
+            finally {
+                if (--binaryOperatorDepth == 0)
+                    printedOperands = null;
+            }
+        }
+        flush(str, false);
+    }
+
+    /** Print the binary operators below <code>node</code> that have not
+     * been yet, deepest first, with an explicit stack, so that printing
+     * each then only needs those already printed.
+     */
+    private void printOperands(BinaryOperatorNode node) throws StandardException {
+        if (printedOperands == null)
+            printedOperands = new IdentityHashMap<QueryTreeNode,PrintedOperand>();
+        List<BinaryOperatorNode> pending = new ArrayList<BinaryOperatorNode>();
+        BitSet operandsPending = new BitSet();
+        pushOperands(node, pending, operandsPending);
+        StringBuilder savedBuffer = piecesBuffer;
+        List<Object> savedPieces = pieces;
+        int savedRetained = retained;
+        try {
+            while (!pending.isEmpty()) {
+                int index = pending.size() - 1;
+                BinaryOperatorNode operand = pending.get(index);
+                if (operandsPending.get(index)) {
+                    operandsPending.clear(index);
+                    pushOperands(operand, pending, operandsPending);
+                }
+                else {
+                    pending.remove(index);
+                    printedOperands.put(operand, printOperand(operand));
+                }
+            }
+        }
+        finally {
+            piecesBuffer = savedBuffer;
+            pieces = savedPieces;
+            retained = savedRetained;
+        }
+    }
+
+    private void pushOperands(BinaryOperatorNode node, List<BinaryOperatorNode> pending,
+                              BitSet operandsPending) {
+        ValueNode[] operands = { node.getRightOperand(), node.getLeftOperand() };
+        for (ValueNode operand : operands) {
+            if ((operand instanceof BinaryOperatorNode) &&
+                !printedOperands.containsKey(operand)) {
+                operandsPending.set(pending.size());
+                pending.add((BinaryOperatorNode)operand);
+            }
+        }
+    }
+
+    /** Print one operand, referring to those below it that are already
+     * printed rather than copying their text.
+     */
+    private PrintedOperand printOperand(BinaryOperatorNode node) throws StandardException {
+        PrintedOperand printed = new PrintedOperand();
+        printed.pieces = pieces = new ArrayList<Object>();
+        piecesBuffer = new StringBuilder();
+        retained = 0;
+        toString(node, piecesBuffer);
+        cutPiece(piecesBuffer);
+        for (Object piece : printed.pieces) {
+            if ((piece instanceof String) ?
+                (((String)piece).indexOf(' ') >= 0) :
+                printedOperands.get(piece).hasSpace) {
+                printed.hasSpace = true;
+                break;
+            }
+        }
+        return printed;
+    }
+
+    private void cutPiece(StringBuilder str) {
+        if (str.length() > 0) {
+            pieces.add(str.toString());
+            str.setLength(0);
+        }
+    }
+
+    /** Append an operand that was printed ahead, or just refer to it
+     * when printing another. */
+    private void appendPrinted(QueryTreeNode node, StringBuilder str)
+            throws StandardException {
+        if ((str == piecesBuffer) && (retained == 0)) {
+            cutPiece(str);
+            pieces.add(node);
+            return;
+        }
+        List<Object> pending = new ArrayList<Object>();
+        pending.add(node);
+        while (!pending.isEmpty()) {
+            Object piece = pending.remove(pending.size() - 1);
+            if (piece instanceof String) {
+                str.append((String)piece);
+                flush(str, false);
+            }
+            else {
+                List<Object> operandPieces = printedOperands.get(piece).pieces;
+                for (int i = operandPieces.size() - 1; i >= 0; i--) {
+                    pending.add(operandPieces.get(i));
+                }
+            }
+        }
+    }
+
+    private void flush(StringBuilder str, boolean all) throws StandardException {
+        if ((str == flushBuffer) && (retained == 0) &&
+            (all || (str.length() >= FLUSH_SIZE))) {
+            try {
+                flushTo.append(str);
+            }
+            catch (IOException ex) {
+                throw new StandardException(ex);
+            }
+            str.setLength(0);
+        }
+    }
+
+    private void nodeToString(QueryTreeNode node, StringBuilder str) throws StandardException {
         switch (node.getNodeType()) {
         case NodeTypes.CREATE_TABLE_NODE:
-            return createTableNode((CreateTableNode)node);
+            createTableNode((CreateTableNode)node, str);
+            break;
         case NodeTypes.CREATE_VIEW_NODE:
-            return createViewNode((CreateViewNode)node);
+            createViewNode((CreateViewNode)node, str);
+            break;
         case NodeTypes.DROP_TABLE_NODE:
         case NodeTypes.DROP_VIEW_NODE:
         case NodeTypes.DROP_TRIGGER_NODE:
-            return qualifiedDDLNode((DDLStatementNode)node);
+            qualifiedDDLNode((DDLStatementNode)node, str);
+            break;
         case NodeTypes.DROP_INDEX_NODE:
-            return dropIndexNode((DropIndexNode)node);
+            dropIndexNode((DropIndexNode)node, str);
+            break;
         case NodeTypes.EXPLAIN_STATEMENT_NODE:
-            return explainStatementNode((ExplainStatementNode)node);
+            explainStatementNode((ExplainStatementNode)node, str);
+            break;
         case NodeTypes.TRANSACTION_CONTROL_NODE:
-            return transactionControlNode((TransactionControlNode)node);
+            transactionControlNode((TransactionControlNode)node, str);
+            break;
         case NodeTypes.SET_TRANSACTION_ISOLATION_NODE:
-            return setTransactionIsolationNode((SetTransactionIsolationNode)node);
+            setTransactionIsolationNode((SetTransactionIsolationNode)node, str);
+            break;
         case NodeTypes.SET_TRANSACTION_ACCESS_NODE:
-            return setTransactionAccessNode((SetTransactionAccessNode)node);
+            setTransactionAccessNode((SetTransactionAccessNode)node, str);
+            break;
         case NodeTypes.SET_CONFIGURATION_NODE:
-            return setConfigurationNode((SetConfigurationNode)node);
+            setConfigurationNode((SetConfigurationNode)node, str);
+            break;
         case NodeTypes.TABLE_ELEMENT_LIST:
-            return tableElementList((TableElementList)node);
+            tableElementList((TableElementList)node, str);
+            break;
         case NodeTypes.COLUMN_DEFINITION_NODE:
-            return columnDefinitionNode((ColumnDefinitionNode)node);
+            columnDefinitionNode((ColumnDefinitionNode)node, str);
+            break;
         case NodeTypes.CONSTRAINT_DEFINITION_NODE:
-            return constraintDefinitionNode((ConstraintDefinitionNode)node);
+            constraintDefinitionNode((ConstraintDefinitionNode)node, str);
+            break;
         case NodeTypes.FK_CONSTRAINT_DEFINITION_NODE:
-            return fkConstraintDefinitionNode((FKConstraintDefinitionNode)node);
+            fkConstraintDefinitionNode((FKConstraintDefinitionNode)node, str);
+            break;
         case NodeTypes.CREATE_INDEX_NODE:
-            return createIndexNode((CreateIndexNode)node);
+            createIndexNode((CreateIndexNode)node, str);
+            break;
         case NodeTypes.INDEX_COLUMN_LIST:
-            return indexColumnList((IndexColumnList)node);
+            indexColumnList((IndexColumnList)node, str);
+            break;
         case NodeTypes.INDEX_COLUMN:
-            return indexColumn((IndexColumn)node);
+            indexColumn((IndexColumn)node, str);
+            break;
         case NodeTypes.CREATE_ALIAS_NODE:
-            return createAliasNode((CreateAliasNode)node);
+            createAliasNode((CreateAliasNode)node, str);
+            break;
         case NodeTypes.RENAME_NODE:
-            return renameNode((RenameNode)node);
+            renameNode((RenameNode)node, str);
+            break;
         case NodeTypes.CURSOR_NODE:
-            return cursorNode((CursorNode)node);
+            cursorNode((CursorNode)node, str);
+            break;
         case NodeTypes.SELECT_NODE:
-            return selectNode((SelectNode)node);
+            selectNode((SelectNode)node, str);
+            break;
         case NodeTypes.INSERT_NODE:
-            return insertNode((InsertNode)node);
+            insertNode((InsertNode)node, str);
+            break;
         case NodeTypes.UPDATE_NODE:
-            return updateNode((UpdateNode)node);
+            updateNode((UpdateNode)node, str);
+            break;
         case NodeTypes.DELETE_NODE:
-            return deleteNode((DeleteNode)node);
+            deleteNode((DeleteNode)node, str);
+            break;
         case NodeTypes.SUBQUERY_NODE:
-            return subqueryNode((SubqueryNode)node);
+            subqueryNode((SubqueryNode)node, str);
+            break;
         case NodeTypes.RESULT_COLUMN_LIST:
-            return resultColumnList((ResultColumnList)node);
+            resultColumnList((ResultColumnList)node, str);
+            break;
         case NodeTypes.RESULT_COLUMN:
-            return resultColumn((ResultColumn)node);
+            resultColumn((ResultColumn)node, str);
+            break;
         case NodeTypes.ALL_RESULT_COLUMN:
-            return allResultColumn((AllResultColumn)node);
+            allResultColumn((AllResultColumn)node, str);
+            break;
         case NodeTypes.FROM_LIST:
-            return fromList((FromList)node);
+            fromList((FromList)node, str);
+            break;
         case NodeTypes.JOIN_NODE:
         case NodeTypes.HALF_OUTER_JOIN_NODE:
-            return joinNode((JoinNode)node);
+            joinNode((JoinNode)node, str);
+            break;
         case NodeTypes.UNION_NODE:
-            return unionNode((UnionNode)node);
+            unionNode((UnionNode)node, str);
+            break;
         case NodeTypes.GROUP_BY_LIST:
-            return groupByList((GroupByList)node);
+            groupByList((GroupByList)node, str);
+            break;
         case NodeTypes.GROUP_CONCAT_NODE:
-            return groupConcat((GroupConcatNode)node);
+            groupConcat((GroupConcatNode)node, str);
+            break;
         case NodeTypes.ORDER_BY_LIST:
-            return orderByList((OrderByList)node);
+            orderByList((OrderByList)node, str);
+            break;
         case NodeTypes.VALUE_NODE_LIST:
-            return valueNodeList((ValueNodeList)node);
+            valueNodeList((ValueNodeList)node, str);
+            break;
         case NodeTypes.FROM_BASE_TABLE:
-            return fromBaseTable((FromBaseTable)node);
+            fromBaseTable((FromBaseTable)node, str);
+            break;
         case NodeTypes.FROM_SUBQUERY:
-            return fromSubquery((FromSubquery)node);
+            fromSubquery((FromSubquery)node, str);
+            break;
         case NodeTypes.TABLE_NAME:
-            return tableName((TableName)node);
+            tableName((TableName)node, str);
+            break;
         case NodeTypes.COLUMN_REFERENCE:
-            return columnReference((ColumnReference)node);
+            columnReference((ColumnReference)node, str);
+            break;
         case NodeTypes.VIRTUAL_COLUMN_NODE:
-            return virtualColumnNode((VirtualColumnNode)node);
+            virtualColumnNode((VirtualColumnNode)node, str);
+            break;
         case NodeTypes.ROW_RESULT_SET_NODE:
-            return rowResultSetNode((RowResultSetNode)node);
+            rowResultSetNode((RowResultSetNode)node, str);
+            break;
         case NodeTypes.ROWS_RESULT_SET_NODE:
-            return rowsResultSetNode((RowsResultSetNode)node);
+            rowsResultSetNode((RowsResultSetNode)node, str);
+            break;
         case NodeTypes.GROUP_BY_COLUMN:
-            return groupByColumn((GroupByColumn)node);
+            groupByColumn((GroupByColumn)node, str);
+            break;
         case NodeTypes.ORDER_BY_COLUMN:
-            return orderByColumn((OrderByColumn)node);
+            orderByColumn((OrderByColumn)node, str);
+            break;
         case NodeTypes.AND_NODE:
         case NodeTypes.OR_NODE:
-            return binaryLogicalOperatorNode((BinaryLogicalOperatorNode)node);
+            binaryLogicalOperatorNode((BinaryLogicalOperatorNode)node, str);
+            break;
         case NodeTypes.BINARY_EQUALS_OPERATOR_NODE:
         case NodeTypes.BINARY_NOT_EQUALS_OPERATOR_NODE:
         case NodeTypes.BINARY_GREATER_THAN_OPERATOR_NODE:
         case NodeTypes.BINARY_GREATER_EQUALS_OPERATOR_NODE:
         case NodeTypes.BINARY_LESS_THAN_OPERATOR_NODE:
         case NodeTypes.BINARY_LESS_EQUALS_OPERATOR_NODE:
-            return binaryComparisonOperatorNode((BinaryComparisonOperatorNode)node);
+            binaryComparisonOperatorNode((BinaryComparisonOperatorNode)node, str);
+            break;
         case NodeTypes.BINARY_PLUS_OPERATOR_NODE:
         case NodeTypes.BINARY_TIMES_OPERATOR_NODE:
         case NodeTypes.BINARY_DIVIDE_OPERATOR_NODE:
         case NodeTypes.BINARY_DIV_OPERATOR_NODE:
         case NodeTypes.BINARY_MINUS_OPERATOR_NODE:
-            return binaryArithmeticOperatorNode((BinaryArithmeticOperatorNode)node);
+            binaryArithmeticOperatorNode((BinaryArithmeticOperatorNode)node, str);
+            break;
         case NodeTypes.CONCATENATION_OPERATOR_NODE:
-            return concatenationOperatorNode((ConcatenationOperatorNode)node);
+            concatenationOperatorNode((ConcatenationOperatorNode)node, str);
+            break;
         case NodeTypes.NOT_NODE:
-            return notNode((NotNode)node);
+            notNode((NotNode)node, str);
+            break;
         case NodeTypes.IS_NULL_NODE:
         case NodeTypes.IS_NOT_NULL_NODE:
-            return isNullNode((IsNullNode)node);
+            isNullNode((IsNullNode)node, str);
+            break;
         case NodeTypes.IS_NODE:
-            return isNode((IsNode)node);
+            isNode((IsNode)node, str);
+            break;
         case NodeTypes.UNARY_DATE_TIMESTAMP_OPERATOR_NODE:
-          return unaryDateTimestampOperatorNode((UnaryDateTimestampOperatorNode)node);
+            unaryDateTimestampOperatorNode((UnaryDateTimestampOperatorNode)node, str);
+            break;
         case NodeTypes.LIKE_OPERATOR_NODE:
-            return likeEscapeOperatorNode((LikeEscapeOperatorNode)node);
+            likeEscapeOperatorNode((LikeEscapeOperatorNode)node, str);
+            break;
         case NodeTypes.IN_LIST_OPERATOR_NODE:
-            return inListOperatorNode((InListOperatorNode)node);
+            inListOperatorNode((InListOperatorNode)node, str);
+            break;
         case NodeTypes.ROW_CTOR_NODE:
-            return rowCtorNode((RowConstructorNode)node);
+            rowCtorNode((RowConstructorNode)node, str);
+            break;
         case NodeTypes.BETWEEN_OPERATOR_NODE:
-            return betweenOperatorNode((BetweenOperatorNode)node);
+            betweenOperatorNode((BetweenOperatorNode)node, str);
+            break;
         case NodeTypes.CONDITIONAL_NODE:
-            return conditionalNode((ConditionalNode)node);
+            conditionalNode((ConditionalNode)node, str);
+            break;
         case NodeTypes.COALESCE_FUNCTION_NODE:
-            return coalesceFunctionNode((CoalesceFunctionNode)node);
+            coalesceFunctionNode((CoalesceFunctionNode)node, str);
+            break;
         case NodeTypes.AGGREGATE_NODE:
-            return aggregateNode((AggregateNode)node);
+            aggregateNode((AggregateNode)node, str);
+            break;
         case NodeTypes.UNTYPED_NULL_CONSTANT_NODE:
         case NodeTypes.SQL_BOOLEAN_CONSTANT_NODE:
         case NodeTypes.BOOLEAN_CONSTANT_NODE:
@@ -178,148 +501,179 @@ public class NodeToString
         case NodeTypes.BLOB_CONSTANT_NODE:
         case NodeTypes.CLOB_CONSTANT_NODE:
         case NodeTypes.XML_CONSTANT_NODE:
-            return constantNode((ConstantNode)node);
+            constantNode((ConstantNode)node, str);
+            break;
         case NodeTypes.PARAMETER_NODE:
-            return parameterNode((ParameterNode)node);
+            parameterNode((ParameterNode)node, str);
+            break;
         case NodeTypes.USER_NODE:
-            return "USER";
+            str.append("USER");
+            break;
         case NodeTypes.CURRENT_USER_NODE:
-            return "CURRENT_USER";
+            str.append("CURRENT_USER");
+            break;
         case NodeTypes.SESSION_USER_NODE:
-            return "SESSION_USER";
+            str.append("SESSION_USER");
+            break;
         case NodeTypes.SYSTEM_USER_NODE:
-            return "SYSTEM_USER";
+            str.append("SYSTEM_USER");
+            break;
         case NodeTypes.CURRENT_ISOLATION_NODE:
-            return "CURRENT ISOLATION";
+            str.append("CURRENT ISOLATION");
+            break;
         case NodeTypes.IDENTITY_VAL_NODE:
-            return "IDENTITY_VAL_LOCAL()";
+            str.append("IDENTITY_VAL_LOCAL()");
+            break;
         case NodeTypes.CURRENT_SCHEMA_NODE:
-            return "CURRENT SCHEMA";
+            str.append("CURRENT SCHEMA");
+            break;
         case NodeTypes.CURRENT_ROLE_NODE:
-            return "CURRENT_ROLE";
+            str.append("CURRENT_ROLE");
+            break;
         case NodeTypes.CURRENT_DATETIME_OPERATOR_NODE:
-            return currentDatetimeOperatorNode((CurrentDatetimeOperatorNode)node);
+            currentDatetimeOperatorNode((CurrentDatetimeOperatorNode)node, str);
+            break;
         case NodeTypes.CAST_NODE:
-            return castNode((CastNode)node);
+            castNode((CastNode)node, str);
+            break;
         case NodeTypes.JAVA_TO_SQL_VALUE_NODE:
-            return javaToSQLValueNode((JavaToSQLValueNode)node);
+            javaToSQLValueNode((JavaToSQLValueNode)node, str);
+            break;
         case NodeTypes.SQL_TO_JAVA_VALUE_NODE:
-            return sqlToJavaValueNode((SQLToJavaValueNode)node);
+            sqlToJavaValueNode((SQLToJavaValueNode)node, str);
+            break;
         case NodeTypes.STATIC_METHOD_CALL_NODE:
-            return staticMethodCallNode((StaticMethodCallNode)node);
+            staticMethodCallNode((StaticMethodCallNode)node, str);
+            break;
         case NodeTypes.CALL_STATEMENT_NODE:
-            return callStatementNode((CallStatementNode)node);
+            callStatementNode((CallStatementNode)node, str);
+            break;
         case NodeTypes.INDEX_CONSTRAINT_NODE:
-            return indexConstraint((IndexConstraintDefinitionNode)node);
+            indexConstraint((IndexConstraintDefinitionNode)node, str);
+            break;
         case NodeTypes.DECLARE_STATEMENT_NODE:
-            return declareStatementNode((DeclareStatementNode)node);
+            declareStatementNode((DeclareStatementNode)node, str);
+            break;
         case NodeTypes.FETCH_STATEMENT_NODE:
-            return fetchStatementNode((FetchStatementNode)node);
+            fetchStatementNode((FetchStatementNode)node, str);
+            break;
         case NodeTypes.CLOSE_STATEMENT_NODE:
-            return closeStatementNode((CloseStatementNode)node);
+            closeStatementNode((CloseStatementNode)node, str);
+            break;
         case NodeTypes.PREPARE_STATEMENT_NODE:
-            return prepareStatementNode((PrepareStatementNode)node);
+            prepareStatementNode((PrepareStatementNode)node, str);
+            break;
         case NodeTypes.EXECUTE_STATEMENT_NODE:
-            return executeStatementNode((ExecuteStatementNode)node);
+            executeStatementNode((ExecuteStatementNode)node, str);
+            break;
         case NodeTypes.DEALLOCATE_STATEMENT_NODE:
-            return deallocateStatementNode((DeallocateStatementNode)node);
+            deallocateStatementNode((DeallocateStatementNode)node, str);
+            break;
         case NodeTypes.COPY_STATEMENT_NODE:
-            return copyStatementNode((CopyStatementNode)node);
+            copyStatementNode((CopyStatementNode)node, str);
+            break;
         default:
-            return "**UNKNOWN(" + node.getNodeType() +")**";
+            str.append("**UNKNOWN(").append(node.getNodeType()).append(")**");
+            break;
         }
     }
 
-    protected String indexConstraint(IndexConstraintDefinitionNode node) throws StandardException
+    protected void indexConstraint(IndexConstraintDefinitionNode node, StringBuilder str) 
+            throws StandardException
     {
-        StringBuilder builder = new StringBuilder("INDEX ");
+        str.append("INDEX ");
         
         String indexName = node.getIndexName();
         
         if (indexName != null)
-            builder.append(indexName).append(' ');
+            str.append(indexName).append(' ');
         
-        builder.append('(')
-               .append(indexColumnList(node.getIndexColumnList()))
-               .append(')');
+        str.append('(');
+        indexColumnList(node.getIndexColumnList(), str);
+        str.append(')');
         
         StorageLocation loc = node.getLocation();
         if (loc != null)
-            builder.append(" AS ").append(loc);
-        
-        return builder.toString();
+            str.append(" AS ").append(loc);
     }
 
-    protected String createTableNode(CreateTableNode node) throws StandardException {
-        StringBuilder str = new StringBuilder("CREATE TABLE ");
-        str.append(toString(node.getObjectName()));
+    protected void createTableNode(CreateTableNode node, StringBuilder str) 
+            throws StandardException {
+        str.append("CREATE TABLE ");
+        toString(node.getObjectName(), str);
         if (node.getTableElementList() != null) {
             str.append("(");
-            str.append(toString(node.getTableElementList()));
+            toString(node.getTableElementList(), str);
             str.append(")");
         }
         if (node.getQueryExpression() != null) {
             str.append(" AS (");
-            str.append(toString(node.getQueryExpression()));
+            toString(node.getQueryExpression(), str);
             str.append(") WITH ");
             if (!node.isWithData()) str.append("NO ");
             str.append("DATA");
         }
-        return str.toString();
     }
 
-    protected String createViewNode(CreateViewNode node) throws StandardException {
-        StringBuilder str = new StringBuilder("CREATE VIEW ");
-        str.append(toString(node.getObjectName()));
+    protected void createViewNode(CreateViewNode node, StringBuilder str) 
+            throws StandardException {
+        str.append("CREATE VIEW ");
+        toString(node.getObjectName(), str);
         if (node.getResultColumns() != null) {
             str.append("(");
-            str.append(toString(node.getResultColumns()));
+            toString(node.getResultColumns(), str);
             str.append(")");
         }
         str.append(" AS (");
-        str.append(toString(node.getParsedQueryExpression()));
+        toString(node.getParsedQueryExpression(), str);
         str.append(")");
-        return str.toString();
     }
 
-    protected String tableElementList(TableElementList node) throws StandardException {
-        return nodeList(node);
+    protected void tableElementList(TableElementList node, StringBuilder str) 
+            throws StandardException {
+        nodeList(node, str);
     }
 
-    protected String columnDefinitionNode(ColumnDefinitionNode node)
+    protected void columnDefinitionNode(ColumnDefinitionNode node, StringBuilder str)
             throws StandardException {
-        return node.getColumnName() + " " + node.getType();
+        str.append(node.getColumnName()).append(" ").append(node.getType());
     }
 
-    protected String constraintDefinitionNode(ConstraintDefinitionNode node) 
+    protected void constraintDefinitionNode(ConstraintDefinitionNode node, StringBuilder str) 
             throws StandardException {
         switch (node.getConstraintType()) {
         case PRIMARY_KEY:
-            return "PRIMARY KEY(" + toString(node.getColumnList()) + ")";
+            str.append("PRIMARY KEY(");
+            toString(node.getColumnList(), str);
+            str.append(")");
+            break;
         case UNIQUE:
-            return "UNIQUE(" + toString(node.getColumnList()) + ")";
+            str.append("UNIQUE(");
+            toString(node.getColumnList(), str);
+            str.append(")");
+            break;
         default:
-            return "**UNKNOWN(" + node.getConstraintType() + ")";
+            str.append("**UNKNOWN(").append(node.getConstraintType()).append(")");
+            break;
         }
     }
 
-    protected String fkConstraintDefinitionNode(FKConstraintDefinitionNode node)
+    protected void fkConstraintDefinitionNode(FKConstraintDefinitionNode node, StringBuilder str)
             throws StandardException {
-        StringBuilder str = new StringBuilder();
         if (node.isGrouping())
             str.append("GROUPING ");
         str.append("FOREIGN KEY(");
-        str.append(toString(node.getColumnList()));
+        toString(node.getColumnList(), str);
         str.append(") REFERENCES ");
-        str.append(toString(node.getRefTableName()));
+        toString(node.getRefTableName(), str);
         str.append("(");
-        str.append(toString(node.getColumnList()));
+        toString(node.getColumnList(), str);
         str.append(")");
-        return str.toString();
     }
 
-    protected String createIndexNode(CreateIndexNode node) throws StandardException {
-        StringBuilder str = new StringBuilder("CREATE ");
+    protected void createIndexNode(CreateIndexNode node, StringBuilder str) 
+            throws StandardException {
+        str.append("CREATE ");
         if (node.getUniqueness())
             str.append("UNIQUE ");
         str.append("INDEX");
@@ -335,58 +689,54 @@ public class NodeToString
                 break;  
         }
 
-        str.append(toString(node.getIndexName()));
+        toString(node.getIndexName(), str);
         str.append(" ON ");
         str.append(node.getIndexTableName());
         str.append("(");
-        str.append(toString(node.getColumnList()));
+        toString(node.getColumnList(), str);
         str.append(")");
         if (node.getJoinType() != null) {
             str.append(String.format(" USING %s JOIN",
                                      node.getJoinType() == JoinNode.JoinType.LEFT_OUTER ? "LEFT" : "RIGHT"));
         }
-        return str.toString();
     }
 
-    protected String indexColumnList(IndexColumnList node) throws StandardException {
-
-        StringBuilder buffer = new StringBuilder();
+    protected void indexColumnList(IndexColumnList node, StringBuilder str) 
+            throws StandardException {
         int firstFunctionArg = node.firstFunctionArg();
         int lastFunctionArg = node.lastFunctionArg();
         int arg = 0;
         while (arg < node.size()) {
             if (arg > 0) {
-                buffer.append(", ");
+                str.append(", ");
             }
             if (arg == firstFunctionArg) {
-                buffer.append(node.functionType());
-                buffer.append('(');
+                str.append(node.functionType());
+                str.append('(');
             }
-            buffer.append(toString(node.get(arg)));
+            toString(node.get(arg), str);
             if (arg == lastFunctionArg) {
-                buffer.append(')');
+                str.append(')');
             }
             arg++;
         }
-        return buffer.toString();
     }
 
-    protected String indexColumn(IndexColumn node) throws StandardException {
-        StringBuilder str = new StringBuilder();
+    protected void indexColumn(IndexColumn node, StringBuilder str) throws StandardException {
         if (node.getTableName() != null) {
-            str.append(toString(node.getTableName()));
+            toString(node.getTableName(), str);
             str.append(".");
         }
         str.append(node.getColumnName());
         if (!node.isAscending())
             str.append(" DESC");
-        return str.toString();
     }
 
-    protected String createAliasNode(CreateAliasNode node) throws StandardException {
-        StringBuilder str = new StringBuilder(node.statementToString());
+    protected void createAliasNode(CreateAliasNode node, StringBuilder str) 
+            throws StandardException {
+        str.append(node.statementToString());
         str.append(' ');
-        str.append(toString(node.getObjectName()));
+        toString(node.getObjectName(), str);
         switch (node.getAliasType()) {
         case PROCEDURE:
         case FUNCTION:
@@ -414,102 +764,102 @@ public class NodeToString
             }
             break;
         }
-        return str.toString();
     }
 
-    protected String renameNode(RenameNode node) throws StandardException {
+    protected void renameNode(RenameNode node, StringBuilder str) throws StandardException {
         if (node.isAlterTable()) {
-            return "ALTER TABLE " + toString(node.getObjectName()) +
-                "RENAME COLUMN " + node.getOldObjectName() +
-                " TO " + node.getNewObjectName();
+            str.append("ALTER TABLE ");
+            toString(node.getObjectName(), str);
+            str.append("RENAME COLUMN ").append(node.getOldObjectName())
+               .append(" TO ").append(node.getNewObjectName());
         }
         else if (node.getRenameType() == RenameNode.RenameType.INDEX
                     || node.getRenameType() == RenameNode.RenameType.COLUMN) {
-            if (node.getObjectName() == null) {
-                return node.statementToString() + " " + node.getOldObjectName() +
-                    " TO " + node.getNewObjectName();
-            }
-            else {
-                return node.statementToString() + " " + toString(node.getObjectName()) +
-                    "." + node.getOldObjectName() +
-                    " TO " + node.getNewObjectName();
+            str.append(node.statementToString()).append(" ");
+            if (node.getObjectName() != null) {
+                toString(node.getObjectName(), str);
+                str.append(".");
             }
+            str.append(node.getOldObjectName())
+               .append(" TO ").append(node.getNewObjectName());
         }
         else {
-            return node.statementToString() + " " + toString(node.getObjectName()) +
-                " TO " + toString(node.getNewTableName());
+            str.append(node.statementToString()).append(" ");
+            toString(node.getObjectName(), str);
+            str.append(" TO ");
+            toString(node.getNewTableName(), str);
         }
     }
 
-    protected String dropIndexNode(DropIndexNode node) throws StandardException {
-        StringBuilder str = new StringBuilder(node.statementToString());
+    protected void dropIndexNode(DropIndexNode node, StringBuilder str) 
+            throws StandardException {
+        str.append(node.statementToString());
         str.append(" ");
         if (node.getObjectName() != null) {
-            str.append(toString(node.getObjectName()));
+            toString(node.getObjectName(), str);
             str.append(".");
         }
         str.append(node.getIndexName());
-        return str.toString();
     }
 
-    protected String cursorNode(CursorNode node) throws StandardException {
-        String result = toString(node.getResultSetNode());
+    protected void cursorNode(CursorNode node, StringBuilder str) throws StandardException {
+        toString(node.getResultSetNode(), str);
         if (node.getOrderByList() != null) {
-            result += " " + toString(node.getOrderByList());
+            str.append(" ");
+            toString(node.getOrderByList(), str);
         }
-        return result;
+        offsetAndFetchFirst(node.getOffsetClause(), node.getFetchFirstClause(), str);
     }
 
-    protected String selectNode(SelectNode node) throws StandardException {
-        StringBuilder str = new StringBuilder("SELECT ");
+    protected void selectNode(SelectNode node, StringBuilder str) throws StandardException {
+        str.append("SELECT ");
         if (node.isDistinct())
             str.append("DISTINCT ");
-        str.append(toString(node.getResultColumns()));
+        toString(node.getResultColumns(), str);
         if (!node.getFromList().isEmpty()) {
             str.append(" FROM ");
-            str.append(toString(node.getFromList()));
+            toString(node.getFromList(), str);
         }
         if (node.getWhereClause() != null) {
             str.append(" WHERE ");
-            str.append(toString(node.getWhereClause()));
+            toString(node.getWhereClause(), str);
         }
         if (node.getGroupByList() != null) {
             str.append(" ");
-            str.append(toString(node.getGroupByList()));
+            toString(node.getGroupByList(), str);
         }
         if (node.getHavingClause() != null) {
             str.append(" HAVING ");
-            str.append(toString(node.getHavingClause()));
+            toString(node.getHavingClause(), str);
         }
-        return str.toString();
     }
 
-    protected String insertNode(InsertNode node) throws StandardException {
-        StringBuilder str = new StringBuilder("INSERT INTO ");
-        str.append(toString(node.getTargetTableName()));
+    protected void insertNode(InsertNode node, StringBuilder str) throws StandardException {
+        str.append("INSERT INTO ");
+        toString(node.getTargetTableName(), str);
         if (node.getTargetColumnList() != null) {
             str.append("(");
-            str.append(toString(node.getTargetColumnList()));
+            toString(node.getTargetColumnList(), str);
             str.append(")");
         }
         str.append(" ");
-        str.append(toString(node.getResultSetNode()));
+        toString(node.getResultSetNode(), str);
         if (node.getOrderByList() != null) {
             str.append(" ");
-            str.append(toString(node.getOrderByList()));
+            toString(node.getOrderByList(), str);
         }
+        offsetAndFetchFirst(node.getOffset(), node.getFetchFirst(), str);
         if (node.getReturningList() != null) {
             str.append(" RETURNING ");
-            str.append(toString(node.getReturningList()));
+            toString(node.getReturningList(), str);
         }
-        return str.toString();
     }
 
-    protected String updateNode(UpdateNode unode) throws StandardException {
+    protected void updateNode(UpdateNode unode, StringBuilder str) throws StandardException {
         // Cf. Parser's getUpdateNode().
         SelectNode snode = (SelectNode)unode.getResultSetNode();
-        StringBuilder str = new StringBuilder("UPDATE ");
-        str.append(toString(snode.getFromList().get(0)));
+        str.append("UPDATE ");
+        toString(snode.getFromList().get(0), str);
         str.append(" SET ");
         boolean first = true;
         for (ResultColumn col : snode.getResultColumns()) {
@@ -517,89 +867,124 @@ public class NodeToString
                 first = false;
             else
                 str.append(", ");
-            str.append(toString(col.getReference()));
+            toString(col.getReference(), str);
             str.append(" = ");
-            str.append(maybeParens(col.getExpression()));
+            maybeParens(col.getExpression(), str);
         }
         if (snode.getWhereClause() != null) {
             str.append(" WHERE ");
-            str.append(toString(snode.getWhereClause()));
+            toString(snode.getWhereClause(), str);
         }
         if (unode.getReturningList() != null) {
             str.append(" RETURNING ");
-            str.append(toString(unode.getReturningList()));
+            toString(unode.getReturningList(), str);
         }
-        return str.toString();
     }
 
-    protected String deleteNode(DeleteNode dnode) throws StandardException {
+    protected void deleteNode(DeleteNode dnode, StringBuilder str) throws StandardException {
         // Cf. Parser's getDeleteNode().
         SelectNode snode = (SelectNode)dnode.getResultSetNode();
-        StringBuilder str = new StringBuilder("DELETE FROM ");
-        str.append(toString(snode.getFromList().get(0)));
+        str.append("DELETE FROM ");
+        toString(snode.getFromList().get(0), str);
         if (snode.getWhereClause() != null) {
             str.append(" WHERE ");
-            str.append(toString(snode.getWhereClause()));
+            toString(snode.getWhereClause(), str);
         }
         if (dnode.getReturningList() != null) {
             str.append(" RETURNING ");
-            str.append(toString(dnode.getReturningList()));
+            toString(dnode.getReturningList(), str);
         }
-        return str.toString();
     }
 
-    protected String subqueryNode(SubqueryNode node) throws StandardException {
-        String str = toString(node.getResultSet());
-        if (node.getOrderByList() != null) {
-            str = str + " " + toString(node.getOrderByList());
-        }
-        str = "(" + str + ")";
+    protected void subqueryNode(SubqueryNode node, StringBuilder str) 
+            throws StandardException {
+        String operator;
         switch (node.getSubqueryType()) {
         case FROM:
         case EXPRESSION:
         default:
-            return str;
+            operator = null;
+            break;
         case EXISTS:
-            return "EXISTS " + str;
+            str.append("EXISTS ");
+            operator = null;
+            break;
         case NOT_EXISTS:
-            return "NOT EXISTS " + str;
+            str.append("NOT EXISTS ");
+            operator = null;
+            break;
         case IN:
-            return maybeParens(node.getLeftOperand()) + " IN " + str;
+            operator = " IN ";
+            break;
         case NOT_IN:
-            return maybeParens(node.getLeftOperand()) + " NOT IN " + str;
+            operator = " NOT IN ";
+            break;
         case EQ_ANY:
-            return maybeParens(node.getLeftOperand()) + " = ANY " + str;
+            operator = " = ANY ";
+            break;
         case EQ_ALL:
-            return maybeParens(node.getLeftOperand()) + " = ALL " + str;
+            operator = " = ALL ";
+            break;
         case NE_ANY:
-            return maybeParens(node.getLeftOperand()) + " <> ANY " + str;
+            operator = " <> ANY ";
+            break;
         case NE_ALL:
-            return maybeParens(node.getLeftOperand()) + " <> ALL " + str;
+            operator = " <> ALL ";
+            break;
         case GT_ANY:
-            return maybeParens(node.getLeftOperand()) + " > ANY " + str;
+            operator = " > ANY ";
+            break;
         case GT_ALL:
-            return maybeParens(node.getLeftOperand()) + " > ALL " + str;
+            operator = " > ALL ";
+            break;
         case GE_ANY:
-            return maybeParens(node.getLeftOperand()) + " >= ANY " + str;
+            operator = " >= ANY ";
+            break;
         case GE_ALL:
-            return maybeParens(node.getLeftOperand()) + " > ANY " + str;
+            operator = " > ANY ";
+            break;
         case LT_ANY:
-            return maybeParens(node.getLeftOperand()) + " < ANY " + str;
+            operator = " < ANY ";
+            break;
         case LT_ALL:
-            return maybeParens(node.getLeftOperand()) + " < ALL " + str;
+            operator = " < ALL ";
+            break;
         case LE_ANY:
-            return maybeParens(node.getLeftOperand()) + " <= ANY " + str;
+            operator = " <= ANY ";
+            break;
         case LE_ALL:
-            return maybeParens(node.getLeftOperand()) + " <= ALL " + str;
+            operator = " <= ALL ";
+            break;
         }
+        if (operator != null) {
+            maybeParens(node.getLeftOperand(), str);
+            str.append(operator);
+        }
+        str.append("(");
+        toString(node.getResultSet(), str);
+        if (node.getOrderByList() != null) {
+            str.append(" ");
+            toString(node.getOrderByList(), str);
+        }
+        offsetAndFetchFirst(node.getOffset(), node.getFetchFirst(), str);
+        str.append(")");
     }
 
-    protected String rowResultSetNode(RowResultSetNode node) throws StandardException {
-        return "VALUES(" + toString(node.getResultColumns()) + ")";
+    protected void rowResultSetNode(RowResultSetNode node, StringBuilder str) 
+            throws StandardException {
+        str.append("VALUES(");
+        toString(node.getResultColumns(), str);
+        str.append(")");
     }
 
-    protected String rowsResultSetNode(RowsResultSetNode node) throws StandardException {
-        StringBuilder str = new StringBuilder("VALUES");
+    protected void rowsResultSetNode(RowsResultSetNode node, StringBuilder str) 
+            throws StandardException {
+        CompactRowList rows = node.getCompactRows();
+        if (rows != null) {
+            compactRowList(rows, str);
+            return;
+        }
+        str.append("VALUES");
         boolean first = true;
         for (RowResultSetNode row : node.getRows()) {
             if (first)
@@ -607,68 +992,108 @@ public class NodeToString
             else
                 str.append(", ");
             str.append("(");
-            str.append(toString(row.getResultColumns()));
+            toString(row.getResultColumns(), str);
             str.append(")");
         }
-        return str.toString();
     }
 
-    protected String resultColumnList(ResultColumnList node) throws StandardException {
-        return nodeList(node);
+    /** The rows of a long <code>VALUES</code>, without making nodes for them. */
+    protected void compactRowList(CompactRowList rows, StringBuilder str) 
+            throws StandardException {
+        str.append("VALUES");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0)
+                str.append(", ");
+            str.append("(");
+            if (rows.isMaterialized(i))
+                toString(rows.get(i).getResultColumns(), str);
+            else {
+                for (int j = 0; j < rows.getColumnCount(); j++) {
+                    if (j > 0)
+                        str.append(", ");
+                    if (rows.isNull(i, j))
+                        str.append("NULL");
+                    else if (rows.getKind(j) == CompactConstantList.Kind.LONG)
+                        str.append(rows.getLong(i, j));
+                    else
+                        stringConstant(rows.getString(i, j), str);
+                }
+            }
+            str.append(")");
+            flush(str, false);
+        }
+    }
+
+    protected void resultColumnList(ResultColumnList node, StringBuilder str) 
+            throws StandardException {
+        nodeList(node, str);
     }
     
-    protected String resultColumn(ResultColumn node) throws StandardException {
-        if (node.getReference() != null)
-            return toString(node.getReference());
+    protected void resultColumn(ResultColumn node, StringBuilder str) 
+            throws StandardException {
+        if (node.getReference() != null) {
+            toString(node.getReference(), str);
+            return;
+        }
 
         String n = node.getName();
-        if (node.getExpression() == null)
-            return n;
+        if (node.getExpression() == null) {
+            str.append(n);
+            return;
+        }
 
-        String x = maybeParens(node.getExpression());
-        if ((n == null) || n.equals(x))
-            return x;
-        else
-            return x + " AS " + n;
+        // Compared with the name once done.
+        int start = str.length();
+        retained++;
+        try {
+            maybeParens(node.getExpression(), str);
+        }
+        finally {
+            retained--;
+        }
+        if ((n != null) && 
+            !((str.length() - start == n.length()) && (str.indexOf(n, start) == start)))
+            str.append(" AS ").append(n);
     }
 
-    protected String allResultColumn(AllResultColumn node) throws StandardException {
-        return "*";
+    protected void allResultColumn(AllResultColumn node, StringBuilder str) 
+            throws StandardException {
+        str.append("*");
     }
 
-    protected String fromList(FromList node) throws StandardException {
-        return nodeList(node);
+    protected void fromList(FromList node, StringBuilder str) throws StandardException {
+        nodeList(node, str);
     }
 
-    protected String fromBaseTable(FromBaseTable node) throws StandardException {
-        String tn = toString(node.getOrigTableName());
+    protected void fromBaseTable(FromBaseTable node, StringBuilder str) 
+            throws StandardException {
+        toString(node.getOrigTableName(), str);
         String n = node.getCorrelationName();
-        if (n == null)
-            return tn;
-        else
-            return tn + " AS " + n;
+        if (n != null)
+            str.append(" AS ").append(n);
     }
 
-    protected String fromSubquery(FromSubquery node) throws StandardException {
-        StringBuilder str = new StringBuilder(toString(node.getSubquery()));
+    protected void fromSubquery(FromSubquery node, StringBuilder str) 
+            throws StandardException {
+        str.append('(');
+        toString(node.getSubquery(), str);
         if (node.getOrderByList() != null) {
             str.append(' ');
-            str.append(toString(node.getOrderByList()));
+            toString(node.getOrderByList(), str);
         }
-        str.insert(0, '(');
+        offsetAndFetchFirst(node.getOffset(), node.getFetchFirst(), str);
         str.append(')');
         str.append(" AS ");
         str.append(node.getCorrelationName());
         if (node.getResultColumns() != null) {
             str.append('(');
-            str.append(toString(node.getResultColumns()));
+            toString(node.getResultColumns(), str);
             str.append(')');
         }
-        return str.toString();
     }
 
-    protected String joinNode(JoinNode node) throws StandardException {
-        StringBuilder str = new StringBuilder(toString(node.getLeftResultSet()));
+    protected void joinNode(JoinNode node, StringBuilder str) throws StandardException {
+        toString(node.getLeftResultSet(), str);
         JoinNode.JoinType joinType = JoinNode.JoinType.INNER;
         if (node instanceof HalfOuterJoinNode)
             joinType = ((HalfOuterJoinNode)node).isRightOuterJoin() ? 
@@ -678,94 +1103,117 @@ public class NodeToString
             str.append("NATURAL ");
         str.append(JoinNode.joinTypeToString(joinType));
         str.append(' ');
-        str.append(toString(node.getRightResultSet()));
+        toString(node.getRightResultSet(), str);
         if (node.getJoinClause() != null) {
             str.append(" ON ");
-            str.append(maybeParens(node.getJoinClause()));
+            maybeParens(node.getJoinClause(), str);
         }
         if (node.getUsingClause() != null) {
             str.append(" USING (");
-            str.append(toString(node.getUsingClause()));
+            toString(node.getUsingClause(), str);
             str.append(')');
         }
-        return str.toString();
     }
 
-    protected String unionNode(UnionNode node) throws StandardException {
-        return toString(node.getLeftResultSet()) + " UNION " + 
-               toString(node.getRightResultSet());
+    protected void unionNode(UnionNode node, StringBuilder str) throws StandardException {
+        toString(node.getLeftResultSet(), str);
+        str.append(" UNION ");
+        toString(node.getRightResultSet(), str);
     }
 
-    protected String tableName(TableName node) throws StandardException {
-        return node.getFullTableName();
+    protected void tableName(TableName node, StringBuilder str) throws StandardException {
+        str.append(node.getFullTableName());
     }
 
-    protected String columnReference(ColumnReference node) throws StandardException {
-        return node.getSQLColumnName();
+    protected void columnReference(ColumnReference node, StringBuilder str) 
+            throws StandardException {
+        str.append(node.getSQLColumnName());
     }
 
-    protected String virtualColumnNode(VirtualColumnNode node) throws StandardException {
-        return node.getSourceColumn().getName();
+    protected void virtualColumnNode(VirtualColumnNode node, StringBuilder str) 
+            throws StandardException {
+        str.append(node.getSourceColumn().getName());
     }
 
-    protected String groupByList(GroupByList node) throws StandardException {
-        return "GROUP BY " + nodeList(node);
+    protected void groupByList(GroupByList node, StringBuilder str) throws StandardException {
+        str.append("GROUP BY ");
+        nodeList(node, str);
     }
 
-    protected String groupByColumn(GroupByColumn node) throws StandardException {
-        return maybeParens(node.getColumnExpression());
+    protected void groupByColumn(GroupByColumn node, StringBuilder str) 
+            throws StandardException {
+        maybeParens(node.getColumnExpression(), str);
     }
 
-    protected String orderByList(OrderByList node) throws StandardException {
-        return "ORDER BY " + nodeList(node);
+    protected void orderByList(OrderByList node, StringBuilder str) throws StandardException {
+        str.append("ORDER BY ");
+        nodeList(node, str);
     }
 
-    protected String orderByColumn(OrderByColumn node) throws StandardException {
-        String result = maybeParens(node.getExpression());
+    protected void orderByColumn(OrderByColumn node, StringBuilder str) 
+            throws StandardException {
+        maybeParens(node.getExpression(), str);
         if (!node.isAscending()) {
-            result += " DESC";
+            str.append(" DESC");
         }
         if (node.isNullsOrderedLow()) {
-            result += " NULLS FIRST";
+            str.append(" NULLS FIRST");
         }
-        return result;
     }
 
-    protected String binaryLogicalOperatorNode(BinaryLogicalOperatorNode node) 
+    protected void offsetAndFetchFirst(ValueNode offset, ValueNode fetchFirst, 
+                                       StringBuilder str)
             throws StandardException {
-        return infixBinary(node);
+        if (offset != null) {
+            str.append(" OFFSET ");
+            toString(offset, str);
+            str.append(" ROWS");
+        }
+        if (fetchFirst != null) {
+            str.append(" FETCH FIRST ");
+            toString(fetchFirst, str);
+            str.append(" ROWS ONLY");
+        }
     }
 
-    protected String binaryComparisonOperatorNode(BinaryComparisonOperatorNode node)
+    protected void binaryLogicalOperatorNode(BinaryLogicalOperatorNode node, StringBuilder str) 
+            throws StandardException {
+        infixBinary(node, str);
+    }
+
+    protected void binaryComparisonOperatorNode(BinaryComparisonOperatorNode node, 
+                                                StringBuilder str)
         throws StandardException {
-        return infixBinary(node);
+        infixBinary(node, str);
     }
 
-    protected String binaryArithmeticOperatorNode(BinaryArithmeticOperatorNode node) 
+    protected void binaryArithmeticOperatorNode(BinaryArithmeticOperatorNode node, 
+                                                StringBuilder str) 
             throws StandardException {
-        return infixBinary(node);
+        infixBinary(node, str);
     }
 
-    protected String concatenationOperatorNode(ConcatenationOperatorNode node)
+    protected void concatenationOperatorNode(ConcatenationOperatorNode node, StringBuilder str)
             throws StandardException {
-        return infixBinary(node);
+        infixBinary(node, str);
     }
 
-    protected String notNode(NotNode node) throws StandardException {
-        return prefixUnary(node);
+    protected void notNode(NotNode node, StringBuilder str) throws StandardException {
+        prefixUnary(node, str);
     }
 
-    protected String isNullNode(IsNullNode node) throws StandardException {
-        return suffixUnary(node);
+    protected void isNullNode(IsNullNode node, StringBuilder str) throws StandardException {
+        suffixUnary(node, str);
     }
 
-    protected String unaryDateTimestampOperatorNode(UnaryDateTimestampOperatorNode node) 
+    protected void unaryDateTimestampOperatorNode(UnaryDateTimestampOperatorNode node, 
+                                                  StringBuilder str) 
             throws StandardException {
-        return functionUnary(node);
+        functionUnary(node, str);
     }
 
-    protected String isNode(IsNode node) throws StandardException {
-        StringBuilder str = new StringBuilder(maybeParens(node.getLeftOperand()));
+    protected void isNode(IsNode node, StringBuilder str) throws StandardException {
+        maybeParens(node.getLeftOperand(), str);
         str.append(" IS ");
         if (node.isNegated())
             str.append("NOT ");
@@ -778,209 +1226,261 @@ public class NodeToString
                 str.append(value.toString().toUpperCase());
         }
         else
-            str.append(maybeParens(rightOperand));
-        return str.toString();
+            maybeParens(rightOperand, str);
     }
 
-    protected String aggregateNode(AggregateNode node) throws StandardException {
-        if (node.getOperand() == null)
-            return node.getAggregateName();
-        else
-            return node.getAggregateName() + "(" + toString(node.getOperand()) + ")";
+    protected void aggregateNode(AggregateNode node, StringBuilder str) 
+            throws StandardException {
+        str.append(node.getAggregateName());
+        if (node.getOperand() != null) {
+            str.append("(");
+            toString(node.getOperand(), str);
+            str.append(")");
+        }
     }
 
-    protected String likeEscapeOperatorNode(LikeEscapeOperatorNode node) 
+    protected void likeEscapeOperatorNode(LikeEscapeOperatorNode node, StringBuilder str) 
             throws StandardException {
-        String like = maybeParens(node.getReceiver()) +
-            " " + node.getOperator().toUpperCase() + " " +
-            maybeParens(node.getLeftOperand());
-        if (node.getRightOperand() != null)
-            like += " ESCAPE " + maybeParens(node.getRightOperand());
-        return like;
+        maybeParens(node.getReceiver(), str);
+        str.append(" ").append(node.getOperator().toUpperCase()).append(" ");
+        maybeParens(node.getLeftOperand(), str);
+        if (node.getRightOperand() != null) {
+            str.append(" ESCAPE ");
+            maybeParens(node.getRightOperand(), str);
+        }
     }
 
-    protected String inListOperatorNode(InListOperatorNode node) throws StandardException {
-        return maybeParens(node.getLeftOperand()) +
-            " " + (node.isNegated() ? "NOT IN" : "IN") + 
-            " (" + toString(node.getRightOperandList()) + ")";
+    protected void inListOperatorNode(InListOperatorNode node, StringBuilder str) 
+            throws StandardException {
+        maybeParens(node.getLeftOperand(), str);
+        str.append(" ").append(node.isNegated() ? "NOT IN" : "IN").append(" (");
+        toString(node.getRightOperandList(), str);
+        str.append(")");
     }
 
-    protected String valueNodeList(ValueNodeList node) throws StandardException {
-        return nodeList(node, true);
+    protected void valueNodeList(ValueNodeList node, StringBuilder str) 
+            throws StandardException {
+        nodeList(node, true, str);
     }
 
-    protected String betweenOperatorNode(BetweenOperatorNode node)
+    protected void betweenOperatorNode(BetweenOperatorNode node, StringBuilder str)
             throws StandardException {
-        return maybeParens(node.getLeftOperand()) +
-            " BETWEEN " + maybeParens(node.getRightOperandList().get(0)) +
-            " AND " + maybeParens(node.getRightOperandList().get(1));
+        maybeParens(node.getLeftOperand(), str);
+        str.append(" BETWEEN ");
+        maybeParens(node.getRightOperandList().get(0), str);
+        str.append(" AND ");
+        maybeParens(node.getRightOperandList().get(1), str);
     }
 
-    protected String conditionalNode(ConditionalNode node) throws StandardException {
-        StringBuilder str = new StringBuilder("CASE");
+    protected void conditionalNode(ConditionalNode node, StringBuilder str) 
+            throws StandardException {
+        str.append("CASE");
         while (true) {
             str.append(" WHEN ");
-            str.append(maybeParens(node.getTestCondition()));
+            maybeParens(node.getTestCondition(), str);
             str.append(" THEN ");
-            str.append(maybeParens(node.getThenNode()));
+            maybeParens(node.getThenNode(), str);
             ValueNode elseNode = node.getElseNode();
             if (elseNode instanceof ConditionalNode)
                 node = (ConditionalNode)elseNode;
             else {
                 str.append(" ELSE ");
-                str.append(maybeParens(elseNode));
+                maybeParens(elseNode, str);
                 break;
             }
         }
         str.append(" END");
-        return str.toString();
     }
 
-    protected String coalesceFunctionNode(CoalesceFunctionNode node) 
+    protected void coalesceFunctionNode(CoalesceFunctionNode node, StringBuilder str) 
             throws StandardException {
-        return functionCall(node.getFunctionName(),
-                                                node.getArgumentsList());
+        functionCall(node.getFunctionName(), node.getArgumentsList(), str);
     }
     
-    protected String constantNode(ConstantNode node) throws StandardException {
+    protected void constantNode(ConstantNode node, StringBuilder str) 
+            throws StandardException {
         Object value = node.getValue();
         if (value == null)
-            return "NULL";
+            str.append("NULL");
         else if (value instanceof String)
-            return "'" + ((String)value).replace("'", "''") + "'";
+            stringConstant((String)value, str);
         else if (value instanceof byte[])
-            return hexConstant((byte[])value);
+            hexConstant((byte[])value, str);
         else if (value instanceof Double)
-            return String.format("%e", value);
+            str.append(String.format("%e", value));
         else if (value instanceof Boolean)
-            return value.toString().toUpperCase();
+            str.append(value.toString().toUpperCase());
         else
-            return value.toString();
+            str.append(value.toString());
     }
 
-    protected String prefixUnary(UnaryOperatorNode node) throws StandardException {
-        return node.getOperator().toUpperCase() + " " +
-            maybeParens(node.getOperand());
+    protected void stringConstant(String value, StringBuilder str) {
+        str.append("'").append(value.replace("'", "''")).append("'");
     }
 
-    protected String suffixUnary(UnaryOperatorNode node) throws StandardException {
-        return maybeParens(node.getOperand()) + " " +
-            node.getOperator().toUpperCase();
+    protected void prefixUnary(UnaryOperatorNode node, StringBuilder str) 
+            throws StandardException {
+        str.append(node.getOperator().toUpperCase()).append(" ");
+        maybeParens(node.getOperand(), str);
     }
 
-    protected String functionUnary(UnaryOperatorNode node) throws StandardException {
-        return node.getOperator().toUpperCase() + "(" +
-            toString(node.getOperand()) + ")";
+    protected void suffixUnary(UnaryOperatorNode node, StringBuilder str) 
+            throws StandardException {
+        maybeParens(node.getOperand(), str);
+        str.append(" ").append(node.getOperator().toUpperCase());
     }
 
-    protected String infixBinary(BinaryOperatorNode node) throws StandardException {
-        return maybeParens(node.getLeftOperand()) +
-            " " + node.getOperator().toUpperCase() + " " +
-            maybeParens(node.getRightOperand());
+    protected void functionUnary(UnaryOperatorNode node, StringBuilder str) 
+            throws StandardException {
+        str.append(node.getOperator().toUpperCase()).append("(");
+        toString(node.getOperand(), str);
+        str.append(")");
+    }
+
+    protected void infixBinary(BinaryOperatorNode node, StringBuilder str) 
+            throws StandardException {
+        maybeParens(node.getLeftOperand(), str);
+        str.append(" ").append(node.getOperator().toUpperCase()).append(" ");
+        maybeParens(node.getRightOperand(), str);
     }
     
-    protected String functionCall(String functionName, ValueNodeList args)
+    protected void functionCall(String functionName, ValueNodeList args, StringBuilder str)
             throws StandardException {
-        return functionName + "(" + nodeList(args, true) + ")";
+        str.append(functionName).append("(");
+        nodeList(args, true, str);
+        str.append(")");
     }
 
-    protected String nodeList(QueryTreeNodeList<? extends QueryTreeNode> nl)
+    protected void nodeList(QueryTreeNodeList<? extends QueryTreeNode> nl, StringBuilder str)
             throws StandardException {
-        return nodeList(nl, false);
+        nodeList(nl, false, str);
     }
 
-    protected String nodeList(QueryTreeNodeList<? extends QueryTreeNode> nl, boolean expr)
+    protected void nodeList(QueryTreeNodeList<? extends QueryTreeNode> nl, boolean expr,
+                            StringBuilder str)
             throws StandardException {
-        StringBuilder str = new StringBuilder();
         boolean first = true;
         for (QueryTreeNode node : nl) {
             if (first)
                 first = false;
             else
                 str.append(", ");
-            str.append(expr ? maybeParens(node) : toString(node));
+            if (expr)
+                maybeParens(node, str);
+            else
+                toString(node, str);
         }
-        return str.toString();
     }
 
-    protected String maybeParens(QueryTreeNode node) throws StandardException {
-        String str = toString(node);
-        if (node instanceof ConstantNode)
-            return str;
-        else if (str.indexOf(' ') < 0)
-            return str;
+    /** Append <code>node</code>, in parentheses if its text has a space.
+     * Since that is only known once the text is there, an opening
+     * parenthesis goes in first and is taken back out if not needed.
+     */
+    protected void maybeParens(QueryTreeNode node, StringBuilder str) 
+            throws StandardException {
+        if (node instanceof ConstantNode) {
+            toString(node, str);
+            return;
+        }
+        PrintedOperand printed = null;
+        if (printedOperands != null)
+            printed = printedOperands.get(node);
+        if (printed != null) {
+            if (printed.hasSpace) str.append('(');
+            toString(node, str);
+            if (printed.hasSpace) str.append(')');
+            return;
+        }
+        int start = str.length();
+        str.append('(');
+        retained++;
+        try {
+            toString(node, str);
+        }
+        finally {
+            retained--;
+        }
+        if (str.indexOf(" ", start + 1) >= 0)
+            str.append(')');
         else
-            return "(" + str + ")";
+            str.deleteCharAt(start);
     }
 
-    protected String hexConstant(byte[] value) {
-        StringBuilder str = new StringBuilder("X'");
+    protected void hexConstant(byte[] value, StringBuilder str) {
+        str.append("X'");
         for (byte b : value) {
             str.append(Integer.toString((int)b & 0xFF, 16).toUpperCase());
         }
         str.append("'");
-        return str.toString();
     }
 
-    protected String parameterNode(ParameterNode node) throws StandardException {
-        return "$" + (node.getParameterNumber() + 1);
+    protected void parameterNode(ParameterNode node, StringBuilder str) 
+            throws StandardException {
+        str.append("$").append(node.getParameterNumber() + 1);
     }
 
-    protected String currentDatetimeOperatorNode(CurrentDatetimeOperatorNode node) 
+    protected void currentDatetimeOperatorNode(CurrentDatetimeOperatorNode node, 
+                                               StringBuilder str) 
             throws StandardException {
         switch (node.getField()) {
         case DATE:
-            return "CURRENT_DATE";
+            str.append("CURRENT_DATE");
+            break;
         case TIME:
-            return "CURRENT_TIME";
+            str.append("CURRENT_TIME");
+            break;
         case TIMESTAMP:
-            return "CURRENT_TIMESTAMP";
+            str.append("CURRENT_TIMESTAMP");
+            break;
         default:
-            return "**UNKNOWN(" + node.getField() +")**";
+            str.append("**UNKNOWN(").append(node.getField()).append(")**");
+            break;
         }
     }
 
-    protected String castNode(CastNode node) throws StandardException {
-        return "CAST(" + toString(node.getCastOperand()) + 
-            " AS " + node.getType().toString() + ")";
+    protected void castNode(CastNode node, StringBuilder str) throws StandardException {
+        str.append("CAST(");
+        toString(node.getCastOperand(), str);
+        str.append(" AS ").append(node.getType().toString()).append(")");
     }
 
-    protected String javaToSQLValueNode(JavaToSQLValueNode node) 
+    protected void javaToSQLValueNode(JavaToSQLValueNode node, StringBuilder str) 
             throws StandardException {
-        return toString(node.getJavaValueNode());
+        toString(node.getJavaValueNode(), str);
     }
 
-    protected String sqlToJavaValueNode(SQLToJavaValueNode node)
+    protected void sqlToJavaValueNode(SQLToJavaValueNode node, StringBuilder str)
             throws StandardException {
-        return toString(node.getSQLValueNode());
+        toString(node.getSQLValueNode(), str);
     }
 
-    protected String staticMethodCallNode(StaticMethodCallNode node)
+    protected void staticMethodCallNode(StaticMethodCallNode node, StringBuilder str)
             throws StandardException {
-        StringBuilder str = new StringBuilder();
         if (node.getProcedureName() != null)
-            str.append(toString(node.getProcedureName()));
+            toString(node.getProcedureName(), str);
         else
             str.append(node.getMethodName());
         str.append("(");
         JavaValueNode[] params = node.getMethodParameters();
         for (int i = 0; i < params.length; i++) {
             if (i > 0) str.append(", ");
-            str.append(maybeParens(params[i]));
+            maybeParens(params[i], str);
         }
         str.append(")");
-        return str.toString();
     }
 
-    protected String callStatementNode(CallStatementNode node) throws StandardException {
-        return "CALL " + javaToSQLValueNode(node.methodCall());
+    protected void callStatementNode(CallStatementNode node, StringBuilder str) 
+            throws StandardException {
+        str.append("CALL ");
+        javaToSQLValueNode(node.methodCall(), str);
     }
 
-    protected String qualifiedDDLNode(DDLStatementNode node) throws StandardException {
-        return node.statementToString() + " " + node.getObjectName();
+    protected void qualifiedDDLNode(DDLStatementNode node, StringBuilder str) 
+            throws StandardException {
+        str.append(node.statementToString()).append(" ").append(node.getObjectName());
     }
 
-    protected String explainStatementNode(ExplainStatementNode node) 
+    protected void explainStatementNode(ExplainStatementNode node, StringBuilder str) 
             throws StandardException {
         String detail;
         switch (node.getDetail()) {
@@ -995,101 +1495,142 @@ public class NodeToString
             detail = "";
             break;
         }
-        return "EXPLAIN " + detail + toString(node.getStatement());
+        str.append("EXPLAIN ").append(detail);
+        toString(node.getStatement(), str);
     }
 
-    protected String transactionControlNode(TransactionControlNode node)
+    protected void transactionControlNode(TransactionControlNode node, StringBuilder str)
             throws StandardException {
-        return node.statementToString();
+        str.append(node.statementToString());
     }
     
-    protected String setTransactionIsolationNode(SetTransactionIsolationNode node)
+    protected void setTransactionIsolationNode(SetTransactionIsolationNode node, 
+                                               StringBuilder str)
             throws StandardException {
-        return node.statementToString() + " " + node.getIsolationLevel().getSyntax();
+        str.append(node.statementToString()).append(" ")
+           .append(node.getIsolationLevel().getSyntax());
     }
     
-    protected String setTransactionAccessNode(SetTransactionAccessNode node)
+    protected void setTransactionAccessNode(SetTransactionAccessNode node, StringBuilder str)
             throws StandardException {
-        return node.statementToString() + " " + node.getAccessMode().getSyntax();
+        str.append(node.statementToString()).append(" ")
+           .append(node.getAccessMode().getSyntax());
     }
 
-    protected String setConfigurationNode(SetConfigurationNode node)
+    protected void setConfigurationNode(SetConfigurationNode node, StringBuilder str)
             throws StandardException {
-        return node.statementToString() + " = '" + node.getValue() + "'";
+        str.append(node.statementToString()).append(" = '")
+           .append(node.getValue()).append("'");
     }
 
-    protected String rowCtorNode(RowConstructorNode row) throws StandardException
+    protected void rowCtorNode(RowConstructorNode row, StringBuilder str) 
+            throws StandardException
     {
         ValueNodeList list = row.getNodeList();
+        CompactConstantList constants = list.getCompactConstants();
+        if (constants != null) {
+            compactConstantList(constants, str);
+            return;
+        }
         
         switch(list.size())
         {
             case 0:
-                return "EMPTY";
+                str.append("EMPTY");
+                return;
             case 1:
                 QueryTreeNode node = list.get(0);
-                if (!(node instanceof RowConstructorNode))
-                    return toString(node);
+                if (!(node instanceof RowConstructorNode)) {
+                    toString(node, str);
+                    return;
+                }
         }
         
-        StringBuilder bd = new StringBuilder();
+        boolean first = true;
         for (QueryTreeNode node : list )
         {
-            doPrint(node, bd);
-            bd.append(", ");
+            if (first)
+                first = false;
+            else
+                str.append(", ");
+            doPrint(node, str);
         }
-
-        return bd.substring(0, bd.length() -2); // delete the last (<COMMA> <SPACE>)
     }
     
-    protected String declareStatementNode(DeclareStatementNode node) 
+    /** The literals of a long list, without making nodes for them. */
+    protected void compactConstantList(CompactConstantList constants, StringBuilder str)
+            throws StandardException {
+        for (int i = 0; i < constants.size(); i++) {
+            if (i > 0)
+                str.append(", ");
+            if (constants.isMaterialized(i))
+                doPrint(constants.get(i), str);
+            else {
+                switch (constants.getKind()) {
+                case LONG:
+                    str.append(constants.getLong(i));
+                    break;
+                case STRING:
+                    stringConstant(constants.getString(i), str);
+                    break;
+                }
+            }
+            flush(str, false);
+        }
+    }
+
+    protected void declareStatementNode(DeclareStatementNode node, StringBuilder str) 
             throws StandardException {
-        return "DECLARE " + node.getName() + " CURSOR FOR " +
-            toString(node.getStatement());
+        str.append("DECLARE ").append(node.getName()).append(" CURSOR FOR ");
+        toString(node.getStatement(), str);
     }
 
-    protected String fetchStatementNode(FetchStatementNode node)
+    protected void fetchStatementNode(FetchStatementNode node, StringBuilder str)
             throws StandardException {
-        return "FETCH " + 
-            ((node.getCount() < 0) ? "ALL" : Integer.toString(node.getCount())) +
-            " FROM " + node.getName();
+        str.append("FETCH ");
+        if (node.getCount() < 0)
+            str.append("ALL");
+        else
+            str.append(node.getCount());
+        str.append(" FROM ").append(node.getName());
     }
 
-    protected String closeStatementNode(CloseStatementNode node)
+    protected void closeStatementNode(CloseStatementNode node, StringBuilder str)
             throws StandardException {
-        return "CLOSE " + node.getName();
+        str.append("CLOSE ").append(node.getName());
     }
 
-    protected String prepareStatementNode(PrepareStatementNode node)
+    protected void prepareStatementNode(PrepareStatementNode node, StringBuilder str)
             throws StandardException {
-        return "PREPARE " + node.getName() + " AS " +
-            toString(node.getStatement());
+        str.append("PREPARE ").append(node.getName()).append(" AS ");
+        toString(node.getStatement(), str);
     }
 
-    protected String executeStatementNode(ExecuteStatementNode node)
+    protected void executeStatementNode(ExecuteStatementNode node, StringBuilder str)
             throws StandardException {
-        return "EXECUTE " + node.getName() + 
-            "(" + nodeList(node.getParameterList(), true) + ")";
+        str.append("EXECUTE ").append(node.getName()).append("(");
+        nodeList(node.getParameterList(), true, str);
+        str.append(")");
     }
 
-    protected String deallocateStatementNode(DeallocateStatementNode node)
+    protected void deallocateStatementNode(DeallocateStatementNode node, StringBuilder str)
             throws StandardException {
-        return "DEALLOCATE " + node.getName();
+        str.append("DEALLOCATE ").append(node.getName());
     }
      
-    protected String copyStatementNode(CopyStatementNode node) 
+    protected void copyStatementNode(CopyStatementNode node, StringBuilder str) 
             throws StandardException {
-        StringBuilder str = new StringBuilder("COPY ");
+        str.append("COPY ");
         if (node.getSubquery() != null) {
             str.append("(");
-            str.append(toString(node.getSubquery()));
+            toString(node.getSubquery(), str);
             str.append(")");
         }
         else {
             str.append(node.getTableName());
             if (node.getColumnList() != null) {
                 str.append("(");
-                str.append(toString(node.getColumnList()));
+                toString(node.getColumnList(), str);
                 str.append(")");
             }
         }
@@ -1141,7 +1682,6 @@ public class NodeToString
         if (options) {
             str.append(")");
         }
-        return str.toString();
     }
 
     protected boolean copyOptionString(StringBuilder str, String keyword, String value, boolean options) {
@@ -1164,23 +1704,22 @@ public class NodeToString
     protected void doPrint(QueryTreeNode node, StringBuilder bd) throws StandardException
     {
         if (node instanceof RowConstructorNode)
-            bd.append(rowCtorNode((RowConstructorNode)node));
+            rowCtorNode((RowConstructorNode)node, bd);
         else
-            bd.append(toString(node));
+            toString(node, bd);
     }
     
-    protected String groupConcat(GroupConcatNode node) throws StandardException
+    protected void groupConcat(GroupConcatNode node, StringBuilder str) throws StandardException
     {
-        StringBuilder ret = new StringBuilder("GROUP_CONCAT(");
+        str.append("GROUP_CONCAT(");
         
-        ret.append(node.getOperand());
+        str.append(node.getOperand());
         
         OrderByList orderBy = node.getOrderBy();
         if (orderBy != null)
-            ret.append(this.toString(orderBy));
+            this.toString(orderBy, str);
         
         // i
-        ret.append("SEPARATOR \'").append(node.getSeparator()).append("\')");
-        return ret.toString();
+        str.append("SEPARATOR \'").append(node.getSeparator()).append("\')");
     }
 }
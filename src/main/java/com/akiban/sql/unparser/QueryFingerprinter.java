@@ -0,0 +1,242 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.unparser;
+
+import com.akiban.sql.parser.*;
+
+import com.akiban.sql.StandardException;
+
+import java.util.List;
+
+/** A digest of the shape of a statement, for gathering statistics per
+ * kind of statement, like <code>pg_stat_statements</code>' query id.
+ *
+ * Statements that differ only in the values of literals, in whitespace,
+ * or in the number of literals in an <code>IN</code> list or of rows of
+ * them in a <code>VALUES</code>, get the same fingerprint. It is a hash
+ * of the normalized text, in which each literal is a <code>?</code> and
+ * such lists have just one, computed as that text is produced, so the
+ * text is only kept if asked for.
+ *
+ * Names are compared as the parser left them, that is, folded according
+ * to {@link SQLParserContext#getIdentifierCase}, and that setting is part
+ * of the fingerprint.
+ */
+public class QueryFingerprinter extends NodeToString
+{
+    private final long seed;
+    private final Digest digest = new Digest();
+    private final StringBuilder text;
+
+    public QueryFingerprinter(SQLParserContext parserContext) {
+        this(parserContext, false);
+    }
+
+    /** @param keepText whether to keep the normalized text for {@link #getText}. */
+    public QueryFingerprinter(SQLParserContext parserContext, boolean keepText) {
+        seed = parserContext.getIdentifierCase().ordinal() + 1;
+        text = (keepText) ? new StringBuilder() : null;
+    }
+
+    /** Compute the fingerprint of <code>node</code>.
+     * @return the low 64 bits; {@link #getHigh} has the rest.
+     */
+    public long fingerprint(QueryTreeNode node) throws StandardException {
+        digest.reset(seed);
+        if (text != null)
+            text.setLength(0);
+        toString(node, digest);
+        digest.finish();
+        return digest.low;
+    }
+
+    /** The low 64 bits of the last fingerprint. */
+    public long getLow() {
+        return digest.low;
+    }
+
+    /** The high 64 bits of the last fingerprint. */
+    public long getHigh() {
+        return digest.high;
+    }
+
+    /** The last fingerprint as 32 hex digits. */
+    public String getHexString() {
+        return String.format("%016x%016x", digest.high, digest.low);
+    }
+
+    /** The normalized text of the last statement, if kept. */
+    public String getText() {
+        return (text == null) ? null : text.toString();
+    }
+
+    /** Two 64-bit lanes over the characters, mixed together at the end. */
+    class Digest implements Appendable {
+        long low, high;
+        int length;
+
+        void reset(long seed) {
+            low = 0xCBF29CE484222325L ^ seed;
+            high = seed * 0x9E3779B97F4A7C15L;
+            length = 0;
+        }
+
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        public Appendable append(CharSequence csq, int start, int end) {
+            long l = low, h = high;
+            for (int i = start; i < end; i++) {
+                char c = csq.charAt(i);
+                l = (l ^ c) * 0x100000001B3L;
+                h = Long.rotateLeft(h + c * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+            }
+            low = l;
+            high = h;
+            length += end - start;
+            if (text != null)
+                text.append(csq, start, end);
+            return this;
+        }
+
+        public Appendable append(char c) {
+            low = (low ^ c) * 0x100000001B3L;
+            high = Long.rotateLeft(high + c * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+            length++;
+            if (text != null)
+                text.append(c);
+            return this;
+        }
+
+        void finish() {
+            long l = low ^ length, h = high ^ length;
+            l += h;
+            h += l;
+            l = mix(l);
+            h = mix(h);
+            l += h;
+            h += l;
+            low = l;
+            high = h;
+        }
+    }
+
+    /** MurmurHash3's finalizer. */
+    static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    protected void constantNode(ConstantNode node, StringBuilder str) 
+            throws StandardException {
+        str.append('?');
+    }
+
+    @Override
+    protected void parameterNode(ParameterNode node, StringBuilder str) 
+            throws StandardException {
+        str.append('?');
+    }
+
+    @Override
+    protected void inListOperatorNode(InListOperatorNode node, StringBuilder str) 
+            throws StandardException {
+        ValueNodeList list = node.getRightOperandList().getNodeList();
+        if (!isLiterals(list)) {
+            super.inListOperatorNode(node, str);
+            return;
+        }
+        maybeParens(node.getLeftOperand(), str);
+        str.append(node.isNegated() ? " NOT IN (" : " IN (");
+        if (list.getCompactConstants() != null)
+            str.append('?');
+        else
+            doPrint(list.get(0), str);
+        str.append(")");
+    }
+
+    @Override
+    protected void rowsResultSetNode(RowsResultSetNode node, StringBuilder str) 
+            throws StandardException {
+        CompactRowList compact = node.getCompactRows();
+        if (compact != null) {
+            for (int i = 0; i < compact.size(); i++) {
+                if (compact.isMaterialized(i) &&
+                    !isLiterals(compact.get(i).getResultColumns())) {
+                    super.rowsResultSetNode(node, str);
+                    return;
+                }
+            }
+            str.append("VALUES(");
+            for (int j = 0; j < compact.getColumnCount(); j++) {
+                if (j > 0)
+                    str.append(", ");
+                str.append('?');
+            }
+            str.append(")");
+            return;
+        }
+        List<RowResultSetNode> rows = node.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            if (!isLiterals(rows.get(i).getResultColumns())) {
+                super.rowsResultSetNode(node, str);
+                return;
+            }
+        }
+        rowResultSetNode(rows.get(0), str);
+    }
+
+    protected boolean isLiterals(ValueNodeList list) {
+        CompactConstantList compact = list.getCompactConstants();
+        if (compact != null) {
+            for (int i = 0; i < compact.size(); i++) {
+                if (compact.isMaterialized(i) && !isLiteral(compact.get(i)))
+                    return false;
+            }
+            return true;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (!isLiteral(list.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    protected boolean isLiterals(ResultColumnList columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (!isLiteral(columns.get(i).getExpression()))
+                return false;
+        }
+        return true;
+    }
+
+    /** Whether <code>value</code> is printed as just <code>?</code>s. */
+    protected boolean isLiteral(ValueNode value) {
+        if ((value instanceof ConstantNode) || (value instanceof ParameterNode))
+            return true;
+        if (value instanceof RowConstructorNode)
+            return isLiterals(((RowConstructorNode)value).getNodeList());
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+package com.akiban.sql.compiler;
+
+import com.akiban.sql.parser.SQLParser;
+import com.akiban.sql.parser.StatementNode;
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Before;
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+/** The statistics kept by normalization passes and the limits on
+ * them, which the result files do not show.
+ */
+public class NormalizerStatisticsTest
+{
+    protected SQLParser parser;
+    protected BooleanNormalizer booleanNormalizer;
+    protected NodeToString unparser;
+
+    @Before
+    public void makeNormalizer() throws Exception {
+        parser = new SQLParser();
+        booleanNormalizer = new BooleanNormalizer(parser);
+        booleanNormalizer.setCNFTermLimit(BooleanNormalizerCNFTest.CNF_TERM_LIMIT);
+        unparser = new NodeToString();
+    }
+
+    protected String normalize(String where) throws Exception {
+        StatementNode stmt = parser.parseStatement("SELECT * FROM t WHERE " + where);
+        stmt = booleanNormalizer.normalize(stmt);
+        return unparser.toString(stmt).substring("SELECT * FROM t WHERE ".length());
+    }
+
+    @Test
+    public void testDistribute() throws Exception {
+        normalize("(a = 1 AND b = 2) OR (c = 3 AND d = 4)");
+        assertEquals(1, booleanNormalizer.getExpressionsDistributed());
+        assertEquals(8, booleanNormalizer.getCNFTermsProduced());
+    }
+
+    @Test
+    public void testCNFLimit() throws Exception {
+        // 2^10 clauses of 10 terms each.
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) str.append(" OR ");
+            str.append("(a = ").append(i).append(" AND b = ").append(i).append(")");
+        }
+        String result = normalize(str.toString());
+        assertTrue(result, result.startsWith("(((a = 0) AND ((b = 0) AND TRUE)) OR "));
+        assertEquals(1, booleanNormalizer.getCNFTermLimitExceeded());
+        assertEquals(0, booleanNormalizer.getExpressionsDistributed());
+        booleanNormalizer.resetStatistics();
+        assertEquals(0, booleanNormalizer.getCNFTermLimitExceeded());
+    }
+
+    @Test
+    public void testLongAnd() throws Exception {
+        // Far more terms than the limit, but no ORs to multiply them.
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0) str.append(" AND ");
+            str.append("a = ").append(i % 500);
+        }
+        String result = normalize(str.toString());
+        assertTrue(result, result.startsWith("(a = 0) AND ((a = 1) AND "));
+        assertEquals(0, booleanNormalizer.getCNFTermLimitExceeded());
+        assertEquals(1, booleanNormalizer.getExpressionsDistributed());
+        assertEquals(500, booleanNormalizer.getCNFTermsProduced());
+    }
+
+    @Test
+    public void testNotInLimit() throws Exception {
+        booleanNormalizer.setNotInAndLimit(2);
+        assertEquals("(c <> 2) AND ((c <> 1) AND TRUE)",
+                     normalize("c NOT IN (1, 2)"));
+        assertEquals("(c NOT IN (1, 2, 3)) AND TRUE",
+                     normalize("c NOT IN (1, 2, 3)"));
+    }
+
+    @Test
+    public void testFoldNormalized() throws Exception {
+        // The chain from the normalizer keeps its end.
+        StatementNode stmt = parser.parseStatement("SELECT * FROM t WHERE a > 1 AND a > 2 AND 1 = 1");
+        stmt = new BooleanNormalizer(parser).normalize(stmt);
+        new ConstantFolderTest.IntegerColumnsTypeComputer().compute(stmt);
+        ConstantFolder constantFolder = new ConstantFolder(parser);
+        stmt = constantFolder.fold(stmt);
+        assertEquals("SELECT * FROM t WHERE (a > 2) AND TRUE",
+                     unparser.toString(stmt));
+        assertTrue(constantFolder.getSimplifications() > 0);
+    }
+}
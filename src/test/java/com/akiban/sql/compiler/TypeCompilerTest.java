@@ -0,0 +1,86 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.compiler;
+
+import com.akiban.sql.types.TypeId;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TypeCompilerTest
+{
+    @Test
+    public void testBuiltinTypes() throws Exception {
+        for (TypeId typeId : TypeId.getAllBuiltinTypeIds()) {
+            TypeCompiler typeCompiler = TypeCompiler.getTypeCompiler(typeId);
+            assertNotNull(typeId.toString(), typeCompiler);
+            if (typeCompiler instanceof UserDefinedTypeCompiler)
+                continue;
+            assertSame(typeId.toString(), typeCompiler, TypeCompiler.getTypeCompiler(typeId));
+            int formatId = typeId.getTypeFormatId();
+            if (formatId == TypeId.FormatIds.NUMERIC_TYPE_ID)
+                formatId = TypeId.FormatIds.DECIMAL_TYPE_ID;
+            assertEquals(typeId.toString(), formatId, typeCompiler.getStoredFormatIdFromTypeId());
+            assertEquals(typeId.toString(), 
+                         typeId.isUnsigned(), typeCompiler.getTypeId().isUnsigned());
+        }
+        assertNotSame(TypeCompiler.getTypeCompiler(TypeId.INTEGER_ID),
+                      TypeCompiler.getTypeCompiler(TypeId.INTEGER_UNSIGNED_ID));
+        assertSame(TypeCompiler.getTypeCompiler(TypeId.TIMESTAMP_ID),
+                   TypeCompiler.getTypeCompiler(TypeId.DATETIME_ID));
+        assertSame(TypeCompiler.getTypeCompiler(TypeId.INTERVAL_DAY_ID),
+                   TypeCompiler.getTypeCompiler(TypeId.INTERVAL_MINUTE_SECOND_ID));
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final TypeId[] typeIds = TypeId.getAllBuiltinTypeIds();
+        int nthreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nthreads);
+        try {
+            List<Future<TypeCompiler[]>> futures = new ArrayList<Future<TypeCompiler[]>>();
+            for (int i = 0; i < nthreads; i++) {
+                futures.add(executor.submit(new Callable<TypeCompiler[]>() {
+                        public TypeCompiler[] call() {
+                            TypeCompiler[] result = new TypeCompiler[typeIds.length];
+                            for (int j = 0; j < typeIds.length; j++)
+                                result[j] = TypeCompiler.getTypeCompiler(typeIds[j]);
+                            return result;
+                        }
+                    }));
+            }
+            for (Future<TypeCompiler[]> future : futures) {
+                TypeCompiler[] result = future.get();
+                for (int j = 0; j < typeIds.length; j++) {
+                    if (!(result[j] instanceof UserDefinedTypeCompiler))
+                        assertSame(TypeCompiler.getTypeCompiler(typeIds[j]), result[j]);
+                }
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.compiler;
+
+import com.akiban.sql.StandardException;
+
+import com.akiban.sql.parser.NodeFactory;
+import com.akiban.sql.parser.NodeTypes;
+import com.akiban.sql.parser.SQLParser;
+import com.akiban.sql.parser.ValueNode;
+import com.akiban.sql.parser.ValueNodeList;
+
+import com.akiban.sql.types.CharacterTypeAttributes;
+import com.akiban.sql.types.DataTypeDescriptor;
+import com.akiban.sql.types.TypeId;
+
+import org.junit.Before;
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.util.Random;
+
+public class TypeComputerTest
+{
+    protected SQLParser parser;
+    protected NodeFactory nodeFactory;
+    protected TypeComputer typeComputer;
+
+    @Before
+    public void makeComputer() throws Exception {
+        parser = new SQLParser();
+        nodeFactory = parser.getNodeFactory();
+        typeComputer = new TypeComputer();
+    }
+
+    static final DataTypeDescriptor[] TYPES = {
+        new DataTypeDescriptor(TypeId.INTEGER_ID, false),
+        new DataTypeDescriptor(TypeId.INTEGER_ID, true),
+        new DataTypeDescriptor(TypeId.SMALLINT_ID, false),
+        new DataTypeDescriptor(TypeId.BIGINT_ID, true),
+        new DataTypeDescriptor(TypeId.DECIMAL_ID, 5, 2, false, 7),
+        new DataTypeDescriptor(TypeId.DECIMAL_ID, 12, 0, true, 13),
+        new DataTypeDescriptor(TypeId.DOUBLE_ID, false),
+        new DataTypeDescriptor(TypeId.VARCHAR_ID, false, 3),
+        new DataTypeDescriptor(TypeId.VARCHAR_ID, true, 20),
+        new DataTypeDescriptor(TypeId.CHAR_ID, false, 10),
+    };
+
+    /** Taking each different type once is the same as taking them all in turn. */
+    @Test
+    public void testDominantType() throws Exception {
+        Random random = new Random(17);
+        for (int n = 0; n < 500; n++) {
+            int size = 1 + random.nextInt(8);
+            int ntypes = 1 + random.nextInt(TYPES.length);
+            ValueNodeList list = (ValueNodeList)nodeFactory.getNode(NodeTypes.VALUE_NODE_LIST,
+                                                                    parser);
+            DataTypeDescriptor expected = null;
+            for (int i = 0; i < size; i++) {
+                DataTypeDescriptor type = TYPES[random.nextInt(ntypes)];
+                ValueNode node = (ValueNode)nodeFactory.getNode(NodeTypes.INT_CONSTANT_NODE,
+                                                                i, parser);
+                node.setType(type);
+                list.add(node);
+                expected = (expected == null) ? type : expected.getDominantType(type);
+            }
+            assertEquals(list.toString(), expected, typeComputer.dominantType(list));
+        }
+    }
+
+    protected ValueNodeList typedList(DataTypeDescriptor... types) throws Exception {
+        ValueNodeList list = (ValueNodeList)nodeFactory.getNode(NodeTypes.VALUE_NODE_LIST,
+                                                                parser);
+        for (int i = 0; i < types.length; i++) {
+            ValueNode node = (ValueNode)nodeFactory.getNode(NodeTypes.INT_CONSTANT_NODE,
+                                                            i, parser);
+            node.setType(types[i]);
+            list.add(node);
+        }
+        return list;
+    }
+
+    static DataTypeDescriptor collated(String collation, 
+                                       CharacterTypeAttributes.CollationDerivation derivation) {
+        return new DataTypeDescriptor(TypeId.VARCHAR_ID, true, 10,
+                                      new CharacterTypeAttributes(null, collation, derivation));
+    }
+
+    /** Collations that are equal but derived differently still count. */
+    @Test
+    public void testDominantCollation() throws Exception {
+        DataTypeDescriptor implicitEn = collated("en", CharacterTypeAttributes.CollationDerivation.IMPLICIT);
+        DataTypeDescriptor explicitEn = collated("en", CharacterTypeAttributes.CollationDerivation.EXPLICIT);
+        DataTypeDescriptor implicitDe = collated("de", CharacterTypeAttributes.CollationDerivation.IMPLICIT);
+        DataTypeDescriptor explicitDe = collated("de", CharacterTypeAttributes.CollationDerivation.EXPLICIT);
+        try {
+            typeComputer.dominantType(typedList(implicitEn, explicitEn, explicitDe));
+            fail("incompatible collations expected");
+        }
+        catch (StandardException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Incompatible collations"));
+        }
+        DataTypeDescriptor result = 
+            typeComputer.dominantType(typedList(implicitEn, explicitEn, implicitDe, implicitEn));
+        assertEquals("en", result.getCharacterAttributes().getCollation());
+        assertEquals(CharacterTypeAttributes.CollationDerivation.EXPLICIT,
+                     result.getCharacterAttributes().getCollationDerivation());
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.compiler.TypeComputer;
+import com.akiban.sql.types.DataTypeDescriptor;
+import com.akiban.sql.types.TypeId;
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+public class CompactConstantListTest
+{
+    /** <code>first</code>, <code>n - 1</code> numbers, optionally
+     * quoted, and <code>last</code>.
+     */
+    private static String inList(String first, int n, String quote, String last) {
+        StringBuilder str = new StringBuilder("SELECT a FROM t WHERE b IN (");
+        str.append(first);
+        for (int i = 1; i < n; i++)
+            str.append(", ").append(quote).append(i * 1000000).append(quote);
+        str.append(", ").append(last).append(")");
+        return str.toString();
+    }
+
+    private static InListOperatorNode inListNode(StatementNode stmt) {
+        SelectNode select = (SelectNode)((CursorNode)stmt).getResultSetNode();
+        return (InListOperatorNode)select.getWhereClause();
+    }
+
+    private static ValueNodeList rightList(StatementNode stmt) {
+        return inListNode(stmt).getRightOperandList().getNodeList();
+    }
+
+    @Test
+    public void testSameNodes() throws StandardException {
+        SQLParser parser = new SQLParser();
+        StatementNode compact = parser.parseStatement(inList("-7", 3000, "", "9000000000"));
+        ValueNodeList list = rightList(compact);
+        CompactConstantList constants = list.getCompactConstants();
+        assertNotNull(constants);
+        assertEquals(CompactConstantList.Kind.LONG, constants.getKind());
+        assertEquals(3001, list.size());
+        assertFalse(constants.isMaterialized(2999));
+        // An expression at the end means ordinary nodes.
+        StatementNode nodes = new SQLParser().parseStatement(inList("-7", 3000, "", "(1 + 2)"));
+        assertNull(rightList(nodes).getCompactConstants());
+        for (int i = 0; i < 3000; i++) {
+            ConstantNode c1 = (ConstantNode)list.get(i);
+            ConstantNode c2 = (ConstantNode)rightList(nodes).get(i);
+            assertEquals(c2.getNodeType(), c1.getNodeType());
+            assertEquals(c2.getValue(), c1.getValue());
+            assertEquals(c2.getType(), c1.getType());
+        }
+        assertSame(list.get(5), list.get(5));
+        assertEquals(NodeTypes.LONGINT_CONSTANT_NODE, list.get(3000).getNodeType());
+    }
+
+    @Test
+    public void testNotCompact() throws StandardException {
+        SQLParser parser = new SQLParser();
+        assertNull(rightList(parser.parseStatement(inList("1", 3, "", "2"))).getCompactConstants());
+        assertNull(rightList(parser.parseStatement(inList("1", 100, "", "'2'"))).getCompactConstants());
+        assertNull(rightList(parser.parseStatement(inList("1", 100, "", "2.5"))).getCompactConstants());
+        assertNull(rightList(parser.parseStatement(inList("1", 100, "", "1234567890123456789"))).getCompactConstants());
+        assertNull(rightList(parser.parseStatement(inList("1", 100, "", "?"))).getCompactConstants());
+    }
+
+    @Test
+    public void testCopyAndTypes() throws StandardException {
+        SQLParser parser = new SQLParser();
+        StatementNode stmt = parser.parseStatement(inList("'a''b'", 1000, "'", "'z'"));
+        CompactConstantList constants = rightList(stmt).getCompactConstants();
+        assertNotNull(constants);
+        assertEquals(CompactConstantList.Kind.STRING, constants.getKind());
+        assertEquals("a'b", constants.getString(0));
+        NodeToString unparser = new NodeToString();
+        String expected = unparser.toString(stmt);
+        StatementNode copy = (StatementNode)parser.getNodeFactory().copyNode(stmt, parser);
+        assertNotNull(rightList(copy).getCompactConstants());
+        assertEquals(expected, unparser.toString(copy));
+
+        InListOperatorNode inList = inListNode(copy);
+        inList.getLeftOperand().getNodeList().get(0)
+            .setType(new DataTypeDescriptor(TypeId.VARCHAR_ID, false, 10));
+        new TypeComputer().compute(copy);
+        assertNotNull(inList.getType());
+        assertFalse(inList.getType().isNullable());
+        assertFalse(rightList(copy).getCompactConstants().isMaterialized(10));
+
+        // Elements changed in place are kept.
+        final DataTypeDescriptor bigint = new DataTypeDescriptor(TypeId.BIGINT_ID, false);
+        StatementNode numbers = parser.parseStatement(inList("1", 19, "", "2"));
+        numbers.accept(new Visitor() {
+                public Visitable visit(Visitable node) throws StandardException {
+                    if (node instanceof NumericConstantNode)
+                        ((ValueNode)node).setType(bigint);
+                    return node;
+                }
+                public boolean visitChildrenFirst(Visitable node) {
+                    return false;
+                }
+                public boolean stopTraversal() {
+                    return false;
+                }
+                public boolean skipChildren(Visitable node) {
+                    return false;
+                }
+            });
+        CompactConstantList elements = rightList(numbers).getCompactConstants();
+        assertNotNull(elements);
+        assertEquals(20, elements.size());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(elements.isMaterialized(i));
+            assertSame(bigint, elements.get(i).getType());
+        }
+
+        // Changing the size turns it back into nodes.
+        ValueNodeList list = rightList(copy);
+        list.addValueNode((ValueNode)parser.getNodeFactory()
+                          .getNode(NodeTypes.PARAMETER_NODE, 0, null, parser));
+        assertNull(list.getCompactConstants());
+        assertEquals(1002, list.size());
+        assertEquals(expected.substring(0, expected.length() - 1) + ", $1)",
+                     unparser.toString(copy));
+    }
+}
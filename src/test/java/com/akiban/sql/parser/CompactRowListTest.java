@@ -0,0 +1,193 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.compiler.TypeComputer;
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+public class CompactRowListTest
+{
+    /** <code>n</code> rows of a number, a string and a sometimes null
+     * number, followed by <code>last</code>.
+     */
+    private static String insert(int n, String last) {
+        StringBuilder str = new StringBuilder("INSERT INTO t(a, b, c) VALUES");
+        for (int i = 0; i < n; i++) {
+            if (i > 0)
+                str.append(", ");
+            str.append("(").append(i - 10).append(", 'b").append(i).append("', ");
+            if (i % 3 == 0)
+                str.append("NULL");
+            else
+                str.append(i * 1000000000L);
+            str.append(")");
+        }
+        if (last != null)
+            str.append(", ").append(last);
+        return str.toString();
+    }
+
+    private static RowsResultSetNode rowsNode(StatementNode stmt) {
+        return (RowsResultSetNode)((InsertNode)stmt).getResultSetNode();
+    }
+
+    @Test
+    public void testSameNodes() throws StandardException {
+        SQLParser parser = new SQLParser();
+        StatementNode stmt = parser.parseStatement(insert(1000, null));
+        RowsResultSetNode rowsNode = rowsNode(stmt);
+        CompactRowList rows = rowsNode.getCompactRows();
+        assertNotNull(rows);
+        assertEquals(1000, rows.size());
+        assertEquals(3, rows.getColumnCount());
+        assertEquals(3, rowsNode.getResultColumns().size());
+        assertEquals(CompactConstantList.Kind.LONG, rows.getKind(0));
+        assertEquals(CompactConstantList.Kind.STRING, rows.getKind(1));
+        assertEquals(CompactConstantList.Kind.LONG, rows.getKind(2));
+        assertEquals(-10, rows.getLong(0, 0));
+        assertEquals("b999", rows.getString(999, 1));
+        assertTrue(rows.isNull(999, 2));
+        assertEquals(998000000000L, rows.getLong(998, 2));
+        for (int i : new int[] { 0, 1, 2, 500, 999 }) {
+            assertFalse(rows.isMaterialized(i));
+            ResultColumnList columns = rows.get(i).getResultColumns();
+            StringBuilder row = new StringBuilder();
+            for (int j = 0; j < 3; j++) {
+                if (j > 0) row.append(", ");
+                row.append(new NodeToString().toString(columns.get(j).getExpression()));
+            }
+            StatementNode one = new SQLParser().parseStatement("VALUES (" + row + ")");
+            ResultColumnList expected = ((RowResultSetNode)((CursorNode)one).getResultSetNode()).getResultColumns();
+            for (int j = 0; j < 3; j++) {
+                ConstantNode c1 = (ConstantNode)columns.get(j).getExpression();
+                ConstantNode c2 = (ConstantNode)expected.get(j).getExpression();
+                assertEquals(c2.getNodeType(), c1.getNodeType());
+                assertEquals(c2.getValue(), c1.getValue());
+                assertEquals(c2.getType(), c1.getType());
+            }
+            assertTrue(rows.isMaterialized(i));
+        }
+        assertSame(rows.get(5), rows.get(5));
+    }
+
+    @Test
+    public void testNotCompact() throws StandardException {
+        SQLParser parser = new SQLParser();
+        assertNull(rowsNode(parser.parseStatement(insert(15, null))).getCompactRows());
+        assertNull(rowsNode(parser.parseStatement(insert(10, "(1, 'x', 2)"))).getCompactRows());
+        assertNull(rowsNode(parser.parseStatement(insert(100, "(1, 2, 3)"))).getCompactRows());
+        assertNull(rowsNode(parser.parseStatement(insert(100, "(1, 'x', ?)"))).getCompactRows());
+
+        // Later rows that do not fit are added as nodes.
+        StatementNode stmt = parser.parseStatement(insert(100, "(1 + 2, 'x', 3)"));
+        RowsResultSetNode rowsNode = rowsNode(stmt);
+        assertNull(rowsNode.getCompactRows());
+        assertEquals(101, rowsNode.getRows().size());
+        assertTrue(new NodeToString().toString(stmt).endsWith(", ((1 + 2), 'x', 3)"));
+
+        // A single column ending in an expression.
+        StringBuilder str = new StringBuilder("VALUES");
+        for (int i = 0; i < 20; i++)
+            str.append((i > 0) ? ", (" : "(").append(i).append(")");
+        CursorNode values = (CursorNode)parser.parseStatement(str.toString());
+        assertNotNull(((RowsResultSetNode)values.getResultSetNode()).getCompactRows());
+        values = (CursorNode)parser.parseStatement(str + " + 1");
+        RowsResultSetNode rowsNode2 = (RowsResultSetNode)values.getResultSetNode();
+        assertNull(rowsNode2.getCompactRows());
+        assertEquals(20, rowsNode2.getRows().size());
+    }
+
+    @Test
+    public void testCopyAndVisit() throws StandardException {
+        SQLParser parser = new SQLParser();
+        StatementNode stmt = parser.parseStatement(insert(100, null));
+        NodeToString unparser = new NodeToString();
+        String expected = unparser.toString(stmt);
+        StatementNode copy = (StatementNode)parser.getNodeFactory().copyNode(stmt, parser);
+        CompactRowList rows = rowsNode(copy).getCompactRows();
+        assertNotNull(rows);
+        assertEquals(expected, unparser.toString(copy));
+
+        // Only rows in which a node is replaced are kept.
+        copy.accept(new Visitor() {
+                public Visitable visit(Visitable node) throws StandardException {
+                    if ((node instanceof ConstantNode) &&
+                        "b42".equals(((ConstantNode)node).getValue()))
+                        return (Visitable)((QueryTreeNode)node).getNodeFactory()
+                            .getNode(NodeTypes.PARAMETER_NODE, 0,
+                                     null, ((QueryTreeNode)node).getParserContext());
+                    return node;
+                }
+                public boolean visitChildrenFirst(Visitable node) {
+                    return false;
+                }
+                public boolean stopTraversal() {
+                    return false;
+                }
+                public boolean skipChildren(Visitable node) {
+                    return false;
+                }
+            });
+        assertSame(rows, rowsNode(copy).getCompactRows());
+        assertTrue(rows.isMaterialized(42));
+        assertFalse(rows.isMaterialized(41));
+        assertEquals(expected.replace("'b42'", "$1"), unparser.toString(copy));
+        assertEquals(expected, unparser.toString(stmt));
+
+        // Computing types gives each column the type of its value,
+        // which is noted for the column rather than keeping the rows.
+        new TypeComputer().compute(copy);
+        for (int i = 0; i < 100; i++)
+            assertEquals(i == 42, rows.isMaterialized(i));
+        for (int i : new int[] { 0, 42, 50, 99 }) {
+            ResultColumnList columns = rows.get(i).getResultColumns();
+            for (int j = 0; j < 3; j++) {
+                ResultColumn column = columns.get(j);
+                assertEquals(column.getExpression().getType(), column.getType());
+            }
+            assertNotNull(columns.get(0).getType());
+        }
+
+        // Other changes in place keep the row.
+        copy.accept(new Visitor() {
+                public Visitable visit(Visitable node) throws StandardException {
+                    if ((node instanceof ConstantNode) &&
+                        "b60".equals(((ConstantNode)node).getValue()))
+                        ((ConstantNode)node).setValue("x");
+                    return node;
+                }
+                public boolean visitChildrenFirst(Visitable node) {
+                    return false;
+                }
+                public boolean stopTraversal() {
+                    return false;
+                }
+                public boolean skipChildren(Visitable node) {
+                    return false;
+                }
+            });
+        assertFalse(rows.isMaterialized(59));
+        assertTrue(rows.isMaterialized(60));
+        assertEquals("x", ((ConstantNode)rows.get(60).getResultColumns().get(1)
+                           .getExpression()).getValue());
+    }
+}
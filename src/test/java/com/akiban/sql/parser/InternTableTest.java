@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.TestBase;
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.io.File;
+
+public class InternTableTest
+{
+    private static ResultColumnList resultColumns(StatementNode stmt) {
+        return ((SelectNode)((CursorNode)stmt).getResultSetNode()).getResultColumns();
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        SQLParser parser = new SQLParser();
+        parser.setInterning(true);
+        StatementNode stmt = parser.parseStatement(
+            "SELECT t.a, t.a, \"a\", 'x', 'x', 1, 1, CAST(b AS VARCHAR(10)), CAST(c AS VARCHAR(10)) FROM t");
+        ResultColumnList rcs = resultColumns(stmt);
+        ColumnReference a1 = (ColumnReference)rcs.get(0).getExpression();
+        ColumnReference a2 = (ColumnReference)rcs.get(1).getExpression();
+        ColumnReference a3 = (ColumnReference)rcs.get(2).getExpression();
+        // Nodes are still separate.
+        assertNotSame(a1, a2);
+        assertNotSame(a1.getTableNameNode(), a2.getTableNameNode());
+        assertSame(a1.getColumnName(), a2.getColumnName());
+        assertSame(a1.getColumnName(), a3.getColumnName());
+        assertSame(a1.getTableName(), a2.getTableName());
+        assertSame(((ConstantNode)rcs.get(3).getExpression()).getValue(),
+                   ((ConstantNode)rcs.get(4).getExpression()).getValue());
+        assertSame(((ConstantNode)rcs.get(5).getExpression()).getValue(),
+                   ((ConstantNode)rcs.get(6).getExpression()).getValue());
+        assertSame(((CastNode)rcs.get(7).getExpression()).getType(),
+                   ((CastNode)rcs.get(8).getExpression()).getType());
+        InternTable internTable = parser.getInternTable();
+        assertTrue(internTable.getHits() >= 7);
+        assertTrue(internTable.getBytesSaved() > 0);
+        // Per parse.
+        parser.parseStatement("SELECT x FROM u");
+        assertEquals(0, internTable.getHits());
+    }
+
+    @Test
+    public void testOff() throws Exception {
+        SQLParser parser = new SQLParser();
+        StatementNode stmt = parser.parseStatement("SELECT 1000, 1000 FROM t");
+        ResultColumnList rcs = resultColumns(stmt);
+        assertNotSame(((ConstantNode)rcs.get(0).getExpression()).getValue(),
+                      ((ConstantNode)rcs.get(1).getExpression()).getValue());
+        assertNull(parser.getInternTable());
+        // Goes along with the other settings.
+        parser.setInterning(true);
+        assertTrue(new SQLParserConfig(parser).newParser().isInterning());
+    }
+
+    @Test
+    public void testParserCases() throws Exception {
+        SQLParser parser = new SQLParser();
+        SQLParser interning = new SQLParser();
+        interning.setInterning(true);
+        NodeToString unparser = new NodeToString();
+        File dir = new File("src/test/resources/com/akiban/sql/parser");
+        for (File sqlFile : TestBase.listSQLFiles(dir)) {
+            String sql = TestBase.fileContents(sqlFile);
+            StatementNode stmt;
+            try {
+                stmt = parser.parseStatement(sql);
+            }
+            catch (StandardException ex) {
+                continue;
+            }
+            assertEquals(sqlFile.getName(),
+                         unparser.toString(stmt),
+                         unparser.toString(interning.parseStatement(sql)));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.TestBase;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.io.File;
+
+public class NodeTypesVisitorTest
+{
+    static final Class[] CLASSES = {
+        SubqueryNode.class, AggregateNode.class, ParameterNode.class,
+        ConstantNode.class, BinaryOperatorNode.class, JoinNode.class,
+        FromSubquery.class, CastNode.class, WindowFunctionNode.class,
+        ResultColumn.class
+    };
+
+    /** {@link HasNodeVisitor}, but looking everywhere. */
+    static boolean hasNode(QueryTreeNode tree, final Class nodeClass)
+            throws StandardException {
+        final boolean[] found = new boolean[1];
+        tree.accept(new Visitor() {
+                public Visitable visit(Visitable node) {
+                    if (nodeClass.isInstance(node))
+                        found[0] = true;
+                    return node;
+                }
+                public boolean visitChildrenFirst(Visitable node) {
+                    return false;
+                }
+                public boolean stopTraversal() {
+                    return false;
+                }
+                public boolean skipChildren(Visitable node) {
+                    return false;
+                }
+            });
+        return found[0];
+    }
+
+    static void assertSameAsFullWalk(String caseName, QueryTreeNode tree)
+            throws StandardException {
+        for (Class nodeClass : CLASSES) {
+            HasNodeVisitor visitor = new HasNodeVisitor(nodeClass, true);
+            tree.accept(visitor);
+            assertEquals(caseName + " " + nodeClass.getSimpleName(),
+                         hasNode(tree, nodeClass), visitor.hasNode());
+        }
+    }
+
+    @Test
+    public void testParserCases() throws Exception {
+        SQLParser parser = new SQLParser();
+        File dir = new File("src/test/resources/com/akiban/sql/parser");
+        for (File sqlFile : TestBase.listSQLFiles(dir)) {
+            StatementNode stmt;
+            try {
+                stmt = parser.parseStatement(TestBase.fileContents(sqlFile));
+            }
+            catch (StandardException ex) {
+                continue;
+            }
+            assertSameAsFullWalk(sqlFile.getName(), stmt);
+            // Again, now that the summaries are known.
+            assertSameAsFullWalk(sqlFile.getName(), stmt);
+        }
+    }
+
+    static boolean hasNodeVisitor(QueryTreeNode tree, Class nodeClass)
+            throws StandardException {
+        HasNodeVisitor visitor = new HasNodeVisitor(nodeClass, true);
+        tree.accept(visitor);
+        return visitor.hasNode();
+    }
+
+    private static SelectNode select(StatementNode stmt) {
+        return (SelectNode)((CursorNode)stmt).getResultSetNode();
+    }
+
+    @Test
+    public void testChanges() throws Exception {
+        SQLParser parser = new SQLParser();
+        // Everything is parsed first, since that too changes trees.
+        StatementNode stmt = parser.parseStatement("SELECT a FROM t WHERE b = 1 AND c = 2");
+        ValueNode subquery = select(parser.parseStatement("SELECT 1 FROM t WHERE (SELECT 1) = 1"))
+            .getWhereClause();
+        ResultColumn cast = select(parser.parseStatement("SELECT CAST(a AS INT) FROM t"))
+            .getResultColumns().get(0);
+        SelectNode select = select(stmt);
+        assertFalse(hasNodeVisitor(stmt, SubqueryNode.class));
+        assertFalse(hasNodeVisitor(stmt, CastNode.class));
+        // A setter well below.
+        AndNode and = (AndNode)select.getWhereClause();
+        ((BinaryOperatorNode)and.getRightOperand()).setRightOperand(subquery);
+        assertTrue(hasNodeVisitor(stmt, SubqueryNode.class));
+        // A list.
+        select.getResultColumns().addResultColumn(cast);
+        assertTrue(hasNodeVisitor(stmt, CastNode.class));
+        select.getResultColumns().remove(cast);
+        assertFalse(hasNodeVisitor(stmt, CastNode.class));
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        StringBuilder str = new StringBuilder("SELECT a FROM t WHERE b IN (1");
+        for (int i = 2; i < 1000; i++)
+            str.append(", ").append(i);
+        str.append(") AND c IN (SELECT d FROM u)");
+        SQLParser parser = new SQLParser();
+        StatementNode stmt = parser.parseStatement(str.toString());
+        InListOperatorNode inList = (InListOperatorNode)
+            ((AndNode)select(stmt).getWhereClause()).getLeftOperand();
+        ValueNodeList list = inList.getRightOperandList().getNodeList();
+        assertTrue(hasNodeVisitor(stmt, SubqueryNode.class));
+        assertTrue(hasNodeVisitor(list, NumericConstantNode.class));
+        assertFalse(hasNodeVisitor(list, CharConstantNode.class));
+        // Without making nodes for the elements.
+        assertFalse(list.getCompactConstants().isMaterialized(500));
+        list.set(500, (ValueNode)parser.getNodeFactory()
+                 .getNode(NodeTypes.CHAR_CONSTANT_NODE, "x", parser));
+        assertTrue(hasNodeVisitor(list, CharConstantNode.class));
+        assertTrue(hasNodeVisitor(stmt, CharConstantNode.class));
+        assertNotNull(list.getCompactConstants());
+    }
+
+    @Test
+    public void testChangesStayInTheirTree() throws Exception {
+        SQLParser parser = new SQLParser();
+        StatementNode stmt1 = parser.parseStatement("SELECT a FROM t WHERE b = 1 AND c = 2");
+        StatementNode stmt2 = parser.parseStatement("SELECT a FROM t WHERE b = 1");
+        ValueNode subquery = select(parser.parseStatement("SELECT 1 FROM t WHERE (SELECT 1) = 1"))
+            .getWhereClause();
+        assertFalse(hasNodeVisitor(stmt1, SubqueryNode.class));
+        assertFalse(hasNodeVisitor(stmt2, SubqueryNode.class));
+        AndNode and = (AndNode)select(stmt1).getWhereClause();
+        ValueNode left = and.getLeftOperand();
+        ((BinaryOperatorNode)and.getRightOperand()).setRightOperand(subquery);
+        assertFalse(stmt1.hasCurrentNodeTypes());
+        assertFalse(and.hasCurrentNodeTypes());
+        assertTrue(left.hasCurrentNodeTypes());
+        assertTrue(stmt2.hasCurrentNodeTypes());
+        assertTrue(hasNodeVisitor(stmt1, SubqueryNode.class));
+        // A node in both trees cannot say which to put out of date.
+        select(stmt2).setWhereClause(and);
+        assertTrue(hasNodeVisitor(stmt2, SubqueryNode.class));
+        ((BinaryOperatorNode)left).setRightOperand(subquery);
+        assertFalse(stmt1.hasCurrentNodeTypes());
+        assertFalse(stmt2.hasCurrentNodeTypes());
+    }
+
+    @Test
+    public void testNotAsked() throws Exception {
+        SQLParser parser = new SQLParser();
+        StatementNode stmt = parser.parseStatement("SELECT a FROM t WHERE b = ?");
+        final ValueNode b = ((BinaryOperatorNode)select(stmt).getWhereClause()).getLeftOperand();
+        // Looks for something other than its class.
+        HasNodeVisitor visitor = new HasNodeVisitor(ParameterNode.class) {
+                public Visitable visit(Visitable node) {
+                    if (node == b)
+                        hasNode = true;
+                    return node;
+                }
+            };
+        stmt.accept(visitor);
+        assertTrue(visitor.hasNode());
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+public class ParsedStatementCacheTest
+{
+    private static final String SQL =
+        "SELECT a, b FROM t WHERE c = ? AND d IN (1, 2, ?)";
+
+    @Test
+    public void testHitsAndCopies() throws StandardException {
+        ParsedStatementCache cache = new ParsedStatementCache();
+        SQLParser parser = new SQLParser();
+        StatementNode s1 = cache.parseStatement(parser, SQL);
+        assertEquals(2, parser.getParameterList().size());
+        StatementNode s2 = cache.parseStatement(parser, SQL);
+        assertNotSame(s1, s2);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+        assertEquals(SQL, parser.getSQLText());
+
+        // Parameters must be the ones in the new copy.
+        assertEquals(0, parser.getParameterList().get(0).getParameterNumber());
+        assertEquals(1, parser.getParameterList().get(1).getParameterNumber());
+        assertTrue(containsNode(s2, parser.getParameterList().get(0)));
+        assertTrue(containsNode(s2, parser.getParameterList().get(1)));
+        assertFalse(containsNode(s1, parser.getParameterList().get(0)));
+
+        // Same text as a fresh parse.
+        NodeToString unparser = new NodeToString();
+        String expected = unparser.toString(new SQLParser().parseStatement(SQL));
+        assertEquals(expected, unparser.toString(s2));
+    }
+
+    @Test
+    public void testFeaturesInKey() throws StandardException {
+        ParsedStatementCache cache = new ParsedStatementCache();
+        SQLParser parser = new SQLParser();
+        cache.parseStatement(parser, SQL);
+        parser.getFeatures().remove(SQLParserFeature.INFIX_MOD);
+        cache.parseStatement(parser, SQL);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testLimitsInKey() throws StandardException {
+        ParsedStatementCache cache = new ParsedStatementCache();
+        SQLParser parser = new SQLParser();
+        cache.parseStatement(parser, "SELECT abcdef FROM t WHERE x = 'xyz'");
+        parser.setMaxIdentifierLength(5);
+        try {
+            cache.parseStatement(parser, "SELECT abcdef FROM t WHERE x = 'xyz'");
+            fail("identifier limit not checked");
+        }
+        catch (StandardException ex) {
+        }
+        parser.setMaxIdentifierLength(128);
+        parser.setMaxStringLiteralLength(2);
+        try {
+            cache.parseStatement(parser, "SELECT abcdef FROM t WHERE x = 'xyz'");
+            fail("string literal limit not checked");
+        }
+        catch (StandardException ex) {
+        }
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testNodeFactoryInKey() throws StandardException {
+        ParsedStatementCache cache = new ParsedStatementCache();
+        SQLParser parser = new SQLParser();
+        cache.parseStatement(parser, SQL);
+        parser.setNodeFactory(new NodeFactory() {
+                private final NodeFactory inner = new NodeFactoryImpl();
+                public QueryTreeNode getNode(int nodeType, SQLParserContext pc)
+                        throws StandardException {
+                    return inner.getNode(nodeType, pc);
+                }
+            });
+        cache.parseStatement(parser, SQL);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testInterningInKey() throws StandardException {
+        ParsedStatementCache cache = new ParsedStatementCache();
+        SQLParser parser = new SQLParser();
+        String sql = "SELECT abc FROM t WHERE abc = 1";
+        cache.parseStatement(parser, sql);
+        parser.setInterning(true);
+        SelectNode select = (SelectNode)
+            ((CursorNode)cache.parseStatement(parser, sql)).getResultSetNode();
+        // The same name from the one intern table.
+        assertSame(select.getResultColumns().get(0).getExpression().getColumnName(),
+                   ((BinaryComparisonOperatorNode)select.getWhereClause())
+                   .getLeftOperand().getColumnName());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEviction() throws StandardException {
+        ParsedStatementCache cache = new ParsedStatementCache(2, 1000);
+        SQLParser parser = new SQLParser();
+        cache.parseStatement(parser, "SELECT 1");
+        cache.parseStatement(parser, "SELECT 2");
+        cache.parseStatement(parser, "SELECT 1");
+        cache.parseStatement(parser, "SELECT 3");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        // SELECT 2 was least recently used.
+        cache.parseStatement(parser, "SELECT 1");
+        assertEquals(2, cache.getHitCount());
+        cache.parseStatement(parser, "SELECT 2");
+        assertEquals(4, cache.getMissCount());
+
+        cache = new ParsedStatementCache(100, 20);
+        cache.parseStatement(parser, "SELECT 1 + 2");
+        cache.parseStatement(parser, "SELECT 3 + 4");
+        assertEquals(1, cache.size());
+        assertEquals(12, cache.getWeight());
+        cache.parseStatement(parser, "SELECT 123456789 + 123456789");
+        assertEquals(1, cache.size());
+    }
+
+    private static boolean containsNode(QueryTreeNode tree, final QueryTreeNode node)
+            throws StandardException {
+        HasNodeVisitor visitor = new HasNodeVisitor(ParameterNode.class) {
+                public Visitable visit(Visitable visited) {
+                    if (visited == node)
+                        hasNode = true;
+                    return visited;
+                }
+            };
+        tree.accept(visitor);
+        return visitor.hasNode();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class SQLBatchParserTest
+{
+    @Test
+    public void testSplit() throws Exception {
+        String script = "SELECT ';' FROM t; -- ;\n;/* ; /* ; */ */ SELECT $$ ; $$ ;\n CREATE VIEW v AS SELECT 1";
+        SQLBatchParser batchParser = new SQLBatchParser(new SQLParserPool(new SQLParserConfig()));
+        List<SQLBatchParser.StatementRange> ranges = batchParser.split(script);
+        assertEquals(3, ranges.size());
+        assertEquals(0, ranges.get(0).getBeginOffset());
+        assertEquals(script.indexOf(';', 10) - 1, ranges.get(0).getEndOffset());
+        assertEquals(script.indexOf("SELECT $$"), ranges.get(1).getBeginOffset());
+        assertEquals(script.lastIndexOf("$$") + 1, ranges.get(1).getEndOffset());
+        assertEquals(script.length() - 1, ranges.get(2).getEndOffset());
+    }
+
+    @Test
+    public void testSameAsParseStatements() throws Exception {
+        String script = new SQLScriptParserTest().script();
+        List<StatementNode> expected = new SQLParser().parseStatements(script);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            SQLBatchParser batchParser =
+                new SQLBatchParser(new SQLParserPool(new SQLParserConfig()), executor, 3);
+            List<StatementNode> actual = batchParser.parseStatements(script);
+            assertEquals(expected.size(), actual.size());
+            NodeToString unparser = new NodeToString();
+            for (int i = 0; i < expected.size(); i++) {
+                StatementNode estmt = expected.get(i);
+                StatementNode stmt = actual.get(i);
+                assertEquals(unparser.toString(estmt), unparser.toString(stmt));
+                assertEquals(estmt.getBeginOffset(), stmt.getBeginOffset());
+                assertEquals(estmt.getEndOffset(), stmt.getEndOffset());
+                if (estmt instanceof CreateViewNode)
+                    assertEquals(((CreateViewNode)estmt).getQueryExpression(),
+                                 ((CreateViewNode)stmt).getQueryExpression());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFirstError() throws Exception {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            if ((i == 500) || (i == 900))
+                str.append("SELECT FROM FROM t;\n");
+            else
+                str.append("SELECT a, b\n FROM t WHERE c = ").append(i).append(";\n");
+        }
+        String script = str.toString();
+        SQLParserException expected = null;
+        try {
+            new SQLParser().parseStatements(script);
+        }
+        catch (SQLParserException ex) {
+            expected = ex;
+        }
+        assertNotNull(expected);
+        try {
+            new SQLBatchParser(new SQLParserPool(new SQLParserConfig())).parseStatements(script);
+            fail("error expected");
+        }
+        catch (SQLParserException ex) {
+            assertEquals(expected.getErrorPosition(), ex.getErrorPosition());
+            assertEquals(expected.getMessage(), ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testTreesOutlivePool() throws Exception {
+        String script = "SELECT a FROM t WHERE b = ?;\nSELECT ?, ? FROM u;\nSELECT x FROM t";
+        SQLParserPool pool = new SQLParserPool(new SQLParserConfig());
+        List<StatementNode> stmts = new SQLBatchParser(pool).parseStatements(script);
+        NodeToString unparser = new NodeToString();
+        String[] before = new String[stmts.size()];
+        for (int i = 0; i < before.length; i++)
+            before[i] = unparser.toString(stmts.get(i));
+        // Put the pooled parsers to other uses.
+        List<SQLParser> parsers = new ArrayList<SQLParser>();
+        for (int i = 0; i < 8; i++) {
+            SQLParser parser = pool.acquire();
+            parser.setIdentifierCase(SQLParser.IdentifierCase.LOWER);
+            parser.setMaxIdentifierLength(1);
+            parser.parseStatement("SELECT ?, ?, ?, ? FROM z");
+            parsers.add(parser);
+        }
+        for (SQLParser parser : parsers)
+            pool.release(parser);
+        int[] nparams = { 1, 2, 0 };
+        for (int i = 0; i < before.length; i++) {
+            StatementNode stmt = stmts.get(i);
+            SQLParser context = (SQLParser)stmt.getParserContext();
+            assertFalse(parsers.contains(context));
+            for (int j = 0; j < i; j++)
+                assertNotSame(stmts.get(j).getParserContext(), context);
+            assertEquals(nparams[i], context.getParameterList().size());
+            assertEquals(script.substring(stmt.getBeginOffset(), stmt.getEndOffset() + 1),
+                         context.getSQLText().substring(stmt.getBeginOffset(), stmt.getEndOffset() + 1));
+            assertEquals(before[i], unparser.toString(stmt));
+            assertEquals(before[i], unparser.toString(context.getNodeFactory().copyNode(stmt, context)));
+        }
+    }
+}
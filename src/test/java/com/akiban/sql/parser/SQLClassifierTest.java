@@ -0,0 +1,113 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.parser.SQLClassifier.Category;
+import com.akiban.sql.parser.SQLClassifier.Classification;
+
+import org.junit.Before;
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+public class SQLClassifierTest
+{
+    protected SQLClassifier classifier;
+
+    @Before
+    public void makeClassifier() {
+        classifier = new SQLClassifier(new SQLParser());
+    }
+
+    protected void check(String sql, String expected) throws Exception {
+        assertEquals(sql, expected, classifier.classify(sql).toString());
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        check("SELECT a, b FROM s.t WHERE x = 1", "READ s.t");
+        check("select extract(year from d) from \"My Table\" t", "READ My Table");
+        check("SELECT (SELECT MAX(x) FROM u), trim(leading 'x' from y) FROM t, v", "READ u");
+        check("SELECT * FROM (SELECT * FROM t1) AS x JOIN t2 ON true", "READ t1");
+        check("(SELECT 1 FROM t) UNION (SELECT 2 FROM u)", "READ t");
+        check("VALUES (1, 2)", "READ");
+        check("SELECT * FROM TABLE(f(1)) AS x", "READ");
+        check("WITH w AS (SELECT * FROM t) SELECT * FROM w", "READ t");
+        check("EXPLAIN VERBOSE DELETE FROM t", "READ (EXPLAIN) t");
+        check("COPY t TO STDOUT", "READ t");
+        check("COPY (SELECT a FROM t) TO 'f'", "READ t");
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        Classification result = classifier.classify("INSERT INTO s.t(a, b) SELECT x, y FROM u");
+        assertEquals(Category.WRITE, result.getCategory());
+        assertEquals(StatementType.INSERT, result.getStatementType());
+        assertEquals("s", result.getSchemaName());
+        assertEquals("t", result.getTableName());
+        result = classifier.classify("-- comment\nUPDATE `t` SET a = 1");
+        assertEquals(StatementType.UPDATE, result.getStatementType());
+        assertEquals("t", result.getTableName());
+        result = classifier.classify("DELETE FROM t WHERE a IN (SELECT b FROM u)");
+        assertEquals(StatementType.DELETE, result.getStatementType());
+        assertEquals("t", result.getTableName());
+        check("TRUNCATE TABLE t", "WRITE t");
+        check("COPY t(a, b) FROM STDIN", "WRITE t");
+    }
+
+    @Test
+    public void testOther() throws Exception {
+        check("CREATE TABLE IF NOT EXISTS s.t(a INT)", "DDL s.t");
+        check("CREATE UNIQUE INDEX i ON t(a)", "DDL t");
+        check("CREATE VIEW v AS SELECT * FROM t", "DDL v");
+        check("DROP TABLE IF EXISTS t", "DDL t");
+        check("ALTER TABLE t ADD COLUMN b INT", "DDL t");
+        check("GRANT SELECT ON t TO u", "DDL");
+        check("BEGIN", "TRANSACTION");
+        check("ROLLBACK WORK", "TRANSACTION");
+        check("SET TRANSACTION ISOLATION LEVEL SERIALIZABLE", "TRANSACTION");
+        check("LOCK TABLE t IN SHARE MODE", "TRANSACTION t");
+        check("SET SCHEMA s", "SESSION");
+        check("DECLARE c CURSOR FOR SELECT * FROM t", "CURSOR");
+        check("CALL p(1)", "CALL");
+        check("", "UNKNOWN");
+    }
+
+    @Test
+    public void testIdentifierCase() throws Exception {
+        SQLParser parser = new SQLParser() {
+                public IdentifierCase getIdentifierCase() {
+                    return IdentifierCase.UPPER;
+                }
+            };
+        classifier = new SQLClassifier(parser);
+        check("SELECT * FROM s.t", "READ S.T");
+        check("SELECT * FROM \"s\".t", "READ s.T");
+    }
+
+    @Test
+    public void testLexicalError() throws Exception {
+        try {
+            classifier.classify("SELECT # FROM t");
+            fail("error expected");
+        }
+        catch (SQLParserException ex) {
+            assertEquals(8, ex.getErrorPosition());
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+public class SQLParserPoolTest
+{
+    @Test
+    public void testReuseAndReset() throws StandardException {
+        SQLParserConfig config =
+            new SQLParserConfig(EnumSet.of(SQLParserFeature.INFIX_MOD),
+                                SQLParserContext.IdentifierCase.UPPER,
+                                10, 100,
+                                SQLParserConfig.DEFAULT_NODE_FACTORY_PROVIDER);
+        SQLParserPool pool = new SQLParserPool(config, 1);
+        SQLParser p1 = pool.acquire();
+        assertEquals(SQLParserContext.IdentifierCase.UPPER, p1.getIdentifierCase());
+        assertEquals(EnumSet.of(SQLParserFeature.INFIX_MOD), p1.getFeatures());
+        assertEquals("SELECT A FROM T",
+                     new NodeToString().toString(p1.parseStatement("select a from t")));
+        NodeFactory nodeFactory = p1.getNodeFactory();
+        p1.getFeatures().clear();
+        p1.setMaxIdentifierLength(1000);
+        p1.setNodeFactory(new NodeFactory() {
+                public QueryTreeNode getNode(int nodeType, SQLParserContext pc)
+                        throws StandardException {
+                    throw new StandardException("Not this one");
+                }
+            });
+        SQLParser p2 = pool.acquire();
+        assertNotSame(p1, p2);
+        assertEquals(2, pool.getPeakInUseCount());
+        pool.release(p1);
+        pool.release(p2);
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getDiscardCount());
+        SQLParser p3 = pool.acquire();
+        assertSame(p1, p3);
+        assertEquals(EnumSet.of(SQLParserFeature.INFIX_MOD), p3.getFeatures());
+        assertEquals(10, p3.getMaxIdentifierLength());
+        assertSame(nodeFactory, p3.getNodeFactory());
+        assertNull(p3.getSQLText());
+        assertEquals(3, pool.getAcquireCount());
+        assertEquals(2, pool.getCreateCount());
+        assertEquals(1, pool.getInUseCount());
+        try {
+            p3.parseStatement("SELECT abcdefghijk FROM t");
+            fail("error expected");
+        }
+        catch (StandardException ex) {
+        }
+    }
+
+    @Test
+    public void testConfigFromParser() {
+        SQLParser parser = new SQLParser();
+        parser.getFeatures().add(SQLParserFeature.DOUBLE_QUOTED_STRING);
+        parser.setMaxStringLiteralLength(10);
+        SQLParserConfig config = new SQLParserConfig(parser);
+        parser.getFeatures().clear();
+        assertTrue(config.hasFeature(SQLParserFeature.DOUBLE_QUOTED_STRING));
+        assertTrue(config.hasFeature(SQLParserFeature.INFIX_MOD));
+        assertEquals(10, config.getMaxStringLiteralLength());
+        try {
+            config.getFeatures().clear();
+            fail("unmodifiable expected");
+        }
+        catch (UnsupportedOperationException ex) {
+        }
+    }
+
+    @Test
+    public void testThreads() throws Exception {
+        final SQLParserPool pool = new SQLParserPool(new SQLParserConfig(), 2);
+        final String sql = "SELECT a, b FROM t WHERE c = ? AND d IN (1, 2, ?)";
+        final String expected = new NodeToString().toString(new SQLParser().parseStatement(sql));
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread() {
+                    public void run() {
+                        NodeToString unparser = new NodeToString();
+                        try {
+                            for (int j = 0; j < 100; j++) {
+                                SQLParser parser = pool.acquire();
+                                try {
+                                    StatementNode stmt = parser.parseStatement(sql);
+                                    assertEquals(expected, unparser.toString(stmt));
+                                    assertEquals(2, parser.getParameterList().size());
+                                }
+                                finally {
+                                    pool.release(parser);
+                                }
+                                pool.validate(sql);
+                            }
+                        }
+                        catch (Throwable ex) {
+                            synchronized (errors) {
+                                errors.add(ex);
+                            }
+                        }
+                    }
+                });
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(errors.toString(), 0, errors.size());
+        assertEquals(1600, pool.getAcquireCount());
+        assertEquals(0, pool.getInUseCount());
+        assertTrue(pool.getIdleCount() <= 2);
+        assertEquals(pool.getCreateCount() - pool.getDiscardCount(), pool.getIdleCount());
+    }
+}
@@ -112,6 +112,43 @@ public class SQLParserTest extends TestBase implements TestBase.GenerateAndCheck
         generateAndCheckResult();
     }
 
+    @Test
+    public void testValidate() throws Exception {
+        Exception parseError = null, validateError = null;
+        try {
+            parser.parseStatement(sql);
+        }
+        catch (Exception ex) {
+            parseError = ex;
+        }
+        String sqlText = parser.getSQLText();
+        List<ParameterNode> parameterList = parser.getParameterList();
+        try {
+            parser.validate(sql);
+        }
+        catch (Exception ex) {
+            validateError = ex;
+        }
+        // Still the statement that was parsed.
+        assertSame(caseName, sqlText, parser.getSQLText());
+        assertSame(caseName, parameterList, parser.getParameterList());
+        if (parseError == null) {
+            assertNull(caseName, validateError);
+        }
+        else if (parseError instanceof SQLParserException) {
+            assertTrue(caseName, validateError instanceof SQLParserException);
+            assertEquals(caseName,
+                         ((SQLParserException)parseError).getErrorPosition(),
+                         ((SQLParserException)validateError).getErrorPosition());
+        }
+        else {
+            // Checks of the tree give the same error.
+            assertNotNull(caseName, validateError);
+            assertEquals(caseName, parseError.getClass(), validateError.getClass());
+            assertEquals(caseName, parseError.getMessage(), validateError.getMessage());
+        }
+    }
+
     @Override
     public String generateResult() throws Exception {
         StatementNode stmt = parser.parseStatement(sql);
@@ -0,0 +1,197 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.TestBase;
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+public class SQLScriptParserTest
+{
+    public static final File RESOURCE_DIR =
+        new File("src/test/resources/"
+                 + SQLScriptParserTest.class.getPackage().getName().replace('.', '/'));
+
+    /** All the statements in the parser tests that should parse as one script. */
+    protected String script() throws Exception {
+        StringBuilder str = new StringBuilder();
+        for (File sqlFile : TestBase.listSQLFiles(RESOURCE_DIR)) {
+            if (TestBase.changeSuffix(sqlFile, ".error").exists() ||
+                TestBase.changeSuffix(sqlFile, ".features").exists())
+                continue;
+            String sql = TestBase.fileContents(sqlFile).trim();
+            if (sql.endsWith(";"))
+                sql = sql.substring(0, sql.length() - 1);
+            str.append(sql).append(";\n\t-- ").append(sqlFile.getName()).append("\n");
+        }
+        return str.toString();
+    }
+
+    @Test
+    public void testSameAsParseStatements() throws Exception {
+        String script = script();
+        List<StatementNode> expected = new SQLParser().parseStatements(script);
+        // Small buffer, to exercise discarding and growing.
+        SQLScriptParser scriptParser =
+            new SQLScriptParser(new SQLParser(),
+                                new ReaderCharStream(new StringReader(script), 16));
+        NodeToString unparser = new NodeToString();
+        int index = 0;
+        for (StatementNode stmt : scriptParser) {
+            StatementNode estmt = expected.get(index++);
+            assertEquals(unparser.toString(estmt), unparser.toString(stmt));
+            assertEquals(estmt.getBeginOffset(), stmt.getBeginOffset());
+            assertEquals(estmt.getEndOffset(), stmt.getEndOffset());
+        }
+        assertEquals(expected.size(), index);
+    }
+
+    @Test
+    public void testViewText() throws Exception {
+        String script = "SELECT 1; CREATE VIEW v AS SELECT a FROM t; ;SELECT ?, ?";
+        SQLScriptParser scriptParser =
+            new SQLScriptParser(new SQLParser(), new StringReader(script));
+        assertTrue(scriptParser.nextStatement() instanceof CursorNode);
+        StatementNode view = scriptParser.nextStatement();
+        // The view definition is sliced from the stream.
+        assertEquals("CREATE VIEW v AS SELECT a FROM t",
+                     ((CreateViewNode)view).getQueryExpression());
+        assertEquals(10, view.getBeginOffset());
+        assertEquals(41, view.getEndOffset());
+        assertTrue(scriptParser.nextStatement() instanceof CursorNode);
+        assertEquals(2, scriptParser.getParameterList().size());
+        assertNull(scriptParser.nextStatement());
+        assertNull(scriptParser.nextStatement());
+    }
+
+    @Test
+    public void testErrorPosition() throws Exception {
+        String script = "SELECT 1;\nSELECT 2 FROM FROM t";
+        SQLScriptParser scriptParser =
+            new SQLScriptParser(new SQLParser(), new StringReader(script));
+        assertNotNull(scriptParser.nextStatement());
+        try {
+            scriptParser.nextStatement();
+            fail("error expected");
+        }
+        catch (SQLParserException ex) {
+            assertEquals(script.indexOf("FROM FROM") + 6, ex.getErrorPosition());
+        }
+        assertNull(scriptParser.nextStatement());
+    }
+
+    @Test
+    public void testOffsetLimit() throws Exception {
+        String script = "SELECT 1; SELECT 2; SELECT 3";
+        ReaderCharStream charStream =
+            new ReaderCharStream(new StringReader(script), 16);
+        // As if the third statement went past where int offsets
+        // reach, which looking ahead at the end of the second finds.
+        charStream.maxOffset = script.indexOf("SELECT 3") + 5;
+        SQLScriptParser scriptParser =
+            new SQLScriptParser(new SQLParser(), charStream);
+        assertNotNull(scriptParser.nextStatement());
+        try {
+            scriptParser.nextStatement();
+            fail("error expected");
+        }
+        catch (IOException ex) {
+            assertEquals("Input longer than 26 characters, whose offsets do not fit in a token",
+                         ex.getMessage());
+        }
+        assertNull(scriptParser.nextStatement());
+    }
+
+    @Test
+    public void testLinesAndColumns() throws Exception {
+        String script = "SELECT a,\tb FROM t;\r\nSELECT 'x\ty'\r-- c\n\t\tFROM  u\n;\t" + script();
+        SQLGrammarTokenManager expected = tokenManager(new StringCharStream(script));
+        SQLGrammarTokenManager tokens =
+            tokenManager(new ReaderCharStream(new StringReader(script), 16));
+        while (true) {
+            Token etoken = expected.getNextToken();
+            Token token = tokens.getNextToken();
+            assertEquals(etoken.image, token.image);
+            assertEquals(etoken.beginOffset, token.beginOffset);
+            assertEquals(etoken.beginLine, token.beginLine);
+            assertEquals(etoken.beginColumn, token.beginColumn);
+            assertEquals(etoken.endLine, token.endLine);
+            assertEquals(etoken.endColumn, token.endColumn);
+            if (etoken.kind == SQLGrammarConstants.EOF)
+                break;
+        }
+    }
+
+    private static SQLGrammarTokenManager tokenManager(CharStream charStream) {
+        // Making the grammar reads a token, which needs the features.
+        SQLGrammar grammar =
+            new SQLGrammar(new SQLGrammarTokenManager(null, new StringCharStream("")));
+        grammar.setParserContext(new SQLParser());
+        SQLGrammarTokenManager tokenManager = new SQLGrammarTokenManager(null, charStream);
+        tokenManager.parser = grammar;
+        return tokenManager;
+    }
+
+    @Test
+    public void testCharSequence() throws Exception {
+        String script = script();
+        NodeToString unparser = new NodeToString();
+        List<StatementNode> expected = new SQLParser().parseStatements(script);
+        List<StatementNode> fromBuilder =
+            new SQLParser().parseStatements(new StringBuilder(script));
+        List<StatementNode> fromBuffer =
+            new SQLParser().parseStatements(CharBuffer.wrap(script.toCharArray()));
+        assertEquals(expected.size(), fromBuilder.size());
+        assertEquals(expected.size(), fromBuffer.size());
+        for (int i = 0; i < expected.size(); i++) {
+            String estr = unparser.toString(expected.get(i));
+            assertEquals(estr, unparser.toString(fromBuilder.get(i)));
+            assertEquals(estr, unparser.toString(fromBuffer.get(i)));
+        }
+    }
+
+    @Test
+    public void testByteBuffer() throws Exception {
+        // Multi-byte and supplementary characters, one of which ends up
+        // split across the small buffer.
+        String script = "SELECT 'caf\u00e9' FROM t;CREATE VIEW \"\u65e5\u672c\" AS SELECT 'x\ud83d\ude00y' FROM t";
+        Charset utf8 = Charset.forName("UTF-8");
+        ByteBuffer bytes = ByteBuffer.wrap(script.getBytes(utf8));
+        SQLScriptParser scriptParser =
+            new SQLScriptParser(new SQLParser(),
+                                new ReaderCharStream(new ByteBufferReader(bytes, utf8), 16));
+        NodeToString unparser = new NodeToString();
+        assertEquals("SELECT 'caf\u00e9' FROM t",
+                     unparser.toString(scriptParser.nextStatement()));
+        CreateViewNode view = (CreateViewNode)scriptParser.nextStatement();
+        assertEquals(script.substring(script.indexOf("CREATE")), view.getQueryExpression());
+        assertNull(scriptParser.nextStatement());
+        assertEquals(0, bytes.position());
+    }
+
+}
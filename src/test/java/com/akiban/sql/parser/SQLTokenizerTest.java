@@ -0,0 +1,123 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+package com.akiban.sql.parser;
+
+import com.akiban.sql.TestBase;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SQLTokenizerTest
+{
+    public static final File RESOURCE_DIR =
+        new File("src/test/resources/"
+                 + SQLTokenizerTest.class.getPackage().getName().replace('.', '/'));
+
+    /** Tokens as the parser's own token manager sees them. */
+    protected List<Token> parserTokens(String sql) {
+        StringCharStream charStream = new StringCharStream(sql);
+        SQLGrammarTokenManager tokenManager = new SQLGrammarTokenManager(null, charStream);
+        SQLGrammar parser = new SQLGrammar(tokenManager);
+        parser.setParserContext(new SQLParser());
+        tokenManager.parser = parser;
+        charStream.ReInit(sql);
+        tokenManager.ReInit(charStream);
+        List<Token> result = new ArrayList<Token>();
+        while (true) {
+            Token token = tokenManager.getNextToken();
+            if (token.kind == SQLTokenizer.EOF) break;
+            result.add(token);
+        }
+        return result;
+    }
+
+    @Test
+    public void testSameAsParser() throws Exception {
+        SQLTokenizer tokenizer = new SQLTokenizer(new SQLParser());
+        SQLTokenBuffer buffer = new SQLTokenBuffer(4);
+        for (File sqlFile : TestBase.listSQLFiles(RESOURCE_DIR)) {
+            if (TestBase.changeSuffix(sqlFile, ".features").exists())
+                continue;
+            String sql = TestBase.fileContents(sqlFile);
+            List<Token> expected;
+            try {
+                expected = parserTokens(sql);
+            }
+            catch (TokenMgrError ex) {
+                continue;
+            }
+            tokenizer.reset(sql);
+            for (Token token : expected) {
+                assertTrue(sqlFile.getName(), tokenizer.next());
+                assertEquals(token.kind, tokenizer.getKind());
+                assertEquals(token.beginOffset, tokenizer.getBeginOffset());
+                assertEquals(token.endOffset, tokenizer.getEndOffset());
+                assertEquals(token.image, tokenizer.getImage());
+            }
+            assertFalse(tokenizer.next());
+            assertEquals(expected.size(), tokenizer.tokenize(sql, buffer));
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).kind, buffer.getKind(i));
+                assertEquals(expected.get(i).image, buffer.getImage(i));
+            }
+        }
+    }
+
+    @Test
+    public void testRedact() throws Exception {
+        final String sql = "SELECT a FROM t WHERE b = 'secret' AND c IN (1, 2.5e3) AND d = ?";
+        final StringBuilder str = new StringBuilder();
+        final int[] last = new int[1];
+        SQLTokenizer tokenizer = new SQLTokenizer(new SQLParser());
+        tokenizer.tokenize(sql, new SQLTokenizer.TokenHandler() {
+                public boolean token(int kind, int beginOffset, int endOffset) {
+                    if (SQLTokenizer.isLiteral(kind)) {
+                        str.append(sql, last[0], beginOffset).append('#');
+                        last[0] = endOffset + 1;
+                    }
+                    return true;
+                }
+            });
+        str.append(sql, last[0], sql.length());
+        assertEquals("SELECT a FROM t WHERE b = # AND c IN (#, #) AND d = ?",
+                     str.toString());
+        tokenizer.reset(sql);
+        assertTrue(tokenizer.next());
+        assertTrue(SQLTokenizer.isKeyword(tokenizer.getKind()));
+        assertEquals("\"select\"", SQLTokenizer.getKindName(tokenizer.getKind()));
+        assertTrue(tokenizer.next());
+        assertTrue(SQLTokenizer.isIdentifier(tokenizer.getKind()));
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        SQLTokenizer tokenizer = new SQLTokenizer(new SQLParser());
+        final int[] count = new int[1];
+        tokenizer.tokenize("SELECT 1; SELECT 2", new SQLTokenizer.TokenHandler() {
+                public boolean token(int kind, int beginOffset, int endOffset) {
+                    count[0]++;
+                    return !"\";\"".equals(SQLTokenizer.getKindName(kind));
+                }
+            });
+        assertEquals(3, count[0]);
+    }
+
+}
@@ -78,7 +78,23 @@ public class StringCharStreamTest
 
     @Test
     public void testBackup() {
-        BitSet ns = new BitSet(STRING.length());
+        backupAll(STRING.length());
+    }
+
+    @Test
+    public void testBackupManyLines() {
+        // Enough lines to grow the line index, backing up across them.
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < 8; i++)
+            str.append("a\tb\r\nc\rd\n");
+        closeStreams();
+        s1 = new UCode_CharStream(new StringReader(str.toString()), 1, 1);
+        s2 = new StringCharStream(str);
+        backupAll(str.length());
+    }
+
+    protected void backupAll(int length) {
+        BitSet ns = new BitSet(length);
         ns.set(0);
         while (true) {
             while (true) {
@@ -86,7 +102,7 @@ public class StringCharStreamTest
                 if (c == EOF) break;
             }
             int i = ns.nextClearBit(0);
-            if (i >= STRING.length()) break;
+            if (i >= length) break;
             ns.set(i);
             backup(i);
         }
@@ -0,0 +1,137 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.compiler.BooleanNormalizer;
+import com.akiban.sql.compiler.TypeComputer;
+import com.akiban.sql.unparser.NodeToString;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TreeTraversalTest
+{
+    /** Names the constant of each node visited. */
+    static class Recorder implements Visitor {
+        boolean childrenFirst;
+        List<Object> visited = new ArrayList<Object>();
+
+        Recorder(boolean childrenFirst) {
+            this.childrenFirst = childrenFirst;
+        }
+
+        public Visitable visit(Visitable node) {
+            if (node instanceof NumericConstantNode)
+                visited.add(((NumericConstantNode)node).getValue());
+            else if (node instanceof BinaryOperatorNode)
+                visited.add(((BinaryOperatorNode)node).getOperator());
+            return node;
+        }
+
+        public boolean visitChildrenFirst(Visitable node) {
+            return childrenFirst;
+        }
+        public boolean stopTraversal() {
+            return false;
+        }
+        public boolean skipChildren(Visitable node) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testOrder() throws StandardException {
+        ValueNode expr = ((CursorNode)new SQLParser().parseStatement("SELECT 1 + 2 * 3 FROM t"))
+            .getResultSetNode().getResultColumns().get(0).getExpression();
+        Recorder pre = new Recorder(false);
+        expr.accept(pre);
+        assertEquals("[+, 1, *, 2, 3]", pre.visited.toString());
+        Recorder post = new Recorder(true);
+        expr.accept(post);
+        assertEquals("[1, 2, 3, *, +]", post.visited.toString());
+    }
+
+    @Test
+    public void testReplace() throws StandardException {
+        SQLParser parser = new SQLParser();
+        StatementNode stmt = parser.parseStatement("SELECT 1 + 2 * 3 FROM t");
+        final NodeFactory nodeFactory = parser.getNodeFactory();
+        final SQLParserContext context = parser;
+        stmt.accept(new Recorder(true) {
+                public Visitable visit(Visitable node) {
+                    if (node instanceof NumericConstantNode) {
+                        try {
+                            return nodeFactory.getNode(NodeTypes.INT_CONSTANT_NODE,
+                                                       ((Integer)((NumericConstantNode)node).getValue()) * 10,
+                                                       context);
+                        }
+                        catch (StandardException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                    }
+                    return node;
+                }
+            });
+        assertEquals("SELECT (10 + (20 * 30)) FROM t", new NodeToString().toString(stmt));
+    }
+
+    /** Do all the passes over a long chain of <code>OR</code>s, on a
+     * small stack so that any recursion along it would overflow. The
+     * comparisons are of constants, so that they get types without
+     * binding.
+     */
+    @Test
+    public void testDeepTree() throws Throwable {
+        final int n = 10000;
+        StringBuilder str = new StringBuilder("SELECT a FROM t WHERE ");
+        for (int i = 0; i < n; i++) {
+            if (i > 0)
+                str.append(" OR ");
+            str.append("1 = ").append(i);
+        }
+        final String sql = str.toString();
+        final Throwable[] error = new Throwable[1];
+        final String[] result = new String[1];
+        Thread thread = new Thread(null, new Runnable() {
+                public void run() {
+                    try {
+                        SQLParser parser = new SQLParser();
+                        StatementNode stmt = parser.parseStatement(sql);
+                        stmt = (StatementNode)parser.getNodeFactory().copyNode(stmt, parser);
+                        new TypeComputer().compute(stmt);
+                        stmt = new BooleanNormalizer(parser).normalize(stmt);
+                        result[0] = new NodeToString().toString(stmt);
+                    }
+                    catch (Throwable ex) {
+                        error[0] = ex;
+                    }
+                }
+            }, "deep", 256 * 1024);
+        thread.start();
+        thread.join();
+        if (error[0] != null)
+            throw error[0];
+        assertTrue(result[0].startsWith("SELECT a FROM t WHERE ((1 = 0) OR ((1 = 1) OR "));
+        assertTrue(result[0].contains("((1 = " + (n - 1) + ") OR FALSE)"));
+        assertTrue(result[0].endsWith(") AND TRUE"));
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.parser;
+
+import com.akiban.sql.StandardException;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+public class ValueNodeMapTest
+{
+    private static ValueNode where(SQLParser parser, String condition)
+            throws StandardException {
+        StatementNode stmt = parser.parseStatement("SELECT 1 FROM t WHERE " + condition);
+        return ((SelectNode)((CursorNode)stmt).getResultSetNode()).getWhereClause();
+    }
+
+    @Test
+    public void testEquivalent() throws Exception {
+        SQLParser parser = new SQLParser();
+        String[] conditions = {
+            "a = 1", "a = 2", "a = b", "b = a", "a + 1 > b", "NOT (a < 'x')",
+            "a IN (1, 2, 3)", "a BETWEEN 1 AND 2", "CASE WHEN a = 1 THEN 2 ELSE 3 END = 4",
+            "COALESCE(a, b) IS NULL", "CAST(a AS INT) = 5", "t.a = 1"
+        };
+        ValueNodeMap<Integer> map = new ValueNodeMap<Integer>();
+        for (int i = 0; i < conditions.length; i++)
+            assertNull(map.put(where(parser, conditions[i]), i));
+        assertEquals(conditions.length, map.size());
+        // From separate parses.
+        for (int i = 0; i < conditions.length; i++) {
+            ValueNode node = where(parser, conditions[i]);
+            assertEquals(conditions[i], i, map.get(node).intValue());
+            assertEquals(conditions[i],
+                         map.getKey(node).equivalenceHash(), node.equivalenceHash());
+        }
+        assertFalse(map.containsKey(where(parser, "a = 3")));
+        assertFalse(map.containsKey(where(parser, "a IN (1, 2)")));
+        // Never equivalent, even to itself.
+        ValueNode param = where(parser, "a = ?");
+        map.put(param, -1);
+        assertFalse(map.containsKey(param));
+        assertEquals(0, map.remove(where(parser, "a = 1")).intValue());
+        assertFalse(map.containsKey(where(parser, "a = 1")));
+        assertEquals(conditions.length, map.size());
+    }
+
+    @Test
+    public void testCompactList() throws Exception {
+        StringBuilder str = new StringBuilder("a IN (0");
+        for (int i = 1; i < 1000; i++)
+            str.append(", ").append(i);
+        str.append(")");
+        SQLParser parser = new SQLParser();
+        InListOperatorNode compact = (InListOperatorNode)where(parser, str.toString());
+        InListOperatorNode other = (InListOperatorNode)where(parser, str.toString());
+        ValueNodeList list = other.getRightOperandList().getNodeList();
+        assertNotNull(list.getCompactConstants());
+        int hash = compact.equivalenceHash();
+        // Materializing every element changes nothing.
+        for (int i = 0; i < list.size(); i++)
+            list.get(i);
+        assertEquals(hash, other.equivalenceHash());
+        ValueNodeSet set = new ValueNodeSet();
+        assertTrue(set.add(compact));
+        assertFalse(set.add(other));
+        assertSame(compact, set.find(other));
+        list.set(500, (ValueNode)parser.getNodeFactory()
+                 .getNode(NodeTypes.INT_CONSTANT_NODE, -1, parser));
+        assertFalse(set.contains(other));
+    }
+
+    @Test
+    public void testChanges() throws Exception {
+        SQLParser parser = new SQLParser();
+        BinaryOperatorNode node = (BinaryOperatorNode)where(parser, "a = 1 AND b = 2");
+        ValueNode other = where(parser, "a = 1 AND b = 3");
+        BinaryOperatorNode right = (BinaryOperatorNode)node.getRightOperand();
+        ValueNodeSet set = new ValueNodeSet();
+        set.add(other);
+        assertFalse(set.contains(node));
+        int hash = node.equivalenceHash();
+        ((ConstantNode)right.getRightOperand()).setValue(3);
+        assertTrue(hash != node.equivalenceHash());
+        assertTrue(set.contains(node));
+        right.setRightOperand(where(parser, "c"));
+        assertFalse(set.contains(node));
+    }
+
+    @Test
+    public void testDeep() throws Exception {
+        final int depth = 10000;
+        final StringBuilder str = new StringBuilder("1 = 0");
+        for (int i = 1; i < depth; i++)
+            str.append(" OR 1 = ").append(i);
+        final Object[] result = new Object[1];
+        Thread thread = new Thread(null, new Runnable() {
+                public void run() {
+                    try {
+                        SQLParser parser = new SQLParser();
+                        ValueNode node = where(parser, str.toString());
+                        ValueNode same = where(parser, str.toString());
+                        ValueNode different = where(parser, str + " OR 1 = 0");
+                        ValueNodeSet set = new ValueNodeSet();
+                        set.add(node);
+                        // Without comparing, which is still recursive.
+                        result[0] = (node.equivalenceHash() == same.equivalenceHash()) &&
+                            !set.contains(different);
+                    }
+                    catch (Throwable ex) {
+                        result[0] = ex;
+                    }
+                }
+            }, "deep", 256 * 1024);
+        thread.start();
+        thread.join();
+        if (result[0] instanceof Throwable)
+            throw new AssertionError(result[0]);
+        assertEquals(Boolean.TRUE, result[0]);
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.unparser;
+
+import com.akiban.sql.StandardException;
+import com.akiban.sql.parser.QueryTreeNode;
+import com.akiban.sql.parser.SQLParser;
+import com.akiban.sql.parser.SelectNode;
+import com.akiban.sql.parser.StatementNode;
+
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NodeToStreamTest
+{
+    /** Remembers each piece of text it is given. */
+    static class Pieces implements Appendable {
+        List<String> pieces = new ArrayList<String>();
+
+        public Appendable append(CharSequence csq) {
+            pieces.add(csq.toString());
+            return this;
+        }
+
+        public Appendable append(CharSequence csq, int start, int end) {
+            return append(csq.subSequence(start, end));
+        }
+
+        public Appendable append(char c) {
+            return append(String.valueOf(c));
+        }
+
+        public String toString() {
+            StringBuilder str = new StringBuilder();
+            for (String piece : pieces)
+                str.append(piece);
+            return str.toString();
+        }
+    }
+
+    /** A long chain of operators and a long list are passed on a piece
+     * at a time, with the same text as all at once.
+     */
+    @Test
+    public void testLongStatements() throws Exception {
+        final int n = 20000;
+        StringBuilder chain = new StringBuilder("SELECT a FROM t WHERE ");
+        StringBuilder list = new StringBuilder("SELECT a FROM t WHERE b NOT IN (");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                chain.append(" OR ");
+                list.append(", ");
+            }
+            chain.append("b = ").append(i);
+            list.append("'v").append(i).append("'");
+        }
+        list.append(")");
+        SQLParser parser = new SQLParser();
+        NodeToString unparser = new NodeToString();
+        for (String sql : new String[] { chain.toString(), list.toString() }) {
+            StatementNode stmt = parser.parseStatement(sql);
+            String expected = unparser.toString(stmt);
+            Pieces out = new Pieces();
+            unparser.toString(stmt, out);
+            assertEquals(expected, out.toString());
+            assertTrue(out.pieces.size() > 1);
+        }
+    }
+
+    @Test
+    public void testError() throws Exception {
+        StatementNode stmt = new SQLParser().parseStatement("SELECT a FROM t WHERE b = 1");
+        Appendable out = new Appendable() {
+                public Appendable append(CharSequence csq) throws IOException {
+                    throw new IOException("full");
+                }
+                public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                    throw new IOException("full");
+                }
+                public Appendable append(char c) throws IOException {
+                    throw new IOException("full");
+                }
+            };
+        try {
+            new NodeToString().toString(stmt, out);
+            fail("error expected");
+        }
+        catch (StandardException ex) {
+            assertTrue(ex.getCause() instanceof IOException);
+        }
+    }
+
+    /** Overrides a method as it was before they appended to a buffer. */
+    static class OldUnparser extends NodeToString {
+        protected String selectNode(SelectNode node) throws StandardException {
+            return "SELECT";
+        }
+    }
+
+    @Test
+    public void testOldOverride() throws Exception {
+        try {
+            new OldUnparser();
+            fail("error expected");
+        }
+        catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("selectNode(SelectNode, StringBuilder)"));
+        }
+        // Those that are still the same are fine.
+        new NodeToString() {
+            public String toString(QueryTreeNode node) throws StandardException {
+                return super.toString(node);
+            }
+        };
+    }
+}
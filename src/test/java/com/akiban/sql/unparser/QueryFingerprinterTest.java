@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2012 Akiban Technologies, Inc.  All rights
+ * reserved.
+ *
+ * This program and the accompanying materials are made available
+ * under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * This program may also be available under different license terms.
+ * For more information, see www.akiban.com or contact
+ * licensing@akiban.com.
+ *
+ * Contributors:
+ * Akiban Technologies, Inc.
+ */
+
+package com.akiban.sql.unparser;
+
+import com.akiban.sql.parser.SQLParser;
+import com.akiban.sql.parser.SQLParserContext;
+import com.akiban.sql.parser.StatementNode;
+
+import org.junit.Before;
+import org.junit.Test;
+import static junit.framework.Assert.*;
+
+public class QueryFingerprinterTest
+{
+    protected SQLParser parser;
+    protected QueryFingerprinter fingerprinter;
+
+    @Before
+    public void before() throws Exception {
+        parser = new SQLParser();
+        fingerprinter = new QueryFingerprinter(parser, true);
+    }
+
+    protected String fingerprint(String sql) throws Exception {
+        StatementNode stmt = parser.parseStatement(sql);
+        fingerprinter.fingerprint(stmt);
+        if (fingerprinter.getText() != null)
+            assertEquals(fingerprinter.toString(stmt), fingerprinter.getText());
+        return fingerprinter.getHexString();
+    }
+
+    protected static String list(int size) {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) str.append(", ");
+            str.append(i);
+        }
+        return str.toString();
+    }
+
+    @Test
+    public void testSameShape() throws Exception {
+        String fp = fingerprint("SELECT a FROM t WHERE b = 1 AND c IN (1, 2, 3) LIMIT 10");
+        assertEquals("SELECT a FROM t WHERE (b = ?) AND (c IN (?)) FETCH FIRST ? ROWS ONLY",
+                     fingerprinter.getText());
+        assertEquals(32, fp.length());
+        assertEquals(fp, fingerprint("select a\n  from t\n where b = 'x' and c in (?, 5) limit 5"));
+        assertEquals(fp, fingerprint("SELECT a FROM t WHERE b = 2 AND c IN (" + list(1000) + ") LIMIT 1"));
+        assertEquals(fp, fingerprint("SELECT A FROM T WHERE B = ? AND C IN (4, 5) LIMIT ?"));
+        assertFalse(fp.equals(fingerprint("SELECT a FROM t WHERE b = 1 AND c NOT IN (1, 2, 3) LIMIT 10")));
+        assertFalse(fp.equals(fingerprint("SELECT a FROM t WHERE b = 1 AND c IN (1, d) LIMIT 10")));
+        assertFalse(fp.equals(fingerprint("SELECT a FROM t WHERE b = 1 AND d IN (1, 2, 3) LIMIT 10")));
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) rows.append(", ");
+            rows.append("(").append(i).append(", 'v").append(i).append("')");
+        }
+        String fp = fingerprint("INSERT INTO t VALUES(1, 'a')");
+        assertEquals("INSERT INTO t VALUES(?, ?)", fingerprinter.getText());
+        assertEquals(fp, fingerprint("INSERT INTO t VALUES(1, 'a'), (2, 'b')"));
+        assertEquals(fp, fingerprint("INSERT INTO t VALUES" + rows));
+        assertFalse(fp.equals(fingerprint("INSERT INTO t VALUES(1, 'a'), (2, b)")));
+        assertFalse(fp.equals(fingerprint("INSERT INTO t VALUES(1, 'a', 3)")));
+    }
+
+    @Test
+    public void testIdentifierCase() throws Exception {
+        String lower = fingerprint("SELECT a FROM t");
+        parser.setIdentifierCase(SQLParserContext.IdentifierCase.PRESERVE);
+        fingerprinter = new QueryFingerprinter(parser);
+        String preserved = fingerprint("SELECT a FROM t");
+        assertFalse(lower.equals(preserved));
+        assertFalse(preserved.equals(fingerprint("SELECT A FROM t")));
+        assertEquals(preserved, fingerprint("SELECT a FROM t"));
+        assertNull(fingerprinter.getText());
+    }
+}
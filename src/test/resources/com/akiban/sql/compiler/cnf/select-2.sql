@@ -0,0 +1 @@
+SELECT * FROM t WHERE a = 1 AND b = 2 AND a = 1
\ No newline at end of file
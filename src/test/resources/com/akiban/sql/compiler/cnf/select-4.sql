@@ -0,0 +1 @@
+SELECT * FROM t WHERE NOT (a = 1 OR b = 2 OR a = 1)
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT * FROM t WHERE (a = 1 OR FALSE) AND TRUE
\ No newline at end of file
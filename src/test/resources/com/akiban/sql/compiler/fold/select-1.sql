@@ -0,0 +1 @@
+SELECT 1 + 2 * 3, 10 / 3, 1.5 + 0.25, a + 0, 1 * a, a / 1, b + 1 FROM t
\ No newline at end of file
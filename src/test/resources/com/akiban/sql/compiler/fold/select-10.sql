@@ -0,0 +1 @@
+SELECT * FROM t WHERE 1 = 1 AND a >= 3 AND a > 5 AND b = 1 AND 10 > a AND a <= 12
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT * FROM t WHERE a > 5 AND a = 7 AND b <> 0 AND a <= 7
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT * FROM t WHERE a = 3 AND a > 5
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT * FROM t1 JOIN t2 ON x = y AND x >= 2 AND x > 1
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT a > 1 AND a > 2 FROM t
\ No newline at end of file
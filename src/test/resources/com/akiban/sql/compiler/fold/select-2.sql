@@ -0,0 +1 @@
+SELECT 2147483647 + 1, 1 / 0, a + 0.0 FROM t
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT CAST('5' AS INT), CAST(12 AS VARCHAR(5)), CAST('abc' AS VARCHAR(2)), CAST('x' AS CHAR(3)), CAST(1.0 AS INT) FROM t
\ No newline at end of file
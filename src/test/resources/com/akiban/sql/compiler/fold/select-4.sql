@@ -0,0 +1 @@
+SELECT * FROM t WHERE a = CAST('2' AS INT) + 3
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT CASE WHEN 1 < 2 THEN a ELSE b END, CASE WHEN 'x' <> 'x' THEN a ELSE b END, COALESCE(NULL, COALESCE(NULL, a, 2), b), COALESCE(a, NULL, b) FROM t
\ No newline at end of file
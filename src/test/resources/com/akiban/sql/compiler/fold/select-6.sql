@@ -0,0 +1 @@
+SELECT COALESCE(NULL, 3, a) FROM t
\ No newline at end of file
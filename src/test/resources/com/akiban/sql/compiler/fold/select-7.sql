@@ -0,0 +1 @@
+SELECT * FROM t WHERE 1 = 1 AND (a = 1 OR 2 = 2)
\ No newline at end of file
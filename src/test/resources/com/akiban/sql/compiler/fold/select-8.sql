@@ -0,0 +1 @@
+SELECT * FROM t WHERE a = 1 AND NOT (1 < 2)
\ No newline at end of file
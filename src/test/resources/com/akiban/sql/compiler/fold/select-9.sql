@@ -0,0 +1 @@
+SELECT * FROM t WHERE 'a' < 'b'
\ No newline at end of file
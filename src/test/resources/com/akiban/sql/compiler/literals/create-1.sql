@@ -0,0 +1 @@
+CREATE TABLE t(a INT DEFAULT 5, b VARCHAR(10))
\ No newline at end of file
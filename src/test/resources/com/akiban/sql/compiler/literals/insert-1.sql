@@ -0,0 +1 @@
+INSERT INTO t(a, b) VALUES(1, 'one'), (2, 'two')
\ No newline at end of file
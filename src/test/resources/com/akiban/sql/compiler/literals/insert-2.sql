@@ -0,0 +1 @@
+INSERT INTO t(a, b) VALUES(0, 'k0'), (1, 'k1'), (2, 'k2'), (3, 'k3'), (4, 'k4'), (5, 'k5'), (6, 'k6'), (7, 'k7'), (8, 'k8'), (9, 'k9'), (10, 'k10'), (11, 'k11'), (12, 'k12'), (13, 'k13'), (14, 'k14'), (15, 'k15'), (16, 'k16'), (17, 'k17')
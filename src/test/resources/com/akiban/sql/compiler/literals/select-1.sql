@@ -0,0 +1 @@
+SELECT a, b FROM t WHERE id = 5 AND name = 'abc' AND c IN (1, 2.5, 3) AND d IS TRUE AND e IS NULL
\ No newline at end of file
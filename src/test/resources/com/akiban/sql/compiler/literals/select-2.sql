@@ -0,0 +1 @@
+SELECT x + 1, COUNT(*) FROM t WHERE y > 10 GROUP BY x + 1 HAVING COUNT(*) > 2 ORDER BY 1 LIMIT 10 OFFSET 5
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT * FROM t WHERE a = ? AND b = $3 AND c = 'x' AND d BETWEEN 1 AND 100
\ No newline at end of file
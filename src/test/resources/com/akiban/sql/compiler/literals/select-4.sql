@@ -0,0 +1 @@
+SELECT * FROM t WHERE a IN (SELECT b FROM u WHERE c = 7 LIMIT 1) AND d > DATE '2012-01-01'
\ No newline at end of file
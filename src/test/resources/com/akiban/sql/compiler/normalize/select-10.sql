@@ -0,0 +1 @@
+SELECT * FROM t WHERE c NOT IN (1, 2, 3, 4, 5) OR d = 0
\ No newline at end of file
@@ -0,0 +1 @@
+CREATE TABLE x AS SELECT a, b FROM t WHERE a = ? WITH DATA
\ No newline at end of file
@@ -0,0 +1 @@
+CREATE VIEW v AS SELECT * FROM t WHERE a = ?
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT a FROM t GROUP BY MAX(a)
\ No newline at end of file
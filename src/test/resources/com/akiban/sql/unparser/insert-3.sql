@@ -0,0 +1 @@
+INSERT INTO t(a, b, c) VALUES(NULL, NULL, NULL), (-63, 'v1', NULL), (-26, 'v2', NULL), (+12, 'v3', NULL), (48, 'it''s', NULL), (- 6, 'v5', NULL), (122, 'v6', NULL), (4000000000, 'v7', NULL), (196, 'v8', NULL), (233, 'v9', NULL), (NULL, 'v10', NULL), (307, 'v11', NULL), (344, 'v12', NULL), (381, 'v13', NULL), (418, 'v14', NULL), (NULL, 'v15', NULL), (492, 'v16', NULL), (529, 'v17', NULL), (566, 'v18', NULL), (603, 'v19', NULL)
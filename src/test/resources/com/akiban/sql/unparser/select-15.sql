@@ -0,0 +1 @@
+SELECT a FROM t WHERE b IN (SELECT c FROM u LIMIT 3) ORDER BY a LIMIT 10 OFFSET 20
\ No newline at end of file
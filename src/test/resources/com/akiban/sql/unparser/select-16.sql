@@ -0,0 +1 @@
+SELECT a FROM t WHERE b IN (- 30, -23, -16, -9, -2, 5, 12, 19, 26, 33, 40, 47, 54, 61, 68, 75, 82, 89, 96, 103, +9, 3000000000) AND c NOT IN ('x', 'it''s', 'v0', 'v1', 'v2', 'v3', 'v4', 'v5', 'v6', 'v7', 'v8', 'v9', 'v10', 'v11', 'v12', 'v13', 'v14', 'v15')
\ No newline at end of file